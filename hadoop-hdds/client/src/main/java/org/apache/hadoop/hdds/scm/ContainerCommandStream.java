@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.XceiverClientProtocolServiceGrpc.XceiverClientProtocolServiceStub;
+import org.apache.hadoop.util.Time;
+
+import org.apache.ratis.thirdparty.io.grpc.stub.ClientCallStreamObserver;
+import org.apache.ratis.thirdparty.io.grpc.stub.ClientResponseObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A long-lived gRPC stream to a datanode which carries the commands of many
+ * calls. Each command gets a callId and the datanode answers it with the
+ * same callId, so the responses can arrive in any order. Datanodes which
+ * do not know about callIds answer the commands in order.
+ * <p>
+ * The number of outstanding calls on the stream is limited. A new command
+ * waits while the limit is reached, or while the flow control of the
+ * stream does not accept more data.
+ */
+final class ContainerCommandStream implements
+    ClientResponseObserver<ContainerCommandRequestProto,
+        ContainerCommandResponseProto> {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(ContainerCommandStream.class);
+
+  private final DatanodeDetails datanode;
+  private final int maxOutstandingCalls;
+  private final XceiverClientMetrics metrics;
+
+  // The fields below are guarded by this.
+  private final TreeMap<Long, PendingCall> pendingCalls = new TreeMap<>();
+  private long nextCallId;
+  private ClientCallStreamObserver<ContainerCommandRequestProto>
+      requestObserver;
+  // Why the stream can not be used anymore, null while it is open.
+  private Throwable failure;
+
+  @VisibleForTesting
+  ContainerCommandStream(DatanodeDetails datanode,
+      int maxOutstandingCalls, XceiverClientMetrics metrics) {
+    this.datanode = datanode;
+    this.maxOutstandingCalls = maxOutstandingCalls;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Opens a new stream to the datanode.
+   */
+  static ContainerCommandStream open(XceiverClientProtocolServiceStub stub,
+      DatanodeDetails datanode, int maxOutstandingCalls,
+      XceiverClientMetrics metrics) {
+    ContainerCommandStream stream =
+        new ContainerCommandStream(datanode, maxOutstandingCalls, metrics);
+    stub.send(stream);
+    metrics.incrStreamsOpened();
+    return stream;
+  }
+
+  @Override
+  public void beforeStart(
+      ClientCallStreamObserver<ContainerCommandRequestProto> observer) {
+    synchronized (this) {
+      requestObserver = observer;
+    }
+    observer.setOnReadyHandler(this::wakeUpSenders);
+  }
+
+  /**
+   * Sends the command on the stream.
+   *
+   * @return future of the response of the datanode.
+   * @throws IOException if the stream is closed.
+   * @throws InterruptedException if interrupted while waiting for the stream
+   * to accept the command.
+   */
+  CompletableFuture<ContainerCommandResponseProto> send(
+      ContainerCommandRequestProto request)
+      throws IOException, InterruptedException {
+    CompletableFuture<ContainerCommandResponseProto> future =
+        new CompletableFuture<>();
+    synchronized (this) {
+      if (failure == null && !canSend()) {
+        long blockedSince = Time.monotonicNowNanos();
+        while (failure == null && !canSend()) {
+          wait();
+        }
+        metrics.addBlockedRequest(Time.monotonicNowNanos() - blockedSince);
+      }
+      if (failure != null) {
+        throw new IOException("The stream to datanode " + datanode
+            + " is closed", failure);
+      }
+      long callId = nextCallId++;
+      pendingCalls.put(callId, new PendingCall(request.getCmdType(), future));
+      metrics.incrPendingContainerOpsMetrics(request.getCmdType());
+      requestObserver.onNext(request.toBuilder().setCallId(callId).build());
+    }
+    return future;
+  }
+
+  private boolean canSend() {
+    return pendingCalls.size() < maxOutstandingCalls
+        && requestObserver.isReady();
+  }
+
+  private synchronized void wakeUpSenders() {
+    notifyAll();
+  }
+
+  synchronized boolean isClosed() {
+    return failure != null;
+  }
+
+  /**
+   * Completes the stream. The calls in progress fail if the channel is shut
+   * down before the datanode answers them.
+   */
+  void close() {
+    synchronized (this) {
+      if (failure != null) {
+        return;
+      }
+      failure = new IOException("The stream to datanode " + datanode
+          + " is closed by the client");
+      notifyAll();
+    }
+    requestObserver.onCompleted();
+  }
+
+  @Override
+  public void onNext(ContainerCommandResponseProto response) {
+    PendingCall call;
+    synchronized (this) {
+      if (response.hasCallId()) {
+        call = pendingCalls.remove(response.getCallId());
+      } else {
+        Map.Entry<Long, PendingCall> first = pendingCalls.pollFirstEntry();
+        call = first == null ? null : first.getValue();
+      }
+      notifyAll();
+    }
+    if (call == null) {
+      LOG.warn("Received a {} response for an unknown call {} from {}",
+          response.getCmdType(), response.getCallId(), datanode);
+      return;
+    }
+    call.complete(response);
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    metrics.incrStreamFailures();
+    failPendingCalls(t);
+  }
+
+  @Override
+  public void onCompleted() {
+    failPendingCalls(new IOException("The stream to datanode " + datanode
+        + " is completed"));
+  }
+
+  private void failPendingCalls(Throwable t) {
+    List<PendingCall> calls;
+    synchronized (this) {
+      if (failure == null) {
+        failure = t;
+      }
+      calls = new ArrayList<>(pendingCalls.values());
+      pendingCalls.clear();
+      notifyAll();
+    }
+    if (!calls.isEmpty()) {
+      LOG.debug("Failing {} calls to datanode {}", calls.size(), datanode, t);
+    }
+    for (PendingCall call : calls) {
+      call.fail(t);
+    }
+  }
+
+  /**
+   * A command sent on the stream, which is waiting for its response.
+   */
+  private final class PendingCall {
+    private final ContainerProtos.Type cmdType;
+    private final CompletableFuture<ContainerCommandResponseProto> future;
+    private final long requestTime = Time.monotonicNowNanos();
+
+    private PendingCall(ContainerProtos.Type cmdType,
+        CompletableFuture<ContainerCommandResponseProto> future) {
+      this.cmdType = cmdType;
+      this.future = future;
+    }
+
+    private void complete(ContainerCommandResponseProto response) {
+      updateMetrics();
+      future.complete(response);
+    }
+
+    private void fail(Throwable t) {
+      updateMetrics();
+      future.completeExceptionally(t);
+    }
+
+    private void updateMetrics() {
+      metrics.decrPendingContainerOpsMetrics(cmdType);
+      metrics.addContainerOpsLatency(cmdType,
+          Time.monotonicNowNanos() - requestTime);
+    }
+  }
+}
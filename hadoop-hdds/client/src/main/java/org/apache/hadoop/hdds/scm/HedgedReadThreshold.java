@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * How long a read waits for a datanode before a hedged read is sent to the
+ * next one. The threshold is either fixed, or a percentile of the latency
+ * of the recent reads.
+ */
+final class HedgedReadThreshold {
+
+  // Number of recent latencies the percentile is computed from.
+  static final int WINDOW_SIZE = 1024;
+  // The percentile is recomputed after this many new latencies.
+  private static final int UPDATE_INTERVAL = 64;
+
+  private final long fixedThresholdNanos;
+  private final double percentile;
+
+  // Ring buffer of the recent latencies, guarded by this.
+  private final long[] latencies;
+  private int numLatencies;
+  private int next;
+  private int sinceUpdate;
+  private volatile long thresholdNanos;
+
+  /**
+   * @param fixedThresholdNanos threshold used while the percentile is
+   *                            disabled, or not known yet.
+   * @param percentile percentile of the recent latencies to use as the
+   *                   threshold, 0 to always use the fixed threshold.
+   */
+  HedgedReadThreshold(long fixedThresholdNanos, double percentile) {
+    Preconditions.checkArgument(percentile >= 0 && percentile < 100,
+        "Invalid hedged read percentile: %s", percentile);
+    this.fixedThresholdNanos = fixedThresholdNanos;
+    this.percentile = percentile;
+    this.latencies = percentile > 0 ? new long[WINDOW_SIZE] : null;
+    this.thresholdNanos = fixedThresholdNanos;
+  }
+
+  long getThresholdNanos() {
+    return thresholdNanos;
+  }
+
+  /**
+   * Records the latency of a read which got its response.
+   */
+  void addLatency(long latencyNanos) {
+    if (latencies == null) {
+      return;
+    }
+    synchronized (this) {
+      latencies[next] = latencyNanos;
+      next = (next + 1) % latencies.length;
+      numLatencies = Math.min(numLatencies + 1, latencies.length);
+      if (++sinceUpdate >= UPDATE_INTERVAL
+          && numLatencies >= WINDOW_SIZE / 8) {
+        sinceUpdate = 0;
+        long[] sorted = Arrays.copyOf(latencies, numLatencies);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * numLatencies) - 1;
+        index = Math.max(0, Math.min(index, numLatencies - 1));
+        thresholdNanos = sorted[index];
+      }
+    }
+  }
+}
@@ -47,7 +47,6 @@
 import org.apache.ratis.thirdparty.io.grpc.Status;
 import org.apache.ratis.thirdparty.io.grpc.netty.GrpcSslContexts;
 import org.apache.ratis.thirdparty.io.grpc.netty.NettyChannelBuilder;
-import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.apache.ratis.thirdparty.io.netty.handler.ssl.SslContextBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +55,12 @@
 import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -76,10 +78,16 @@ public class XceiverClientGrpc extends XceiverClientSpi {
   private Map<UUID, XceiverClientProtocolServiceStub> asyncStubs;
   private XceiverClientMetrics metrics;
   private Map<UUID, ManagedChannel> channels;
-  private final Semaphore semaphore;
+  // One stream per datanode, shared by all the calls to the datanode.
+  private final Map<UUID, ContainerCommandStream> streams;
+  private final int maxOutstandingRequests;
   private boolean closed = false;
   private SecurityConfig secConfig;
   private final boolean topologyAwareRead;
+  private final boolean hedgedReadEnabled;
+  private final HedgedReadThreshold hedgedReadThreshold;
+  // Limits the number of reads which have hedged requests at the same time.
+  private final Semaphore hedgedReadPermits;
   private X509Certificate caCert;
   // Cache the DN which returned the GetBlock command so that the ReadChunk
   // command can be sent to the same DN.
@@ -101,14 +109,29 @@ public XceiverClientGrpc(Pipeline pipeline, Configuration config,
     this.pipeline = pipeline;
     this.config = config;
     this.secConfig = new SecurityConfig(config);
-    this.semaphore =
-        new Semaphore(HddsClientUtils.getMaxOutstandingRequests(config));
+    this.maxOutstandingRequests =
+        HddsClientUtils.getMaxOutstandingRequests(config);
     this.metrics = XceiverClientManager.getXceiverClientMetrics();
     this.channels = new HashMap<>();
     this.asyncStubs = new HashMap<>();
+    this.streams = new HashMap<>();
     this.topologyAwareRead = config.getBoolean(
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_KEY,
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_DEFAULT);
+    this.hedgedReadEnabled = config.getBoolean(
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_KEY,
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_ENABLED_DEFAULT);
+    this.hedgedReadThreshold = new HedgedReadThreshold(
+        config.getTimeDuration(
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_KEY,
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_DEFAULT,
+            TimeUnit.NANOSECONDS),
+        config.getDouble(
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_PERCENTILE_KEY,
+            OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_PERCENTILE_DEFAULT));
+    this.hedgedReadPermits = new Semaphore(config.getInt(
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_MAX_CONCURRENT_KEY,
+        OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_MAX_CONCURRENT_DEFAULT));
     this.caCert = caCert;
     this.getBlockDNcache = new ConcurrentHashMap<>();
   }
@@ -190,6 +213,8 @@ private synchronized void connectToDatanode(DatanodeDetails dn,
         XceiverClientProtocolServiceGrpc.newStub(channel);
     asyncStubs.put(dn.getUuid(), asyncStub);
     channels.put(dn.getUuid(), channel);
+    // A stream of the previous channel can not be used anymore.
+    streams.remove(dn.getUuid());
   }
 
   /**
@@ -209,6 +234,9 @@ private boolean isConnected(ManagedChannel channel) {
   @Override
   public synchronized void close() {
     closed = true;
+    for (ContainerCommandStream stream : streams.values()) {
+      stream.close();
+    }
     for (ManagedChannel channel : channels.values()) {
       channel.shutdownNow();
       try {
@@ -305,6 +333,10 @@ private XceiverClientReply sendCommandWithRetry(
       Collections.shuffle(datanodeList);
     }
 
+    if (hedgedReadEnabled && blockID != null && datanodeList.size() > 1) {
+      return sendCommandWithHedging(request, validators, datanodeList);
+    }
+
     for (DatanodeDetails dn : datanodeList) {
       try {
         if (LOG.isDebugEnabled()) {
@@ -353,6 +385,154 @@ private XceiverClientReply sendCommandWithRetry(
     }
   }
 
+  @VisibleForTesting
+  long getHedgedReadThresholdNanos() {
+    return hedgedReadThreshold.getThresholdNanos();
+  }
+
+  /**
+   * Sends a read command to the first datanode of the list. Each time no
+   * response arrives within the hedged read threshold, the command is also
+   * sent to the next datanode, and the first valid response is used. A
+   * failure moves on to the next datanode right away, like the retries of
+   * {@link #sendCommandWithRetry}. The calls still in progress are
+   * cancelled once a response is used.
+   */
+  @VisibleForTesting
+  XceiverClientReply sendCommandWithHedging(
+      ContainerCommandRequestProto request, List<CheckedBiFunction> validators,
+      List<DatanodeDetails> datanodeList) throws IOException {
+    XceiverClientReply reply = new XceiverClientReply(null);
+    Map<CompletableFuture<ContainerCommandResponseProto>, DatanodeDetails>
+        outstanding = new LinkedHashMap<>();
+    Iterator<DatanodeDetails> nextDatanodes = datanodeList.iterator();
+    DatanodeDetails firstDatanode = datanodeList.get(0);
+    IOException ioException = null;
+    boolean hedgedReadAllowed = true;
+    int hedgedReads = 0;
+
+    try {
+      while (!outstanding.isEmpty() || nextDatanodes.hasNext()) {
+        if (outstanding.isEmpty()) {
+          ioException = sendForHedging(request, nextDatanodes.next(),
+              outstanding, reply, ioException);
+          continue;
+        }
+
+        CompletableFuture<Object> anyResponse = CompletableFuture.anyOf(
+            outstanding.keySet().toArray(new CompletableFuture[0]));
+        try {
+          if (hedgedReadAllowed && nextDatanodes.hasNext()) {
+            anyResponse.get(hedgedReadThreshold.getThresholdNanos(),
+                TimeUnit.NANOSECONDS);
+          } else {
+            anyResponse.get();
+          }
+        } catch (TimeoutException e) {
+          if (hedgedReads == 0 && !hedgedReadPermits.tryAcquire()) {
+            // Too many hedged reads, wait for the datanodes already asked.
+            hedgedReadAllowed = false;
+            continue;
+          }
+          hedgedReads++;
+          metrics.incrHedgedReads();
+          DatanodeDetails dn = nextDatanodes.next();
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Sending hedged read {} to datanode {}", request, dn);
+          }
+          ioException = sendForHedging(request, dn, outstanding, reply,
+              ioException);
+          continue;
+        } catch (ExecutionException e) {
+          // The failed call is handled below with the other completed ones.
+        }
+
+        Iterator<Map.Entry<CompletableFuture<ContainerCommandResponseProto>,
+            DatanodeDetails>> calls = outstanding.entrySet().iterator();
+        while (calls.hasNext()) {
+          Map.Entry<CompletableFuture<ContainerCommandResponseProto>,
+              DatanodeDetails> call = calls.next();
+          if (!call.getKey().isDone()) {
+            continue;
+          }
+          calls.remove();
+          DatanodeDetails dn = call.getValue();
+          try {
+            ContainerCommandResponseProto responseProto = call.getKey().get();
+            if (validators != null && !validators.isEmpty()) {
+              for (CheckedBiFunction validator : validators) {
+                validator.apply(request, responseProto);
+              }
+            }
+            if (hedgedReads > 0 && !dn.equals(firstDatanode)) {
+              metrics.incrHedgedReadWins();
+            }
+            reply.setResponse(CompletableFuture.completedFuture(responseProto));
+            return reply;
+          } catch (IOException e) {
+            ioException = e;
+          } catch (ExecutionException e) {
+            LOG.debug("Failed to execute command {} on datanode {}",
+                request, dn.getUuid(), e);
+            if (Status.fromThrowable(e.getCause()).getCode()
+                == Status.UNAUTHENTICATED.getCode()) {
+              throw new SCMSecurityException("Failed to authenticate with "
+                  + "GRPC XceiverServer with Ozone block token.");
+            }
+            ioException = new IOException(e);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while executing command " + request,
+          e);
+    } finally {
+      // The datanodes still answer the cancelled calls, but their responses
+      // are dropped.
+      outstanding.keySet().forEach(call -> call.cancel(false));
+      if (hedgedReads > 0) {
+        hedgedReadPermits.release();
+      }
+    }
+
+    Preconditions.checkNotNull(ioException);
+    LOG.error("Failed to execute command {} on the pipeline {}.", request,
+        pipeline);
+    throw ioException;
+  }
+
+  /**
+   * Sends the command for a hedged read, and adds its future to the
+   * outstanding calls.
+   *
+   * @return the exception of the send, or the previous one if it succeeded.
+   */
+  private IOException sendForHedging(ContainerCommandRequestProto request,
+      DatanodeDetails dn,
+      Map<CompletableFuture<ContainerCommandResponseProto>, DatanodeDetails>
+          outstanding, XceiverClientReply reply, IOException ioException)
+      throws InterruptedException {
+    reply.addDatanode(dn);
+    try {
+      long sendTime = Time.monotonicNowNanos();
+      CompletableFuture<ContainerCommandResponseProto> response =
+          sendCommandAsync(request, dn).getResponse();
+      // A call cancelled after another one won took at least as long as
+      // the winner, so its time till the cancellation is recorded too.
+      // Leaving it out would lower the threshold and hedge more reads.
+      response.whenComplete((r, e) -> {
+        if (e == null || e instanceof CancellationException) {
+          hedgedReadThreshold.addLatency(Time.monotonicNowNanos() - sendTime);
+        }
+      });
+      outstanding.put(response, dn);
+      return ioException;
+    } catch (IOException e) {
+      return e;
+    }
+  }
+
   // TODO: for a true async API, once the waitable future while executing
   // the command on one channel fails, it should be retried asynchronously
   // on the future Task for all the remaining datanodes.
@@ -392,55 +572,30 @@ public XceiverClientReply sendCommandAsync(
     }
   }
 
-  private XceiverClientReply sendCommandAsync(
+  @VisibleForTesting
+  XceiverClientReply sendCommandAsync(
       ContainerCommandRequestProto request, DatanodeDetails dn)
       throws IOException, InterruptedException {
     checkOpen(dn, request.getEncodedToken());
-    UUID dnId = dn.getUuid();
     if (LOG.isDebugEnabled()) {
       LOG.debug("Send command {} to datanode {}",
           request.getCmdType().toString(), dn.getNetworkFullPath());
     }
-    final CompletableFuture<ContainerCommandResponseProto> replyFuture =
-        new CompletableFuture<>();
-    semaphore.acquire();
-    long requestTime = Time.monotonicNowNanos();
-    metrics.incrPendingContainerOpsMetrics(request.getCmdType());
-    // create a new grpc stream for each non-async call.
-
-    // TODO: for async calls, we should reuse StreamObserver resources.
-    final StreamObserver<ContainerCommandRequestProto> requestObserver =
-        asyncStubs.get(dnId)
-            .send(new StreamObserver<ContainerCommandResponseProto>() {
-              @Override
-              public void onNext(ContainerCommandResponseProto value) {
-                replyFuture.complete(value);
-                metrics.decrPendingContainerOpsMetrics(request.getCmdType());
-                metrics.addContainerOpsLatency(request.getCmdType(),
-                    Time.monotonicNowNanos() - requestTime);
-                semaphore.release();
-              }
-
-              @Override
-              public void onError(Throwable t) {
-                replyFuture.completeExceptionally(t);
-                metrics.decrPendingContainerOpsMetrics(request.getCmdType());
-                metrics.addContainerOpsLatency(request.getCmdType(),
-                    Time.monotonicNowNanos() - requestTime);
-                semaphore.release();
-              }
+    return new XceiverClientReply(getStream(dn).send(request));
+  }
 
-              @Override
-              public void onCompleted() {
-                if (!replyFuture.isDone()) {
-                  replyFuture.completeExceptionally(new IOException(
-                      "Stream completed but no reply for request " + request));
-                }
-              }
-            });
-    requestObserver.onNext(request);
-    requestObserver.onCompleted();
-    return new XceiverClientReply(replyFuture);
+  /**
+   * Returns the stream to the datanode, a new one is opened if the previous
+   * one failed.
+   */
+  private synchronized ContainerCommandStream getStream(DatanodeDetails dn) {
+    ContainerCommandStream stream = streams.get(dn.getUuid());
+    if (stream == null || stream.isClosed()) {
+      stream = ContainerCommandStream.open(asyncStubs.get(dn.getUuid()), dn,
+          maxOutstandingRequests, metrics);
+      streams.put(dn.getUuid(), stream);
+    }
+    return stream;
   }
 
   private synchronized void checkOpen(DatanodeDetails dn, String encodedToken)
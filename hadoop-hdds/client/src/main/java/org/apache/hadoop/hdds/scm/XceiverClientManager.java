@@ -25,11 +25,13 @@
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.StorageUnit;
 import org.apache.hadoop.hdds.conf.Config;
 import org.apache.hadoop.hdds.conf.ConfigGroup;
 import org.apache.hadoop.hdds.conf.ConfigType;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.storage.SharedBufferPool;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
 import org.apache.hadoop.hdds.security.exception.SCMSecurityException;
 import org.apache.hadoop.hdds.security.x509.certificate.utils.CertificateCodec;
@@ -76,6 +78,7 @@ public class XceiverClientManager implements Closeable {
   private static XceiverClientMetrics metrics;
   private boolean isSecurityEnabled;
   private final boolean topologyAwareRead;
+  private final SharedBufferPool sharedBufferPool;
   /**
    * Creates a new XceiverClientManager for non secured ozone cluster.
    * For security enabled ozone cluster, client should use the other constructor
@@ -124,6 +127,21 @@ public void onRemoval(
     topologyAwareRead = conf.getBoolean(
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_KEY,
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_DEFAULT);
+    long bufferPoolMaxSize = (long) conf.getStorageSize(
+        OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_MAX_SIZE,
+        OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_MAX_SIZE_DEFAULT,
+        StorageUnit.BYTES);
+    if (bufferPoolMaxSize > 0) {
+      sharedBufferPool = new SharedBufferPool(bufferPoolMaxSize,
+          conf.getBoolean(OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_DIRECT,
+              OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_DIRECT_DEFAULT),
+          conf.getTimeDuration(
+              OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_WAIT_TIMEOUT,
+              OzoneConfigKeys.OZONE_CLIENT_BUFFER_POOL_WAIT_TIMEOUT_DEFAULT,
+              MILLISECONDS), MILLISECONDS);
+    } else {
+      sharedBufferPool = null;
+    }
   }
 
   @VisibleForTesting
@@ -270,6 +288,9 @@ public void close() {
     //closing is done through RemovalListener
     clientCache.invalidateAll();
     clientCache.cleanUp();
+    if (sharedBufferPool != null) {
+      sharedBufferPool.clear();
+    }
 
     if (metrics != null) {
       metrics.unRegister();
@@ -280,6 +301,14 @@ public Function<ByteBuffer, ByteString> byteBufferToByteStringConversion(){
     return ByteStringConversion.createByteBufferConversion(conf);
   }
 
+  /**
+   * Returns the pool of write buffers shared by the output streams of this
+   * client, null if every stream allocates its own buffers.
+   */
+  public SharedBufferPool getSharedBufferPool() {
+    return sharedBufferPool;
+  }
+
   /**
    * Get xceiver client metric.
    */
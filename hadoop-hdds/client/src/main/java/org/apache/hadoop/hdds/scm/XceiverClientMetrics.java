@@ -39,6 +39,12 @@ public class XceiverClientMetrics {
 
   private @Metric MutableCounterLong pendingOps;
   private @Metric MutableCounterLong totalOps;
+  private @Metric MutableCounterLong numStreamsOpened;
+  private @Metric MutableCounterLong numStreamFailures;
+  private @Metric MutableCounterLong numBlockedRequests;
+  private @Metric MutableRate requestBlockedTime;
+  private @Metric MutableCounterLong numHedgedReads;
+  private @Metric MutableCounterLong numHedgedReadWins;
   private MutableCounterLong[] pendingOpsArray;
   private MutableCounterLong[] opsArray;
   private MutableRate[] containerOpsLatency;
@@ -92,6 +98,56 @@ public void addContainerOpsLatency(ContainerProtos.Type type,
     containerOpsLatency[type.ordinal()].add(latencyNanos);
   }
 
+  public void incrStreamsOpened() {
+    numStreamsOpened.incr();
+  }
+
+  public void incrStreamFailures() {
+    numStreamFailures.incr();
+  }
+
+  /**
+   * Records a request which waited before it could be sent on a stream,
+   * because of the limit of outstanding requests or flow control.
+   */
+  public void addBlockedRequest(long blockedNanos) {
+    numBlockedRequests.incr();
+    requestBlockedTime.add(blockedNanos);
+  }
+
+  public void incrHedgedReads() {
+    numHedgedReads.incr();
+  }
+
+  public void incrHedgedReadWins() {
+    numHedgedReadWins.incr();
+  }
+
+  @VisibleForTesting
+  public long getNumHedgedReads() {
+    return numHedgedReads.value();
+  }
+
+  @VisibleForTesting
+  public long getNumHedgedReadWins() {
+    return numHedgedReadWins.value();
+  }
+
+  @VisibleForTesting
+  public long getNumStreamsOpened() {
+    return numStreamsOpened.value();
+  }
+
+  @VisibleForTesting
+  public long getNumStreamFailures() {
+    return numStreamFailures.value();
+  }
+
+  @VisibleForTesting
+  public long getNumBlockedRequests() {
+    return numBlockedRequests.value();
+  }
+
   public long getContainerOpsMetrics(ContainerProtos.Type type) {
     return pendingOpsArray[type.ordinal()].value();
   }
@@ -236,7 +236,7 @@ public void write(byte[] b, int off, int len) throws IOException {
           Math.min(chunkSize - pos % chunkSize, len);
       currentBuffer.put(b, off, writeLen);
       if (!currentBuffer.hasRemaining()) {
-        writeChunk(currentBuffer);
+        writeChunk(currentBuffer, writtenDataLength + writeLen);
       }
       off += writeLen;
       len -= writeLen;
@@ -281,7 +281,7 @@ public void writeOnRetry(long len) throws IOException {
       long writeLen;
       writeLen = Math.min(chunkSize, len);
       if (writeLen == chunkSize) {
-        writeChunk(bufferPool.getBuffer(count));
+        writeChunk(bufferPool.getBuffer(count), writtenDataLength + writeLen);
       }
       len -= writeLen;
       count++;
@@ -440,7 +440,15 @@ public void flush() throws IOException {
   }
 
 
-  private void writeChunk(ChunkBuffer buffer)
+  /**
+   * Writes the data in the buffer as a new chunk.
+   *
+   * @param buffer buffer holding the chunk data from its start
+   * @param endOffset offset in the block right after the last byte of the
+   *                  buffer
+   * @throws IOException if there is an I/O error while performing the call
+   */
+  private void writeChunk(ChunkBuffer buffer, long endOffset)
       throws IOException {
     // This data in the buffer will be pushed to datanode and a reference will
     // be added to the bufferList. Once putBlock gets executed, this list will
@@ -451,7 +459,8 @@ private void writeChunk(ChunkBuffer buffer)
       bufferList = new ArrayList<>();
     }
     bufferList.add(buffer);
-    writeChunkToContainer(buffer.duplicate(0, buffer.position()));
+    writeChunkToContainer(buffer.duplicate(0, buffer.position()),
+        endOffset - buffer.position());
   }
 
   private void handleFlush()
@@ -462,7 +471,7 @@ private void handleFlush()
       final ChunkBuffer currentBuffer = bufferPool.getCurrentBuffer();
       Preconditions.checkArgument(currentBuffer.position() > 0);
       if (currentBuffer.position() != chunkSize) {
-        writeChunk(currentBuffer);
+        writeChunk(currentBuffer, writtenDataLength);
       }
       // This can be a partially filled chunk. Since we are flushing the buffer
       // here, we just limit this buffer to the current position. So that next
@@ -579,11 +588,14 @@ public boolean isClosed() {
    * Writes buffered data as a new chunk to the container and saves chunk
    * information to be used later in putKey call.
    *
+   * @param chunk chunk data
+   * @param blockOffset offset of the chunk within the block
    * @throws IOException if there is an I/O error while performing the call
    * @throws OzoneChecksumException if there is an error while computing
    * checksum
    */
-  private void writeChunkToContainer(ChunkBuffer chunk) throws IOException {
+  private void writeChunkToContainer(ChunkBuffer chunk, long blockOffset)
+      throws IOException {
     int effectiveChunkSize = chunk.remaining();
     final ByteString data = chunk.toByteString(
         bufferPool.byteStringConversion());
@@ -593,6 +605,7 @@ private void writeChunkToContainer(ChunkBuffer chunk) throws IOException {
         .setChunkName(blockID.getLocalID() + "_chunk_" + ++chunkIndex)
         .setOffset(0)
         .setLen(effectiveChunkSize)
+        .setBlockOffset(blockOffset)
         .setChecksumData(checksumData.getProtoBufMessage())
         .build();
 
@@ -601,6 +614,9 @@ private void writeChunkToContainer(ChunkBuffer chunk) throws IOException {
           writeChunkAsync(xceiverClient, chunkInfo, blockID, data);
       CompletableFuture<ContainerProtos.ContainerCommandResponseProto> future =
           asyncReply.getResponse();
+      // The data may not be copied, the buffer must not be reused until the
+      // write is completed.
+      bufferPool.addPendingWrite(future);
       future.thenApplyAsync(e -> {
         try {
           validateResponse(e);
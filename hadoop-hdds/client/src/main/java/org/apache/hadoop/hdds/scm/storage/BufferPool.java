@@ -23,13 +23,23 @@
 import org.apache.hadoop.ozone.common.ChunkBuffer;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
- * This class creates and manages pool of n buffers.
+ * This class creates and manages pool of n buffers. Buffers are taken from
+ * the {@link SharedBufferPool} of the client if one is given, and returned
+ * to it once the pool is cleared and the writes reading them are completed.
+ * A pool waits for the shared pool at most once: after the wait timed out,
+ * the buffers the shared pool can not give right away are allocated by this
+ * pool itself.
  */
 public class BufferPool {
 
@@ -38,6 +48,13 @@ public class BufferPool {
   private final int bufferSize;
   private final int capacity;
   private final Function<ByteBuffer, ByteString> byteStringConversion;
+  private final SharedBufferPool sharedBufferPool;
+  // Writes in flight, which may still read the data of the buffers.
+  private final List<CompletableFuture<?>> pendingWrites = new ArrayList<>();
+  // Buffers which were not taken from the shared pool.
+  private final Set<ChunkBuffer> ownBuffers =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  private boolean waitForSharedBuffers = true;
 
   public BufferPool(int bufferSize, int capacity) {
     this(bufferSize, capacity,
@@ -46,11 +63,18 @@ public BufferPool(int bufferSize, int capacity) {
 
   public BufferPool(int bufferSize, int capacity,
       Function<ByteBuffer, ByteString> byteStringConversion){
+    this(bufferSize, capacity, byteStringConversion, null);
+  }
+
+  public BufferPool(int bufferSize, int capacity,
+      Function<ByteBuffer, ByteString> byteStringConversion,
+      SharedBufferPool sharedBufferPool) {
     this.capacity = capacity;
     this.bufferSize = bufferSize;
     bufferList = new ArrayList<>(capacity);
     currentBufferIndex = -1;
     this.byteStringConversion = byteStringConversion;
+    this.sharedBufferPool = sharedBufferPool;
   }
 
   public Function<ByteBuffer, ByteString> byteStringConversion(){
@@ -71,7 +95,7 @@ ChunkBuffer getCurrentBuffer() {
    * chunk size.
    *
    */
-  public ChunkBuffer allocateBufferIfNeeded() {
+  public ChunkBuffer allocateBufferIfNeeded() throws InterruptedIOException {
     ChunkBuffer buffer = getCurrentBuffer();
     if (buffer != null && buffer.hasRemaining()) {
       return buffer;
@@ -79,7 +103,7 @@ public ChunkBuffer allocateBufferIfNeeded() {
     if (currentBufferIndex < bufferList.size() - 1) {
       buffer = getBuffer(currentBufferIndex + 1);
     } else {
-      buffer = ChunkBuffer.allocate(bufferSize);
+      buffer = allocateBuffer();
       bufferList.add(buffer);
     }
     Preconditions.checkArgument(bufferList.size() <= capacity);
@@ -90,6 +114,20 @@ public ChunkBuffer allocateBufferIfNeeded() {
     return buffer;
   }
 
+  private ChunkBuffer allocateBuffer() throws InterruptedIOException {
+    if (sharedBufferPool == null) {
+      return ChunkBuffer.allocate(bufferSize);
+    }
+    ChunkBuffer buffer =
+        sharedBufferPool.acquire(bufferSize, waitForSharedBuffers);
+    if (buffer == null) {
+      waitForSharedBuffers = false;
+      buffer = ChunkBuffer.allocate(bufferSize);
+      ownBuffers.add(buffer);
+    }
+    return buffer;
+  }
+
   void releaseBuffer(ChunkBuffer chunkBuffer) {
     // always remove from head of the list and append at last
     final ChunkBuffer buffer = bufferList.remove(0);
@@ -101,11 +139,58 @@ void releaseBuffer(ChunkBuffer chunkBuffer) {
     currentBufferIndex--;
   }
 
+  /**
+   * Registers a write which reads the data of the buffers without copying
+   * it, until the given future is completed.
+   */
+  void addPendingWrite(CompletableFuture<?> future) {
+    if (sharedBufferPool != null) {
+      pendingWrites.removeIf(CompletableFuture::isDone);
+      pendingWrites.add(future);
+    }
+  }
+
+  /**
+   * Clears the pool. The buffers are returned to the shared pool once the
+   * pending writes are completed, or dropped if one of them failed.
+   */
   public void clearBufferPool() {
+    if (sharedBufferPool != null) {
+      List<ChunkBuffer> buffers = getSharedBuffers();
+      CompletableFuture.allOf(pendingWrites.toArray(new CompletableFuture[0]))
+          .whenComplete((v, e) -> {
+            if (e == null) {
+              buffers.forEach(sharedBufferPool::release);
+            } else {
+              buffers.forEach(sharedBufferPool::discard);
+            }
+          });
+      pendingWrites.clear();
+    }
     bufferList.clear();
     currentBufferIndex = -1;
   }
 
+  /**
+   * Clears the pool after a failed write. The buffers are not returned to
+   * the shared pool, as writes in flight may still read them.
+   */
+  public void discardBufferPool() {
+    if (sharedBufferPool != null) {
+      getSharedBuffers().forEach(sharedBufferPool::discard);
+      pendingWrites.clear();
+    }
+    bufferList.clear();
+    currentBufferIndex = -1;
+  }
+
+  private List<ChunkBuffer> getSharedBuffers() {
+    List<ChunkBuffer> buffers = new ArrayList<>(bufferList);
+    buffers.removeIf(ownBuffers::contains);
+    ownBuffers.clear();
+    return buffers;
+  }
+
   public void checkBufferPoolEmpty() {
     Preconditions.checkArgument(computeBufferData() == 0);
   }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.ozone.common.ChunkBuffer;
+import org.apache.hadoop.util.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of chunk buffers shared by all the {@link BufferPool}s of one client,
+ * so that buffers freed by a closed key can be reused by the next one
+ * instead of being garbage collected.
+ *
+ * Free buffers are kept in one list per buffer size. The total size of the
+ * buffers handed out and kept free is limited; writers needing a new buffer
+ * beyond the limit wait until another writer releases one. If no buffer is
+ * released within the wait timeout, the writer gets no buffer from the pool
+ * and allocates its own, so that a writer holding buffers itself can not
+ * block forever.
+ */
+public class SharedBufferPool {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(SharedBufferPool.class);
+
+  private final long maxBytes;
+  private final boolean direct;
+  private final long waitTimeoutMs;
+  private final SharedBufferPoolMetrics metrics;
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final Map<Integer, Deque<ChunkBuffer>> freeBuffers = new HashMap<>();
+  // size of all buffers currently allocated by the pool, free or in use
+  private long allocatedBytes;
+  private long freeBytes;
+
+  public SharedBufferPool(long maxBytes, boolean direct, long waitTimeout,
+      TimeUnit unit) {
+    Preconditions.checkArgument(maxBytes > 0);
+    this.maxBytes = maxBytes;
+    this.direct = direct;
+    this.waitTimeoutMs = unit.toMillis(waitTimeout);
+    this.metrics = SharedBufferPoolMetrics.getInstance();
+  }
+
+  /**
+   * Returns a cleared buffer of the given size. If the pool is at its limit,
+   * waits for other writers to release buffers, unless wait is false.
+   *
+   * @return the buffer, or null if the pool is at its limit and no buffer
+   * was released within the wait timeout.
+   */
+  public ChunkBuffer acquire(int size, boolean wait)
+      throws InterruptedIOException {
+    lock.lock();
+    try {
+      ChunkBuffer buffer = pollFree(size);
+      if (buffer != null) {
+        metrics.incHits();
+        return buffer;
+      }
+      metrics.incMisses();
+
+      long deadline = Time.monotonicNow() + waitTimeoutMs;
+      while (allocatedBytes + size > maxBytes) {
+        // buffers of other sizes are of no use to this writer
+        if (freeBytes > 0) {
+          discardFree(allocatedBytes + size - maxBytes);
+          continue;
+        }
+        long remaining = deadline - Time.monotonicNow();
+        if (!wait || remaining <= 0) {
+          if (wait) {
+            LOG.warn("No buffer was released in {} ms, the limit of {} " +
+                "bytes is reached", waitTimeoutMs, maxBytes);
+          }
+          return null;
+        }
+        metrics.incWaitingWriters();
+        try {
+          released.await(remaining, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException(
+              "Interrupted while waiting for a buffer");
+        } finally {
+          metrics.decWaitingWriters();
+        }
+        buffer = pollFree(size);
+        if (buffer != null) {
+          return buffer;
+        }
+      }
+
+      allocatedBytes += size;
+      metrics.incAllocatedBytes(size);
+      return ChunkBuffer.wrap(direct ? ByteBuffer.allocateDirect(size)
+          : ByteBuffer.allocate(size));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a buffer acquired from this pool for reuse by other writers.
+   */
+  public void release(ChunkBuffer buffer) {
+    int size = buffer.capacity();
+    lock.lock();
+    try {
+      buffer.clear();
+      freeBuffers.computeIfAbsent(size, k -> new ArrayDeque<>())
+          .push(buffer);
+      freeBytes += size;
+      metrics.incFreeBytes(size);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Drops a buffer acquired from this pool instead of reusing it, as it may
+   * still be read by a write in flight.
+   */
+  public void discard(ChunkBuffer buffer) {
+    int size = buffer.capacity();
+    lock.lock();
+    try {
+      allocatedBytes -= size;
+      metrics.incAllocatedBytes(-size);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Drops all free buffers.
+   */
+  public void clear() {
+    lock.lock();
+    try {
+      discardFree(freeBytes);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ChunkBuffer pollFree(int size) {
+    Deque<ChunkBuffer> buffers = freeBuffers.get(size);
+    ChunkBuffer buffer = buffers == null ? null : buffers.poll();
+    if (buffer != null) {
+      freeBytes -= size;
+      metrics.incFreeBytes(-size);
+    }
+    return buffer;
+  }
+
+  private void discardFree(long bytes) {
+    long discarded = 0;
+    Iterator<Deque<ChunkBuffer>> iterator = freeBuffers.values().iterator();
+    while (discarded < bytes && iterator.hasNext()) {
+      Deque<ChunkBuffer> buffers = iterator.next();
+      while (discarded < bytes && !buffers.isEmpty()) {
+        discarded += buffers.poll().capacity();
+      }
+      if (buffers.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    freeBytes -= discarded;
+    allocatedBytes -= discarded;
+    metrics.incFreeBytes(-discarded);
+    metrics.incAllocatedBytes(-discarded);
+  }
+
+  @VisibleForTesting
+  long getAllocatedBytes() {
+    lock.lock();
+    try {
+      return allocatedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @VisibleForTesting
+  long getFreeBytes() {
+    lock.lock();
+    try {
+      return freeBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
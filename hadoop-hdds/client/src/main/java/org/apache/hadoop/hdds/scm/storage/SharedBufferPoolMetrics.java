@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.metrics2.MetricsSystem;
+import org.apache.hadoop.metrics2.annotation.Metric;
+import org.apache.hadoop.metrics2.annotation.Metrics;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
+import org.apache.hadoop.metrics2.lib.MutableGaugeInt;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
+
+/**
+ * Metrics of the {@link SharedBufferPool}s of the process.
+ */
+@InterfaceAudience.Private
+@Metrics(about = "Client Shared Buffer Pool Metrics", context = "dfs")
+public final class SharedBufferPoolMetrics {
+  public static final String SOURCE_NAME =
+      SharedBufferPoolMetrics.class.getSimpleName();
+
+  private static SharedBufferPoolMetrics instance;
+
+  private @Metric MutableCounterLong numHits;
+  private @Metric MutableCounterLong numMisses;
+  private @Metric MutableCounterLong numWaits;
+  private @Metric MutableGaugeInt numWaitingWriters;
+  private @Metric MutableGaugeLong allocatedBytes;
+  private @Metric MutableGaugeLong freeBytes;
+
+  private SharedBufferPoolMetrics() {
+  }
+
+  public static synchronized SharedBufferPoolMetrics getInstance() {
+    if (instance == null) {
+      DefaultMetricsSystem.initialize(SOURCE_NAME);
+      MetricsSystem ms = DefaultMetricsSystem.instance();
+      instance = ms.register(SOURCE_NAME, "Client Shared Buffer Pool Metrics",
+          new SharedBufferPoolMetrics());
+    }
+    return instance;
+  }
+
+  void incHits() {
+    numHits.incr();
+  }
+
+  void incMisses() {
+    numMisses.incr();
+  }
+
+  void incWaitingWriters() {
+    numWaits.incr();
+    numWaitingWriters.incr();
+  }
+
+  void decWaitingWriters() {
+    numWaitingWriters.decr();
+  }
+
+  void incAllocatedBytes(long delta) {
+    allocatedBytes.incr(delta);
+  }
+
+  void incFreeBytes(long delta) {
+    freeBytes.incr(delta);
+  }
+
+  @VisibleForTesting
+  public long getNumHits() {
+    return numHits.value();
+  }
+
+  @VisibleForTesting
+  public long getNumMisses() {
+    return numMisses.value();
+  }
+
+  @VisibleForTesting
+  public long getNumWaits() {
+    return numWaits.value();
+  }
+
+  @VisibleForTesting
+  public int getNumWaitingWriters() {
+    return numWaitingWriters.value();
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Type;
+import org.apache.ratis.thirdparty.io.grpc.Status;
+import org.apache.ratis.thirdparty.io.grpc.stub.ClientCallStreamObserver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ContainerCommandStream}.
+ */
+public class TestContainerCommandStream {
+
+  private FakeRequestObserver requestObserver;
+  private ContainerCommandStream stream;
+
+  @Before
+  public void setup() {
+    requestObserver = new FakeRequestObserver();
+    stream = createStream(16);
+  }
+
+  private ContainerCommandStream createStream(int maxOutstandingCalls) {
+    DatanodeDetails datanode = DatanodeDetails.newBuilder()
+        .setUuid(UUID.randomUUID().toString())
+        .build();
+    ContainerCommandStream commandStream = new ContainerCommandStream(
+        datanode, maxOutstandingCalls,
+        XceiverClientManager.getXceiverClientMetrics());
+    commandStream.beforeStart(requestObserver);
+    return commandStream;
+  }
+
+  @Test
+  public void testResponsesOutOfOrder() throws Exception {
+    List<CompletableFuture<ContainerCommandResponseProto>> futures =
+        new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      futures.add(stream.send(createRequest()));
+    }
+    List<ContainerCommandRequestProto> requests = requestObserver.getSent();
+    Assert.assertEquals(3, requests.size());
+
+    // The datanode answers the calls in reverse order.
+    for (int i = 2; i >= 0; i--) {
+      stream.onNext(createResponse(requests.get(i)));
+    }
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(requests.get(i).getCallId(),
+          futures.get(i).get().getCallId());
+    }
+  }
+
+  @Test
+  public void testResponsesWithoutCallId() throws Exception {
+    CompletableFuture<ContainerCommandResponseProto> first =
+        stream.send(createRequest());
+    CompletableFuture<ContainerCommandResponseProto> second =
+        stream.send(createRequest());
+
+    // A datanode without callIds answers the calls in order.
+    ContainerCommandResponseProto response = createResponse(
+        requestObserver.getSent().get(0)).toBuilder().clearCallId().build();
+    stream.onNext(response);
+    Assert.assertEquals(response, first.get());
+    Assert.assertFalse(second.isDone());
+  }
+
+  @Test
+  public void testOutstandingCallsLimit() throws Exception {
+    stream = createStream(1);
+    stream.send(createRequest());
+
+    CompletableFuture<Void> blockedSend = CompletableFuture.runAsync(() -> {
+      try {
+        stream.send(createRequest());
+      } catch (IOException | InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    Thread.sleep(100);
+    Assert.assertFalse(blockedSend.isDone());
+    Assert.assertEquals(1, requestObserver.getSent().size());
+
+    stream.onNext(createResponse(requestObserver.getSent().get(0)));
+    blockedSend.get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(2, requestObserver.getSent().size());
+  }
+
+  @Test
+  public void testCancelledByDatanode() throws Exception {
+    CompletableFuture<ContainerCommandResponseProto> future =
+        stream.send(createRequest());
+
+    stream.onError(Status.CANCELLED.asRuntimeException());
+    assertFailed(future);
+    Assert.assertTrue(stream.isClosed());
+    try {
+      stream.send(createRequest());
+      Assert.fail("A closed stream should not accept commands");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCompletedWhileCallsInProgress() throws Exception {
+    CompletableFuture<ContainerCommandResponseProto> answered =
+        stream.send(createRequest());
+    CompletableFuture<ContainerCommandResponseProto> inProgress =
+        stream.send(createRequest());
+    stream.onNext(createResponse(requestObserver.getSent().get(0)));
+
+    stream.onCompleted();
+    Assert.assertEquals(Result.SUCCESS, answered.get().getResult());
+    assertFailed(inProgress);
+    Assert.assertTrue(stream.isClosed());
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    stream.close();
+    Assert.assertTrue(requestObserver.isCompleted());
+    Assert.assertTrue(stream.isClosed());
+    try {
+      stream.send(createRequest());
+      Assert.fail("A closed stream should not accept commands");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  private static void assertFailed(
+      CompletableFuture<ContainerCommandResponseProto> future)
+      throws InterruptedException {
+    try {
+      future.get();
+      Assert.fail("The call should have failed");
+    } catch (ExecutionException e) {
+      // expected
+    }
+  }
+
+  private static ContainerCommandRequestProto createRequest() {
+    return ContainerCommandRequestProto.newBuilder()
+        .setCmdType(Type.ReadChunk)
+        .setContainerID(1)
+        .setDatanodeUuid(UUID.randomUUID().toString())
+        .build();
+  }
+
+  private static ContainerCommandResponseProto createResponse(
+      ContainerCommandRequestProto request) {
+    return ContainerCommandResponseProto.newBuilder()
+        .setCmdType(request.getCmdType())
+        .setResult(Result.SUCCESS)
+        .setCallId(request.getCallId())
+        .build();
+  }
+
+  /**
+   * Records the commands sent on the stream, which is always ready.
+   */
+  private static final class FakeRequestObserver
+      extends ClientCallStreamObserver<ContainerCommandRequestProto> {
+
+    private final List<ContainerCommandRequestProto> sent = new ArrayList<>();
+    private boolean completed;
+
+    synchronized List<ContainerCommandRequestProto> getSent() {
+      return new ArrayList<>(sent);
+    }
+
+    synchronized boolean isCompleted() {
+      return completed;
+    }
+
+    @Override
+    public synchronized void onNext(ContainerCommandRequestProto request) {
+      sent.add(request);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+      completed = true;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+    }
+
+    @Override
+    public void request(int count) {
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+    }
+
+    @Override
+    public void cancel(String message, Throwable cause) {
+    }
+  }
+}
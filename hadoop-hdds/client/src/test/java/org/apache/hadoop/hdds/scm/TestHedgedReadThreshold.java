@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link HedgedReadThreshold}.
+ */
+public class TestHedgedReadThreshold {
+
+  @Test
+  public void testFixedThreshold() {
+    HedgedReadThreshold threshold = new HedgedReadThreshold(500, 0);
+    for (int i = 0; i < HedgedReadThreshold.WINDOW_SIZE; i++) {
+      threshold.addLatency(10);
+    }
+    Assert.assertEquals(500, threshold.getThresholdNanos());
+  }
+
+  @Test
+  public void testPercentileThreshold() {
+    HedgedReadThreshold threshold = new HedgedReadThreshold(500, 90);
+    // Not enough latencies to compute the percentile yet.
+    for (int i = 1; i <= 64; i++) {
+      threshold.addLatency(i);
+    }
+    Assert.assertEquals(500, threshold.getThresholdNanos());
+
+    for (int i = 65; i <= 1000; i++) {
+      threshold.addLatency(i);
+    }
+    // The last update was after 960 latencies.
+    Assert.assertEquals(864, threshold.getThresholdNanos());
+
+    // The oldest latencies are replaced by the new ones.
+    for (int i = 0; i < HedgedReadThreshold.WINDOW_SIZE; i++) {
+      threshold.addLatency(20);
+    }
+    Assert.assertEquals(20, threshold.getThresholdNanos());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new HedgedReadThreshold(500, 100);
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm;
+
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Type;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the hedged reads of {@link XceiverClientGrpc}.
+ */
+public class TestXceiverClientGrpc {
+
+  private List<DatanodeDetails> datanodes;
+  private OzoneConfiguration conf;
+  // The responses of the datanodes, by container and datanode.
+  private Map<Long, Map<DatanodeDetails,
+      CompletableFuture<ContainerCommandResponseProto>>> responses;
+
+  @Before
+  public void setup() {
+    datanodes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      datanodes.add(DatanodeDetails.newBuilder()
+          .setUuid(UUID.randomUUID().toString())
+          .build());
+    }
+    conf = new OzoneConfiguration();
+    conf.set(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_KEY, "100ms");
+    responses = new HashMap<>();
+  }
+
+  @Test
+  public void testNoHedgedReadForFastDatanode() throws Exception {
+    FakeXceiverClient client = new FakeXceiverClient(conf);
+    ContainerCommandRequestProto request = createRequest(1);
+    respond(request, datanodes.get(0));
+
+    ContainerCommandResponseProto response = client
+        .sendCommandWithHedging(request, null, datanodes)
+        .getResponse().get();
+
+    Assert.assertEquals(1, response.getContainerID());
+    Assert.assertEquals(datanodes.subList(0, 1), client.getSent(1));
+  }
+
+  @Test
+  public void testSlowDatanodeTriggersHedgedRead() throws Exception {
+    FakeXceiverClient client = new FakeXceiverClient(conf);
+    ContainerCommandRequestProto request = createRequest(1);
+    CompletableFuture<ContainerCommandResponseProto> slow =
+        getResponse(request, datanodes.get(0));
+    ContainerCommandResponseProto hedged =
+        respond(request, datanodes.get(1));
+
+    ContainerCommandResponseProto response = client
+        .sendCommandWithHedging(request, null, datanodes)
+        .getResponse().get();
+
+    // The hedged read wins, and the call to the slow datanode is cancelled.
+    Assert.assertEquals(hedged, response);
+    Assert.assertEquals(datanodes.subList(0, 2), client.getSent(1));
+    Assert.assertTrue(slow.isCancelled());
+  }
+
+  @Test
+  public void testFirstResponseWins() throws Exception {
+    ContainerCommandRequestProto request = createRequest(1);
+    CompletableFuture<ContainerCommandResponseProto> slow =
+        getResponse(request, datanodes.get(0));
+    CompletableFuture<ContainerCommandResponseProto> hedged =
+        getResponse(request, datanodes.get(1));
+    // The first datanode answers right after the hedged read was sent.
+    FakeXceiverClient client = new FakeXceiverClient(conf) {
+      @Override
+      XceiverClientReply sendCommandAsync(
+          ContainerCommandRequestProto command, DatanodeDetails dn) {
+        XceiverClientReply reply = super.sendCommandAsync(command, dn);
+        if (dn.equals(datanodes.get(1))) {
+          slow.complete(createResponse(command));
+        }
+        return reply;
+      }
+    };
+
+    ContainerCommandResponseProto response = client
+        .sendCommandWithHedging(request, null, datanodes)
+        .getResponse().get();
+
+    Assert.assertEquals(slow.get(), response);
+    Assert.assertEquals(datanodes.subList(0, 2), client.getSent(1));
+    Assert.assertTrue(hedged.isCancelled());
+  }
+
+  @Test
+  public void testLatencyOfCancelledCallsRecorded() throws Exception {
+    conf.set(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_THRESHOLD_KEY, "10ms");
+    conf.setDouble(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_PERCENTILE_KEY,
+        90);
+    FakeXceiverClient client = new FakeXceiverClient(conf);
+
+    // Each read is answered right away by the hedged read, and its call to
+    // the slow datanode is cancelled.
+    for (int i = 0; i < HedgedReadThreshold.WINDOW_SIZE / 8; i++) {
+      ContainerCommandRequestProto request = createRequest(i);
+      respond(request, datanodes.get(1));
+      client.sendCommandWithHedging(request, null, datanodes)
+          .getResponse().get();
+    }
+
+    // Half of the calls waited at least the threshold before they were
+    // cancelled, so the threshold does not drop to the latency of the
+    // fast datanode.
+    Assert.assertTrue(client.getHedgedReadThresholdNanos()
+        >= TimeUnit.MILLISECONDS.toNanos(10));
+  }
+
+  @Test
+  public void testFailedReadMovesToNextDatanode() throws Exception {
+    FakeXceiverClient client = new FakeXceiverClient(conf);
+    ContainerCommandRequestProto request = createRequest(1);
+    getResponse(request, datanodes.get(0))
+        .completeExceptionally(new IOException("Datanode is down"));
+    ContainerCommandResponseProto next = respond(request, datanodes.get(1));
+
+    ContainerCommandResponseProto response = client
+        .sendCommandWithHedging(request, null, datanodes)
+        .getResponse().get();
+
+    Assert.assertEquals(next, response);
+    Assert.assertEquals(datanodes.subList(0, 2), client.getSent(1));
+  }
+
+  @Test
+  public void testHedgedReadsLimit() throws Exception {
+    conf.setInt(OzoneConfigKeys.OZONE_CLIENT_HEDGED_READ_MAX_CONCURRENT_KEY,
+        1);
+    FakeXceiverClient client = new FakeXceiverClient(conf);
+
+    // The first read takes the only permit, as no datanode answers it.
+    ContainerCommandRequestProto first = createRequest(1);
+    CompletableFuture<ContainerCommandResponseProto> firstResponse =
+        sendAsync(client, first);
+    waitForSent(client, 1, 2);
+
+    // The second read waits for the slow datanode, without hedged reads.
+    ContainerCommandRequestProto second = createRequest(2);
+    CompletableFuture<ContainerCommandResponseProto> secondResponse =
+        sendAsync(client, second);
+    waitForSent(client, 2, 1);
+    Thread.sleep(300);
+    Assert.assertEquals(datanodes.subList(0, 1), client.getSent(2));
+    Assert.assertFalse(secondResponse.isDone());
+
+    getResponse(second, datanodes.get(0)).complete(createResponse(second));
+    Assert.assertEquals(2,
+        secondResponse.get(10, TimeUnit.SECONDS).getContainerID());
+    Assert.assertEquals(datanodes.subList(0, 1), client.getSent(2));
+
+    // The permit is released once the first read is done.
+    getResponse(first, datanodes.get(1)).complete(createResponse(first));
+    Assert.assertEquals(1,
+        firstResponse.get(10, TimeUnit.SECONDS).getContainerID());
+
+    ContainerCommandRequestProto third = createRequest(3);
+    respond(third, datanodes.get(1));
+    client.sendCommandWithHedging(third, null, datanodes)
+        .getResponse().get();
+    Assert.assertEquals(datanodes.subList(0, 2), client.getSent(3));
+  }
+
+  private CompletableFuture<ContainerCommandResponseProto> sendAsync(
+      XceiverClientGrpc client, ContainerCommandRequestProto request) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return client.sendCommandWithHedging(request, null, datanodes)
+            .getResponse().join();
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    });
+  }
+
+  private static void waitForSent(FakeXceiverClient client, long containerID,
+      int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (client.getSent(containerID).size() < count) {
+      Assert.assertTrue("The command was not sent to " + count
+          + " datanodes", System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Makes the datanode answer the command right away.
+   */
+  private ContainerCommandResponseProto respond(
+      ContainerCommandRequestProto request, DatanodeDetails dn) {
+    ContainerCommandResponseProto response = createResponse(request);
+    getResponse(request, dn).complete(response);
+    return response;
+  }
+
+  private synchronized CompletableFuture<ContainerCommandResponseProto>
+      getResponse(ContainerCommandRequestProto request, DatanodeDetails dn) {
+    return responses
+        .computeIfAbsent(request.getContainerID(), id -> new HashMap<>())
+        .computeIfAbsent(dn, d -> new CompletableFuture<>());
+  }
+
+  private static ContainerCommandRequestProto createRequest(long containerID) {
+    return ContainerCommandRequestProto.newBuilder()
+        .setCmdType(Type.ReadChunk)
+        .setContainerID(containerID)
+        .setDatanodeUuid(UUID.randomUUID().toString())
+        .build();
+  }
+
+  private static ContainerCommandResponseProto createResponse(
+      ContainerCommandRequestProto request) {
+    return ContainerCommandResponseProto.newBuilder()
+        .setCmdType(request.getCmdType())
+        .setResult(Result.SUCCESS)
+        .setContainerID(request.getContainerID())
+        .build();
+  }
+
+  /**
+   * Client which sends the commands to fake datanodes, which answer with
+   * the responses of the test.
+   */
+  private class FakeXceiverClient extends XceiverClientGrpc {
+
+    // The datanodes each command was sent to, by container.
+    private final Map<Long, List<DatanodeDetails>> sent = new HashMap<>();
+
+    FakeXceiverClient(OzoneConfiguration config) {
+      super(Pipeline.newBuilder()
+          .setState(Pipeline.PipelineState.OPEN)
+          .setId(PipelineID.randomId())
+          .setType(ReplicationType.STAND_ALONE)
+          .setFactor(ReplicationFactor.THREE)
+          .setNodes(datanodes)
+          .build(), config);
+    }
+
+    List<DatanodeDetails> getSent(long containerID) {
+      synchronized (sent) {
+        return new ArrayList<>(
+            sent.getOrDefault(containerID, new ArrayList<>()));
+      }
+    }
+
+    @Override
+    XceiverClientReply sendCommandAsync(
+        ContainerCommandRequestProto request, DatanodeDetails dn) {
+      synchronized (sent) {
+        sent.computeIfAbsent(request.getContainerID(),
+            id -> new ArrayList<>()).add(dn);
+      }
+      return new XceiverClientReply(getResponse(request, dn));
+    }
+  }
+}
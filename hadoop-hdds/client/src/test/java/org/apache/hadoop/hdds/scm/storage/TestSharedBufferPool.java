@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.scm.storage;
+
+import org.apache.hadoop.ozone.common.ChunkBuffer;
+import org.apache.hadoop.test.GenericTestUtils;
+import org.apache.hadoop.util.Time;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SharedBufferPool}.
+ */
+public class TestSharedBufferPool {
+
+  @Test
+  public void testReuseReleasedBuffers() throws Exception {
+    SharedBufferPool pool = new SharedBufferPool(1280, false, 1,
+        TimeUnit.SECONDS);
+    SharedBufferPoolMetrics metrics = SharedBufferPoolMetrics.getInstance();
+    long hits = metrics.getNumHits();
+
+    BufferPool first = new BufferPool(256, 2, null, pool);
+    ChunkBuffer buffer = first.allocateBufferIfNeeded();
+    buffer.put(new byte[256], 0, 256);
+    first.allocateBufferIfNeeded();
+    Assert.assertEquals(512, pool.getAllocatedBytes());
+    Assert.assertEquals(0, pool.getFreeBytes());
+
+    first.clearBufferPool();
+    Assert.assertEquals(512, pool.getFreeBytes());
+
+    BufferPool second = new BufferPool(256, 2, null, pool);
+    ChunkBuffer reused = second.allocateBufferIfNeeded();
+    Assert.assertEquals(0, reused.position());
+    Assert.assertEquals(512, pool.getAllocatedBytes());
+    Assert.assertEquals(256, pool.getFreeBytes());
+    Assert.assertEquals(hits + 1, metrics.getNumHits());
+
+    // buffers of another size replace the free ones
+    BufferPool third = new BufferPool(1024, 1, null, pool);
+    Assert.assertEquals(1024, third.allocateBufferIfNeeded().capacity());
+    Assert.assertEquals(1024 + 256, pool.getAllocatedBytes());
+    Assert.assertEquals(0, pool.getFreeBytes());
+  }
+
+  @Test
+  public void testWaitForReleasedBuffer() throws Exception {
+    SharedBufferPool pool = new SharedBufferPool(512, true, 1,
+        TimeUnit.MINUTES);
+    SharedBufferPoolMetrics metrics = SharedBufferPoolMetrics.getInstance();
+
+    BufferPool first = new BufferPool(256, 2, null, pool);
+    first.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+    first.allocateBufferIfNeeded();
+
+    BufferPool second = new BufferPool(256, 1, null, pool);
+    CompletableFuture<ChunkBuffer> waiting = CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return second.allocateBufferIfNeeded();
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        });
+    GenericTestUtils.waitFor(() -> metrics.getNumWaitingWriters() > 0,
+        10, 10000);
+    Assert.assertFalse(waiting.isDone());
+
+    first.clearBufferPool();
+    Assert.assertEquals(256, waiting.get(10, TimeUnit.SECONDS).capacity());
+    Assert.assertEquals(512, pool.getAllocatedBytes());
+  }
+
+  @Test
+  public void testAllocateOwnBufferAfterTimeout() throws Exception {
+    SharedBufferPool pool = new SharedBufferPool(256, false, 10,
+        TimeUnit.MILLISECONDS);
+
+    BufferPool first = new BufferPool(256, 2, null, pool);
+    first.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+    first.allocateBufferIfNeeded();
+    // the buffer above the limit is not taken from the shared pool
+    Assert.assertEquals(256, pool.getAllocatedBytes());
+
+    first.clearBufferPool();
+    Assert.assertEquals(256, pool.getAllocatedBytes());
+    Assert.assertEquals(256, pool.getFreeBytes());
+  }
+
+  @Test
+  public void testWaitOncePerStream() throws Exception {
+    // room for the buffers of one stream only
+    SharedBufferPool pool = new SharedBufferPool(1024, false, 1,
+        TimeUnit.SECONDS);
+    int streams = 4;
+    int buffersPerStream = 4;
+
+    ExecutorService executor = Executors.newFixedThreadPool(streams);
+    List<CompletableFuture<Long>> writes = new ArrayList<>();
+    for (int i = 0; i < streams; i++) {
+      BufferPool bufferPool =
+          new BufferPool(256, buffersPerStream, null, pool);
+      writes.add(CompletableFuture.supplyAsync(() -> {
+        long start = Time.monotonicNow();
+        try {
+          for (int j = 0; j < buffersPerStream; j++) {
+            bufferPool.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+          }
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+        return Time.monotonicNow() - start;
+      }, executor));
+    }
+
+    try {
+      for (CompletableFuture<Long> write : writes) {
+        // waiting for each buffer would take at least 3 seconds
+        Assert.assertTrue(write.get(30, TimeUnit.SECONDS) < 2500);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(1024, pool.getAllocatedBytes());
+  }
+
+  @Test
+  public void testReleaseAfterPendingWrites() throws Exception {
+    SharedBufferPool pool = new SharedBufferPool(1024, false, 1,
+        TimeUnit.SECONDS);
+
+    BufferPool first = new BufferPool(256, 2, null, pool);
+    first.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+    CompletableFuture<Void> write = new CompletableFuture<>();
+    first.addPendingWrite(write);
+    first.clearBufferPool();
+    // the buffer is still read by the write
+    Assert.assertEquals(0, pool.getFreeBytes());
+
+    write.complete(null);
+    Assert.assertEquals(256, pool.getFreeBytes());
+    Assert.assertEquals(256, pool.getAllocatedBytes());
+  }
+
+  @Test
+  public void testDropBuffersOfFailedWrites() throws Exception {
+    SharedBufferPool pool = new SharedBufferPool(1024, false, 1,
+        TimeUnit.SECONDS);
+
+    BufferPool first = new BufferPool(256, 2, null, pool);
+    first.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+    CompletableFuture<Void> write = new CompletableFuture<>();
+    first.addPendingWrite(write);
+    first.clearBufferPool();
+
+    write.completeExceptionally(new IOException("Write failed"));
+    Assert.assertEquals(0, pool.getFreeBytes());
+    Assert.assertEquals(0, pool.getAllocatedBytes());
+
+    // the buffers of a failed key are dropped even without pending writes
+    BufferPool second = new BufferPool(256, 2, null, pool);
+    second.allocateBufferIfNeeded().put(new byte[256], 0, 256);
+    second.allocateBufferIfNeeded();
+    Assert.assertEquals(512, pool.getAllocatedBytes());
+    second.discardBufferPool();
+    Assert.assertEquals(0, pool.getFreeBytes());
+    Assert.assertEquals(0, pool.getAllocatedBytes());
+  }
+}
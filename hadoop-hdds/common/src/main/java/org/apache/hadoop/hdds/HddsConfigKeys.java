@@ -36,6 +36,11 @@ public final class HddsConfigKeys {
       "hdds.container.report.interval";
   public static final String HDDS_CONTAINER_REPORT_INTERVAL_DEFAULT =
       "60s";
+  public static final String HDDS_CONTAINER_REPORT_DIGEST_BUCKETS =
+      "hdds.container.report.digest.buckets";
+  // Digest reports are misread as full reports by SCMs without digest
+  // support, so they are only sent when enabled.
+  public static final int HDDS_CONTAINER_REPORT_DIGEST_BUCKETS_DEFAULT = 0;
   public static final String HDDS_PIPELINE_REPORT_INTERVAL =
           "hdds.pipeline.report.interval";
   public static final String HDDS_PIPELINE_REPORT_INTERVAL_DEFAULT =
@@ -162,6 +167,9 @@ public final class HddsConfigKeys {
   public static final String HDDS_BLOCK_TOKEN_ENABLED =
       "hdds.block.token.enabled";
   public static final boolean HDDS_BLOCK_TOKEN_ENABLED_DEFAULT = false;
+  public static final String HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE =
+      "hdds.block.token.verified.cache.size";
+  public static final int HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE_DEFAULT = 10000;
 
   public static final String HDDS_X509_DIR_NAME = "hdds.x509.dir.name";
   public static final String HDDS_X509_DIR_NAME_DEFAULT = "certs";
@@ -237,6 +245,25 @@ private HddsConfigKeys() {
       "hdds.container.scrub.enabled";
   public static final boolean HDDS_CONTAINER_SCRUB_ENABLED_DEFAULT = false;
 
+  // Chunk layout version used for newly created containers. Existing
+  // containers keep the layout recorded in their .container file.
+  public static final String HDDS_CONTAINER_CHUNK_LAYOUT_VERSION =
+      "hdds.container.chunk.layout.version";
+  public static final int HDDS_CONTAINER_CHUNK_LAYOUT_VERSION_DEFAULT = 1;
+
+  // Maximum number of block files kept open per volume for containers
+  // which store all chunks of a block in one file.
+  public static final String HDDS_DATANODE_VOLUME_OPEN_FILES_MAX =
+      "hdds.datanode.volume.open.files.max";
+  public static final int HDDS_DATANODE_VOLUME_OPEN_FILES_MAX_DEFAULT = 128;
+
+  // Chunk reads of at least this size are served from memory mapped regions
+  // of the chunk or block file instead of being copied into a heap buffer.
+  public static final String HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD =
+      "hdds.datanode.chunk.read.mapped.buffer.threshold";
+  public static final String
+      HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD_DEFAULT = "1MB";
+
   public static final String HDDS_DATANODE_HTTP_ENABLED_KEY =
       "hdds.datanode.http.enabled";
   public static final String HDDS_DATANODE_HTTP_BIND_HOST_KEY =
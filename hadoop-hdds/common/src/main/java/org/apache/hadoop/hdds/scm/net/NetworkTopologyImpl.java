@@ -19,16 +19,16 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -58,7 +58,13 @@ public class NetworkTopologyImpl implements NetworkTopology{
   /** Schema manager. */
   private final NodeSchemaManager schemaManager;
   /** Lock to coordinate cluster tree access. */
-  private ReadWriteLock netlock = new ReentrantReadWriteLock(true);
+  private ReadWriteLock netlock = new ReentrantReadWriteLock();
+  /**
+   * Ancestors of the leaves in the cluster tree. It is replaced with a new
+   * copy under the write lock whenever a leaf is added or removed, so the
+   * distance between leaves is computed without taking the lock.
+   */
+  private volatile Map<Node, Ancestry> leaves = new IdentityHashMap<>();
 
   public NetworkTopologyImpl(Configuration conf) {
     schemaManager = NodeSchemaManager.getInstance();
@@ -103,6 +109,11 @@ public void add(Node node) {
     boolean add;
     try {
       add = clusterTree.add(node);
+      if (add) {
+        Map<Node, Ancestry> newLeaves = new IdentityHashMap<>(leaves);
+        newLeaves.put(node, new Ancestry(node, maxLevel));
+        leaves = newLeaves;
+      }
     }finally {
       netlock.writeLock().unlock();
     }
@@ -129,6 +140,12 @@ public void remove(Node node) {
     netlock.writeLock().lock();
     try {
       clusterTree.remove(node);
+      Map<Node, Ancestry> newLeaves = new IdentityHashMap<>(leaves);
+      if (newLeaves.remove(node) == null) {
+        // the tree removes the leaf with the same name
+        newLeaves.keySet().removeIf(leaf -> leaf.equals(node));
+      }
+      leaves = newLeaves;
     }finally {
       netlock.writeLock().unlock();
     }
@@ -145,6 +162,9 @@ public void remove(Node node) {
    */
   public boolean contains(Node node) {
     Preconditions.checkArgument(node != null, "node cannot be null");
+    if (leaves.containsKey(node)) {
+      return true;
+    }
     netlock.readLock().lock();
     try {
       Node parent = node.getParent();
@@ -168,6 +188,13 @@ public boolean isSameAncestor(Node node1, Node node2, int ancestorGen) {
     if (node1 == null || node2 == null || ancestorGen <= 0) {
       return false;
     }
+    Map<Node, Ancestry> current = leaves;
+    Ancestry ancestry1 = current.get(node1);
+    Ancestry ancestry2 = current.get(node2);
+    if (ancestry1 != null && ancestry2 != null) {
+      return ancestry1.getAncestor(ancestorGen) ==
+          ancestry2.getAncestor(ancestorGen);
+    }
     netlock.readLock().lock();
     try {
       return node1.getAncestor(ancestorGen) == node2.getAncestor(ancestorGen);
@@ -184,6 +211,12 @@ public boolean isSameParent(Node node1, Node node2) {
     if (node1 == null || node2 == null) {
       return false;
     }
+    Map<Node, Ancestry> current = leaves;
+    Ancestry ancestry1 = current.get(node1);
+    Ancestry ancestry2 = current.get(node2);
+    if (ancestry1 != null && ancestry2 != null) {
+      return ancestry1.getAncestor(1) == ancestry2.getAncestor(1);
+    }
     netlock.readLock().lock();
     try {
       node1 = node1.getParent();
@@ -205,6 +238,10 @@ public Node getAncestor(Node node, int ancestorGen) {
     if (node == null) {
       return null;
     }
+    Ancestry ancestry = leaves.get(node);
+    if (ancestry != null) {
+      return ancestry.getAncestor(ancestorGen);
+    }
     netlock.readLock().lock();
     try {
       return node.getAncestor(ancestorGen);
@@ -592,6 +629,12 @@ public int getDistanceCost(Node node1, Node node2) {
       LOG.warn("One of the nodes is a null pointer");
       return Integer.MAX_VALUE;
     }
+    Map<Node, Ancestry> current = leaves;
+    Ancestry ancestry1 = current.get(node1);
+    Ancestry ancestry2 = current.get(node2);
+    if (ancestry1 != null && ancestry2 != null) {
+      return ancestry1.getDistanceCost(ancestry2);
+    }
     int cost = 0;
     netlock.readLock().lock();
     try {
@@ -645,31 +688,33 @@ public List<? extends Node> sortByDistanceCost(Node reader,
       return nodes;
     }
     int[] costs = new int[activeLen];
+    Node[] sorted = new Node[activeLen];
+    // insertion sort by cost, the list of replicas is short
     for (int i = 0; i < activeLen; i++) {
-      costs[i] = getDistanceCost(reader, nodes.get(i));
-    }
-    // Add cost/node pairs to a TreeMap to sort
-    TreeMap<Integer, List<Node>> tree = new TreeMap<Integer, List<Node>>();
-    for (int i = 0; i < activeLen; i++) {
-      int cost = costs[i];
-      Node node = nodes.get(i);
-      List<Node> list = tree.get(cost);
-      if (list == null) {
-        list = Lists.newArrayListWithExpectedSize(1);
-        tree.put(cost, list);
+      int cost = getDistanceCost(reader, nodes.get(i));
+      int j = i;
+      for (; j > 0 && costs[j - 1] > cost; j--) {
+        costs[j] = costs[j - 1];
+        sorted[j] = sorted[j - 1];
       }
-      list.add(node);
-    }
-
-    List<Node> ret = new ArrayList<>();
-    for (List<Node> list: tree.values()) {
-      if (list != null) {
-        Collections.shuffle(list);
-        for (Node n: list) {
-          ret.add(n);
-        }
+      costs[j] = cost;
+      sorted[j] = nodes.get(i);
+    }
+    // shuffle the nodes with the same cost
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int start = 0, end; start < activeLen; start = end) {
+      end = start + 1;
+      while (end < activeLen && costs[end] == costs[start]) {
+        end++;
+      }
+      for (int i = end - 1; i > start; i--) {
+        int j = start + random.nextInt(i - start + 1);
+        Node tmp = sorted[i];
+        sorted[i] = sorted[j];
+        sorted[j] = tmp;
       }
     }
+    List<Node> ret = new ArrayList<>(Arrays.asList(sorted));
 
     Preconditions.checkState(ret.size() == activeLen,
         "Wrong number of nodes sorted!");
@@ -795,4 +840,45 @@ private void checkAncestorGen(int ancestorGen) {
           (maxLevel - 1) + "]");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * The ancestors of a leaf, from the root to the leaf itself, with the
+   * distance cost from the leaf to each of them.
+   */
+  private static final class Ancestry {
+    private final Node[] path;
+    private final int[] costs;
+
+    private Ancestry(Node leaf, int maxLevel) {
+      path = new Node[maxLevel];
+      costs = new int[maxLevel];
+      Node node = leaf;
+      int cost = 0;
+      for (int i = maxLevel - 1; i >= 0; i--) {
+        path[i] = node;
+        costs[i] = cost;
+        node = node.getParent();
+        cost += node == null ? 0 : node.getCost();
+      }
+    }
+
+    private Node getAncestor(int generation) {
+      Preconditions.checkArgument(generation >= 0);
+      return generation < path.length ? path[path.length - 1 - generation]
+          : null;
+    }
+
+    /**
+     * Both leaves are at the same level, so the distance is the cost of
+     * each of them to the deepest common ancestor.
+     */
+    private int getDistanceCost(Ancestry other) {
+      int level = 0;
+      while (level + 1 < path.length &&
+          path[level + 1] == other.path[level + 1]) {
+        level++;
+      }
+      return costs[level] + other.costs[level];
+    }
+  }
+}
@@ -84,4 +84,13 @@ List<AllocatedBlock> allocateBlock(long size, int numBlocks,
    */
   List<DatanodeDetails> sortDatanodes(List<String> nodes,
       String clientMachine) throws IOException;
+
+  /**
+   * Sort each list of datanodes with distance to client, in one call.
+   * @param nodeLists lists of network name of each node.
+   * @param clientMachine client address, depends, can be hostname or ipaddress.
+   * @return sorted datanodes, in the order of the given lists.
+   */
+  List<List<DatanodeDetails>> sortDatanodesBatch(List<List<String>> nodeLists,
+      String clientMachine) throws IOException;
 }
@@ -35,6 +35,12 @@
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.DeleteScmKeyBlocksRequestProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.DeleteScmKeyBlocksResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.KeyBlocks;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos
+    .NodeNetworkNameListProto;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos
+    .SortDatanodesBatchRequestProto;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos
+    .SortDatanodesBatchResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos
     .SortDatanodesRequestProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos
@@ -261,6 +267,38 @@ public List<DatanodeDetails> sortDatanodes(List<String> nodes,
     return results;
   }
 
+  /**
+   * Sort each list of datanodes based on distance from client.
+   * @return List<List<DatanodeDetails>>
+   * @throws IOException
+   */
+  @Override
+  public List<List<DatanodeDetails>> sortDatanodesBatch(
+      List<List<String>> nodeLists, String clientMachine) throws IOException {
+    SortDatanodesBatchRequestProto.Builder request =
+        SortDatanodesBatchRequestProto.newBuilder()
+            .setClient(clientMachine);
+    nodeLists.forEach(nodes -> request.addNodeList(
+        NodeNetworkNameListProto.newBuilder()
+            .addAllNodeNetworkName(nodes)));
+    SCMBlockLocationRequest wrapper = createSCMBlockRequest(
+        Type.SortDatanodesBatch)
+        .setSortDatanodesBatchRequest(request)
+        .build();
+
+    final SCMBlockLocationResponse wrappedResponse =
+        handleError(submitRequest(wrapper));
+    SortDatanodesBatchResponseProto resp =
+        wrappedResponse.getSortDatanodesBatchResponse();
+    List<List<DatanodeDetails>> results =
+        new ArrayList<>(resp.getSortedNodesCount());
+    resp.getSortedNodesList().forEach(sortedNodes -> results.add(
+        sortedNodes.getNodeList().stream()
+            .map(node -> DatanodeDetails.getFromProtoBuf(node))
+            .collect(Collectors.toList())));
+    return results;
+  }
+
   @Override
   public Object getUnderlyingProxyObject() {
     return rpcProxy;
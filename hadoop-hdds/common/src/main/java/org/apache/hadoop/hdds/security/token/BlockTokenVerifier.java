@@ -18,9 +18,13 @@
 
 package org.apache.hadoop.hdds.security.token;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.hadoop.hdds.HddsUtils;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.BlockTokenSecretProto.AccessModeProto;
 import org.apache.hadoop.hdds.security.exception.SCMSecurityException;
 import org.apache.hadoop.hdds.security.x509.SecurityConfig;
 import org.apache.hadoop.hdds.security.x509.certificate.client.CertificateClient;
@@ -38,6 +42,11 @@
 
 /**
  * Verify token and return a UGI with token if authenticated.
+ *
+ * A client sends many commands with the same token, so the tokens whose
+ * signature has been verified are cached by their encoded form. The expiry,
+ * the block id and the access modes of a cached token are still checked for
+ * every command.
  */
 public class BlockTokenVerifier implements TokenVerifier {
 
@@ -47,9 +56,14 @@ public class BlockTokenVerifier implements TokenVerifier {
   private final static Logger LOGGER =
       LoggerFactory.getLogger(BlockTokenVerifier.class);
 
+  private final Cache<String, OzoneBlockTokenIdentifier> verifiedTokens;
+
   public BlockTokenVerifier(SecurityConfig conf, CertificateClient caClient) {
     this.conf = conf;
     this.caClient = caClient;
+    this.verifiedTokens = CacheBuilder.newBuilder()
+        .maximumSize(conf.getBlockTokenVerifiedCacheSize())
+        .build();
   }
 
   private boolean isExpired(long expiryDate) {
@@ -69,6 +83,43 @@ public void verify(String user, String tokenStr,
           "null.)");
     }
 
+    OzoneBlockTokenIdentifier tokenId =
+        verifiedTokens.getIfPresent(tokenStr);
+    if (tokenId == null) {
+      tokenId = verifySignature(user, tokenStr);
+      verifiedTokens.put(tokenStr, tokenId);
+    }
+
+    UserGroupInformation tokenUser = tokenId.getUser();
+    // check expiration
+    if (isExpired(tokenId.getExpiryDate())) {
+      verifiedTokens.invalidate(tokenStr);
+      throw new BlockTokenException("Expired block token for user: " +
+          tokenUser);
+    }
+
+    // Token block id mismatch
+    if (!tokenId.getBlockId().equals(id)) {
+      throw new BlockTokenException("Block id mismatch. Token for block ID: " +
+          tokenId.getBlockId() + " can't be used to access block: " + id +
+          " by user: " + tokenUser);
+    }
+
+    AccessModeProto accessMode = getAccessMode(cmd);
+    if (accessMode != null && !tokenId.getAccessModes().contains(accessMode)) {
+      throw new BlockTokenException("Block token of user: " + tokenUser +
+          " does not permit " + accessMode + " access required by " + cmd +
+          " on block: " + id);
+    }
+  }
+
+  /**
+   * Decodes the token and verifies its signature.
+   *
+   * @return identifier of the token, if its signature is valid.
+   */
+  private OzoneBlockTokenIdentifier verifySignature(String user,
+      String tokenStr) throws SCMSecurityException {
     final Token<OzoneBlockTokenIdentifier> token = new Token();
     OzoneBlockTokenIdentifier tokenId = new OzoneBlockTokenIdentifier();
     try {
@@ -105,20 +156,31 @@ public void verify(String user, String tokenStr,
       throw new BlockTokenException("Invalid block token for user: " +
           tokenId.getUser());
     }
-    // check expiration
-    if (isExpired(tokenId.getExpiryDate())) {
-      throw new BlockTokenException("Expired block token for user: " +
-          tokenUser);
-    }
+    return tokenId;
+  }
 
-    // Token block id mismatch
-    if (!tokenId.getBlockId().equals(id)) {
-      throw new BlockTokenException("Block id mismatch. Token for block ID: " +
-          tokenId.getBlockId() + " can't be used to access block: " + id +
-          " by user: " + tokenUser);
+  /**
+   * Returns the access mode a block token must permit for the command, or
+   * null if the command needs none.
+   */
+  private static AccessModeProto getAccessMode(ContainerProtos.Type cmd) {
+    switch (cmd) {
+    case ReadChunk:
+    case GetBlock:
+    case GetSmallFile:
+      return AccessModeProto.READ;
+    case WriteChunk:
+    case PutBlock:
+    case PutSmallFile:
+      return AccessModeProto.WRITE;
+    default:
+      return null;
     }
+  }
 
-    // TODO: check cmd type and the permissions(AccessMode) in the token
+  @VisibleForTesting
+  public long getVerifiedTokenCount() {
+    return verifiedTokens.size();
   }
 
   public static boolean isTestStub() {
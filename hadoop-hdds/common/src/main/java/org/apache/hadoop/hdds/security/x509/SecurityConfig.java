@@ -39,6 +39,8 @@
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_DEFAULT_SECURITY_PROVIDER;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_BLOCK_TOKEN_ENABLED;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_BLOCK_TOKEN_ENABLED_DEFAULT;
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE;
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE_DEFAULT;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_GRPC_TLS_ENABLED;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_GRPC_TLS_ENABLED_DEFAULT;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_GRPC_TLS_PROVIDER;
@@ -92,6 +94,7 @@ public class SecurityConfig {
   private final Duration certDuration;
   private final String x509SignatureAlgo;
   private final boolean blockTokenEnabled;
+  private final int blockTokenVerifiedCacheSize;
   private final String certificateDir;
   private final String certificateFileName;
   private final boolean grpcTlsEnabled;
@@ -139,6 +142,9 @@ public SecurityConfig(Configuration configuration) {
     this.blockTokenEnabled = this.configuration.getBoolean(
         HDDS_BLOCK_TOKEN_ENABLED,
         HDDS_BLOCK_TOKEN_ENABLED_DEFAULT);
+    this.blockTokenVerifiedCacheSize = this.configuration.getInt(
+        HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE,
+        HDDS_BLOCK_TOKEN_VERIFIED_CACHE_SIZE_DEFAULT);
 
     this.grpcTlsEnabled = this.configuration.getBoolean(HDDS_GRPC_TLS_ENABLED,
         HDDS_GRPC_TLS_ENABLED_DEFAULT);
@@ -315,6 +321,15 @@ public boolean isBlockTokenEnabled() {
     return this.blockTokenEnabled;
   }
 
+  /**
+   * Returns the maximum number of verified block tokens a datanode caches.
+   *
+   * @return size of the verified block token cache, 0 if it is disabled.
+   */
+  public int getBlockTokenVerifiedCacheSize() {
+    return this.blockTokenVerifiedCacheSize;
+  }
+
   /**
    * Returns true if TLS is enabled for gRPC services.
    * @return true if TLS is enabled for gRPC services.
@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.hdds.utils;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A view of the entries of a {@link MetadataStore} whose keys start with a
+ * fixed prefix. The prefix is added to the keys of all the operations, and
+ * removed from the keys returned, so that many users can share a single
+ * store, each of them seeing it as a separate store.
+ * <p>
+ * Closing the view does not close the underlying store, which is owned by
+ * the caller, and destroying it only deletes the entries with the prefix.
+ */
+public class PrefixedMetadataStore implements MetadataStore {
+
+  /**
+   * Number of entries read from the underlying store at a time when
+   * iterating or deleting the entries.
+   */
+  private static final int BATCH_SIZE = 1000;
+
+  private final MetadataStore store;
+  private final byte[] prefix;
+
+  public PrefixedMetadataStore(MetadataStore store, byte[] prefix) {
+    Preconditions.checkNotNull(store, "store cannot be null");
+    Preconditions.checkArgument(prefix != null && prefix.length > 0,
+        "prefix cannot be empty");
+    this.store = store;
+    this.prefix = prefix.clone();
+  }
+
+  /**
+   * Returns the underlying store.
+   */
+  public MetadataStore getStore() {
+    return store;
+  }
+
+  private byte[] addPrefix(byte[] key) {
+    byte[] result = new byte[prefix.length + key.length];
+    System.arraycopy(prefix, 0, result, 0, prefix.length);
+    System.arraycopy(key, 0, result, prefix.length, key.length);
+    return result;
+  }
+
+  private byte[] removePrefix(byte[] key) {
+    return Arrays.copyOfRange(key, prefix.length, key.length);
+  }
+
+  private boolean hasPrefix(byte[] key) {
+    if (key == null || key.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (key[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void put(byte[] key, byte[] value) throws IOException {
+    store.put(addPrefix(key), value);
+  }
+
+  @Override
+  public boolean isEmpty() throws IOException {
+    return peekAround(0, null) == null;
+  }
+
+  @Override
+  public byte[] get(byte[] key) throws IOException {
+    return store.get(addPrefix(key));
+  }
+
+  @Override
+  public void delete(byte[] key) throws IOException {
+    store.delete(addPrefix(key));
+  }
+
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getRangeKVs(byte[] startKey,
+      int count, MetadataKeyFilters.MetadataKeyFilter... filters)
+      throws IOException, IllegalArgumentException {
+    return getRangeKVs(startKey, count, false, filters);
+  }
+
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getSequentialRangeKVs(byte[] startKey,
+      int count, MetadataKeyFilters.MetadataKeyFilter... filters)
+      throws IOException, IllegalArgumentException {
+    return getRangeKVs(startKey, count, true, filters);
+  }
+
+  private List<Map.Entry<byte[], byte[]>> getRangeKVs(byte[] startKey,
+      int count, boolean sequential,
+      MetadataKeyFilters.MetadataKeyFilter... filters)
+      throws IOException, IllegalArgumentException {
+    if (count < 0) {
+      throw new IllegalArgumentException(
+          "Invalid count given " + count + ", count must be greater than 0");
+    }
+    List<Map.Entry<byte[], byte[]>> result = new ArrayList<>();
+    byte[] from = prefix;
+    byte[] prevKey = null;
+    if (startKey != null) {
+      from = addPrefix(startKey);
+      if (store.get(from) == null) {
+        // Key not found, return empty list
+        return result;
+      }
+      ImmutablePair<byte[], byte[]> prev = store.peekAround(-1, from);
+      if (prev != null && hasPrefix(prev.getKey())) {
+        prevKey = removePrefix(prev.getKey());
+      }
+    }
+    if (count == 0) {
+      return result;
+    }
+    RangeCollector collector =
+        new RangeCollector(prevKey, count, sequential, filters, result);
+    store.iterate(from, collector);
+    collector.finish();
+    return result;
+  }
+
+  /**
+   * Collects the entries of a range, applying the filters with the previous
+   * and the next key of each entry, the same way as the stores do.
+   */
+  private final class RangeCollector implements EntryConsumer {
+
+    private final int count;
+    private final boolean sequential;
+    private final MetadataKeyFilters.MetadataKeyFilter[] filters;
+    private final List<Map.Entry<byte[], byte[]>> result;
+    private byte[] prevKey;
+    private byte[] currentKey;
+    private byte[] currentValue;
+    private boolean done;
+
+    RangeCollector(byte[] prevKey, int count, boolean sequential,
+        MetadataKeyFilters.MetadataKeyFilter[] filters,
+        List<Map.Entry<byte[], byte[]>> result) {
+      this.prevKey = prevKey;
+      this.count = count;
+      this.sequential = sequential;
+      this.filters = filters;
+      this.result = result;
+    }
+
+    @Override
+    public boolean consume(byte[] key, byte[] value) {
+      if (!hasPrefix(key)) {
+        return false;
+      }
+      byte[] nextKey = removePrefix(key);
+      if (currentKey != null) {
+        collect(nextKey);
+      }
+      currentKey = nextKey;
+      currentValue = value;
+      return !done;
+    }
+
+    void finish() {
+      if (currentKey != null && !done) {
+        collect(null);
+      }
+    }
+
+    private void collect(byte[] nextKey) {
+      boolean matches = filters == null || Arrays.stream(filters)
+          .allMatch(filter -> filter.filterKey(prevKey, currentKey, nextKey));
+      if (matches) {
+        result.add(new AbstractMap.SimpleImmutableEntry<>(currentKey,
+            currentValue));
+      } else if (result.size() > 0 && sequential) {
+        // if the caller asks for a sequential range of results,
+        // and we met a dis-match, abort iteration from here.
+        done = true;
+      }
+      if (result.size() >= count) {
+        done = true;
+      }
+      prevKey = currentKey;
+    }
+  }
+
+  @Override
+  public void writeBatch(BatchOperation operation) throws IOException {
+    BatchOperation prefixed = new BatchOperation();
+    for (BatchOperation.SingleOperation opt : operation.getOperations()) {
+      switch (opt.getOpt()) {
+      case DELETE:
+        prefixed.delete(addPrefix(opt.getKey()));
+        break;
+      case PUT:
+        prefixed.put(addPrefix(opt.getKey()), opt.getValue());
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid operation "
+            + opt.getOpt());
+      }
+    }
+    store.writeBatch(prefixed);
+  }
+
+  /**
+   * Does nothing, as compacting the range of a single user is not supported
+   * by the stores, and compacting the whole store is left to the store.
+   */
+  @Override
+  public void compactDB() throws IOException {
+  }
+
+  @Override
+  public void flushDB(boolean sync) throws IOException {
+    store.flushDB(sync);
+  }
+
+  /**
+   * Deletes all the entries with the prefix from the underlying store.
+   */
+  @Override
+  public void destroy() throws IOException {
+    List<byte[]> keys = new ArrayList<>();
+    do {
+      keys.clear();
+      store.iterate(prefix, (key, value) -> {
+        if (!hasPrefix(key)) {
+          return false;
+        }
+        keys.add(key);
+        return keys.size() < BATCH_SIZE;
+      });
+      if (!keys.isEmpty()) {
+        BatchOperation batch = new BatchOperation();
+        keys.forEach(batch::delete);
+        store.writeBatch(batch);
+      }
+    } while (keys.size() == BATCH_SIZE);
+  }
+
+  @Override
+  public ImmutablePair<byte[], byte[]> peekAround(int offset, byte[] from)
+      throws IOException, IllegalArgumentException {
+    byte[] start = from == null ? prefix : addPrefix(from);
+    ImmutablePair<byte[], byte[]> current = store.peekAround(0, start);
+    if (current == null || !hasPrefix(current.getKey())) {
+      return null;
+    }
+    ImmutablePair<byte[], byte[]> result =
+        offset == 0 ? current : store.peekAround(offset, start);
+    return result != null && hasPrefix(result.getKey()) ?
+        new ImmutablePair<>(removePrefix(result.getKey()), result.getValue()) :
+        null;
+  }
+
+  @Override
+  public void iterate(byte[] from, EntryConsumer consumer)
+      throws IOException {
+    byte[] start = from == null ? prefix : addPrefix(from);
+    store.iterate(start, (key, value) ->
+        hasPrefix(key) && consumer.consume(removePrefix(key), value));
+  }
+
+  @Override
+  public MetaStoreIterator<KeyValue> iterator() {
+    return new PrefixedIterator();
+  }
+
+  /**
+   * Closing the view does not close the underlying store.
+   */
+  @Override
+  public void close() throws IOException {
+  }
+
+  /**
+   * Iterator over the entries with the prefix, which reads the entries from
+   * the underlying store in batches.
+   */
+  private final class PrefixedIterator implements MetaStoreIterator<KeyValue> {
+
+    private final Deque<KeyValue> batch = new ArrayDeque<>();
+    // Key of the underlying store to read the next batch from, null if
+    // there are no more entries.
+    private byte[] nextFrom;
+    private boolean nextFromExclusive;
+
+    PrefixedIterator() {
+      seekToFirst();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (batch.isEmpty() && nextFrom != null) {
+        readBatch();
+      }
+      return !batch.isEmpty();
+    }
+
+    @Override
+    public KeyValue next() {
+      if (hasNext()) {
+        return batch.poll();
+      }
+      throw new NoSuchElementException("Store has no more elements");
+    }
+
+    @Override
+    public void seekToFirst() {
+      batch.clear();
+      nextFrom = prefix;
+      nextFromExclusive = false;
+    }
+
+    /**
+     * Positions the iterator on the last entry with the prefix. As the
+     * stores can not seek to the entry before the end of a range, this
+     * scans the entries with the prefix.
+     */
+    @Override
+    public void seekToLast() {
+      batch.clear();
+      nextFrom = null;
+      KeyValue[] last = new KeyValue[1];
+      try {
+        store.iterate(prefix, (key, value) -> {
+          if (!hasPrefix(key)) {
+            return false;
+          }
+          last[0] = KeyValue.create(key, value);
+          return true;
+        });
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (last[0] != null) {
+        batch.add(KeyValue.create(removePrefix(last[0].getKey()),
+            last[0].getValue()));
+      }
+    }
+
+    private void readBatch() {
+      final byte[] start = nextFrom;
+      final boolean exclusive = nextFromExclusive;
+      nextFrom = null;
+      try {
+        store.iterate(start, (key, value) -> {
+          if (!hasPrefix(key)) {
+            return false;
+          }
+          if (exclusive && Arrays.equals(key, start)) {
+            return true;
+          }
+          batch.add(KeyValue.create(removePrefix(key), value));
+          if (batch.size() >= BATCH_SIZE) {
+            nextFrom = key;
+            nextFromExclusive = true;
+            return false;
+          }
+          return true;
+        });
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -23,6 +23,7 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.apache.hadoop.classification.InterfaceStability;
 import org.apache.hadoop.hdds.utils.db.cache.TableCacheImpl;
@@ -70,6 +71,17 @@ <KEY, VALUE> Table<KEY, VALUE> getTable(String name,
       Class<KEY> keyType, Class<VALUE> valueType,
       TableCacheImpl.CacheCleanupPolicy cleanupPolicy) throws IOException;
 
+  /**
+   * Gets an existing TableStore with implicit key/value conversion and
+   * with specified cleanup policy for cache. The partial cache is
+   * partitioned by the given function, and each partition is sorted.
+   * @throws IOException
+   */
+  <KEY, VALUE> Table<KEY, VALUE> getTable(String name,
+      Class<KEY> keyType, Class<VALUE> valueType,
+      TableCacheImpl.CacheCleanupPolicy cleanupPolicy,
+      Function<KEY, ?> cachePartitioner) throws IOException;
+
   /**
    * Lists the Known list of Tables in a DB.
    *
@@ -30,6 +30,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.apache.hadoop.hdds.HddsUtils;
 import org.apache.hadoop.hdds.utils.RocksDBStoreMBean;
@@ -38,6 +39,7 @@
 
 import com.google.common.base.Preconditions;
 import org.apache.hadoop.hdds.utils.db.cache.TableCacheImpl;
+import org.apache.hadoop.hdds.utils.db.cache.TableCacheMetrics;
 import org.apache.ratis.thirdparty.com.google.common.annotations.VisibleForTesting;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
@@ -67,6 +69,7 @@ public class RDBStore implements DBStore {
   private String checkpointsParentDir;
   private List<ColumnFamilyHandle> columnFamilyHandles;
   private RDBMetrics rdbMetrics;
+  private TableCacheMetrics tableCacheMetrics;
 
   @VisibleForTesting
   public RDBStore(File dbFile, DBOptions options,
@@ -132,6 +135,7 @@ public RDBStore(File dbFile, DBOptions options,
       //Initialize checkpoint manager
       checkPointManager = new RDBCheckpointManager(db, "om");
       rdbMetrics = RDBMetrics.create();
+      tableCacheMetrics = TableCacheMetrics.create();
 
     } catch (RocksDBException e) {
       String msg = "Failed init RocksDB, db path : " + dbFile.getAbsolutePath()
@@ -185,6 +189,7 @@ public void close() throws IOException {
     }
 
     rdbMetrics.unRegister();
+    tableCacheMetrics.unRegister();
     if (db != null) {
       db.close();
     }
@@ -265,16 +270,31 @@ public Table<byte[], byte[]> getTable(String name) throws IOException {
   @Override
   public <K, V> Table<K, V> getTable(String name,
       Class<K> keyType, Class<V> valueType) throws IOException {
-    return new TypedTable<>(getTable(name), codecRegistry, keyType,
-        valueType);
+    TypedTable<K, V> table = new TypedTable<>(getTable(name), codecRegistry,
+        keyType, valueType);
+    tableCacheMetrics.addTableCache(name, table.getCache());
+    return table;
   }
 
   @Override
   public <K, V> Table<K, V> getTable(String name,
       Class<K> keyType, Class<V> valueType,
       TableCacheImpl.CacheCleanupPolicy cleanupPolicy) throws IOException {
-    return new TypedTable<>(getTable(name), codecRegistry, keyType,
-        valueType, cleanupPolicy);
+    TypedTable<K, V> table = new TypedTable<>(getTable(name), codecRegistry,
+        keyType, valueType, cleanupPolicy);
+    tableCacheMetrics.addTableCache(name, table.getCache());
+    return table;
+  }
+
+  @Override
+  public <K, V> Table<K, V> getTable(String name,
+      Class<K> keyType, Class<V> valueType,
+      TableCacheImpl.CacheCleanupPolicy cleanupPolicy,
+      Function<K, ?> cachePartitioner) throws IOException {
+    TypedTable<K, V> table = new TypedTable<>(getTable(name), codecRegistry,
+        keyType, valueType, cleanupPolicy, cachePartitioner);
+    tableCacheMetrics.addTableCache(name, table.getCache());
+    return table;
   }
 
   @Override
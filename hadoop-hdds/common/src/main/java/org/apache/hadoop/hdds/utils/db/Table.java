@@ -156,6 +156,17 @@ default void cleanupCache(long epoch) {
     throw new NotImplementedException("cacheIterator is not implemented");
   }
 
+  /**
+   * Return cache iterator over the entries from the given key in key order.
+   * If the table cache is partitioned, it stops at the end of the partition
+   * of the key.
+   * @param startKey
+   */
+  default Iterator<Map.Entry<CacheKey<KEY>, CacheValue<VALUE>>>
+      cacheIterator(KEY startKey) {
+    throw new NotImplementedException("cacheIterator is not implemented");
+  }
+
   /**
    * Class used to represent the key and value pair of a db entry.
    */
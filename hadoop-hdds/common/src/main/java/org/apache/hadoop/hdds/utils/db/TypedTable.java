@@ -21,8 +21,8 @@
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Function;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
 import org.apache.hadoop.hdds.utils.db.cache.CacheResult;
@@ -87,11 +87,32 @@ public TypedTable(
       CodecRegistry codecRegistry, Class<KEY> keyType,
       Class<VALUE> valueType,
       TableCacheImpl.CacheCleanupPolicy cleanupPolicy) throws IOException {
+    this(rawTable, codecRegistry, keyType, valueType, cleanupPolicy, null);
+  }
+
+  /**
+   * Create an TypedTable from the raw table with specified cleanup policy
+   * for table cache, and the partitions of the cache which are iterated in
+   * key order.
+   * @param rawTable
+   * @param codecRegistry
+   * @param keyType
+   * @param valueType
+   * @param cleanupPolicy
+   * @param cachePartitioner returns the cache partition of a key, may be null
+   */
+  public TypedTable(
+      Table<byte[], byte[]> rawTable,
+      CodecRegistry codecRegistry, Class<KEY> keyType,
+      Class<VALUE> valueType,
+      TableCacheImpl.CacheCleanupPolicy cleanupPolicy,
+      Function<KEY, ?> cachePartitioner) throws IOException {
     this.rawTable = rawTable;
     this.codecRegistry = codecRegistry;
     this.keyType = keyType;
     this.valueType = valueType;
-    cache = new TableCacheImpl<>(cleanupPolicy);
+    cache = new TableCacheImpl<>(cleanupPolicy, cachePartitioner == null ?
+        null : cacheKey -> cachePartitioner.apply(cacheKey.getCacheKey()));
 
     if (cleanupPolicy == CacheCleanupPolicy.NEVER) {
       //fill cache
@@ -233,12 +254,17 @@ public Iterator<Map.Entry<CacheKey<KEY>, CacheValue<VALUE>>> cacheIterator() {
     return cache.iterator();
   }
 
+  @Override
+  public Iterator<Map.Entry<CacheKey<KEY>, CacheValue<VALUE>>> cacheIterator(
+      KEY startKey) {
+    return cache.iterator(new CacheKey<>(startKey));
+  }
+
   @Override
   public void cleanupCache(long epoch) {
     cache.cleanup(epoch);
   }
 
-  @VisibleForTesting
   TableCache<CacheKey<KEY>, CacheValue<VALUE>> getCache() {
     return cache;
   }
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hadoop.hdds.utils.db.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Index of the keys put into a table cache, by the epoch of their value. It
+ * is used to find the entries to be evicted from the cache after the epochs
+ * are flushed to the DB.
+ *
+ * The keys are appended to segments, each covering a fixed range of
+ * consecutive epochs, in chunks of arrays. Adding a key only needs atomic
+ * operations, and all the keys of an epoch range are dropped from the index
+ * at once when the whole range is evicted.
+ * @param <CACHEKEY>
+ */
+final class CacheEpochIndex<CACHEKEY> {
+
+  /**
+   * Number of consecutive epochs covered by a segment.
+   */
+  static final int SEGMENT_EPOCHS = 64;
+
+  /**
+   * Number of keys in a chunk of a segment.
+   */
+  static final int CHUNK_SIZE = 256;
+
+  private final ConcurrentSkipListMap<Long, Segment<CACHEKEY>> segments =
+      new ConcurrentSkipListMap<>();
+
+  private final LongAdder size = new LongAdder();
+
+  /**
+   * Adds a key which is put into the cache with the given epoch.
+   * @param epoch
+   * @param cachekey
+   */
+  void add(long epoch, CACHEKEY cachekey) {
+    long segmentId = Math.floorDiv(epoch, (long) SEGMENT_EPOCHS);
+    while (true) {
+      Segment<CACHEKEY> segment = segments.get(segmentId);
+      if (segment == null) {
+        segment = new Segment<>();
+        Segment<CACHEKEY> existing = segments.putIfAbsent(segmentId, segment);
+        if (existing != null) {
+          segment = existing;
+        }
+      }
+      if (segment.add(epoch, cachekey)) {
+        size.increment();
+        return;
+      }
+      // The segment is being evicted, the key goes to a new segment which
+      // is evicted by the next cleanup.
+      segments.remove(segmentId, segment);
+    }
+  }
+
+  /**
+   * Passes all the keys added with epoch less than or equal to the given
+   * epoch to the evictor. The segments covered entirely by the epoch are
+   * removed from the index. The keys of a segment covered partially stay in
+   * the index until a later eviction covers the whole segment, so the evictor
+   * may be called multiple times for the same key and should check the epoch
+   * of the cached value.
+   * @param epoch
+   * @param evictor
+   */
+  void evict(long epoch, Consumer<CACHEKEY> evictor) {
+    long lastSegmentId = Math.floorDiv(epoch, (long) SEGMENT_EPOCHS);
+    boolean lastSegmentCovered =
+        Math.floorMod(epoch, (long) SEGMENT_EPOCHS) == SEGMENT_EPOCHS - 1;
+    Iterator<Map.Entry<Long, Segment<CACHEKEY>>> iterator =
+        segments.headMap(lastSegmentId, true).entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Segment<CACHEKEY>> entry = iterator.next();
+      Segment<CACHEKEY> segment = entry.getValue();
+      if (entry.getKey() < lastSegmentId || lastSegmentCovered) {
+        segment.close();
+        segment.forEach(Long.MAX_VALUE, evictor);
+        segments.remove(entry.getKey(), segment);
+        size.add(-segment.size());
+      } else {
+        segment.forEach(epoch, evictor);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of keys in the index.
+   */
+  long size() {
+    return size.sum();
+  }
+
+  /**
+   * Keys added with the epochs of a segment range.
+   */
+  private static final class Segment<CACHEKEY> {
+
+    // Number of threads adding keys, or -1 if the segment is closed.
+    private final AtomicInteger writers = new AtomicInteger();
+    private final Chunk<CACHEKEY> head = new Chunk<>();
+    private volatile Chunk<CACHEKEY> tail = head;
+
+    boolean add(long epoch, CACHEKEY cachekey) {
+      int current;
+      do {
+        current = writers.get();
+        if (current < 0) {
+          return false;
+        }
+      } while (!writers.compareAndSet(current, current + 1));
+      try {
+        Chunk<CACHEKEY> chunk = tail;
+        while (!chunk.add(epoch, cachekey)) {
+          chunk = chunk.next();
+          tail = chunk;
+        }
+        return true;
+      } finally {
+        writers.decrementAndGet();
+      }
+    }
+
+    /**
+     * Stops adding keys to the segment, and waits for the threads adding
+     * keys to finish, so that all the keys of the segment are visible.
+     */
+    void close() {
+      while (!writers.compareAndSet(0, -1)) {
+        Thread.yield();
+      }
+    }
+
+    void forEach(long maxEpoch, Consumer<CACHEKEY> consumer) {
+      for (Chunk<CACHEKEY> chunk = head; chunk != null;
+           chunk = chunk.nextIfPresent()) {
+        chunk.forEach(maxEpoch, consumer);
+      }
+    }
+
+    long size() {
+      long count = 0;
+      for (Chunk<CACHEKEY> chunk = head; chunk != null;
+           chunk = chunk.nextIfPresent()) {
+        count += chunk.size();
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Fixed size array of keys and their epochs.
+   */
+  private static final class Chunk<CACHEKEY> {
+
+    private final AtomicReferenceArray<CACHEKEY> keys =
+        new AtomicReferenceArray<>(CHUNK_SIZE);
+    private final long[] epochs = new long[CHUNK_SIZE];
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicReference<Chunk<CACHEKEY>> next =
+        new AtomicReference<>();
+
+    boolean add(long epoch, CACHEKEY cachekey) {
+      int index = claimed.getAndIncrement();
+      if (index >= CHUNK_SIZE) {
+        return false;
+      }
+      // The epoch is published by setting the key.
+      epochs[index] = epoch;
+      keys.set(index, cachekey);
+      return true;
+    }
+
+    Chunk<CACHEKEY> next() {
+      Chunk<CACHEKEY> chunk = next.get();
+      if (chunk == null) {
+        next.compareAndSet(null, new Chunk<>());
+        chunk = next.get();
+      }
+      return chunk;
+    }
+
+    Chunk<CACHEKEY> nextIfPresent() {
+      return next.get();
+    }
+
+    void forEach(long maxEpoch, Consumer<CACHEKEY> consumer) {
+      int count = size();
+      for (int i = 0; i < count; i++) {
+        CACHEKEY cachekey = keys.get(i);
+        // A key which is still being added to an open segment is skipped.
+        if (cachekey != null && epochs[i] <= maxEpoch) {
+          consumer.accept(cachekey);
+        }
+      }
+    }
+
+    int size() {
+      return Math.min(claimed.get(), CHUNK_SIZE);
+    }
+  }
+}
@@ -76,12 +76,34 @@
    */
   int size();
 
+  /**
+   * Return the number of keys tracked for cleanup by epoch.
+   * @return number of keys
+   */
+  long getEpochEntryCount();
+
+  /**
+   * Return the number of epochs by which the cleanup of the cache is behind
+   * the latest epoch requested to be cleaned up.
+   * @return eviction lag
+   */
+  long getEvictionLag();
+
   /**
    * Return an iterator for the cache.
    * @return iterator of the underlying cache for the table.
    */
   Iterator<Map.Entry<CACHEKEY, CACHEVALUE>> iterator();
 
+  /**
+   * Return an iterator over the entries which are greater than or equal to
+   * the given key, in key order. If the cache is partitioned, only the
+   * entries of the partition of the given key are returned.
+   * @param fromKey
+   * @return sorted iterator of the underlying cache for the table.
+   */
+  Iterator<Map.Entry<CACHEKEY, CACHEVALUE>> iterator(CACHEKEY fromKey);
+
   /**
    * Check key exist in cache or not.
    *
@@ -19,15 +19,20 @@
 
 package org.apache.hadoop.hdds.utils.db.cache;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.NavigableSet;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.classification.InterfaceAudience.Private;
@@ -42,6 +47,15 @@
  *
  * If cache cleanup policy is set as {@link CacheCleanupPolicy#NEVER},
  * this will be a full cache.
+ *
+ * Keys put into the cache are tracked by epoch in a {@link CacheEpochIndex},
+ * cleanup requests are coalesced and the entries up to the latest requested
+ * epoch are evicted by a single cleanup thread.
+ *
+ * A partial cache can be partitioned, for example by bucket. The entries of
+ * each partition are also kept sorted, so that they can be iterated in key
+ * order from a key without scanning the whole cache, while the lookups by
+ * key stay in the hash map. Empty partitions are not removed.
  */
 @Private
 @Evolving
@@ -49,13 +63,32 @@
     CACHEVALUE extends CacheValue> implements TableCache<CACHEKEY, CACHEVALUE> {
 
   private final Map<CACHEKEY, CACHEVALUE> cache;
-  private final NavigableSet<EpochEntry<CACHEKEY>> epochEntries;
+  // Sorted entries of each partition, null if the cache is not partitioned.
+  private final ConcurrentMap<Object,
+      ConcurrentSkipListMap<CACHEKEY, CACHEVALUE>> partitions;
+  private final Function<? super CACHEKEY, ?> partitioner;
+  private final CacheEpochIndex<CACHEKEY> epochEntries;
   private ExecutorService executorService;
   private CacheCleanupPolicy cleanupPolicy;
 
-
+  // Latest epoch requested to be cleaned up.
+  private final AtomicLong cleanupEpoch = new AtomicLong(-1);
+  // Latest epoch cleaned up by the cleanup thread.
+  private volatile long evictedEpoch = -1;
+  private final AtomicBoolean cleanupScheduled = new AtomicBoolean();
 
   public TableCacheImpl(CacheCleanupPolicy cleanupPolicy) {
+    this(cleanupPolicy, null);
+  }
+
+  /**
+   * Creates a cache, which is partitioned if it is a partial cache and the
+   * partitioner is set.
+   * @param cleanupPolicy
+   * @param partitioner returns the partition of a key, may be null
+   */
+  public TableCacheImpl(CacheCleanupPolicy cleanupPolicy,
+      Function<? super CACHEKEY, ?> partitioner) {
 
     // As for full table cache only we need elements to be inserted in sorted
     // manner, so that list will be easy. For other we can go with Hash map.
@@ -64,7 +97,15 @@ public TableCacheImpl(CacheCleanupPolicy cleanupPolicy) {
     } else {
       cache = new ConcurrentHashMap<>();
     }
-    epochEntries = new ConcurrentSkipListSet<>();
+    // The full cache is sorted already.
+    if (cleanupPolicy == CacheCleanupPolicy.MANUAL && partitioner != null) {
+      this.partitioner = partitioner;
+      partitions = new ConcurrentHashMap<>();
+    } else {
+      this.partitioner = null;
+      partitions = null;
+    }
+    epochEntries = new CacheEpochIndex<>();
     // Created a singleThreadExecutor, so one cleanup will be running at a
     // time.
     ThreadFactory build = new ThreadFactoryBuilder().setDaemon(true)
@@ -82,18 +123,37 @@ public CACHEVALUE get(CACHEKEY cachekey) {
   public void loadInitial(CACHEKEY cacheKey, CACHEVALUE cacheValue) {
     // No need to add entry to epochEntries. Adding to cache is required during
     // normal put operation.
-    cache.put(cacheKey, cacheValue);
+    putEntry(cacheKey, cacheValue);
   }
 
   @Override
   public void put(CACHEKEY cacheKey, CACHEVALUE value) {
-    cache.put(cacheKey, value);
-    epochEntries.add(new EpochEntry<>(value.getEpoch(), cacheKey));
+    putEntry(cacheKey, value);
+    epochEntries.add(value.getEpoch(), cacheKey);
+  }
+
+  private void putEntry(CACHEKEY cacheKey, CACHEVALUE value) {
+    if (partitions == null) {
+      cache.put(cacheKey, value);
+    } else {
+      // The partition is updated under the lock of the key in the hash map,
+      // so it is consistent with the hash map after a concurrent eviction.
+      cache.compute(cacheKey, (k, v) -> {
+        partitions.computeIfAbsent(partitioner.apply(k),
+            p -> new ConcurrentSkipListMap<>()).put(k, value);
+        return value;
+      });
+    }
   }
 
   @Override
   public void cleanup(long epoch) {
-    executorService.submit(() -> evictCache(epoch, cleanupPolicy));
+    cleanupEpoch.accumulateAndGet(epoch, Math::max);
+    // A scheduled cleanup which has not started yet also evicts up to this
+    // epoch, so there is no need to schedule another one.
+    if (cleanupScheduled.compareAndSet(false, true)) {
+      executorService.submit(this::evictCache);
+    }
   }
 
   @Override
@@ -106,31 +166,68 @@ public Iterator<Map.Entry<CACHEKEY, CACHEVALUE>> iterator() {
     return cache.entrySet().iterator();
   }
 
-  private void evictCache(long epoch, CacheCleanupPolicy cacheCleanupPolicy) {
-    EpochEntry<CACHEKEY> currentEntry = null;
-    for (Iterator<EpochEntry<CACHEKEY>> iterator = epochEntries.iterator();
-         iterator.hasNext();) {
-      currentEntry = iterator.next();
-      CACHEKEY cachekey = currentEntry.getCachekey();
-      CacheValue cacheValue = cache.computeIfPresent(cachekey, ((k, v) -> {
-        if (cleanupPolicy == CacheCleanupPolicy.MANUAL) {
-          if (v.getEpoch() <= epoch) {
-            iterator.remove();
-            return null;
-          }
-        } else if (cleanupPolicy == CacheCleanupPolicy.NEVER) {
-          // Remove only entries which are marked for delete.
-          if (v.getEpoch() <= epoch && v.getCacheValue() == null) {
-            iterator.remove();
-            return null;
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<Map.Entry<CACHEKEY, CACHEVALUE>> iterator(
+      CACHEKEY fromKey) {
+    if (partitions != null) {
+      NavigableMap<CACHEKEY, CACHEVALUE> partition =
+          partitions.get(partitioner.apply(fromKey));
+      if (partition == null) {
+        return Collections.emptyIterator();
+      }
+      return partition.tailMap(fromKey, true).entrySet().iterator();
+    } else if (cache instanceof NavigableMap) {
+      return ((NavigableMap<CACHEKEY, CACHEVALUE>) cache)
+          .tailMap(fromKey, true).entrySet().iterator();
+    }
+    // The cache is not sorted, sort the entries from the key.
+    TreeMap<CACHEKEY, CACHEVALUE> sorted = new TreeMap<>();
+    cache.forEach((k, v) -> {
+      if (k.compareTo(fromKey) >= 0) {
+        sorted.put(k, v);
+      }
+    });
+    return sorted.entrySet().iterator();
+  }
+
+  @Override
+  public long getEpochEntryCount() {
+    return epochEntries.size();
+  }
+
+  @Override
+  public long getEvictionLag() {
+    return Math.max(0, cleanupEpoch.get() - evictedEpoch);
+  }
+
+  private void evictCache() {
+    cleanupScheduled.set(false);
+    long epoch = cleanupEpoch.get();
+    epochEntries.evict(epoch, cachekey ->
+        cache.computeIfPresent(cachekey, ((k, v) -> {
+          if (cleanupPolicy == CacheCleanupPolicy.MANUAL) {
+            if (v.getEpoch() <= epoch) {
+              removeFromPartition(k);
+              return null;
+            }
+          } else if (cleanupPolicy == CacheCleanupPolicy.NEVER) {
+            // Remove only entries which are marked for delete.
+            if (v.getEpoch() <= epoch && v.getCacheValue() == null) {
+              return null;
+            }
           }
-        }
-        return v;
-      }));
-      // If currentEntry epoch is greater than epoch, we have deleted all
-      // entries less than specified epoch. So, we can break.
-      if (cacheValue != null && cacheValue.getEpoch() >= epoch) {
-        break;
+          return v;
+        })));
+    evictedEpoch = epoch;
+  }
+
+  private void removeFromPartition(CACHEKEY cachekey) {
+    if (partitions != null) {
+      Map<CACHEKEY, CACHEVALUE> partition =
+          partitions.get(partitioner.apply(cachekey));
+      if (partition != null) {
+        partition.remove(cachekey);
       }
     }
   }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.hadoop.hdds.utils.db.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.classification.InterfaceAudience.Private;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.MetricsSystem;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.Interns;
+
+/**
+ * Metrics of the caches of the tables in a DB store.
+ */
+@Private
+public class TableCacheMetrics implements MetricsSource {
+
+  private static final String SOURCE_NAME =
+      TableCacheMetrics.class.getSimpleName();
+
+  private final Map<String, TableCache<?, ?>> tableCaches =
+      new ConcurrentHashMap<>();
+
+  public static TableCacheMetrics create() {
+    MetricsSystem ms = DefaultMetricsSystem.instance();
+    return ms.register(SOURCE_NAME, "Table Cache Metrics",
+        new TableCacheMetrics());
+  }
+
+  /**
+   * Adds the cache of a table to the metrics, replacing the cache previously
+   * added for the same table.
+   * @param tableName
+   * @param tableCache
+   */
+  public void addTableCache(String tableName, TableCache<?, ?> tableCache) {
+    tableCaches.put(tableName, tableCache);
+  }
+
+  @Override
+  public void getMetrics(MetricsCollector collector, boolean all) {
+    MetricsRecordBuilder builder = collector.addRecord(SOURCE_NAME);
+    tableCaches.forEach((tableName, tableCache) -> builder
+        .addGauge(Interns.info(tableName + "CacheSize",
+            "Number of entries in the cache of " + tableName),
+            tableCache.size())
+        .addGauge(Interns.info(tableName + "CacheEpochEntries",
+            "Number of cache entries of " + tableName + " tracked for cleanup"),
+            tableCache.getEpochEntryCount())
+        .addGauge(Interns.info(tableName + "CacheEvictionLag",
+            "Number of epochs the cleanup of the cache of " + tableName
+                + " is behind"), tableCache.getEvictionLag()));
+    builder.endRecord();
+  }
+
+  public void unRegister() {
+    MetricsSystem ms = DefaultMetricsSystem.instance();
+    ms.unregisterSource(SOURCE_NAME);
+  }
+}
@@ -56,6 +56,14 @@ public final class OzoneConfigKeys {
   public static final boolean DFS_CONTAINER_IPC_RANDOM_PORT_DEFAULT =
       false;
 
+  /**
+   * Number of threads which handle the requests sent by the clients on a
+   * shared gRPC stream.
+   */
+  public static final String DFS_CONTAINER_IPC_HANDLER_COUNT_KEY =
+      "dfs.container.ipc.handler.count";
+  public static final int DFS_CONTAINER_IPC_HANDLER_COUNT_DEFAULT = 32;
+
   public static final String DFS_CONTAINER_CHUNK_WRITE_SYNC_KEY =
       "dfs.container.chunk.write.sync";
   public static final boolean DFS_CONTAINER_CHUNK_WRITE_SYNC_DEFAULT = false;
@@ -104,6 +112,15 @@ public final class OzoneConfigKeys {
       "ozone.container.cache.size";
   public static final int OZONE_CONTAINER_CACHE_DEFAULT = 1024;
 
+  public static final String OZONE_CONTAINER_SCHEMA_VERSION =
+      "ozone.container.schema.version";
+  public static final String OZONE_CONTAINER_SCHEMA_VERSION_DEFAULT =
+      OzoneConsts.SCHEMA_V1;
+  public static final String OZONE_CONTAINER_SCHEMA_MIGRATION_ENABLED =
+      "ozone.container.schema.migration.enabled";
+  public static final boolean
+      OZONE_CONTAINER_SCHEMA_MIGRATION_ENABLED_DEFAULT = false;
+
   public static final String OZONE_SCM_BLOCK_SIZE =
       "ozone.scm.block.size";
   public static final String OZONE_SCM_BLOCK_SIZE_DEFAULT = "256MB";
@@ -134,6 +151,25 @@ public final class OzoneConfigKeys {
   public static final String OZONE_CLIENT_STREAM_BUFFER_MAX_SIZE_DEFAULT =
       "128MB";
 
+  // Limit of the buffers shared by all output streams of a client, 0 to
+  // allocate separate buffers for each stream.
+  public static final String OZONE_CLIENT_BUFFER_POOL_MAX_SIZE =
+      "ozone.client.buffer.pool.max.size";
+
+  public static final String OZONE_CLIENT_BUFFER_POOL_MAX_SIZE_DEFAULT =
+      "0";
+
+  public static final String OZONE_CLIENT_BUFFER_POOL_DIRECT =
+      "ozone.client.buffer.pool.direct";
+
+  public static final boolean OZONE_CLIENT_BUFFER_POOL_DIRECT_DEFAULT = false;
+
+  public static final String OZONE_CLIENT_BUFFER_POOL_WAIT_TIMEOUT =
+      "ozone.client.buffer.pool.wait.timeout";
+
+  public static final String OZONE_CLIENT_BUFFER_POOL_WAIT_TIMEOUT_DEFAULT =
+      "30s";
+
   public static final String OZONE_CLIENT_WATCH_REQUEST_TIMEOUT =
       "ozone.client.watch.request.timeout";
 
@@ -371,9 +407,19 @@ public final class OzoneConfigKeys {
       "ozone.security.enabled";
   public static final boolean OZONE_SECURITY_ENABLED_DEFAULT = false;
 
+  /**
+   * @deprecated Replicated containers are extracted to a temporary directory
+   * of the destination volume.
+   */
+  @Deprecated
   public static final String OZONE_CONTAINER_COPY_WORKDIR =
       "hdds.datanode.replication.work.dir";
 
+  public static final String HDDS_DATANODE_REPLICATION_COMPRESSION =
+      "hdds.datanode.replication.compression";
+  public static final String HDDS_DATANODE_REPLICATION_COMPRESSION_DEFAULT =
+      "NO_COMPRESSION";
+
   /**
    * Config properties to set client side checksum properties.
    */
@@ -446,6 +492,20 @@ public final class OzoneConfigKeys {
       "ozone.network.topology.aware.read";
   public static final boolean OZONE_NETWORK_TOPOLOGY_AWARE_READ_DEFAULT = false;
 
+  public static final String OZONE_CLIENT_HEDGED_READ_ENABLED_KEY =
+      "ozone.client.hedged.read.enabled";
+  public static final boolean OZONE_CLIENT_HEDGED_READ_ENABLED_DEFAULT = false;
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_KEY =
+      "ozone.client.hedged.read.threshold";
+  public static final String OZONE_CLIENT_HEDGED_READ_THRESHOLD_DEFAULT =
+      "500ms";
+  public static final String OZONE_CLIENT_HEDGED_READ_PERCENTILE_KEY =
+      "ozone.client.hedged.read.threshold.percentile";
+  public static final double OZONE_CLIENT_HEDGED_READ_PERCENTILE_DEFAULT = 0;
+  public static final String OZONE_CLIENT_HEDGED_READ_MAX_CONCURRENT_KEY =
+      "ozone.client.hedged.read.max.concurrent";
+  public static final int OZONE_CLIENT_HEDGED_READ_MAX_CONCURRENT_DEFAULT = 16;
+
   public static final String OZONE_MANAGER_FAIR_LOCK = "ozone.om.lock.fair";
   public static final boolean OZONE_MANAGER_FAIR_LOCK_DEFAULT = false;
 
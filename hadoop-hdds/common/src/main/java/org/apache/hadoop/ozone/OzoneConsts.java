@@ -117,6 +117,8 @@ public final class OzoneConsts {
   public static final String SCM_CONTAINER_DB = "scm-" + CONTAINER_DB_SUFFIX;
   public static final String SCM_PIPELINE_DB = "scm-" + PIPELINE_DB_SUFFIX;
   public static final String DN_CONTAINER_DB = "-dn-"+ CONTAINER_DB_SUFFIX;
+  public static final String DN_VOLUME_CONTAINER_DB =
+      "volume-" + CONTAINER_DB_SUFFIX;
   public static final String DELETED_BLOCK_DB = "deletedBlock.db";
   public static final String OM_DB_NAME = "om.db";
   public static final String OM_DB_BACKUP_PREFIX = "om.db.backup.";
@@ -144,6 +146,12 @@ public static Versioning getVersioning(boolean versioning) {
   public static final String DELETE_TRANSACTION_KEY_PREFIX = "#delTX#";
   public static final String BLOCK_COMMIT_SEQUENCE_ID_PREFIX = "#BCSID";
 
+  // Usage counters of a container, kept in its DB next to the blocks.
+  public static final String BLOCK_COUNT = "#BLOCKCOUNT";
+  public static final String CONTAINER_BYTES_USED = "#BYTESUSED";
+  public static final String PENDING_DELETE_BLOCK_COUNT =
+      "#PENDINGDELETEBLOCKCOUNT";
+
   /**
    * OM LevelDB prefixes.
    *
@@ -225,11 +233,18 @@ private OzoneConsts() {
   public static final String METADATA_PATH = "metadataPath";
   public static final String CHUNKS_PATH = "chunksPath";
   public static final String CONTAINER_DB_TYPE = "containerDBType";
+  public static final String SCHEMA_VERSION = "schemaVersion";
   public static final String CHECKSUM = "checksum";
   public static final String DATA_SCAN_TIMESTAMP = "dataScanTimestamp";
   public static final String ORIGIN_PIPELINE_ID = "originPipelineId";
   public static final String ORIGIN_NODE_ID = "originNodeId";
 
+  // Container schema versions. Containers with schema version 1 keep their
+  // block metadata in their own DB, containers with schema version 2 in the
+  // DB of their volume.
+  public static final String SCHEMA_V1 = "1";
+  public static final String SCHEMA_V2 = "2";
+
   // Supported store types.
   public static final String OZONE = "ozone";
   public static final String S3 = "s3";
@@ -251,6 +266,7 @@ private OzoneConsts() {
   public static final String MAX_KEYS = "maxKeys";
   public static final String PREFIX = "prefix";
   public static final String KEY_PREFIX = "keyPrefix";
+  public static final String DELIMITER = "delimiter";
   public static final String ACL = "acl";
   public static final String ACLS = "acls";
   public static final String USER_ACL = "userAcl";
@@ -258,6 +274,7 @@ private OzoneConsts() {
   public static final String REMOVE_ACLS = "removeAcls";
   public static final String MAX_NUM_OF_BUCKETS = "maxNumOfBuckets";
   public static final String TO_KEY_NAME = "toKeyName";
+  public static final String TO_KEY_PREFIX = "toKeyPrefix";
   public static final String STORAGE_TYPE = "storageType";
   public static final String RESOURCE_TYPE = "resourceType";
   public static final String IS_VERSION_ENABLED = "isVersionEnabled";
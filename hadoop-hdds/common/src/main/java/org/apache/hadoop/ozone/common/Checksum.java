@@ -32,6 +32,8 @@
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
     .ChecksumType;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.apache.hadoop.util.DataChecksum;
+import org.apache.hadoop.util.NativeCodeLoader;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +46,16 @@
 public class Checksum {
   public static final Logger LOG = LoggerFactory.getLogger(Checksum.class);
 
+  /**
+   * Whether libhadoop is loaded, so the CRCs of all the bytesPerChecksum
+   * slices of a buffer can be computed natively in one call.
+   */
+  private static final boolean NATIVE_CRC =
+      NativeCodeLoader.isNativeCodeLoaded();
+
+  /** Max number of bytes passed to libhadoop in one call. */
+  private static final int MAX_CHUNKED_CRC_LENGTH = 16 * 1024 * 1024;
+
   private static Function<ByteBuffer, ByteString> newMessageDigestFunction(
       String algorithm) {
     final MessageDigest md;
@@ -77,8 +89,10 @@ private static Function<ByteBuffer, ByteString> newChecksumByteBufferFunction(
   /** The algorithms for {@link ChecksumType}. */
   enum Algorithm {
     NONE(() -> data -> ByteString.EMPTY),
-    CRC32(() -> newChecksumByteBufferFunction(PureJavaCrc32ByteBuffer::new)),
-    CRC32C(() -> newChecksumByteBufferFunction(PureJavaCrc32CByteBuffer::new)),
+    CRC32(() -> newChecksumByteBufferFunction(
+        ChecksumByteBufferFactory::crc32Impl)),
+    CRC32C(() -> newChecksumByteBufferFunction(
+        ChecksumByteBufferFactory::crc32CImpl)),
     SHA256(() -> newMessageDigestFunction("SHA-256")),
     MD5(() -> newMessageDigestFunction("MD5"));
 
@@ -174,12 +188,55 @@ public ChecksumData computeChecksum(ChunkBuffer data)
     // starting at offset 0. The last checksum might be computed for the
     // remaining data with length less than bytesPerChecksum.
     final List<ByteString> checksumList = new ArrayList<>();
-    for (ByteBuffer b : data.iterate(bytesPerChecksum)) {
-      checksumList.add(computeChecksum(b, function, bytesPerChecksum));
+    if (NATIVE_CRC && isCrc(checksumType)) {
+      computeChunkedCrcs(data, function, checksumList);
+    } else {
+      for (ByteBuffer b : data.iterate(bytesPerChecksum)) {
+        checksumList.add(computeChecksum(b, function, bytesPerChecksum));
+      }
     }
     return new ChecksumData(checksumType, bytesPerChecksum, checksumList);
   }
 
+  private static boolean isCrc(ChecksumType type) {
+    return type == ChecksumType.CRC32 || type == ChecksumType.CRC32C;
+  }
+
+  /**
+   * Computes the CRCs of the data with {@link DataChecksum}, which uses
+   * libhadoop to compute the CRCs of many slices in one call. The buffers
+   * which are neither direct nor backed by an accessible array can not be
+   * passed to libhadoop, their CRCs are computed by the given function.
+   */
+  @VisibleForTesting
+  void computeChunkedCrcs(ChunkBuffer data,
+      Function<ByteBuffer, ByteString> function, List<ByteString> checksums) {
+    final DataChecksum crc = DataChecksum.newDataChecksum(
+        checksumType == ChecksumType.CRC32
+            ? DataChecksum.Type.CRC32 : DataChecksum.Type.CRC32C,
+        bytesPerChecksum);
+    // The data is iterated in runs of whole bytesPerChecksum slices.
+    final int sliceLength = Math.max(1, MAX_CHUNKED_CRC_LENGTH
+        / bytesPerChecksum) * bytesPerChecksum;
+    for (ByteBuffer b : data.iterate(sliceLength)) {
+      if (b.hasArray() || b.isDirect()) {
+        final int count = (b.remaining() + bytesPerChecksum - 1)
+            / bytesPerChecksum;
+        final ByteBuffer sums = b.isDirect()
+            ? ByteBuffer.allocateDirect(count * 4)
+            : ByteBuffer.allocate(count * 4);
+        crc.calculateChunkedSums(b, sums);
+        for (int i = 0; i < count; i++) {
+          checksums.add(ByteString.copyFrom(sums, 4));
+        }
+      } else {
+        for (ByteBuffer slice : ChunkBuffer.wrap(b).iterate(bytesPerChecksum)) {
+          checksums.add(computeChecksum(slice, function, bytesPerChecksum));
+        }
+      }
+    }
+  }
+
   /**
    * Compute checksum using the algorithm for the data upto the max length.
    * @param data input data
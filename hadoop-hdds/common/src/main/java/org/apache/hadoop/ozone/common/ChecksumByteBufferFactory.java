@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.hadoop.ozone.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Creates the fastest {@link ChecksumByteBuffer} available in this JVM for
+ * each CRC.
+ */
+public final class ChecksumByteBufferFactory {
+
+  // Constructor of java.util.zip.CRC32C, which only exists since Java 9.
+  private static final MethodHandle NEW_CRC32C = findCrc32CConstructor();
+
+  private ChecksumByteBufferFactory() {
+  }
+
+  private static MethodHandle findCrc32CConstructor() {
+    try {
+      Class<?> clazz = Class.forName("java.util.zip.CRC32C");
+      return MethodHandles.publicLookup()
+          .findConstructor(clazz, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Checksum.class));
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns whether CRC32C is computed by the JDK, which the JVM does with
+   * the CRC instructions of the CPU.
+   */
+  public static boolean isJdkCrc32CAvailable() {
+    return NEW_CRC32C != null;
+  }
+
+  public static ChecksumByteBuffer crc32Impl() {
+    return new ChecksumByteBufferImpl(new CRC32());
+  }
+
+  public static ChecksumByteBuffer crc32CImpl() {
+    if (NEW_CRC32C == null) {
+      return new PureJavaCrc32CByteBuffer();
+    }
+    try {
+      return new ChecksumByteBufferImpl((Checksum) NEW_CRC32C.invokeExact());
+    } catch (Throwable t) {
+      throw new IllegalStateException("Failed to create CRC32C", t);
+    }
+  }
+}
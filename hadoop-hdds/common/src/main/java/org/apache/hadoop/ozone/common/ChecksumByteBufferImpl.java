@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.hadoop.ozone.common;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * A {@link ChecksumByteBuffer} backed by a {@link Checksum} of the JDK,
+ * such as {@link CRC32}, which the JVM computes with the CRC instructions
+ * of the CPU.
+ */
+public class ChecksumByteBufferImpl implements ChecksumByteBuffer {
+
+  // Size of the copies of the buffers without an accessible array.
+  private static final int SCRATCH_SIZE = 8 * 1024;
+
+  private final Checksum checksum;
+  private byte[] scratch;
+
+  public ChecksumByteBufferImpl(Checksum checksum) {
+    this.checksum = checksum;
+  }
+
+  @Override
+  public void update(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      checksum.update(buffer.array(),
+          buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      buffer.position(buffer.limit());
+    } else if (checksum instanceof CRC32) {
+      ((CRC32) checksum).update(buffer);
+    } else {
+      if (scratch == null) {
+        scratch = new byte[SCRATCH_SIZE];
+      }
+      while (buffer.hasRemaining()) {
+        int length = Math.min(buffer.remaining(), scratch.length);
+        buffer.get(scratch, 0, length);
+        checksum.update(scratch, 0, length);
+      }
+    }
+  }
+
+  @Override
+  public void update(byte[] b, int off, int len) {
+    checksum.update(b, off, len);
+  }
+
+  @Override
+  public void update(int b) {
+    checksum.update(b);
+  }
+
+  @Override
+  public long getValue() {
+    return checksum.getValue();
+  }
+
+  @Override
+  public void reset() {
+    checksum.reset();
+  }
+}
@@ -35,6 +35,9 @@ static ChunkBuffer wrap(ByteBuffer buffer) {
     return new ChunkBufferImplWithByteBuffer(buffer);
   }
 
+  /** Similar to {@link ByteBuffer#capacity()}. */
+  int capacity();
+
   /** Similar to {@link ByteBuffer#position()}. */
   int position();
 
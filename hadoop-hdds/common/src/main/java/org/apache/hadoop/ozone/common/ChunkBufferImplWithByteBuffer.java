@@ -32,6 +32,11 @@ public final class ChunkBufferImplWithByteBuffer implements ChunkBuffer {
     this.buffer = Objects.requireNonNull(buffer, "buffer == null");
   }
 
+  @Override
+  public int capacity() {
+    return buffer.capacity();
+  }
+
   @Override
   public int position() {
     return buffer.position();
@@ -21,7 +21,8 @@
  * Similar to {@link org.apache.hadoop.util.PureJavaCrc32}
  * except that this class implement {@link ChecksumByteBuffer}.
  */
-final class PureJavaCrc32ByteBuffer extends ChecksumByteBuffer.CrcIntTable {
+public final class PureJavaCrc32ByteBuffer
+    extends ChecksumByteBuffer.CrcIntTable {
   @Override
   int[] getTable() {
     return T;
@@ -35,6 +35,7 @@ public class ChunkInfo {
   private final String chunkName;
   private final long offset;
   private final long len;
+  private long blockOffset = -1;
   private ChecksumData checksumData;
   private final Map<String, String> metadata;
 
@@ -91,6 +92,10 @@ public static ChunkInfo getFromProtoBuf(ContainerProtos.ChunkInfo info)
     chunkInfo.setChecksumData(
         ChecksumData.getFromProtoBuf(info.getChecksumData()));
 
+    if (info.hasBlockOffset()) {
+      chunkInfo.setBlockOffset(info.getBlockOffset());
+    }
+
     return chunkInfo;
   }
 
@@ -106,6 +111,9 @@ public ContainerProtos.ChunkInfo getProtoBufMessage() {
     builder.setChunkName(this.getChunkName());
     builder.setOffset(this.getOffset());
     builder.setLen(this.getLen());
+    if (hasBlockOffset()) {
+      builder.setBlockOffset(blockOffset);
+    }
     if (checksumData == null) {
       // ChecksumData cannot be null while computing the protobufMessage.
       // Set it to NONE type (equivalent to non checksum).
@@ -151,6 +159,31 @@ public long getLen() {
     return len;
   }
 
+  /**
+   * Returns whether the offset of the chunk within its block is known.
+   *
+   * @return true if the block offset was set.
+   */
+  public boolean hasBlockOffset() {
+    return blockOffset >= 0;
+  }
+
+  /**
+   * Gets the start offset of the given chunk within its block.
+   *
+   * @return - long, or -1 if it is not known.
+   */
+  public long getBlockOffset() {
+    return blockOffset;
+  }
+
+  /**
+   * Sets the start offset of the given chunk within its block.
+   */
+  public void setBlockOffset(long blockOffset) {
+    this.blockOffset = blockOffset;
+  }
+
   /**
    * Returns the checksumData of this chunk.
    */
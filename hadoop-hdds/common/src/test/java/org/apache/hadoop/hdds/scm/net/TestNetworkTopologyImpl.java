@@ -295,6 +295,28 @@ public void testAddRemove() {
     }
   }
 
+  @Test
+  public void testDistanceCostAfterAddRemove() {
+    Node node1 = dataNodes[0];
+    Node node2 = dataNodes[dataNodes.length - 1];
+    int cost = cluster.getDistanceCost(node1, node2);
+    Node parent = cluster.getAncestor(node2, 1);
+    assertTrue(cost > 0 && cost < Integer.MAX_VALUE);
+
+    cluster.remove(node2);
+    assertFalse(cluster.contains(node2));
+    assertNull(cluster.getAncestor(node2, 1));
+    assertEquals(Integer.MAX_VALUE, cluster.getDistanceCost(node1, node2));
+    assertEquals(Integer.MAX_VALUE, cluster.getDistanceCost(node2, node1));
+
+    cluster.add(node2);
+    assertTrue(cluster.contains(node2));
+    assertEquals(parent.getNetworkFullPath(),
+        cluster.getAncestor(node2, 1).getNetworkFullPath());
+    assertEquals(cost, cluster.getDistanceCost(node1, node2));
+    assertEquals(cost, cluster.getDistanceCost(node2, node1));
+  }
+
   @Test
   public void testGetNodesWithLevel() {
     int maxLevel = cluster.getMaxLevel();
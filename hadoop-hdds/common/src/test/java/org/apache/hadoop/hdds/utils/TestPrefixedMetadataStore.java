@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership.  The ASF
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.hadoop.hdds.utils;
+
+import com.google.common.primitives.Longs;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdfs.DFSUtil;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.apache.hadoop.test.GenericTestUtils;
+import org.apache.hadoop.hdds.utils.MetadataKeyFilters.KeyPrefixFilter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.hadoop.test.PlatformAssumptions.assumeNotWindows;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test class for the prefixed view of a metadata store.
+ */
+@RunWith(Parameterized.class)
+public class TestPrefixedMetadataStore {
+
+  private final String storeImpl;
+  private MetadataStore store;
+  private MetadataStore first;
+  private MetadataStore second;
+  private File testDir;
+
+  public TestPrefixedMetadataStore(String metadataImpl) {
+    this.storeImpl = metadataImpl;
+  }
+
+  @Parameters
+  public static Collection<Object[]> data() {
+    return Arrays.asList(new Object[][] {
+        {OzoneConfigKeys.OZONE_METADATA_STORE_IMPL_LEVELDB},
+        {OzoneConfigKeys.OZONE_METADATA_STORE_IMPL_ROCKSDB}
+    });
+  }
+
+  @Before
+  public void init() throws IOException {
+    if (OzoneConfigKeys.OZONE_METADATA_STORE_IMPL_ROCKSDB.equals(storeImpl)) {
+      // The initialization of RocksDB fails on Windows
+      assumeNotWindows();
+    }
+
+    testDir = GenericTestUtils.getTestDir(getClass().getSimpleName()
+        + "-" + storeImpl.toLowerCase());
+
+    Configuration conf = new OzoneConfiguration();
+    conf.set(OzoneConfigKeys.OZONE_METADATA_STORE_IMPL, storeImpl);
+
+    store = MetadataStoreBuilder.newBuilder()
+        .setConf(conf)
+        .setCreateIfMissing(true)
+        .setDbFile(testDir)
+        .build();
+    first = new PrefixedMetadataStore(store, Longs.toByteArray(1));
+    second = new PrefixedMetadataStore(store, Longs.toByteArray(2));
+
+    // {a0 : a-value0} to {a9 : a-value9} in both views
+    // {b0 : b-value0} to {b4 : b-value4} in the first view only
+    for (int i = 0; i < 10; i++) {
+      first.put(getBytes("a" + i), getBytes("a-value" + i));
+      second.put(getBytes("a" + i), getBytes("a-value" + i));
+    }
+    for (int i = 0; i < 5; i++) {
+      first.put(getBytes("b" + i), getBytes("b-value" + i));
+    }
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    if (store != null) {
+      store.close();
+      store.destroy();
+    }
+    if (testDir != null) {
+      FileUtils.deleteDirectory(testDir);
+    }
+  }
+
+  private byte[] getBytes(String str) {
+    return str == null ? null : DFSUtil.string2Bytes(str);
+  }
+
+  private String getString(byte[] bytes) {
+    return bytes == null ? null : DFSUtil.bytes2String(bytes);
+  }
+
+  @Test
+  public void testGetPutDelete() throws IOException {
+    assertEquals("b-value3", getString(first.get(getBytes("b3"))));
+    assertNull(second.get(getBytes("b3")));
+
+    second.delete(getBytes("a3"));
+    assertNull(second.get(getBytes("a3")));
+    assertEquals("a-value3", getString(first.get(getBytes("a3"))));
+
+    // The keys of the underlying store have the prefix.
+    assertNull(store.get(getBytes("a1")));
+    assertFalse(store.isEmpty());
+  }
+
+  @Test
+  public void testGetRangeKVs() throws IOException {
+    List<Map.Entry<byte[], byte[]>> result =
+        first.getRangeKVs(null, Integer.MAX_VALUE);
+    assertEquals(15, result.size());
+    assertEquals("a0", getString(result.get(0).getKey()));
+    assertEquals("b4", getString(result.get(14).getKey()));
+
+    result = second.getRangeKVs(getBytes("a5"), 3);
+    assertEquals(3, result.size());
+    assertEquals("a5", getString(result.get(0).getKey()));
+    assertEquals("a-value7", getString(result.get(2).getValue()));
+
+    KeyPrefixFilter filter = new KeyPrefixFilter().addFilter("b");
+    result = first.getRangeKVs(null, Integer.MAX_VALUE, filter);
+    assertEquals(5, result.size());
+    result = second.getRangeKVs(null, Integer.MAX_VALUE, filter);
+    assertTrue(result.isEmpty());
+
+    // The range stops at the first key which is not accepted.
+    filter = new KeyPrefixFilter().addFilter("a");
+    result = first.getSequentialRangeKVs(getBytes("a8"), Integer.MAX_VALUE,
+        filter);
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  public void testWriteBatch() throws IOException {
+    BatchOperation batch = new BatchOperation();
+    batch.put(getBytes("c0"), getBytes("c-value0"));
+    batch.delete(getBytes("a0"));
+    second.writeBatch(batch);
+
+    assertEquals("c-value0", getString(second.get(getBytes("c0"))));
+    assertNull(second.get(getBytes("a0")));
+    assertNull(first.get(getBytes("c0")));
+    assertEquals("a-value0", getString(first.get(getBytes("a0"))));
+  }
+
+  @Test
+  public void testIterate() throws IOException {
+    int[] count = {0};
+    second.iterate(null, (key, value) -> {
+      assertTrue(getString(key).startsWith("a"));
+      count[0]++;
+      return true;
+    });
+    assertEquals(10, count[0]);
+
+    MetaStoreIterator<MetadataStore.KeyValue> iterator = first.iterator();
+    iterator.seekToLast();
+    assertTrue(iterator.hasNext());
+    assertEquals("b4", getString(iterator.next().getKey()));
+    assertFalse(iterator.hasNext());
+
+    iterator.seekToFirst();
+    count[0] = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count[0]++;
+    }
+    assertEquals(15, count[0]);
+  }
+
+  @Test
+  public void testPeekAround() throws IOException {
+    ImmutablePair<byte[], byte[]> peek = second.peekAround(0, null);
+    assertEquals("a0", getString(peek.getKey()));
+    peek = second.peekAround(1, getBytes("a9"));
+    assertNull(peek);
+    peek = first.peekAround(-1, getBytes("b0"));
+    assertArrayEquals(getBytes("a9"), peek.getKey());
+  }
+
+  @Test
+  public void testDestroy() throws IOException {
+    first.destroy();
+    assertTrue(first.isEmpty());
+    assertFalse(second.isEmpty());
+    assertEquals(10, second.getRangeKVs(null, Integer.MAX_VALUE).size());
+  }
+}
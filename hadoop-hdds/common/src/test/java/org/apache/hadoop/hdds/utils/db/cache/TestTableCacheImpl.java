@@ -19,8 +19,11 @@
 
 package org.apache.hadoop.hdds.utils.db.cache;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import com.google.common.base.Optional;
@@ -158,6 +161,113 @@ public void testPartialTableCacheParallel() throws Exception {
 
   }
 
+  @Test
+  public void testCleanupEntriesWithSameEpoch() throws Exception {
+    // Keys put by a single transaction share the epoch, and epochs span
+    // multiple segments of the epoch index.
+    int epochs = CacheEpochIndex.SEGMENT_EPOCHS * 2 + 3;
+    int keysPerEpoch = 5;
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      for (int i = 0; i < keysPerEpoch; i++) {
+        String key = epoch + "-" + i;
+        tableCache.put(new CacheKey<>(key), new CacheValue<>(
+            i % 2 == 0 ? Optional.of(key) : Optional.absent(), epoch));
+      }
+    }
+    Assert.assertEquals(epochs * keysPerEpoch, tableCache.size());
+    Assert.assertEquals(epochs * keysPerEpoch,
+        tableCache.getEpochEntryCount());
+
+    // Cleanup within a segment.
+    int cleanupEpoch = CacheEpochIndex.SEGMENT_EPOCHS + 10;
+    tableCache.cleanup(cleanupEpoch);
+    GenericTestUtils.waitFor(() -> tableCache.getEvictionLag() == 0, 100,
+        5000);
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      for (int i = 0; i < keysPerEpoch; i++) {
+        CacheValue<String> value =
+            tableCache.get(new CacheKey<>(epoch + "-" + i));
+        boolean evicted = epoch <= cleanupEpoch &&
+            (cacheCleanupPolicy == TableCacheImpl.CacheCleanupPolicy.MANUAL
+                || i % 2 == 1);
+        Assert.assertEquals(evicted, value == null);
+      }
+    }
+    // Keys of a partially cleaned up segment are still tracked.
+    Assert.assertEquals((epochs - CacheEpochIndex.SEGMENT_EPOCHS) *
+        keysPerEpoch, tableCache.getEpochEntryCount());
+
+    tableCache.cleanup(CacheEpochIndex.SEGMENT_EPOCHS * 3 - 1);
+    GenericTestUtils.waitFor(() -> tableCache.getEvictionLag() == 0, 100,
+        5000);
+    if (cacheCleanupPolicy == TableCacheImpl.CacheCleanupPolicy.MANUAL) {
+      Assert.assertEquals(0, tableCache.size());
+    } else {
+      // Only the entries marked for delete are removed from a full cache.
+      Assert.assertEquals(epochs * (keysPerEpoch / 2 + 1), tableCache.size());
+    }
+    Assert.assertEquals(0, tableCache.getEpochEntryCount());
+  }
+
+  @Test
+  public void testCleanupDoesNotEvictNewerValue() throws Exception {
+    CacheKey<String> key = new CacheKey<>("key");
+    tableCache.put(key, new CacheValue<>(Optional.absent(), 1));
+    tableCache.put(key, new CacheValue<>(Optional.absent(), 2));
+
+    tableCache.cleanup(1);
+    GenericTestUtils.waitFor(() -> tableCache.getEvictionLag() == 0, 100,
+        5000);
+    Assert.assertEquals(2, tableCache.get(key).getEpoch());
+
+    tableCache.cleanup(2);
+    GenericTestUtils.waitFor(() -> tableCache.getEvictionLag() == 0, 100,
+        5000);
+    Assert.assertNull(tableCache.get(key));
+  }
+
+  @Test
+  public void testIteratorFromKey() throws Exception {
+    // Partitioned by the part of the key before the first slash.
+    TableCache<CacheKey<String>, CacheValue<String>> cache =
+        new TableCacheImpl<>(cacheCleanupPolicy,
+            key -> key.getCacheKey().split("/")[0]);
+    String[] keys = {"b/3", "a/2", "c/1", "b/1", "a/1", "b/2"};
+    for (int i = 0; i < keys.length; i++) {
+      cache.put(new CacheKey<>(keys[i]),
+          new CacheValue<>(Optional.of(keys[i]), i));
+    }
+
+    if (cacheCleanupPolicy == TableCacheImpl.CacheCleanupPolicy.MANUAL) {
+      // Only the partition of the key is iterated.
+      Assert.assertEquals(Arrays.asList("b/2", "b/3"),
+          keysFrom(cache, "b/2"));
+    } else {
+      Assert.assertEquals(Arrays.asList("b/2", "b/3", "c/1"),
+          keysFrom(cache, "b/2"));
+    }
+    Assert.assertEquals(Arrays.asList("b/1", "b/2", "b/3"),
+        keysFrom(cache, "b").subList(0, 3));
+
+    // The evicted entries are removed from the partitions.
+    cache.cleanup(3);
+    GenericTestUtils.waitFor(() -> cache.getEvictionLag() == 0, 100, 5000);
+    if (cacheCleanupPolicy == TableCacheImpl.CacheCleanupPolicy.MANUAL) {
+      Assert.assertEquals(Collections.singletonList("b/2"),
+          keysFrom(cache, "b"));
+      Assert.assertEquals(Collections.singletonList("a/1"),
+          keysFrom(cache, "a"));
+    }
+  }
+
+  private static List<String> keysFrom(
+      TableCache<CacheKey<String>, CacheValue<String>> cache, String key) {
+    List<String> keys = new ArrayList<>();
+    cache.iterator(new CacheKey<>(key))
+        .forEachRemaining(entry -> keys.add(entry.getKey().getCacheKey()));
+    return keys;
+  }
+
   private int writeToCache(int count, int startVal, long sleep)
       throws InterruptedException {
     int counter = 1;
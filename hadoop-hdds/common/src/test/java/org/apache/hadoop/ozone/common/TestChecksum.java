@@ -19,9 +19,15 @@
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 /**
  * Tests for {@link Checksum} class.
  */
@@ -94,4 +100,43 @@ public void testChecksumMismatchForDifferentChecksumTypes() {
         "Checksums should not match for different checksum types",
         checksum1, checksum2);
   }
+
+  /**
+   * Tests that the CRCs computed in bulk with libhadoop, or its java
+   * fallback, are the same as the CRCs computed slice by slice.
+   */
+  @Test
+  public void testChunkedCrcs() throws Exception {
+    byte[] data = new byte[1000];
+    new Random().nextBytes(data);
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data).flip();
+
+    for (ContainerProtos.ChecksumType type : new ContainerProtos
+        .ChecksumType[] {ContainerProtos.ChecksumType.CRC32,
+        ContainerProtos.ChecksumType.CRC32C}) {
+      ChecksumByteBuffer expected =
+          type == ContainerProtos.ChecksumType.CRC32
+              ? new PureJavaCrc32ByteBuffer() : new PureJavaCrc32CByteBuffer();
+      List<ByteString> expectedSums = new ArrayList<>();
+      for (int off = 0; off < data.length; off += BYTES_PER_CHECKSUM) {
+        expected.reset();
+        expected.update(data, off,
+            Math.min(BYTES_PER_CHECKSUM, data.length - off));
+        expectedSums.add(Checksum.int2ByteString((int) expected.getValue()));
+      }
+
+      Checksum checksum = getChecksum(type);
+      for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.wrap(data),
+          ByteBuffer.wrap(data).asReadOnlyBuffer(), direct.duplicate()}) {
+        List<ByteString> sums = new ArrayList<>();
+        checksum.computeChunkedCrcs(ChunkBuffer.wrap(buffer),
+            Checksum.Algorithm.valueOf(type).newChecksumFunction(), sums);
+        Assert.assertEquals(expectedSums, sums);
+      }
+
+      Assert.assertEquals(expectedSums,
+          checksum.computeChecksum(data).getChecksums());
+    }
+  }
 }
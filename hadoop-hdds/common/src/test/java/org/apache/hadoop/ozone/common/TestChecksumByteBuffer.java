@@ -44,6 +44,20 @@ public void testPureJavaCrc32CByteBuffer() {
     new VerifyChecksumByteBuffer(expected, testee).testCorrectness();
   }
 
+  @Test
+  public void testCrc32Impl() {
+    final Checksum expected = new PureJavaCrc32();
+    final ChecksumByteBuffer testee = ChecksumByteBufferFactory.crc32Impl();
+    new VerifyChecksumByteBuffer(expected, testee).testCorrectness();
+  }
+
+  @Test
+  public void testCrc32CImpl() {
+    final Checksum expected = new PureJavaCrc32C();
+    final ChecksumByteBuffer testee = ChecksumByteBufferFactory.crc32CImpl();
+    new VerifyChecksumByteBuffer(expected, testee).testCorrectness();
+  }
+
   static class VerifyChecksumByteBuffer {
     private final Checksum expected;
     private final ChecksumByteBuffer testee;
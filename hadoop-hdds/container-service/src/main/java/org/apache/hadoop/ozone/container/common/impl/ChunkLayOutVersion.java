@@ -26,8 +26,21 @@
 
 public final class ChunkLayOutVersion {
 
+  /**
+   * Every chunk is stored in its own file inside the chunks directory.
+   */
+  public static final ChunkLayOutVersion FILE_PER_CHUNK =
+      new ChunkLayOutVersion(1, "Data without checksums.");
+
+  /**
+   * All chunks of a block are stored at their offsets in a single file per
+   * block inside the chunks directory.
+   */
+  public static final ChunkLayOutVersion FILE_PER_BLOCK =
+      new ChunkLayOutVersion(2, "Data of all chunks of a block in one file.");
+
   private final static ChunkLayOutVersion[] CHUNK_LAYOUT_VERSION_INFOS =
-      {new ChunkLayOutVersion(1, "Data without checksums.")};
+      {FILE_PER_CHUNK, FILE_PER_BLOCK};
 
   private int version;
   private String description;
@@ -66,7 +66,7 @@ public abstract class ContainerData {
   private final long containerID;
 
   // Layout version of the container data
-  private final int layOutVersion;
+  private int layOutVersion;
 
   // Metadata of the container will be a key value pair.
   // This can hold information like volume name, owner etc.,
@@ -122,6 +122,7 @@ public abstract class ContainerData {
 
   /**
    * Creates a ContainerData Object, which holds metadata of the container.
+   * The container uses the {@link ChunkLayOutVersion#FILE_PER_CHUNK} layout.
    * @param type - ContainerType
    * @param containerId - ContainerId
    * @param size - container maximum size in bytes
@@ -130,7 +131,7 @@ public abstract class ContainerData {
    */
   protected ContainerData(ContainerType type, long containerId, long size,
                           String originPipelineId, String originNodeId) {
-    this(type, containerId, ChunkLayOutVersion.getLatestVersion().getVersion(),
+    this(type, containerId, ChunkLayOutVersion.FILE_PER_CHUNK.getVersion(),
         size, originPipelineId, originNodeId);
   }
 
@@ -235,6 +236,15 @@ public int getLayOutVersion() {
     return ChunkLayOutVersion.getChunkLayOutVersion(layOutVersion).getVersion();
   }
 
+  /**
+   * Sets the layOutVersion of the container data format. Used when the
+   * container data is imported from another datanode.
+   * @param layOutVersion - Container layOutVersion
+   */
+  public void setLayOutVersion(int layOutVersion) {
+    this.layOutVersion = layOutVersion;
+  }
+
   /**
    * Add/Update metadata.
    * We should hold the container lock before updating the metadata as this
@@ -268,6 +268,10 @@ public Object construct(Node node) {
 
         kvData.setContainerDBType((String)nodes.get(
             OzoneConsts.CONTAINER_DB_TYPE));
+        Object schemaVersion = nodes.get(OzoneConsts.SCHEMA_VERSION);
+        if (schemaVersion != null) {
+          kvData.setSchemaVersion(schemaVersion.toString());
+        }
         kvData.setMetadataPath((String) nodes.get(
             OzoneConsts.METADATA_PATH));
         kvData.setChunksPath((String) nodes.get(OzoneConsts.CHUNKS_PATH));
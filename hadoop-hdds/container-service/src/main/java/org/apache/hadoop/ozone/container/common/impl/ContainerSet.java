@@ -22,6 +22,8 @@
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.hadoop.hdds.protocol.proto
+    .StorageContainerDatanodeProtocolProtos.ContainerReplicaProto;
 import org.apache.hadoop.hdds.protocol.proto
     .StorageContainerDatanodeProtocolProtos.ContainerReportsProto;
 import org.apache.hadoop.hdds.scm.container.common.helpers
@@ -33,6 +35,9 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.List;
@@ -54,6 +59,13 @@ public class ContainerSet {
       ConcurrentSkipListMap<>();
   private final ConcurrentSkipListSet<Long> missingContainerSet =
       new ConcurrentSkipListSet<>();
+
+  // The fields below are guarded by this. They keep what was sent in the
+  // container reports with bucket digests.
+  private long reportGeneration;
+  private long[] reportedDigests = new long[0];
+  private final BitSet requestedBuckets = new BitSet();
+
   /**
    * Add Container to container map.
    * @param container container to be added
@@ -218,6 +230,12 @@ public void listContainer(long startContainerId, long count,
   public ContainerReportsProto getContainerReport() throws IOException {
     LOG.debug("Starting container report iteration.");
 
+    // SCM forgets the bucket digests of the datanode when it gets all its
+    // replicas, so the next report with digests has to detail all buckets.
+    synchronized (this) {
+      reportedDigests = new long[0];
+    }
+
     // No need for locking since containerMap is a ConcurrentSkipListMap
     // And we can never get the exact state since close might happen
     // after we iterate a point.
@@ -233,6 +251,81 @@ public ContainerReportsProto getContainerReport() throws IOException {
     return crBuilder.build();
   }
 
+  /**
+   * Get a container report with the digests of the given number of buckets
+   * of containers. The report only carries the replicas of the buckets whose
+   * digest changed since the previous report, or which SCM asked for.
+   *
+   * @param buckets number of buckets the container IDs are split in.
+   * @return The container report.
+   */
+  public synchronized ContainerReportsProto getContainerReport(int buckets)
+      throws IOException {
+    Preconditions.checkArgument(buckets > 0,
+        "Invalid number of buckets: %s", buckets);
+    LOG.debug("Starting container report iteration with {} buckets.",
+        buckets);
+
+    final long[] digests = new long[buckets];
+    final Map<Integer, List<ContainerReplicaProto>> replicas =
+        new HashMap<>();
+    for (Container<?> container : containerMap.values()) {
+      ContainerReplicaProto replica = container.getContainerReport();
+      int bucket = (int) (replica.getContainerID() % buckets);
+      digests[bucket] += getDigest(replica);
+      replicas.computeIfAbsent(bucket, b -> new ArrayList<>()).add(replica);
+    }
+
+    ContainerReportsProto.Builder crBuilder =
+        ContainerReportsProto.newBuilder()
+            .setGeneration(++reportGeneration);
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      crBuilder.addBucketDigests(digests[bucket]);
+      boolean changed = reportedDigests.length != buckets
+          || reportedDigests[bucket] != digests[bucket];
+      if (changed || requestedBuckets.get(bucket)) {
+        crBuilder.addDetailedBuckets(bucket);
+        crBuilder.addAllReports(
+            replicas.getOrDefault(bucket, Collections.emptyList()));
+      }
+    }
+    reportedDigests = digests;
+    requestedBuckets.clear();
+    return crBuilder.build();
+  }
+
+  /**
+   * Adds the buckets of containers SCM asked for to the next container
+   * report with bucket digests.
+   */
+  public synchronized void requestReportBuckets(Collection<Integer> buckets) {
+    for (int bucket : buckets) {
+      requestedBuckets.set(bucket);
+    }
+  }
+
+  /**
+   * Returns the digest of the fields of the replica SCM keeps track of. The
+   * digest of a bucket is the sum of the digests of its replicas, so it does
+   * not depend on the order of the containers.
+   */
+  private static long getDigest(ContainerReplicaProto replica) {
+    long h = replica.getContainerID();
+    h = 31 * h + replica.getState().getNumber();
+    h = 31 * h + replica.getUsed();
+    h = 31 * h + replica.getKeyCount();
+    h = 31 * h + replica.getBlockCommitSequenceId();
+    h = 31 * h + replica.getDeleteTransactionId();
+    h = 31 * h + replica.getOriginNodeId().hashCode();
+    // Spread the bits, as in the finalizer of MurmurHash3.
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
   public Set<Long> getMissingContainerSet() {
     return missingContainerSet;
   }
@@ -105,13 +105,11 @@ public abstract ContainerCommandResponseProto handle(
       DispatcherContext dispatcherContext);
 
   /**
-   * Imports container from a raw input stream.
+   * Imports container from a raw input stream, which is extracted while it
+   * is read.
    */
   public abstract Container importContainer(
       long containerID,
-      long maxSize,
-      String originPipelineId,
-      String originNodeId,
       InputStream rawContainerStream,
       TarContainerPacker packer)
       throws IOException;
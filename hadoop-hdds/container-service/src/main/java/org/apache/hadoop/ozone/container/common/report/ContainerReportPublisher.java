@@ -22,10 +22,15 @@
 import org.apache.hadoop.hdds.protocol.proto
     .StorageContainerDatanodeProtocolProtos.ContainerReportsProto;
 import org.apache.hadoop.hdds.scm.HddsServerUtil;
+import org.apache.hadoop.ozone.container.ozoneimpl.ContainerController;
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
+import static org.apache.hadoop.hdds.HddsConfigKeys
+    .HDDS_CONTAINER_REPORT_DIGEST_BUCKETS;
+import static org.apache.hadoop.hdds.HddsConfigKeys
+    .HDDS_CONTAINER_REPORT_DIGEST_BUCKETS_DEFAULT;
 import static org.apache.hadoop.hdds.HddsConfigKeys
     .HDDS_CONTAINER_REPORT_INTERVAL;
 import static org.apache.hadoop.hdds.HddsConfigKeys
@@ -46,6 +51,10 @@
  *   - finalHash
  *   - LifeCycleState
  *
+ * Unless hdds.container.report.digest.buckets is 0, the report only has the
+ * replicas of the buckets of containers which changed since the previous
+ * report, and a digest of each bucket SCM compares with the digests it got
+ * before.
  */
 public class ContainerReportPublisher extends
     ReportPublisher<ContainerReportsProto> {
@@ -80,7 +89,13 @@ private long getRandomReportDelay() {
 
   @Override
   protected ContainerReportsProto getReport() throws IOException {
-    return getContext().getParent().getContainer()
-        .getController().getContainerReport();
+    ContainerController controller = getContext().getParent().getContainer()
+        .getController();
+    int buckets = getConf().getInt(HDDS_CONTAINER_REPORT_DIGEST_BUCKETS,
+        HDDS_CONTAINER_REPORT_DIGEST_BUCKETS_DEFAULT);
+    if (buckets > 0) {
+      return controller.getContainerReport(buckets);
+    }
+    return controller.getContainerReport();
   }
 }
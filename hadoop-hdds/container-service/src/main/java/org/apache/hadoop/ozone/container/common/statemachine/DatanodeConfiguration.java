@@ -58,4 +58,31 @@ public int getReplicationMaxStreams() {
     return replicationMaxStreams;
   }
 
+  /**
+   * The number of threads loading the containers of a volume when the
+   * datanode starts.
+   */
+  private int containerLoaderThreadsPerVolume = 4;
+
+  @Config(key = "container.loader.threads.per.volume",
+      type = ConfigType.INT,
+      defaultValue = "4",
+      tags = {DATANODE},
+      description = "The number of threads per volume which load the " +
+          "containers of the volume when the datanode starts"
+  )
+  public void setContainerLoaderThreadsPerVolume(int val) {
+    if (val < 1) {
+      LOG.warn("hdds.datanode.container.loader.threads.per.volume must be " +
+          "greater than zero and was set to {}. Defaulting to {}",
+          val, containerLoaderThreadsPerVolume);
+    } else {
+      this.containerLoaderThreadsPerVolume = val;
+    }
+  }
+
+  public int getContainerLoaderThreadsPerVolume() {
+    return containerLoaderThreadsPerVolume;
+  }
+
 }
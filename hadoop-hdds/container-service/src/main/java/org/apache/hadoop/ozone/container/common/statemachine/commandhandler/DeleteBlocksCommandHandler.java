@@ -230,7 +230,11 @@ private void deleteKeyValueContainerBlocks(
           batch.put(deletingKeyBytes, blkInfo);
           batch.delete(blkBytes);
           try {
-            containerDB.getStore().writeBatch(batch);
+            synchronized (containerData.getUsageCountersLock()) {
+              BlockUtils.updateUsageCounters(containerDB.getStore(), batch,
+                  -1, -BlockUtils.getBlockData(blkInfo).getSize(), 1);
+              containerDB.getStore().writeBatch(batch);
+            }
             newDeletionBlocks++;
             if (LOG.isDebugEnabled()) {
               LOG.debug("Transited Block {} to DELETING state in container {}",
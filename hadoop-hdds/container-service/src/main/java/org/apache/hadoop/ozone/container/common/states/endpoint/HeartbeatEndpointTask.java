@@ -51,6 +51,7 @@
 import org.apache.hadoop.ozone.protocol.commands.DeleteBlocksCommand;
 import org.apache.hadoop.ozone.protocol.commands.DeleteContainerCommand;
 import org.apache.hadoop.ozone.protocol.commands.ReplicateContainerCommand;
+import org.apache.hadoop.ozone.protocol.commands.SendContainerReportCommand;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -331,6 +332,16 @@ private void processResponse(SCMHeartbeatResponseProto response,
         }
         this.context.addCommand(closePipelineCommand);
         break;
+      case sendContainerReportCommand:
+        SendContainerReportCommand sendContainerReportCommand =
+            SendContainerReportCommand.getFromProtobuf(
+                commandResponseProto.getSendContainerReportCommandProto());
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Received SCM request for the container buckets {}",
+              sendContainerReportCommand.getBuckets());
+        }
+        this.context.addCommand(sendContainerReportCommand);
+        break;
       default:
         throw new IllegalArgumentException("Unknown response : "
             + commandResponseProto.getCommandType().name());
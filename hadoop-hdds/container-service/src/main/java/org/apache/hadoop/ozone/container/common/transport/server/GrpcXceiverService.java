@@ -21,17 +21,31 @@
     .ContainerCommandRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
     .ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result;
 import org.apache.hadoop.hdds.protocol.datanode.proto
     .XceiverClientProtocolServiceGrpc;
+import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
 import org.apache.hadoop.ozone.container.common.interfaces.ContainerDispatcher;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.util.GlobalTracer;
+import org.apache.ratis.thirdparty.io.grpc.StatusRuntimeException;
 import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Grpc Service for handling Container Commands on datanode.
+ * <p>
+ * The commands of a stream are handled one by one, in order, unless they
+ * have a callId. Commands with a callId come from clients which share one
+ * stream between many calls: they are handled concurrently by the executor,
+ * and each response carries the callId of its command.
  */
 public class GrpcXceiverService extends
     XceiverClientProtocolServiceGrpc.XceiverClientProtocolServiceImplBase {
@@ -39,9 +53,12 @@ public class GrpcXceiverService extends
       LOG = LoggerFactory.getLogger(GrpcXceiverService.class);
 
   private final ContainerDispatcher dispatcher;
+  private final Executor executor;
 
-  public GrpcXceiverService(ContainerDispatcher dispatcher) {
+  public GrpcXceiverService(ContainerDispatcher dispatcher,
+      Executor executor) {
     this.dispatcher = dispatcher;
+    this.executor = executor;
   }
 
   @Override
@@ -49,9 +66,28 @@ public StreamObserver<ContainerCommandRequestProto> send(
       StreamObserver<ContainerCommandResponseProto> responseObserver) {
     return new StreamObserver<ContainerCommandRequestProto>() {
       private final AtomicBoolean isClosed = new AtomicBoolean(false);
+      // Calls with a callId which are not answered yet, and whether the
+      // client has completed the stream, guarded by responseObserver.
+      private int callsInProgress;
+      private boolean completed;
 
       @Override
       public void onNext(ContainerCommandRequestProto request) {
+        if (request.hasCallId()) {
+          synchronized (responseObserver) {
+            callsInProgress++;
+          }
+          // The span of the gRPC call is only active in this thread.
+          Span span = GlobalTracer.get().activeSpan();
+          try {
+            executor.execute(() -> dispatchCall(request, span));
+          } catch (RejectedExecutionException e) {
+            reply(request, ContainerUtils.getContainerCommandResponse(request,
+                Result.CONTAINER_INTERNAL_ERROR, "Datanode is shutting down")
+                .build());
+          }
+          return;
+        }
         try {
           ContainerCommandResponseProto resp =
               dispatcher.dispatch(request, null);
@@ -63,17 +99,86 @@ public void onNext(ContainerCommandRequestProto request) {
         }
       }
 
+      /**
+       * Handles a command of a shared stream. A failure only fails the
+       * command, as the other calls of the stream are still running.
+       */
+      private void dispatchCall(ContainerCommandRequestProto request,
+          Span span) {
+        if (span == null) {
+          dispatchCall(request);
+          return;
+        }
+        try (Scope scope = GlobalTracer.get().scopeManager()
+            .activate(span, false)) {
+          dispatchCall(request);
+        }
+      }
+
+      private void dispatchCall(ContainerCommandRequestProto request) {
+        ContainerCommandResponseProto resp;
+        try {
+          resp = dispatcher.dispatch(request, null);
+        } catch (Throwable e) {
+          LOG.error("Got exception when processing"
+                    + " ContainerCommandRequestProto {}", request, e);
+          resp = ContainerUtils.getContainerCommandResponse(request,
+              Result.CONTAINER_INTERNAL_ERROR, String.valueOf(e.getMessage()))
+              .build();
+        }
+        reply(request, resp);
+      }
+
+      private void reply(ContainerCommandRequestProto request,
+          ContainerCommandResponseProto resp) {
+        ContainerCommandResponseProto response = resp.toBuilder()
+            .setCallId(request.getCallId())
+            .build();
+        // The stream observer is not thread safe, the responses of the
+        // concurrent calls are sent one at a time.
+        synchronized (responseObserver) {
+          if (!isClosed.get()) {
+            try {
+              responseObserver.onNext(response);
+            } catch (StatusRuntimeException e) {
+              // The client has cancelled the stream.
+              LOG.debug("Failed to send the response of call {}",
+                  request.getCallId(), e);
+              isClosed.set(true);
+            }
+          }
+          callsInProgress--;
+          if (completed && callsInProgress == 0) {
+            complete();
+          }
+        }
+      }
+
+      private void complete() {
+        if (isClosed.compareAndSet(false, true)) {
+          LOG.debug("ContainerCommand send completed");
+          responseObserver.onCompleted();
+        }
+      }
+
       @Override
       public void onError(Throwable t) {
         // for now we just log a msg
         LOG.error("ContainerCommand send on error. Exception: ", t);
+        // The responses of the calls in progress can not be sent anymore.
+        synchronized (responseObserver) {
+          isClosed.set(true);
+        }
       }
 
       @Override
       public void onCompleted() {
-        if (isClosed.compareAndSet(false, true)) {
-          LOG.debug("ContainerCommand send completed");
-          responseObserver.onCompleted();
+        // The stream is completed once the calls in progress are answered.
+        synchronized (responseObserver) {
+          completed = true;
+          if (callsInProgress == 0) {
+            complete();
+          }
         }
       }
     };
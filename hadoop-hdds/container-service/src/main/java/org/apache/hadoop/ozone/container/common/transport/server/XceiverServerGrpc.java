@@ -19,6 +19,7 @@
 package org.apache.hadoop.ozone.container.common.transport.server;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails.Port.Name;
@@ -54,6 +55,8 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -67,6 +70,7 @@ public final class XceiverServerGrpc implements XceiverServerSpi {
   private int port;
   private UUID id;
   private Server server;
+  private final ExecutorService handlerExecutor;
   private final ContainerDispatcher storageContainer;
   private boolean isStarted;
   private DatanodeDetails datanodeDetails;
@@ -96,9 +100,17 @@ public XceiverServerGrpc(DatanodeDetails datanodeDetails, Configuration conf,
         ((NettyServerBuilder) ServerBuilder.forPort(port))
             .maxInboundMessageSize(OzoneConsts.OZONE_SCM_CHUNK_MAX_SIZE);
 
+    int handlerCount = conf.getInt(
+        OzoneConfigKeys.DFS_CONTAINER_IPC_HANDLER_COUNT_KEY,
+        OzoneConfigKeys.DFS_CONTAINER_IPC_HANDLER_COUNT_DEFAULT);
+    handlerExecutor = Executors.newFixedThreadPool(handlerCount,
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("GrpcXceiverHandler-%d").build());
+
     GrpcServerInterceptor tracingInterceptor = new GrpcServerInterceptor();
     nettyServerBuilder.addService(ServerInterceptors.intercept(
-        new GrpcXceiverService(dispatcher), tracingInterceptor));
+        new GrpcXceiverService(dispatcher, handlerExecutor),
+        tracingInterceptor));
 
     for (BindableService service : additionalServices) {
       nettyServerBuilder.addService(service);
@@ -160,7 +172,12 @@ public void start() throws IOException {
   public void stop() {
     if (isStarted) {
       server.shutdown();
+      handlerExecutor.shutdown();
       try {
+        handlerExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        // The clients keep their streams open between the calls, these are
+        // cancelled once the calls in progress are done.
+        server.shutdownNow();
         server.awaitTermination(5, TimeUnit.SECONDS);
       } catch (Exception e) {
         LOG.error("failed to shutdown XceiverServerGrpc", e);
@@ -19,27 +19,38 @@
 package org.apache.hadoop.ozone.container.common.utils;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
 import org.apache.commons.collections.MapIterator;
 import org.apache.commons.collections.map.LRUMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.hdds.utils.MetadataStore;
 import org.apache.hadoop.hdds.utils.MetadataStoreBuilder;
+import org.apache.hadoop.hdds.utils.PrefixedMetadataStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * container cache is a LRUMap that maintains the DB handles.
+ * <p>
+ * The DBs of the volumes, which are shared by the containers with schema
+ * version 2, are kept open outside of the LRUMap until the cache is shut
+ * down, and the containers get a view of the DB with the keys prefixed by
+ * their container ID.
  */
 public final class ContainerCache extends LRUMap {
   private static final Logger LOG =
       LoggerFactory.getLogger(ContainerCache.class);
   private final Lock lock = new ReentrantLock();
+  private final Map<String, MetadataStore> volumeDBs =
+      new ConcurrentHashMap<>();
   private static ContainerCache cache;
   private static final float LOAD_FACTOR = 0.75f;
   /**
@@ -82,6 +93,16 @@ public void shutdownCache() {
       }
       // reset the cache
       cache.clear();
+      synchronized (volumeDBs) {
+        for (Map.Entry<String, MetadataStore> entry : volumeDBs.entrySet()) {
+          try {
+            entry.getValue().close();
+          } catch (IOException e) {
+            LOG.error("Error closing DB. Volume DB: {}", entry.getKey(), e);
+          }
+        }
+        volumeDBs.clear();
+      }
     } finally {
       lock.unlock();
     }
@@ -142,6 +163,49 @@ public ReferenceCountedDB getDB(long containerID, String containerDBType,
     }
   }
 
+  /**
+   * Returns a handle of the part of a volume DB which belongs to the given
+   * container, opening the volume DB if it is not open yet.
+   *
+   * @param containerID - ID of the container.
+   * @param containerDBType - DB type of the container.
+   * @param volumeDBPath - DB path of the volume.
+   * @param conf - Hadoop Configuration.
+   * @return ReferenceCountedDB.
+   */
+  public ReferenceCountedDB getVolumeDB(long containerID,
+      String containerDBType, String volumeDBPath, Configuration conf)
+      throws IOException {
+    Preconditions.checkState(containerID >= 0,
+        "Container ID cannot be negative.");
+    MetadataStore volumeDB = volumeDBs.get(volumeDBPath);
+    if (volumeDB == null) {
+      synchronized (volumeDBs) {
+        volumeDB = volumeDBs.get(volumeDBPath);
+        if (volumeDB == null) {
+          try {
+            volumeDB = MetadataStoreBuilder.newBuilder()
+                .setDbFile(new File(volumeDBPath))
+                .setCreateIfMissing(true)
+                .setConf(conf)
+                .setDBType(containerDBType)
+                .build();
+          } catch (IOException e) {
+            LOG.error("Error opening DB. Container:{} VolumeDBPath:{}",
+                containerID, volumeDBPath, e);
+            throw e;
+          }
+          volumeDBs.put(volumeDBPath, volumeDB);
+        }
+      }
+    }
+    ReferenceCountedDB db = new ReferenceCountedDB(
+        new PrefixedMetadataStore(volumeDB, Longs.toByteArray(containerID)),
+        volumeDBPath);
+    db.incrementReference();
+    return db;
+  }
+
   /**
    * Remove a DB handler from cache.
    *
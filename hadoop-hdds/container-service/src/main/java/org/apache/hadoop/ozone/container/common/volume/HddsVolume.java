@@ -31,7 +31,6 @@
 import org.apache.hadoop.ozone.common.InconsistentStorageStateException;
 import org.apache.hadoop.ozone.container.common.DataNodeLayoutVersion;
 import org.apache.hadoop.ozone.container.common.helpers.DatanodeVersionFile;
-import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
 import org.apache.hadoop.ozone.container.common.utils.HddsVolumeUtil;
 
 import org.apache.hadoop.util.DiskChecker;
@@ -41,6 +40,9 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_DATANODE_VOLUME_OPEN_FILES_MAX;
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_DATANODE_VOLUME_OPEN_FILES_MAX_DEFAULT;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.Properties;
@@ -88,6 +90,7 @@
   private long cTime;             // creation time of the file system state
   private int layoutVersion;      // layout version of the storage data
   private final AtomicLong committedBytes; // till Open containers become full
+  private final OpenFileCache openFiles;
 
   /**
    * Run a check on the current volume to determine if it is healthy.
@@ -172,6 +175,10 @@ private HddsVolume(Builder b) throws IOException {
               .configuredCapacity(b.configuredCapacity);
       this.volumeInfo = volumeBuilder.build();
       this.committedBytes = new AtomicLong(0);
+      this.openFiles = new OpenFileCache(b.conf == null ?
+          HDDS_DATANODE_VOLUME_OPEN_FILES_MAX_DEFAULT :
+          b.conf.getInt(HDDS_DATANODE_VOLUME_OPEN_FILES_MAX,
+              HDDS_DATANODE_VOLUME_OPEN_FILES_MAX_DEFAULT));
 
       LOG.info("Creating Volume: " + this.hddsRootDir + " of  storage type : " +
           b.storageType + " and capacity : " + volumeInfo.getCapacity());
@@ -186,6 +193,7 @@ private HddsVolume(Builder b) throws IOException {
       storageID = UUID.randomUUID().toString();
       state = VolumeState.FAILED;
       committedBytes = null;
+      openFiles = null;
     }
   }
 
@@ -265,7 +273,7 @@ public void format(String cid) throws IOException {
   private void createVersionFile() throws IOException {
     this.storageID = HddsVolumeUtil.generateUuid();
     this.cTime = Time.now();
-    this.layoutVersion = ChunkLayOutVersion.getLatestVersion().getVersion();
+    this.layoutVersion = DataNodeLayoutVersion.getLatestVersion().getVersion();
 
     if (this.clusterID == null || datanodeUuid == null) {
       // HddsDatanodeService does not have the cluster information yet. Wait
@@ -391,11 +399,22 @@ public VolumeIOStats getVolumeIOStats() {
     return volumeIOStats;
   }
 
+  /**
+   * Returns the cache of open block files on this volume.
+   * @return OpenFileCache, or null for a failed volume.
+   */
+  public OpenFileCache getOpenFiles() {
+    return openFiles;
+  }
+
   public void failVolume() {
     setState(VolumeState.FAILED);
     if (volumeInfo != null) {
       volumeInfo.shutdownUsageThread();
     }
+    if (openFiles != null) {
+      openFiles.invalidateAll();
+    }
   }
 
   public void shutdown() {
@@ -403,6 +422,9 @@ public void shutdown() {
     if (volumeInfo != null) {
       volumeInfo.shutdownUsageThread();
     }
+    if (openFiles != null) {
+      openFiles.invalidateAll();
+    }
   }
 
   /**
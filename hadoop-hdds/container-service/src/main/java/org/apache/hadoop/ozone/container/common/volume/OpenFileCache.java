@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.common.volume;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import org.apache.hadoop.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded LRU cache of open {@link FileChannel}s for the block files on one
+ * {@link HddsVolume}. Channels are closed when they are evicted or
+ * invalidated.
+ */
+public class OpenFileCache {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(OpenFileCache.class);
+
+  private final Cache<String, FileChannel> files;
+
+  public OpenFileCache(int maxOpenFiles) {
+    Preconditions.checkArgument(maxOpenFiles > 0,
+        "Maximum number of open files should be positive");
+    files = CacheBuilder.newBuilder()
+        .maximumSize(maxOpenFiles)
+        .removalListener((RemovalListener<String, FileChannel>)
+            notification -> {
+              if (LOG.isDebugEnabled()) {
+                LOG.debug("Closing file {} ({})", notification.getKey(),
+                    notification.getCause());
+              }
+              IOUtils.closeStream(notification.getValue());
+            })
+        .build();
+  }
+
+  /**
+   * Returns an open channel for the given file, opening (and creating) the
+   * file if it is not in the cache yet.
+   *
+   * @param file - file to open
+   * @return FileChannel opened for read and write
+   * @throws IOException if the file can not be opened
+   */
+  public FileChannel get(File file) throws IOException {
+    try {
+      return files.get(file.getAbsolutePath(), () -> FileChannel.open(
+          file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to open " + file, e.getCause());
+    }
+  }
+
+  /**
+   * Closes the channel of the given file, if it is open.
+   * @param file - file to close
+   */
+  public void invalidate(File file) {
+    files.invalidate(file.getAbsolutePath());
+  }
+
+  /**
+   * Closes all open channels.
+   */
+  public void invalidateAll() {
+    files.invalidateAll();
+  }
+
+  /**
+   * Returns the number of open channels.
+   * @return long
+   */
+  public long size() {
+    return files.size();
+  }
+}
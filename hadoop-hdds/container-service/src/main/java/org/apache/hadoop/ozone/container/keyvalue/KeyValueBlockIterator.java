@@ -93,7 +93,7 @@ public KeyValueBlockIterator(long id, File path, KeyPrefixFilter filter)
     KeyValueContainerData keyValueContainerData = (KeyValueContainerData)
         containerData;
     keyValueContainerData.setDbFile(KeyValueContainerLocationUtil
-        .getContainerDBFile(metdataPath, containerId));
+        .getContainerDBFile(metdataPath, keyValueContainerData));
     db = BlockUtils.getDB(keyValueContainerData, new
         OzoneConfiguration());
     blockIterator = db.getStore().iterator();
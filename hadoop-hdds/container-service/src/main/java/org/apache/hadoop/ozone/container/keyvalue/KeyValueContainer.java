@@ -23,6 +23,7 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.util.Map;
@@ -42,6 +43,8 @@
     .StorageContainerException;
 import org.apache.hadoop.hdfs.util.Canceler;
 import org.apache.hadoop.hdfs.util.DataTransferThrottler;
+import org.apache.hadoop.hdds.utils.MetadataStore;
+import org.apache.hadoop.hdds.utils.MetadataStoreBuilder;
 import org.apache.hadoop.io.nativeio.NativeIO;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.OzoneConsts;
@@ -78,6 +81,7 @@
 import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
     .Result.UNSUPPORTED_REQUEST;
 
+import org.apache.hadoop.ozone.container.common.utils.ContainerCache;
 import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -137,10 +141,14 @@ public void create(VolumeSet volumeSet, VolumeChoosingPolicy
       // Check if it is new Container.
       ContainerUtils.verifyIsNewContainer(containerMetaDataPath);
 
+      if (isVolumeDBConfigured()) {
+        containerData.setSchemaVersion(OzoneConsts.SCHEMA_V2);
+      }
+
       //Create Metadata path chunks path and metadata db
       File dbFile = getContainerDBFile();
       KeyValueContainerUtil.createContainerMetaData(containerMetaDataPath,
-          chunksPath, dbFile, config);
+          chunksPath, containerData.hasVolumeDB() ? null : dbFile, config);
 
       String impl = config.getTrimmed(OzoneConfigKeys.OZONE_METADATA_STORE_IMPL,
           OzoneConfigKeys.OZONE_METADATA_STORE_IMPL_DEFAULT);
@@ -199,8 +207,13 @@ public void populatePathFields(String scmId,
 
     File chunksPath = KeyValueContainerLocationUtil.getChunksLocationPath(
         hddsVolumeDir, scmId, containerId);
+    // The container is stored with the schema of this datanode, whatever
+    // schema it had before.
+    if (isVolumeDBConfigured()) {
+      containerData.setSchemaVersion(OzoneConsts.SCHEMA_V2);
+    }
     File dbFile = KeyValueContainerLocationUtil.getContainerDBFile(
-        containerMetaDataPath, containerId);
+        containerMetaDataPath, containerData);
 
     //Set containerData for the KeyValueContainer.
     containerData.setMetadataPath(containerMetaDataPath.getPath());
@@ -503,6 +516,8 @@ public void importContainerData(InputStream input,
 
 
       containerData.setState(originalContainerData.getState());
+      containerData
+          .setLayOutVersion(originalContainerData.getLayOutVersion());
       containerData
           .setContainerDBType(originalContainerData.getContainerDBType());
       containerData.setBytesUsed(originalContainerData.getBytesUsed());
@@ -516,6 +531,12 @@ public void importContainerData(InputStream input,
     } catch (Exception ex) {
       //delete all the temporary data in case of any exception.
       try {
+        if (containerData.hasVolumeDB()) {
+          try (ReferenceCountedDB db = BlockUtils.getDB(containerData,
+              config)) {
+            db.getStore().destroy();
+          }
+        }
         FileUtils.deleteDirectory(new File(containerData.getMetadataPath()));
         FileUtils.deleteDirectory(new File(containerData.getChunksPath()));
         FileUtils.deleteDirectory(getContainerFile());
@@ -531,6 +552,92 @@ public void importContainerData(InputStream input,
     }
   }
 
+  /**
+   * Imports a replica of the container, which has been extracted to a
+   * directory of the volume of the container by
+   * {@link TarContainerPacker#unpackContainerArchive}. The directory is
+   * moved to the container directory with a rename once the block metadata
+   * and the .container file are in place, so a failed import never leaves a
+   * partial container behind.
+   *
+   * @param extractedDir the directory the replica has been extracted to.
+   * @param originalContainerData the container descriptor of the replica.
+   */
+  public void importContainerData(Path extractedDir,
+      KeyValueContainerData originalContainerData) throws IOException {
+    long containerId = containerData.getContainerID();
+    File containerDir =
+        new File(containerData.getMetadataPath()).getParentFile();
+    if (containerDir.exists()) {
+      throw new IOException(String.format(
+          "Can't import container (cid=%d) to %s as the directory already"
+              + " exists.", containerId, containerDir));
+    }
+    writeLock();
+    try {
+      containerData.setState(originalContainerData.getState());
+      containerData
+          .setLayOutVersion(originalContainerData.getLayOutVersion());
+      containerData
+          .setContainerDBType(originalContainerData.getContainerDBType());
+      containerData.setBytesUsed(originalContainerData.getBytesUsed());
+      for (Map.Entry<String, String> entry :
+          originalContainerData.getMetadata().entrySet()) {
+        containerData.addMetadata(entry.getKey(), entry.getValue());
+      }
+
+      File extractedMetadataDir =
+          extractedDir.resolve(OzoneConsts.CONTAINER_META_PATH).toFile();
+      if (containerData.hasVolumeDB()) {
+        File extractedDB = KeyValueContainerLocationUtil.getContainerDBFile(
+            extractedMetadataDir, containerId);
+        try (ReferenceCountedDB volumeDB =
+                 BlockUtils.getDB(containerData, config)) {
+          // Drop the entries left by an earlier, interrupted import.
+          volumeDB.getStore().destroy();
+          if (extractedDB.exists()) {
+            try (MetadataStore importDB = MetadataStoreBuilder.newBuilder()
+                .setConf(config)
+                .setDbFile(extractedDB)
+                .setDBType(containerData.getContainerDBType())
+                .setCreateIfMissing(false)
+                .build()) {
+              KeyValueContainerUtil.copyDB(importDB, volumeDB.getStore());
+            }
+            volumeDB.getStore().flushDB(true);
+          }
+        }
+        FileUtils.deleteDirectory(extractedDB);
+      }
+      createContainerFile(
+          new File(extractedMetadataDir, getContainerFile().getName()));
+
+      Files.createDirectories(containerDir.getParentFile().toPath());
+      Files.move(extractedDir, containerDir.toPath(),
+          StandardCopyOption.ATOMIC_MOVE);
+
+      //fill in memory stat counter (keycount, byte usage)
+      KeyValueContainerUtil.parseKVContainerData(containerData, config);
+
+    } catch (Exception ex) {
+      try {
+        if (containerData.hasVolumeDB()) {
+          try (ReferenceCountedDB db = BlockUtils.getDB(containerData,
+              config)) {
+            db.getStore().destroy();
+          }
+        }
+        FileUtils.deleteDirectory(containerDir);
+      } catch (Exception deleteex) {
+        LOG.error("Can not cleanup destination directories after a"
+            + " container import error (cid" + containerId + ")", deleteex);
+      }
+      throw ex;
+    } finally {
+      writeUnlock();
+    }
+  }
+
   @Override
   public void exportContainerData(OutputStream destination,
       ContainerPacker<KeyValueContainerData> packer) throws IOException {
@@ -698,8 +805,62 @@ private ContainerReplicaProto.State getHddsState()
    * @return
    */
   public File getContainerDBFile() {
-    return new File(containerData.getMetadataPath(), containerData
-        .getContainerID() + OzoneConsts.DN_CONTAINER_DB);
+    return KeyValueContainerLocationUtil.getContainerDBFile(
+        new File(containerData.getMetadataPath()), containerData);
+  }
+
+  /**
+   * Moves the block metadata of the container from its own DB to the DB of
+   * its volume, and updates the container to schema version 2. The DB of
+   * the container is removed once the .container file is updated.
+   *
+   * @throws StorageContainerException if the migration fails, the container
+   * is left with its own DB.
+   */
+  public void migrateToVolumeDB() throws StorageContainerException {
+    Preconditions.checkState(!containerData.hasVolumeDB(),
+        "Container is already using the volume DB");
+    long containerId = containerData.getContainerID();
+    File containerDBFile = containerData.getDbFile();
+    writeLock();
+    try {
+      try (ReferenceCountedDB containerDB =
+               BlockUtils.getDB(containerData, config)) {
+        containerData.setSchemaVersion(OzoneConsts.SCHEMA_V2);
+        containerData.setDbFile(getContainerDBFile());
+        try (ReferenceCountedDB volumeDB =
+                 BlockUtils.getDB(containerData, config)) {
+          // Drop the entries left by an earlier, interrupted migration.
+          volumeDB.getStore().destroy();
+          KeyValueContainerUtil.copyDB(containerDB.getStore(),
+              volumeDB.getStore());
+          volumeDB.getStore().flushDB(true);
+        }
+      }
+      updateContainerFile(getContainerFile());
+    } catch (IOException ex) {
+      containerData.setSchemaVersion(null);
+      containerData.setDbFile(containerDBFile);
+      throw new StorageContainerException("Failed to migrate container " +
+          containerId + " to the volume DB", ex, CONTAINER_INTERNAL_ERROR);
+    } finally {
+      writeUnlock();
+    }
+
+    try {
+      ContainerCache.getInstance(config)
+          .removeDB(containerDBFile.getAbsolutePath());
+      FileUtils.deleteDirectory(containerDBFile);
+    } catch (IOException ex) {
+      LOG.warn("Failed to delete the DB {} of container {} after migrating " +
+          "it to the volume DB", containerDBFile, containerId, ex);
+    }
+  }
+
+  private boolean isVolumeDBConfigured() {
+    return OzoneConsts.SCHEMA_V2.equals(config.getTrimmed(
+        OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION,
+        OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION_DEFAULT));
   }
 
   public boolean scanMetaData() {
@@ -24,12 +24,14 @@
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
 import org.apache.hadoop.hdfs.util.Canceler;
 import org.apache.hadoop.hdfs.util.DataTransferThrottler;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.ozone.common.Checksum;
 import org.apache.hadoop.ozone.common.ChecksumData;
 import org.apache.hadoop.ozone.common.OzoneChecksumException;
 import org.apache.hadoop.ozone.container.common.helpers.BlockData;
 import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
 import org.apache.hadoop.ozone.container.common.impl.ContainerDataYaml;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
@@ -217,7 +219,7 @@ private void scanData(DataTransferThrottler throttler, Canceler canceler)
     File metaDir = new File(metadataPath);
 
     dbFile = KeyValueContainerLocationUtil
-        .getContainerDBFile(metaDir, containerID);
+        .getContainerDBFile(metaDir, onDiskContainerData);
 
     if (!dbFile.exists() || !dbFile.canRead()) {
       String dbFileErrorMsg = "Unable to access DB File [" + dbFile.toString()
@@ -234,9 +236,19 @@ private void scanData(DataTransferThrottler throttler, Canceler canceler)
 
       while(kvIter.hasNext()) {
         BlockData block = kvIter.nextBlock();
+        boolean filePerBlock = onDiskContainerData.getLayOutVersion() ==
+            ChunkLayOutVersion.FILE_PER_BLOCK.getVersion();
         for(ContainerProtos.ChunkInfo chunk : block.getChunks()) {
-          File chunkFile = ChunkUtils.getChunkFile(onDiskContainerData,
-              ChunkInfo.getFromProtoBuf(chunk));
+          File chunkFile;
+          long position = chunk.getOffset();
+          if (filePerBlock) {
+            chunkFile = ChunkUtils.getBlockFile(onDiskContainerData,
+                block.getBlockID());
+            position += chunk.getBlockOffset();
+          } else {
+            chunkFile = ChunkUtils.getChunkFile(onDiskContainerData,
+                ChunkInfo.getFromProtoBuf(chunk));
+          }
           if (!chunkFile.exists()) {
             // concurrent mutation in Block DB? lookup the block again.
             byte[] bdata = db.getStore().get(
@@ -257,6 +269,7 @@ private void scanData(DataTransferThrottler throttler, Canceler canceler)
             long bytesRead = 0;
             byte[] buffer = new byte[cData.getBytesPerChecksum()];
             try (InputStream fs = new FileInputStream(chunkFile)) {
+              IOUtils.skipFully(fs, position);
               for (int i = 0; i < length; i++) {
                 int v = fs.read(buffer);
                 if (v == -1) {
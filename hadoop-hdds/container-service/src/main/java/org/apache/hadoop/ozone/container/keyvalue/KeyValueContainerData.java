@@ -37,6 +37,8 @@
 import static org.apache.hadoop.ozone.OzoneConsts.CHUNKS_PATH;
 import static org.apache.hadoop.ozone.OzoneConsts.CONTAINER_DB_TYPE;
 import static org.apache.hadoop.ozone.OzoneConsts.METADATA_PATH;
+import static org.apache.hadoop.ozone.OzoneConsts.SCHEMA_V2;
+import static org.apache.hadoop.ozone.OzoneConsts.SCHEMA_VERSION;
 
 /**
  * This class represents the KeyValueContainer metadata, which is the
@@ -60,6 +62,9 @@ public class KeyValueContainerData extends ContainerData {
   //Type of DB used to store key to chunks mapping
   private String containerDBType;
 
+  // Schema version of the container, null for schema version 1.
+  private String schemaVersion;
+
   private File dbFile = null;
 
   /**
@@ -71,6 +76,11 @@ public class KeyValueContainerData extends ContainerData {
 
   private long blockCommitSequenceId;
 
+  /**
+   * Serializes the updates of the usage counters persisted in the DB.
+   */
+  private final Object usageCountersLock = new Object();
+
   static {
     // Initialize YAML fields
     KV_YAML_FIELDS = Lists.newArrayList();
@@ -78,6 +88,7 @@ public class KeyValueContainerData extends ContainerData {
     KV_YAML_FIELDS.add(METADATA_PATH);
     KV_YAML_FIELDS.add(CHUNKS_PATH);
     KV_YAML_FIELDS.add(CONTAINER_DB_TYPE);
+    KV_YAML_FIELDS.add(SCHEMA_VERSION);
   }
 
   /**
@@ -199,6 +210,39 @@ public void setContainerDBType(String containerDBType) {
     this.containerDBType = containerDBType;
   }
 
+  /**
+   * Returns the schema version of the container. Containers created before
+   * schema versions were introduced have null, which means schema version 1.
+   * @return schemaVersion
+   */
+  public String getSchemaVersion() {
+    return schemaVersion;
+  }
+
+  /**
+   * Sets the schema version of the container.
+   * @param schemaVersion
+   */
+  public void setSchemaVersion(String schemaVersion) {
+    this.schemaVersion = schemaVersion;
+  }
+
+  /**
+   * Returns true if the block metadata of the container is stored in the DB
+   * of its volume, instead of a DB of the container.
+   */
+  public boolean hasVolumeDB() {
+    return SCHEMA_V2.equals(schemaVersion);
+  }
+
+  /**
+   * Returns the lock to hold while the usage counters of the container are
+   * read from the DB and the batch updating them is written.
+   */
+  public Object getUsageCountersLock() {
+    return usageCountersLock;
+  }
+
   /**
    * Increase the count of pending deletion blocks.
    *
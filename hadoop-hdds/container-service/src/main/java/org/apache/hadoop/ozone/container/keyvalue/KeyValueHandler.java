@@ -22,13 +22,13 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.StorageUnit;
@@ -49,7 +49,6 @@
     .PutSmallFileRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Type;
 import org.apache.hadoop.hdds.protocol.proto.StorageContainerDatanodeProtocolProtos.ContainerReplicaProto;
-import org.apache.hadoop.hdds.scm.ByteStringConversion;
 import org.apache.hadoop.hdds.scm.ScmConfigKeys;
 import org.apache.hadoop.hdds.scm.container.common.helpers
     .StorageContainerException;
@@ -58,6 +57,8 @@
 import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerMetrics;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
+import org.apache.hadoop.ozone.container.common.impl.ContainerDataYaml;
 import org.apache.hadoop.ozone.container.common.impl.ContainerSet;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
 import org.apache.hadoop.ozone.container.common.interfaces.Handler;
@@ -72,6 +73,8 @@
 import org.apache.hadoop.ozone.container.common.volume.VolumeSet;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.ChunkUtils;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers
+    .KeyValueContainerLocationUtil;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.KeyValueContainerUtil;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.SmallFileUtils;
 import org.apache.hadoop.ozone.container.keyvalue.impl.ChunkManagerFactory;
@@ -83,7 +86,13 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import org.apache.commons.io.FileUtils;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.thirdparty.com.google.protobuf.UnsafeByteOperations;
+import static org.apache.hadoop.hdds.HddsConfigKeys
+    .HDDS_CONTAINER_CHUNK_LAYOUT_VERSION;
+import static org.apache.hadoop.hdds.HddsConfigKeys
+    .HDDS_CONTAINER_CHUNK_LAYOUT_VERSION_DEFAULT;
 import static org.apache.hadoop.hdds.HddsConfigKeys
     .HDDS_DATANODE_VOLUME_CHOOSING_POLICY;
 import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.
@@ -104,7 +113,7 @@ public class KeyValueHandler extends Handler {
   private final ChunkManager chunkManager;
   private final VolumeChoosingPolicy volumeChoosingPolicy;
   private final long maxContainerSize;
-  private final Function<ByteBuffer, ByteString> byteBufferToByteString;
+  private final int chunkLayOutVersion;
 
   // A lock that is held during container creation.
   private final AutoCloseableLock containerCreationLock;
@@ -126,11 +135,12 @@ public KeyValueHandler(Configuration config, String datanodeId,
     maxContainerSize = (long)config.getStorageSize(
         ScmConfigKeys.OZONE_SCM_CONTAINER_SIZE,
             ScmConfigKeys.OZONE_SCM_CONTAINER_SIZE_DEFAULT, StorageUnit.BYTES);
+    chunkLayOutVersion = ChunkLayOutVersion.getChunkLayOutVersion(
+        config.getInt(HDDS_CONTAINER_CHUNK_LAYOUT_VERSION,
+            HDDS_CONTAINER_CHUNK_LAYOUT_VERSION_DEFAULT)).getVersion();
     // this handler lock is used for synchronizing createContainer Requests,
     // so using a fair lock here.
     containerCreationLock = new AutoCloseableLock(new ReentrantLock(true));
-    byteBufferToByteString =
-        ByteStringConversion.createByteBufferConversion(conf);
   }
 
   @VisibleForTesting
@@ -221,8 +231,8 @@ ContainerCommandResponseProto handleCreateContainer(
     long containerID = request.getContainerID();
 
     KeyValueContainerData newContainerData = new KeyValueContainerData(
-        containerID, maxContainerSize, request.getPipelineID(),
-        getDatanodeId());
+        containerID, chunkLayOutVersion, maxContainerSize,
+        request.getPipelineID(), getDatanodeId());
     // TODO: Add support to add metadataList to ContainerData. Add metadata
     // to container during creation.
     KeyValueContainer newContainer = new KeyValueContainer(
@@ -584,7 +594,9 @@ ContainerCommandResponseProto handleReadChunk(
     ContainerProtos.ReadChunkResponseProto.Builder response =
         ContainerProtos.ReadChunkResponseProto.newBuilder();
     response.setChunkData(chunkInfo.getProtoBufMessage());
-    response.setData(byteBufferToByteString.apply(data));
+    // The buffer is freshly allocated or mapped for this request and never
+    // modified afterwards, so it can be handed to the response as is.
+    response.setData(UnsafeByteOperations.unsafeWrap(data));
     response.setBlockID(request.getReadChunk().getBlockID());
 
     ContainerCommandResponseProto.Builder builder =
@@ -814,8 +826,7 @@ ContainerCommandResponseProto handleGetSmallFile(
         // Tmp chunk files won't exist here.
         ByteBuffer data = chunkManager.readChunk(kvContainer, blockID,
             ChunkInfo.getFromProtoBuf(chunk), dispatcherContext);
-        ByteString current = byteBufferToByteString.apply(data);
-        dataBuf = dataBuf.concat(current);
+        dataBuf = dataBuf.concat(UnsafeByteOperations.unsafeWrap(data));
         chunkInfo = chunk;
       }
       metrics.incContainerBytesStats(Type.GetSmallFile, dataBuf.size());
@@ -884,24 +895,54 @@ private void checkContainerOpen(KeyValueContainer kvContainer)
 
   @Override
   public Container importContainer(final long containerID,
-      final long maxSize, final String originPipelineId,
-      final String originNodeId, final InputStream rawContainerStream,
+      final InputStream rawContainerStream,
       final TarContainerPacker packer)
       throws IOException {
 
-    // TODO: Add layout version!
-    KeyValueContainerData containerData =
-        new KeyValueContainerData(containerID,
-            maxSize, originPipelineId, originNodeId);
+    // The size of the container is only known once its descriptor is read,
+    // the volume is chosen for a container of the default size.
+    HddsVolume containerVolume;
+    volumeSet.readLock();
+    try {
+      containerVolume = volumeChoosingPolicy.chooseVolume(
+          volumeSet.getVolumesList(), maxContainerSize);
+    } finally {
+      volumeSet.readUnlock();
+    }
+    String hddsVolumeDir = containerVolume.getHddsRootDir().toString();
+    Path extractedDir = KeyValueContainerLocationUtil
+        .getContainerImportPath(hddsVolumeDir, scmID, containerID).toPath();
+
+    try {
+      // Drop the leftovers of an earlier, interrupted import.
+      FileUtils.deleteDirectory(extractedDir.toFile());
+      byte[] descriptorContent = packer.unpackContainerArchive(containerID,
+          rawContainerStream, extractedDir);
+      if (descriptorContent == null) {
+        throw new IOException("Container descriptor is missing from the "
+            + "container archive: " + containerID);
+      }
 
-    KeyValueContainer container = new KeyValueContainer(containerData,
-        conf);
+      // The layout version is taken from the imported container descriptor.
+      KeyValueContainerData originalContainerData =
+          (KeyValueContainerData) ContainerDataYaml
+              .readContainer(descriptorContent);
+      KeyValueContainerData containerData =
+          new KeyValueContainerData(containerID,
+              originalContainerData.getMaxSize(),
+              originalContainerData.getOriginPipelineId(),
+              originalContainerData.getOriginNodeId());
 
-    populateContainerPathFields(container, maxSize);
-    container.importContainerData(rawContainerStream, packer);
-    sendICR(container);
-    return container;
+      KeyValueContainer container = new KeyValueContainer(containerData,
+          conf);
 
+      container.populatePathFields(scmID, containerVolume, hddsVolumeDir);
+      container.importContainerData(extractedDir, originalContainerData);
+      sendICR(container);
+      return container;
+    } finally {
+      FileUtils.deleteDirectory(extractedDir.toFile());
+    }
   }
 
   @Override
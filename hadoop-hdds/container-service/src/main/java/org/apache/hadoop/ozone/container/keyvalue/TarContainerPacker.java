@@ -30,24 +30,38 @@
 import java.nio.file.Paths;
 import java.util.stream.Stream;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hdds.HddsUtils;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.utils.MetadataStore;
+import org.apache.hadoop.hdds.utils.MetadataStoreBuilder;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
 import org.apache.hadoop.ozone.container.common.interfaces.ContainerPacker;
+import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers
+    .KeyValueContainerLocationUtil;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.KeyValueContainerUtil;
+import org.apache.hadoop.ozone.container.replication.CopyContainerCompression;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.CompressorException;
-import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import static java.util.stream.Collectors.toList;
 
 /**
- * Compress/uncompress KeyValueContainer data to a tar.gz archive.
+ * Compress/uncompress KeyValueContainer data to a tar archive, gzip
+ * compressed unless an other compression is given.
+ * <p>
+ * The archive always has a DB of its own for the container, containers
+ * which keep their block metadata in the DB of the volume are exported to
+ * and imported from a temporary DB.
  */
 public class TarContainerPacker
     implements ContainerPacker<KeyValueContainerData> {
@@ -58,6 +72,26 @@
 
   private static final String CONTAINER_FILE_NAME = "container.yaml";
 
+  private static final String TEMP_DB_DIR_PREFIX = "tmp-db-";
+
+  private final Configuration conf;
+
+  private final CopyContainerCompression compression;
+
+  public TarContainerPacker() {
+    this(new OzoneConfiguration());
+  }
+
+  public TarContainerPacker(Configuration conf) {
+    this(conf, CopyContainerCompression.GZIP);
+  }
+
+  public TarContainerPacker(Configuration conf,
+      CopyContainerCompression compression) {
+    this.conf = conf;
+    this.compression = compression;
+  }
+
   /**
    * Given an input stream (tar file) extract the data to the specified
    * directories.
@@ -69,11 +103,62 @@
   public byte[] unpackContainerData(Container<KeyValueContainerData> container,
       InputStream input)
       throws IOException {
-    byte[] descriptorFileContent = null;
     KeyValueContainerData containerData = container.getContainerData();
+    Path tempDir = null;
     Path dbRoot = containerData.getDbFile().toPath();
+    if (containerData.hasVolumeDB()) {
+      tempDir = createTempDBDir(containerData);
+      dbRoot = getTempDBFile(tempDir, containerData).toPath();
+    }
     Path chunksRoot = Paths.get(containerData.getChunksPath());
 
+    try {
+      byte[] descriptorFileContent = extract(input, dbRoot, chunksRoot);
+
+      if (tempDir != null && dbRoot.toFile().exists()) {
+        try (MetadataStore importDB = openTempDB(dbRoot.toFile(),
+            containerData, false);
+             ReferenceCountedDB volumeDB = BlockUtils.getDB(containerData,
+                 conf)) {
+          KeyValueContainerUtil.copyDB(importDB, volumeDB.getStore());
+        }
+      }
+      return descriptorFileContent;
+
+    } finally {
+      if (tempDir != null) {
+        FileUtils.deleteDirectory(tempDir.toFile());
+      }
+    }
+  }
+
+  /**
+   * Extracts the archive of a container to a directory, which gets the
+   * layout of a container directory: the DB of the container in the
+   * metadata directory, and the chunks in the chunks directory. The
+   * archive is extracted while it is read, so the input can be the stream
+   * of a download.
+   *
+   * @param containerId the ID of the container in the archive.
+   * @param input the input stream.
+   * @param destination the directory to extract the archive to.
+   * @return the container descriptor of the archive, null if the archive
+   * does not have any.
+   */
+  public byte[] unpackContainerArchive(long containerId, InputStream input,
+      Path destination) throws IOException {
+    Path metadataRoot = destination.resolve(OzoneConsts.CONTAINER_META_PATH);
+    Path dbRoot = KeyValueContainerLocationUtil.getContainerDBFile(
+        metadataRoot.toFile(), containerId).toPath();
+    Path chunksRoot = destination.resolve(CHUNKS_DIR_NAME);
+    Files.createDirectories(metadataRoot);
+    Files.createDirectories(chunksRoot);
+    return extract(input, dbRoot, chunksRoot);
+  }
+
+  private byte[] extract(InputStream input, Path dbRoot, Path chunksRoot)
+      throws IOException {
+    byte[] descriptorFileContent = null;
     try (InputStream decompressed = decompress(input);
          ArchiveInputStream archiveInput = untar(decompressed)) {
 
@@ -99,14 +184,8 @@ public byte[] unpackContainerData(Container<KeyValueContainerData> container,
         }
         entry = archiveInput.getNextEntry();
       }
-      return descriptorFileContent;
-
-    } catch (CompressorException e) {
-      throw new IOException(
-          "Can't uncompress the given container: " + container
-              .getContainerData().getContainerID(),
-          e);
     }
+    return descriptorFileContent;
   }
 
   private void extractEntry(InputStream input, long size,
@@ -152,21 +231,65 @@ public void pack(Container<KeyValueContainerData> container,
     try (OutputStream compressed = compress(output);
          ArchiveOutputStream archiveOutput = tar(compressed)) {
 
-      includePath(containerData.getDbFile().toPath(), DB_DIR_NAME,
-          archiveOutput);
+      if (containerData.hasVolumeDB()) {
+        includeVolumeDB(containerData, archiveOutput);
+      } else {
+        includePath(containerData.getDbFile().toPath(), DB_DIR_NAME,
+            archiveOutput);
+      }
 
       includePath(Paths.get(containerData.getChunksPath()), CHUNKS_DIR_NAME,
           archiveOutput);
 
       includeFile(container.getContainerFile(), CONTAINER_FILE_NAME,
           archiveOutput);
-    } catch (CompressorException e) {
-      throw new IOException(
-          "Can't compress the container: " + containerData.getContainerID(),
-          e);
     }
   }
 
+  /**
+   * Exports the entries of the container from the DB of the volume to a
+   * temporary DB, and includes it in the archive.
+   */
+  private void includeVolumeDB(KeyValueContainerData containerData,
+      ArchiveOutputStream archiveOutput) throws IOException {
+    Path tempDir = createTempDBDir(containerData);
+    try {
+      File exportDBFile = getTempDBFile(tempDir, containerData);
+      try (ReferenceCountedDB volumeDB = BlockUtils.getDB(containerData, conf);
+           MetadataStore exportDB = openTempDB(exportDBFile, containerData,
+               true)) {
+        KeyValueContainerUtil.copyDB(volumeDB.getStore(), exportDB);
+      }
+      includePath(exportDBFile.toPath(), DB_DIR_NAME, archiveOutput);
+    } finally {
+      FileUtils.deleteDirectory(tempDir.toFile());
+    }
+  }
+
+  private static Path createTempDBDir(KeyValueContainerData containerData)
+      throws IOException {
+    Path metadataPath = Paths.get(containerData.getMetadataPath());
+    Files.createDirectories(metadataPath);
+    return Files.createTempDirectory(metadataPath, TEMP_DB_DIR_PREFIX);
+  }
+
+  private static File getTempDBFile(Path tempDir,
+      KeyValueContainerData containerData) {
+    return KeyValueContainerLocationUtil.getContainerDBFile(tempDir.toFile(),
+        containerData.getContainerID());
+  }
+
+  private MetadataStore openTempDB(File dbFile,
+      KeyValueContainerData containerData, boolean createIfMissing)
+      throws IOException {
+    return MetadataStoreBuilder.newBuilder()
+        .setConf(conf)
+        .setDbFile(dbFile)
+        .setDBType(containerData.getContainerDBType())
+        .setCreateIfMissing(createIfMissing)
+        .build();
+  }
+
   @Override
   public byte[] unpackContainerDescriptor(InputStream input)
       throws IOException {
@@ -181,10 +304,6 @@ public byte[] unpackContainerDescriptor(InputStream input)
         }
         entry = archiveInput.getNextEntry();
       }
-    } catch (CompressorException e) {
-      throw new IOException(
-          "Can't read the container descriptor from the container archive",
-          e);
     }
 
     throw new IOException(
@@ -235,16 +354,12 @@ private static ArchiveOutputStream tar(OutputStream output) {
     return new TarArchiveOutputStream(output);
   }
 
-  private static InputStream decompress(InputStream input)
-      throws CompressorException {
-    return new CompressorStreamFactory()
-        .createCompressorInputStream(CompressorStreamFactory.GZIP, input);
+  private InputStream decompress(InputStream input) throws IOException {
+    return compression.wrap(input, conf);
   }
 
-  private static OutputStream compress(OutputStream output)
-      throws CompressorException {
-    return new CompressorStreamFactory()
-        .createCompressorOutputStream(CompressorStreamFactory.GZIP, output);
+  private OutputStream compress(OutputStream output) throws IOException {
+    return compression.wrap(output, conf);
   }
 
 }
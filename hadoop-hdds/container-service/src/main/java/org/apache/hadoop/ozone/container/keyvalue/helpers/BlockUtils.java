@@ -19,6 +19,7 @@
 package org.apache.hadoop.ozone.container.keyvalue.helpers;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
@@ -38,6 +39,10 @@
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
 import org.apache.hadoop.ozone.container.common.utils.ContainerCache;
 import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
+import org.apache.hadoop.hdds.utils.BatchOperation;
+import org.apache.hadoop.hdds.utils.MetadataStore;
+import org.apache.hadoop.hdfs.DFSUtil;
+import org.apache.hadoop.ozone.OzoneConsts;
 
 import java.io.IOException;
 
@@ -59,7 +64,8 @@ private BlockUtils() {
    * Get a DB handler for a given container.
    * If the handler doesn't exist in cache yet, first create one and
    * add into cache. This function is called with containerManager
-   * ReadLock held.
+   * ReadLock held. For containers with schema version 2, the handle is a
+   * view of the volume DB with the keys of the container.
    *
    * @param containerData containerData.
    * @param conf configuration.
@@ -74,6 +80,11 @@ public static ReferenceCountedDB getDB(KeyValueContainerData containerData,
     Preconditions.checkNotNull(cache);
     Preconditions.checkNotNull(containerData.getDbFile());
     try {
+      if (containerData.hasVolumeDB()) {
+        return cache.getVolumeDB(containerData.getContainerID(),
+            containerData.getContainerDBType(),
+            containerData.getDbFile().getAbsolutePath(), conf);
+      }
       return cache.getDB(containerData.getContainerID(), containerData
           .getContainerDBType(), containerData.getDbFile().getAbsolutePath(),
           conf);
@@ -85,7 +96,8 @@ public static ReferenceCountedDB getDB(KeyValueContainerData containerData,
     }
   }
   /**
-   * Remove a DB handler from cache.
+   * Remove a DB handler from cache. For containers with schema version 2
+   * this does nothing, as the volume DB stays open.
    *
    * @param container - Container data.
    * @param conf - Configuration.
@@ -93,6 +105,9 @@ public static ReferenceCountedDB getDB(KeyValueContainerData containerData,
   public static void removeDB(KeyValueContainerData container, Configuration
       conf) {
     Preconditions.checkNotNull(container);
+    if (container.hasVolumeDB()) {
+      return;
+    }
     ContainerCache cache = ContainerCache.getInstance(conf);
     Preconditions.checkNotNull(cache);
     cache.removeDB(container.getDbFile().getAbsolutePath());
@@ -127,6 +142,53 @@ public static BlockData getBlockData(byte[] bytes) throws IOException {
     }
   }
 
+  /**
+   * Returns the value of a usage counter persisted in the container DB.
+   *
+   * @param store - DB of the container
+   * @param counter - name of the counter, see {@link OzoneConsts#BLOCK_COUNT}
+   * @return value of the counter, or null if it has never been persisted.
+   * @throws IOException
+   */
+  public static Long getUsageCounter(MetadataStore store, String counter)
+      throws IOException {
+    byte[] value = store.get(DFSUtil.string2Bytes(counter));
+    return value == null ? null : Longs.fromByteArray(value);
+  }
+
+  /**
+   * Adds the update of the usage counters of a container to a batch, so that
+   * they change atomically with the blocks. The caller must hold
+   * {@link KeyValueContainerData#getUsageCountersLock()} until the batch is
+   * written.
+   *
+   * @param store - DB of the container
+   * @param batch - batch updating the blocks of the container
+   * @param blockCountDelta - change in the number of blocks
+   * @param bytesUsedDelta - change in the bytes used by the blocks
+   * @param pendingDeleteDelta - change in the number of blocks pending delete
+   * @throws IOException
+   */
+  public static void updateUsageCounters(MetadataStore store,
+      BatchOperation batch, long blockCountDelta, long bytesUsedDelta,
+      long pendingDeleteDelta) throws IOException {
+    updateUsageCounter(store, batch, OzoneConsts.BLOCK_COUNT,
+        blockCountDelta);
+    updateUsageCounter(store, batch, OzoneConsts.CONTAINER_BYTES_USED,
+        bytesUsedDelta);
+    updateUsageCounter(store, batch, OzoneConsts.PENDING_DELETE_BLOCK_COUNT,
+        pendingDeleteDelta);
+  }
+
+  private static void updateUsageCounter(MetadataStore store,
+      BatchOperation batch, String counter, long delta) throws IOException {
+    if (delta != 0) {
+      Long value = getUsageCounter(store, counter);
+      batch.put(DFSUtil.string2Bytes(counter),
+          Longs.toByteArray((value == null ? 0 : value) + delta));
+    }
+  }
+
   /**
    * Returns putBlock response success.
    * @param msg - Request.
@@ -20,6 +20,7 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
     .ContainerCommandRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
@@ -30,6 +31,7 @@
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
 import org.apache.hadoop.ozone.container.common.volume.VolumeIOStats;
 import org.apache.hadoop.util.Time;
@@ -60,6 +62,11 @@
  */
 public final class ChunkUtils {
 
+  /**
+   * Extension of the files holding all chunks of a block.
+   */
+  public static final String BLOCK_FILE_EXTENSION = ".block";
+
   private static final Set<Path> LOCKS = ConcurrentHashMap.newKeySet();
 
   private static final Logger LOG =
@@ -158,10 +165,13 @@ public static int validateBufferSize(
    * @param chunkFile - file where data lives.
    * @param data - chunk definition.
    * @param volumeIOStats statistics collector
+   * @param mappedBufferThreshold reads of at least this many bytes are
+   * memory mapped, 0 to disable mapping.
    * @return ByteBuffer
    */
   public static ByteBuffer readData(File chunkFile, ChunkInfo data,
-      VolumeIOStats volumeIOStats) throws StorageContainerException {
+      VolumeIOStats volumeIOStats, long mappedBufferThreshold)
+      throws StorageContainerException {
 
     if (!chunkFile.exists()) {
       LOG.error("Unable to find the chunk file. chunk info : {}",
@@ -173,7 +183,6 @@ public static ByteBuffer readData(File chunkFile, ChunkInfo data,
 
     long offset = data.getOffset();
     long len = data.getLen();
-    ByteBuffer buf = ByteBuffer.allocate((int) len);
 
     Path path = chunkFile.toPath();
     long startTime = Time.monotonicNow();
@@ -183,9 +192,9 @@ public static ByteBuffer readData(File chunkFile, ChunkInfo data,
       try {
         file = FileChannel.open(path, READ_OPTIONS, NO_ATTRIBUTES);
 
+        ByteBuffer buf;
         try (FileLock ignored = file.lock(offset, len, true)) {
-          file.read(buf, offset);
-          buf.flip();
+          buf = readBuffer(file, offset, (int) len, mappedBufferThreshold);
         }
 
         // Increment volumeIO stats here.
@@ -204,6 +213,95 @@ public static ByteBuffer readData(File chunkFile, ChunkInfo data,
     });
   }
 
+  /**
+   * Writes the data of a chunk into an already open block file at the given
+   * position.
+   *
+   * @param file - open channel of the block file.
+   * @param position - position in the file to write the data at.
+   * @param data - The data buffer.
+   * @param volumeIOStats statistics collector
+   * @param sync whether to do fsync or not
+   * @return number of bytes written
+   * @throws IOException if the write fails, including when the channel got
+   * closed concurrently.
+   */
+  public static int writeData(FileChannel file, long position,
+      ByteBuffer data, VolumeIOStats volumeIOStats, boolean sync)
+      throws IOException {
+    long startTime = Time.monotonicNow();
+    int size = 0;
+    while (data.hasRemaining()) {
+      size += file.write(data, position + size);
+    }
+    if (sync) {
+      file.force(false);
+    }
+
+    // Increment volumeIO stats here.
+    volumeIOStats.incWriteTime(Time.monotonicNow() - startTime);
+    volumeIOStats.incWriteOpCount();
+    volumeIOStats.incWriteBytes(size);
+    return size;
+  }
+
+  /**
+   * Reads the data of a chunk from an already open block file.
+   *
+   * @param file - open channel of the block file.
+   * @param position - position in the file to read the data from.
+   * @param len - number of bytes to read.
+   * @param volumeIOStats statistics collector
+   * @param mappedBufferThreshold reads of at least this many bytes are
+   * memory mapped, 0 to disable mapping.
+   * @return ByteBuffer, null if the file does not hold the whole range.
+   * @throws IOException if the read fails, including when the channel got
+   * closed concurrently.
+   */
+  public static ByteBuffer readData(FileChannel file, long position, int len,
+      VolumeIOStats volumeIOStats, long mappedBufferThreshold)
+      throws IOException {
+    if (position + len > file.size()) {
+      return null;
+    }
+    long startTime = Time.monotonicNow();
+    ByteBuffer buf = readBuffer(file, position, len, mappedBufferThreshold);
+    if (buf.remaining() < len) {
+      return null;
+    }
+
+    // Increment volumeIO stats here.
+    volumeIOStats.incReadTime(Time.monotonicNow() - startTime);
+    volumeIOStats.incReadOpCount();
+    volumeIOStats.incReadBytes(len);
+    return buf;
+  }
+
+  /**
+   * Reads the given range of the file. Large ranges which are fully contained
+   * in the file are mapped, so the data can be handed to the response
+   * without copying it to the heap. Small ranges are read into a heap
+   * buffer, as setting up a mapping costs more than copying them.
+   *
+   * @return buffer holding the data, which may be shorter than len if the
+   * file ends before the range does.
+   */
+  private static ByteBuffer readBuffer(FileChannel file, long position,
+      int len, long mappedBufferThreshold) throws IOException {
+    if (mappedBufferThreshold > 0 && len >= mappedBufferThreshold
+        && position + len <= file.size()) {
+      return file.map(FileChannel.MapMode.READ_ONLY, position, len);
+    }
+    ByteBuffer buf = ByteBuffer.allocate(len);
+    while (buf.hasRemaining()) {
+      if (file.read(buf, position + buf.position()) < 0) {
+        break;
+      }
+    }
+    buf.flip();
+    return buf;
+  }
+
   /**
    * Validates chunk data and returns a file object to Chunk File that we are
    * expected to write data to.
@@ -237,7 +335,27 @@ public static boolean validateChunkForOverwrite(File chunkFile,
   public static File getChunkFile(KeyValueContainerData containerData,
                                   ChunkInfo info) throws
       StorageContainerException {
+    return getChunksLocation(containerData).toPath()
+        .resolve(info.getChunkName()).toFile();
+  }
+
+  /**
+   * Returns the file holding all chunks of a block, for containers using
+   * the {@link ChunkLayOutVersion#FILE_PER_BLOCK} layout.
+   *
+   * @param containerData - Container Data
+   * @param blockID - ID of the block
+   * @return - File.
+   * @throws StorageContainerException
+   */
+  public static File getBlockFile(KeyValueContainerData containerData,
+      BlockID blockID) throws StorageContainerException {
+    return getChunksLocation(containerData).toPath()
+        .resolve(blockID.getLocalID() + BLOCK_FILE_EXTENSION).toFile();
+  }
 
+  private static File getChunksLocation(KeyValueContainerData containerData)
+      throws StorageContainerException {
     Preconditions.checkNotNull(containerData, "Container data can't be null");
 
     String chunksPath = containerData.getChunksPath();
@@ -252,8 +370,7 @@ public static File getChunkFile(KeyValueContainerData containerData,
       throw new StorageContainerException("Unable to get Chunks directory.",
           UNABLE_TO_FIND_DATA_DIR);
     }
-
-    return chunksLoc.toPath().resolve(info.getChunkName()).toFile();
+    return chunksLoc;
   }
 
   /**
@@ -20,6 +20,7 @@
 import com.google.common.base.Preconditions;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.common.Storage;
+import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
 
 import java.io.File;
 
@@ -28,6 +29,9 @@
  */
 public final class KeyValueContainerLocationUtil {
 
+  private static final String IMPORT_DIR =
+      "tmp" + File.separator + "container-copy";
+
   /* Never constructed. */
   private KeyValueContainerLocationUtil() {
 
@@ -67,6 +71,32 @@ public static File getChunksLocationPath(String baseDir, String scmId,
     return new File(chunksPath);
   }
 
+  /**
+   * Returns the directory the replicas of containers are extracted to while
+   * they are downloaded. It is on the same volume as the containers, so the
+   * extracted replicas can be moved to their container directories with a
+   * rename.
+   * @param hddsVolumeDir base dir of the hdds volume
+   * @param scmId
+   */
+  public static File getContainerImportDir(String hddsVolumeDir,
+      String scmId) {
+    Preconditions.checkNotNull(hddsVolumeDir, "Base Directory cannot be null");
+    Preconditions.checkNotNull(scmId, "scmUuid cannot be null");
+    return new File(hddsVolumeDir + File.separator + scmId + File.separator
+        + IMPORT_DIR);
+  }
+
+  /**
+   * Returns the directory the replica of the container is extracted to while
+   * it is downloaded.
+   */
+  public static File getContainerImportPath(String hddsVolumeDir,
+      String scmId, long containerId) {
+    return new File(getContainerImportDir(hddsVolumeDir, scmId),
+        String.valueOf(containerId));
+  }
+
   /**
    * Returns base directory for specified container.
    * @param hddsVolumeDir
@@ -101,6 +131,33 @@ private static String getContainerSubDirectory(long containerId){
     return Storage.CONTAINER_DIR + directory;
   }
 
+  /**
+   * Return the DB of the volume, which keeps the block metadata of all the
+   * containers of the volume with schema version 2. It is stored next to the
+   * current directory of the volume, as the current directory is expected
+   * to have only container directories.
+   * @param containerMetaDataPath metadata path of a container of the volume
+   */
+  public static File getVolumeDBFile(File containerMetaDataPath) {
+    File currentDir = containerMetaDataPath.getAbsoluteFile().getParentFile()
+        .getParentFile().getParentFile();
+    return new File(currentDir.getParentFile(),
+        OzoneConsts.DN_VOLUME_CONTAINER_DB);
+  }
+
+  /**
+   * Return the DB File which keeps the block metadata of the container,
+   * based on its schema version.
+   */
+  public static File getContainerDBFile(File containerMetaDataPath,
+      KeyValueContainerData containerData) {
+    if (containerData.hasVolumeDB()) {
+      return getVolumeDBFile(containerMetaDataPath);
+    }
+    return getContainerDBFile(containerMetaDataPath,
+        containerData.getContainerID());
+  }
+
   /**
    * Return containerDB File.
    */
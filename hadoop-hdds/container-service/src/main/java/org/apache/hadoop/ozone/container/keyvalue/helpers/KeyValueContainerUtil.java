@@ -21,8 +21,6 @@
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.Map;
 
 import com.google.common.primitives.Longs;
 import org.apache.hadoop.conf.Configuration;
@@ -34,8 +32,8 @@
 import org.apache.hadoop.hdfs.DFSUtil;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
-import org.apache.hadoop.ozone.container.common.helpers.BlockData;
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
+import org.apache.hadoop.hdds.utils.BatchOperation;
 import org.apache.hadoop.hdds.utils.MetadataKeyFilters;
 import org.apache.hadoop.hdds.utils.MetadataStore;
 import org.apache.hadoop.hdds.utils.MetadataStoreBuilder;
@@ -60,11 +58,17 @@ private KeyValueContainerUtil() {
   private static final Logger LOG = LoggerFactory.getLogger(
       KeyValueContainerUtil.class);
 
+  private static final int COPY_DB_BATCH_SIZE = 1000;
+
   /**
    * creates metadata path, chunks path and  metadata DB for the specified
    * container.
    *
    * @param containerMetaDataPath
+   * @param chunksPath
+   * @param dbFile - DB of the container, or null if the container keeps its
+   *               block metadata in the DB of its volume.
+   * @param conf
    * @throws IOException
    */
   public static void createContainerMetaData(File containerMetaDataPath, File
@@ -78,14 +82,16 @@ public static void createContainerMetaData(File containerMetaDataPath, File
       throw new IOException("Unable to create directory for metadata storage." +
           " Path: " + containerMetaDataPath);
     }
-    MetadataStore store = MetadataStoreBuilder.newBuilder().setConf(conf)
-        .setCreateIfMissing(true).setDbFile(dbFile).build();
+    if (dbFile != null) {
+      MetadataStore store = MetadataStoreBuilder.newBuilder().setConf(conf)
+          .setCreateIfMissing(true).setDbFile(dbFile).build();
 
-    // we close since the SCM pre-creates containers.
-    // we will open and put Db handle into a cache when keys are being created
-    // in a container.
+      // we close since the SCM pre-creates containers.
+      // we will open and put Db handle into a cache when keys are being
+      // created in a container.
 
-    store.close();
+      store.close();
+    }
 
     if (!chunksPath.mkdirs()) {
       LOG.error("Unable to create chunks directory Container {}",
@@ -118,8 +124,16 @@ public static void removeContainer(KeyValueContainerData containerData,
         .getMetadataPath());
     File chunksPath = new File(containerData.getChunksPath());
 
-    // Close the DB connection and remove the DB handler from cache
-    BlockUtils.removeDB(containerData, conf);
+    if (containerData.hasVolumeDB()) {
+      // The DB is shared with the other containers of the volume, only the
+      // entries of this container are removed.
+      try (ReferenceCountedDB db = BlockUtils.getDB(containerData, conf)) {
+        db.getStore().destroy();
+      }
+    } else {
+      // Close the DB connection and remove the DB handler from cache
+      BlockUtils.removeDB(containerData, conf);
+    }
 
     // Delete the Container MetaData path.
     FileUtils.deleteDirectory(containerMetaDataPath);
@@ -169,7 +183,7 @@ public static void parseKVContainerData(KeyValueContainerData kvContainerData,
     ContainerUtils.verifyChecksum(kvContainerData);
 
     File dbFile = KeyValueContainerLocationUtil.getContainerDBFile(
-        metadataPath, containerID);
+        metadataPath, kvContainerData);
     if (!dbFile.exists()) {
       LOG.error("Container DB file is missing for ContainerID {}. " +
           "Skipping loading of this container.", containerID);
@@ -180,23 +194,25 @@ public static void parseKVContainerData(KeyValueContainerData kvContainerData,
 
     try(ReferenceCountedDB metadata =
             BlockUtils.getDB(kvContainerData, config)) {
-      long bytesUsed = 0;
-      List<Map.Entry<byte[], byte[]>> liveKeys = metadata.getStore()
-          .getRangeKVs(null, Integer.MAX_VALUE,
-              MetadataKeyFilters.getNormalKeyFilter());
-
-      bytesUsed = liveKeys.parallelStream().mapToLong(e-> {
-        BlockData blockData;
-        try {
-          blockData = BlockUtils.getBlockData(e.getValue());
-          return blockData.getSize();
-        } catch (IOException ex) {
-          return 0L;
-        }
-      }).sum();
-      kvContainerData.setBytesUsed(bytesUsed);
-      kvContainerData.setKeyCount(liveKeys.size());
-      byte[] bcsId = metadata.getStore().get(DFSUtil.string2Bytes(
+      MetadataStore store = metadata.getStore();
+      Long blockCount = BlockUtils.getUsageCounter(store,
+          OzoneConsts.BLOCK_COUNT);
+      if (blockCount == null) {
+        // The container was written before its usage counters were kept,
+        // count the blocks once and persist the counters.
+        initializeUsageCounters(containerID, store);
+        blockCount = BlockUtils.getUsageCounter(store,
+            OzoneConsts.BLOCK_COUNT);
+      }
+      Long bytesUsed = BlockUtils.getUsageCounter(store,
+          OzoneConsts.CONTAINER_BYTES_USED);
+      Long pendingDeleteBlocks = BlockUtils.getUsageCounter(store,
+          OzoneConsts.PENDING_DELETE_BLOCK_COUNT);
+      kvContainerData.setKeyCount(blockCount);
+      kvContainerData.setBytesUsed(bytesUsed == null ? 0 : bytesUsed);
+      kvContainerData.incrPendingDeletionBlocks(pendingDeleteBlocks == null ?
+          0 : pendingDeleteBlocks.intValue());
+      byte[] bcsId = store.get(DFSUtil.string2Bytes(
           OzoneConsts.BLOCK_COMMIT_SEQUENCE_ID_PREFIX));
       if (bcsId != null) {
         kvContainerData.updateBlockCommitSequenceId(Longs.fromByteArray(bcsId));
@@ -204,6 +220,46 @@ public static void parseKVContainerData(KeyValueContainerData kvContainerData,
     }
   }
 
+  /**
+   * Counts the blocks of a container by iterating its DB, and persists the
+   * usage counters of the container.
+   *
+   * @param containerID - ID of the container
+   * @param store - DB of the container
+   * @throws IOException
+   */
+  private static void initializeUsageCounters(long containerID,
+      MetadataStore store) throws IOException {
+    final long[] counters = new long[3];
+    store.iterate(null, (key, value) -> {
+      if (MetadataKeyFilters.getDeletingKeyFilter()
+          .filterKey(null, key, null)) {
+        counters[2]++;
+      } else if (MetadataKeyFilters.getNormalKeyFilter()
+          .filterKey(null, key, null)) {
+        counters[0]++;
+        try {
+          counters[1] += BlockUtils.getBlockData(value).getSize();
+        } catch (IOException ex) {
+          LOG.warn("Failed to parse a block of container {}", containerID,
+              ex);
+        }
+      }
+      return true;
+    });
+    BatchOperation batch = new BatchOperation();
+    batch.put(DFSUtil.string2Bytes(OzoneConsts.BLOCK_COUNT),
+        Longs.toByteArray(counters[0]));
+    batch.put(DFSUtil.string2Bytes(OzoneConsts.CONTAINER_BYTES_USED),
+        Longs.toByteArray(counters[1]));
+    batch.put(DFSUtil.string2Bytes(OzoneConsts.PENDING_DELETE_BLOCK_COUNT),
+        Longs.toByteArray(counters[2]));
+    store.writeBatch(batch);
+    LOG.info("Initialized the usage counters of container {}: {} blocks, " +
+        "{} bytes used, {} blocks pending delete", containerID, counters[0],
+        counters[1], counters[2]);
+  }
+
   /**
    * Returns the path where data or chunks live for a given container.
    *
@@ -234,4 +290,28 @@ public static Path getMetadataDirectory(
     return Paths.get(metadataPath);
 
   }
+
+  /**
+   * Copies all the entries of a metadata store to another one, in batches.
+   *
+   * @param from - store to read the entries from
+   * @param to - store to write the entries to
+   * @throws IOException
+   */
+  public static void copyDB(MetadataStore from, MetadataStore to)
+      throws IOException {
+    final BatchOperation[] batch = {new BatchOperation()};
+    final int[] count = {0};
+    from.iterate(null, (key, value) -> {
+      batch[0].put(key, value);
+      if (++count[0] % COPY_DB_BATCH_SIZE == 0) {
+        to.writeBatch(batch[0]);
+        batch[0] = new BatchOperation();
+      }
+      return true;
+    });
+    if (count[0] % COPY_DB_BATCH_SIZE != 0) {
+      to.writeBatch(batch[0]);
+    }
+  }
 }
@@ -82,17 +82,17 @@ public long putBlock(Container container, BlockData data) throws IOException {
         "operation.");
     Preconditions.checkState(data.getContainerID() >= 0, "Container Id " +
         "cannot be negative");
+    KeyValueContainerData containerData =
+        (KeyValueContainerData) container.getContainerData();
     // We are not locking the key manager since LevelDb serializes all actions
     // against a single DB. We rely on DB level locking to avoid conflicts.
-    try(ReferenceCountedDB db = BlockUtils.
-        getDB((KeyValueContainerData) container.getContainerData(), config)) {
+    try(ReferenceCountedDB db = BlockUtils.getDB(containerData, config)) {
       // This is a post condition that acts as a hint to the user.
       // Should never fail.
       Preconditions.checkNotNull(db, "DB cannot be null here");
 
       long bcsId = data.getBlockCommitSequenceId();
-      long containerBCSId = ((KeyValueContainerData) container.
-          getContainerData()).getBlockCommitSequenceId();
+      long containerBCSId = containerData.getBlockCommitSequenceId();
 
       // default blockCommitSequenceId for any block is 0. It the putBlock
       // request is not coming via Ratis(for test scenarios), it will be 0.
@@ -110,13 +110,23 @@ public long putBlock(Container container, BlockData data) throws IOException {
           return data.getSize();
         }
       }
-      // update the blockData as well as BlockCommitSequenceId here
+      // update the blockData, BlockCommitSequenceId and the usage counters
+      // of the container here
+      byte[] blockKey = Longs.toByteArray(data.getLocalID());
       BatchOperation batch = new BatchOperation();
-      batch.put(Longs.toByteArray(data.getLocalID()),
-          data.getProtoBufMessage().toByteArray());
+      batch.put(blockKey, data.getProtoBufMessage().toByteArray());
       batch.put(blockCommitSequenceIdKey,
           Longs.toByteArray(bcsId));
-      db.getStore().writeBatch(batch);
+      synchronized (containerData.getUsageCountersLock()) {
+        // a block is put again as the client flushes it, only the change of
+        // its size is counted then
+        byte[] existingBlock = db.getStore().get(blockKey);
+        long previousSize = existingBlock == null ? 0 :
+            BlockUtils.getBlockData(existingBlock).getSize();
+        BlockUtils.updateUsageCounters(db.getStore(), batch,
+            existingBlock == null ? 1 : 0, data.getSize() - previousSize, 0);
+        db.getStore().writeBatch(batch);
+      }
       container.updateBlockCommitSequenceId(bcsId);
       // Increment keycount here
       container.getContainerData().incrKeyCount();
@@ -237,7 +247,13 @@ public void deleteBlock(Container container, BlockID blockID) throws
         throw new StorageContainerException("Unable to find the block.",
             NO_SUCH_BLOCK);
       }
-      db.getStore().delete(kKey);
+      BatchOperation batch = new BatchOperation();
+      batch.delete(kKey);
+      synchronized (cData.getUsageCountersLock()) {
+        BlockUtils.updateUsageCounters(db.getStore(), batch, -1,
+            -BlockUtils.getBlockData(kData).getSize(), 0);
+        db.getStore().writeBatch(batch);
+      }
       // Decrement blockcount here
       container.getContainerData().decrKeyCount();
     }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.keyvalue.impl;
+
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.scm.container.common.helpers.StorageContainerException;
+import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
+import org.apache.hadoop.ozone.container.common.interfaces.Container;
+import org.apache.hadoop.ozone.container.common.transport.server.ratis.DispatcherContext;
+import org.apache.hadoop.ozone.container.keyvalue.interfaces.ChunkManager;
+
+import java.nio.ByteBuffer;
+
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.UNSUPPORTED_REQUEST;
+
+/**
+ * Selects the ChunkManager for each operation based on the chunk layout
+ * version of the container, so that containers created with different
+ * layouts can be served by the same datanode.
+ */
+public class ChunkManagerDispatcher implements ChunkManager {
+
+  private final ChunkManager filePerChunkManager;
+  private final ChunkManager filePerBlockManager;
+
+  public ChunkManagerDispatcher(boolean sync) {
+    this(sync, 0);
+  }
+
+  public ChunkManagerDispatcher(boolean sync, long mappedBufferThreshold) {
+    this(new ChunkManagerImpl(sync, mappedBufferThreshold),
+        new FilePerBlockChunkManagerImpl(sync, mappedBufferThreshold));
+  }
+
+  ChunkManagerDispatcher(ChunkManager filePerChunkManager,
+      ChunkManager filePerBlockManager) {
+    this.filePerChunkManager = filePerChunkManager;
+    this.filePerBlockManager = filePerBlockManager;
+  }
+
+  @Override
+  public void writeChunk(Container container, BlockID blockID, ChunkInfo info,
+      ByteBuffer data, DispatcherContext dispatcherContext)
+      throws StorageContainerException {
+    selectManager(container)
+        .writeChunk(container, blockID, info, data, dispatcherContext);
+  }
+
+  @Override
+  public ByteBuffer readChunk(Container container, BlockID blockID,
+      ChunkInfo info, DispatcherContext dispatcherContext)
+      throws StorageContainerException {
+    return selectManager(container)
+        .readChunk(container, blockID, info, dispatcherContext);
+  }
+
+  @Override
+  public void deleteChunk(Container container, BlockID blockID, ChunkInfo info)
+      throws StorageContainerException {
+    selectManager(container).deleteChunk(container, blockID, info);
+  }
+
+  @Override
+  public void shutdown() {
+    filePerChunkManager.shutdown();
+    filePerBlockManager.shutdown();
+  }
+
+  private ChunkManager selectManager(Container container)
+      throws StorageContainerException {
+    int layOutVersion = container.getContainerData().getLayOutVersion();
+    if (layOutVersion == ChunkLayOutVersion.FILE_PER_CHUNK.getVersion()) {
+      return filePerChunkManager;
+    } else if (layOutVersion == ChunkLayOutVersion.FILE_PER_BLOCK
+        .getVersion()) {
+      return filePerBlockManager;
+    }
+    throw new StorageContainerException("Unsupported chunk layout version "
+        + layOutVersion + " of container "
+        + container.getContainerData().getContainerID(), UNSUPPORTED_REQUEST);
+  }
+}
@@ -20,6 +20,7 @@
 
 import com.google.common.base.Preconditions;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.StorageUnit;
 import org.apache.hadoop.ozone.container.keyvalue.interfaces.ChunkManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,9 +29,13 @@
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_CONTAINER_PERSISTDATA_DEFAULT;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_CONTAINER_SCRUB_ENABLED;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_CONTAINER_SCRUB_ENABLED_DEFAULT;
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD;
+import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD_DEFAULT;
 
 /**
  * Select an appropriate ChunkManager implementation as per config setting.
+ * Persistent chunks are handled by a dispatcher which picks the
+ * implementation matching the layout version of each container.
  * Ozone ChunkManager is a Singleton
  */
 public final class ChunkManagerFactory {
@@ -78,7 +83,11 @@ private static ChunkManager createChunkManager(Configuration config,
     }
 
     if (persist) {
-      manager = new ChunkManagerImpl(sync);
+      long mappedBufferThreshold = (long) config.getStorageSize(
+          HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD,
+          HDDS_DATANODE_CHUNK_READ_MAPPED_BUFFER_THRESHOLD_DEFAULT,
+          StorageUnit.BYTES);
+      manager = new ChunkManagerDispatcher(sync, mappedBufferThreshold);
     } else {
       LOG.warn(HDDS_CONTAINER_PERSISTDATA
           + " is set to false. This should be used only for testing."
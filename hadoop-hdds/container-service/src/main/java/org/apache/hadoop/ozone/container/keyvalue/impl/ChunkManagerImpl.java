@@ -58,9 +58,15 @@ public class ChunkManagerImpl implements ChunkManager {
       LoggerFactory.getLogger(ChunkManagerImpl.class);
 
   private final boolean doSyncWrite;
+  private final long mappedBufferThreshold;
 
   public ChunkManagerImpl(boolean sync) {
+    this(sync, 0);
+  }
+
+  public ChunkManagerImpl(boolean sync, long mappedBufferThreshold) {
     doSyncWrite = sync;
+    this.mappedBufferThreshold = mappedBufferThreshold;
   }
 
   /**
@@ -212,7 +218,7 @@ public ByteBuffer readChunk(Container container, BlockID blockID,
     // In version1, we verify checksum if it is available and return data
     // of the chunk file.
     if (containerData.getLayOutVersion() == ChunkLayOutVersion
-        .getLatestVersion().getVersion()) {
+        .FILE_PER_CHUNK.getVersion()) {
       File chunkFile = ChunkUtils.getChunkFile(containerData, info);
 
       // In case the chunk file does not exist but tmp chunk file exist,
@@ -221,7 +227,8 @@ public ByteBuffer readChunk(Container container, BlockID blockID,
           && dispatcherContext.isReadFromTmpFile()) {
         chunkFile = getTmpChunkFile(chunkFile, dispatcherContext);
       }
-      data = ChunkUtils.readData(chunkFile, info, volumeIOStats);
+      data = ChunkUtils.readData(chunkFile, info, volumeIOStats,
+          mappedBufferThreshold);
       containerData.incrReadCount();
       long length = chunkFile.length();
       containerData.incrReadBytes(length);
@@ -247,7 +254,7 @@ public void deleteChunk(Container container, BlockID blockID, ChunkInfo info)
     // deleting chunk operation.
     // In version1, we have only chunk file.
     if (containerData.getLayOutVersion() == ChunkLayOutVersion
-        .getLatestVersion().getVersion()) {
+        .FILE_PER_CHUNK.getVersion()) {
       File chunkFile = ChunkUtils.getChunkFile(containerData, info);
 
       // if the chunk file does not exist, it might have already been deleted.
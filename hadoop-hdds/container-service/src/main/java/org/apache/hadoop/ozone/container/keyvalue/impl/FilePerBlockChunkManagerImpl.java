@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.keyvalue.impl;
+
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.scm.container.common.helpers.StorageContainerException;
+import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
+import org.apache.hadoop.ozone.container.common.interfaces.Container;
+import org.apache.hadoop.ozone.container.common.transport.server.ratis.DispatcherContext;
+import org.apache.hadoop.ozone.container.common.volume.HddsVolume;
+import org.apache.hadoop.ozone.container.common.volume.OpenFileCache;
+import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.ChunkUtils;
+import org.apache.hadoop.ozone.container.keyvalue.interfaces.ChunkManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.CONTAINER_INTERNAL_ERROR;
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.INVALID_WRITE_SIZE;
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.IO_EXCEPTION;
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.UNABLE_TO_FIND_CHUNK;
+import static org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result.UNSUPPORTED_REQUEST;
+
+/**
+ * ChunkManager for containers using the FILE_PER_BLOCK layout. All chunks of
+ * a block are written at their block offsets into one file per block, and
+ * the block files are accessed through the open file cache of the volume
+ * instead of being opened and closed for every chunk.
+ */
+public class FilePerBlockChunkManagerImpl implements ChunkManager {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(FilePerBlockChunkManagerImpl.class);
+
+  private final boolean doSyncWrite;
+  private final long mappedBufferThreshold;
+
+  public FilePerBlockChunkManagerImpl(boolean sync) {
+    this(sync, 0);
+  }
+
+  public FilePerBlockChunkManagerImpl(boolean sync, long mappedBufferThreshold) {
+    doSyncWrite = sync;
+    this.mappedBufferThreshold = mappedBufferThreshold;
+  }
+
+  /**
+   * writes a given chunk.
+   *
+   * @param container - Container for the chunk
+   * @param blockID - ID of the block
+   * @param info - ChunkInfo
+   * @param data - data of the chunk
+   * @param dispatcherContext - dispatcherContextInfo
+   * @throws StorageContainerException
+   */
+  @Override
+  public void writeChunk(Container container, BlockID blockID, ChunkInfo info,
+      ByteBuffer data, DispatcherContext dispatcherContext)
+      throws StorageContainerException {
+    Preconditions.checkNotNull(dispatcherContext);
+    DispatcherContext.WriteChunkStage stage = dispatcherContext.getStage();
+    KeyValueContainerData containerData = (KeyValueContainerData) container
+        .getContainerData();
+    File blockFile = ChunkUtils.getBlockFile(containerData, blockID);
+
+    switch (stage) {
+    case WRITE_DATA:
+      // Data goes to its final position right away, so there is no
+      // temporary file to be renamed on commit.
+      writeData(containerData, blockFile, info, data);
+      break;
+    case COMMIT_DATA:
+      updateContainerWriteStats(containerData, info, false);
+      break;
+    case COMBINED:
+      boolean isOverwrite = ChunkUtils.validateChunkForOverwrite(
+          blockFile, getBlockFileInfo(info));
+      writeData(containerData, blockFile, info, data);
+      updateContainerWriteStats(containerData, info, isOverwrite);
+      break;
+    default:
+      throw new StorageContainerException("Can not identify write operation.",
+          CONTAINER_INTERNAL_ERROR);
+    }
+  }
+
+  /**
+   * reads the data defined by a chunk.
+   *
+   * @param container - Container for the chunk
+   * @param blockID - ID of the block.
+   * @param info - ChunkInfo.
+   * @param dispatcherContext dispatcher context info.
+   * @return byte buffer
+   * @throws StorageContainerException
+   */
+  @Override
+  public ByteBuffer readChunk(Container container, BlockID blockID,
+      ChunkInfo info, DispatcherContext dispatcherContext)
+      throws StorageContainerException {
+    KeyValueContainerData containerData = (KeyValueContainerData) container
+        .getContainerData();
+    File blockFile = ChunkUtils.getBlockFile(containerData, blockID);
+    if (!blockFile.exists()) {
+      LOG.error("Unable to find the block file. chunk info : {}", info);
+      throw new StorageContainerException("Unable to find the block file. " +
+          "chunk info " + info, UNABLE_TO_FIND_CHUNK);
+    }
+
+    long position = getPosition(info);
+    HddsVolume volume = containerData.getVolume();
+    ByteBuffer data = null;
+    try {
+      for (int attempt = 0; data == null; attempt++) {
+        FileChannel channel = volume.getOpenFiles().get(blockFile);
+        try {
+          data = ChunkUtils.readData(channel, position, (int) info.getLen(),
+              volume.getVolumeIOStats(), mappedBufferThreshold);
+          if (data == null) {
+            LOG.error("Block file does not contain the chunk. chunk info : {}",
+                info);
+            throw new StorageContainerException("Block file does not " +
+                "contain the chunk. chunk info " + info, UNABLE_TO_FIND_CHUNK);
+          }
+        } catch (ClosedChannelException e) {
+          retryOnClosedChannel(attempt, blockFile, e);
+        }
+      }
+    } catch (StorageContainerException ex) {
+      throw ex;
+    } catch (IOException ex) {
+      throw new StorageContainerException(ex, IO_EXCEPTION);
+    }
+
+    containerData.incrReadCount();
+    containerData.incrReadBytes(info.getLen());
+    return data;
+  }
+
+  /**
+   * Deletes a given chunk. Chunks share the block file, so only a chunk
+   * which spans the whole file can be deleted.
+   *
+   * @param container - Container for the chunk
+   * @param blockID - ID of the block
+   * @param info - Chunk Info
+   * @throws StorageContainerException
+   */
+  @Override
+  public void deleteChunk(Container container, BlockID blockID, ChunkInfo info)
+      throws StorageContainerException {
+    Preconditions.checkNotNull(blockID, "Block ID cannot be null.");
+    KeyValueContainerData containerData = (KeyValueContainerData) container
+        .getContainerData();
+    File blockFile = ChunkUtils.getBlockFile(containerData, blockID);
+
+    // if the block file does not exist, it might have already been deleted.
+    // The call might be because of reapply of transactions on datanode
+    // restart.
+    if (!blockFile.exists()) {
+      LOG.warn("Block file does not exist. chunk info : {}", info);
+      return;
+    }
+    long length = blockFile.length();
+    if (getPosition(info) == 0 && info.getLen() == length) {
+      containerData.getVolume().getOpenFiles().invalidate(blockFile);
+      FileUtil.fullyDelete(blockFile);
+      containerData.decrBytesUsed(length);
+    } else {
+      LOG.error("Not Supported Operation. Trying to delete a " +
+          "chunk that is in shared file. chunk info : {}", info);
+      throw new StorageContainerException("Not Supported Operation. " +
+          "Trying to delete a chunk that is in shared file. chunk info : "
+          + info, UNSUPPORTED_REQUEST);
+    }
+  }
+
+  /**
+   * Shutdown the chunkManager.
+   *
+   * Open block files are owned by the volumes, which close them on
+   * shutdown, so there is nothing to do here.
+   */
+  @Override
+  public void shutdown() {
+  }
+
+  private void writeData(KeyValueContainerData containerData, File blockFile,
+      ChunkInfo info, ByteBuffer data) throws StorageContainerException {
+    final int bufferSize = ChunkUtils.validateBufferSize(info, data);
+    long position = getPosition(info);
+    HddsVolume volume = containerData.getVolume();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("writing chunk:{} block file:{} position:{}",
+          info.getChunkName(), blockFile, position);
+    }
+    try {
+      for (int attempt = 0;; attempt++) {
+        FileChannel channel = volume.getOpenFiles().get(blockFile);
+        try {
+          int size = ChunkUtils.writeData(channel, position, data.duplicate(),
+              volume.getVolumeIOStats(), doSyncWrite);
+          if (size != bufferSize) {
+            LOG.error("Invalid write size found. Size:{}  Expected: {} ", size,
+                bufferSize);
+            throw new StorageContainerException("Invalid write size found. " +
+                "Size: " + size + " Expected: " + bufferSize,
+                INVALID_WRITE_SIZE);
+          }
+          return;
+        } catch (ClosedChannelException e) {
+          retryOnClosedChannel(attempt, blockFile, e);
+        }
+      }
+    } catch (StorageContainerException ex) {
+      throw ex;
+    } catch (IOException ex) {
+      LOG.error("write data failed. error: {}", ex);
+      throw new StorageContainerException(ex, IO_EXCEPTION);
+    }
+  }
+
+  /**
+   * A cached channel can be closed by an eviction from the open file cache
+   * while it is in use. Retry once with a freshly opened channel; positional
+   * reads and writes are idempotent.
+   */
+  private static void retryOnClosedChannel(int attempt, File blockFile,
+      ClosedChannelException e) throws ClosedChannelException {
+    if (attempt > 0) {
+      throw e;
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Block file {} was closed concurrently, reopening it",
+          blockFile);
+    }
+  }
+
+  /**
+   * Returns the position of the chunk data described by the given info in
+   * the block file.
+   */
+  private static long getPosition(ChunkInfo info)
+      throws StorageContainerException {
+    if (!info.hasBlockOffset()) {
+      throw new StorageContainerException("Block offset is required for " +
+          "containers storing all chunks of a block in one file. chunk info : "
+          + info, UNSUPPORTED_REQUEST);
+    }
+    return info.getBlockOffset() + info.getOffset();
+  }
+
+  /**
+   * Returns chunk info with the offset translated to the block file, so that
+   * overwrite checks look at the right range of the file.
+   */
+  private static ChunkInfo getBlockFileInfo(ChunkInfo info)
+      throws StorageContainerException {
+    ChunkInfo blockFileInfo = new ChunkInfo(info.getChunkName(),
+        getPosition(info), info.getLen());
+    blockFileInfo.getMetadata().putAll(info.getMetadata());
+    return blockFileInfo;
+  }
+
+  private static void updateContainerWriteStats(
+      KeyValueContainerData containerData, ChunkInfo info,
+      boolean isOverwrite) {
+    if (!isOverwrite) {
+      containerData.incrBytesUsed(info.getLen());
+    }
+    containerData.incrWriteCount();
+    containerData.incrWriteBytes(info.getLen());
+  }
+}
@@ -21,6 +21,7 @@
 import com.google.common.collect.Lists;
 import org.apache.hadoop.hdds.scm.ScmConfigKeys;
 import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
 import org.apache.hadoop.ozone.container.common.impl.ContainerData;
 import org.apache.hadoop.ozone.container.common.impl.TopNOrderedContainerDeletionChoosingPolicy;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
@@ -28,6 +29,7 @@
 import org.apache.hadoop.ozone.container.common.transport.server.ratis.XceiverServerRatis;
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.ChunkUtils;
 import org.apache.hadoop.ozone.container.ozoneimpl.OzoneContainer;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.ratis.thirdparty.com.google.protobuf
@@ -281,13 +283,29 @@ public BackgroundTaskResult call() throws Exception {
           try {
             ContainerProtos.BlockData data =
                 ContainerProtos.BlockData.parseFrom(entry.getValue());
-            for (ContainerProtos.ChunkInfo chunkInfo : data.getChunksList()) {
-              File chunkFile = dataDir.toPath()
-                  .resolve(chunkInfo.getChunkName()).toFile();
-              if (FileUtils.deleteQuietly(chunkFile)) {
+            if (containerData.getLayOutVersion() ==
+                ChunkLayOutVersion.FILE_PER_BLOCK.getVersion()) {
+              File blockFile = dataDir.toPath().resolve(
+                  data.getBlockID().getLocalID()
+                      + ChunkUtils.BLOCK_FILE_EXTENSION).toFile();
+              // close the cached handle first, so that the space is released
+              containerData.getVolume().getOpenFiles().invalidate(blockFile);
+              if (FileUtils.deleteQuietly(blockFile)) {
                 if (LOG.isDebugEnabled()) {
-                  LOG.debug("block {} chunk {} deleted", blockName,
-                      chunkFile.getAbsolutePath());
+                  LOG.debug("block {} file {} deleted", blockName,
+                      blockFile.getAbsolutePath());
+                }
+              }
+            } else {
+              for (ContainerProtos.ChunkInfo chunkInfo :
+                  data.getChunksList()) {
+                File chunkFile = dataDir.toPath()
+                    .resolve(chunkInfo.getChunkName()).toFile();
+                if (FileUtils.deleteQuietly(chunkFile)) {
+                  if (LOG.isDebugEnabled()) {
+                    LOG.debug("block {} chunk {} deleted", blockName,
+                        chunkFile.getAbsolutePath());
+                  }
                 }
               }
             }
@@ -308,7 +326,11 @@ public BackgroundTaskResult call() throws Exception {
               DFSUtil.string2Bytes(blockId));
           batch.delete(DFSUtil.string2Bytes(entry));
         });
-        meta.getStore().writeBatch(batch);
+        synchronized (containerData.getUsageCountersLock()) {
+          BlockUtils.updateUsageCounters(meta.getStore(), batch, 0, 0,
+              -succeedBlocks.size());
+          meta.getStore().writeBatch(batch);
+        }
         // update count of pending deletion blocks in in-memory container status
         containerData.decrPendingDeletionBlocks(succeedBlocks.size());
 
@@ -33,6 +33,7 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -98,6 +99,29 @@ public ContainerReportsProto getContainerReport()
     return containerSet.getContainerReport();
   }
 
+  /**
+   * Returns the container report with the digests of the given number of
+   * buckets of containers, and the replicas of the changed buckets.
+   *
+   * @param buckets number of buckets the container IDs are split in
+   * @return ContainerReportsProto
+   * @throws IOException in case of exception
+   */
+  public ContainerReportsProto getContainerReport(int buckets)
+      throws IOException {
+    return containerSet.getContainerReport(buckets);
+  }
+
+  /**
+   * Adds the replicas of the given buckets of containers to the next
+   * container report with bucket digests.
+   *
+   * @param buckets buckets of containers requested by SCM
+   */
+  public void requestReportBuckets(Collection<Integer> buckets) {
+    containerSet.requestReportBuckets(buckets);
+  }
+
   /**
    * Quasi closes a container given its id.
    *
@@ -121,12 +145,11 @@ public void closeContainer(final long containerId) throws IOException {
   }
 
   public Container importContainer(final ContainerType type,
-      final long containerId, final long maxSize, final String originPipelineId,
-      final String originNodeId, final InputStream rawContainerStream,
+      final long containerId, final InputStream rawContainerStream,
       final TarContainerPacker packer)
       throws IOException {
-    return handlers.get(type).importContainer(containerId, maxSize,
-        originPipelineId, originNodeId, rawContainerStream, packer);
+    return handlers.get(type).importContainer(containerId,
+        rawContainerStream, packer);
   }
 
   public void exportContainer(final ContainerType type,
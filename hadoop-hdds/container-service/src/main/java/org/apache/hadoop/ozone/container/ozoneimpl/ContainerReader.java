@@ -20,27 +20,28 @@
 
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
 import org.apache.hadoop.hdds.scm.container.common.helpers
     .StorageContainerException;
 import org.apache.hadoop.hdfs.DFSUtil;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.common.Storage;
-import org.apache.hadoop.ozone.container.common.helpers.BlockData;
-import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
 import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
 import org.apache.hadoop.ozone.container.common.impl.ContainerData;
 import org.apache.hadoop.ozone.container.common.impl.ContainerSet;
 import org.apache.hadoop.ozone.container.common.volume.HddsVolume;
 import org.apache.hadoop.ozone.container.common.volume.VolumeSet;
-import org.apache.hadoop.ozone.container.keyvalue.KeyValueBlockIterator;
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainer;
 import org.apache.hadoop.ozone.container.keyvalue.KeyValueContainerData;
 import org.apache.hadoop.ozone.container.common.impl.ContainerDataYaml;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers
+    .KeyValueContainerLocationUtil;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.KeyValueContainerUtil;
-import org.apache.hadoop.hdds.utils.MetadataKeyFilters;
 import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,7 +49,9 @@
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class used to read .container files from Volume and build container map.
@@ -84,15 +87,34 @@ public class ContainerReader implements Runnable {
   private final OzoneConfiguration config;
   private final File hddsVolumeDir;
   private final VolumeSet volumeSet;
+  private final boolean migrateToVolumeDB;
+  private final int loaderThreads;
 
   ContainerReader(VolumeSet volSet, HddsVolume volume, ContainerSet cset,
                   OzoneConfiguration conf) {
+    this(volSet, volume, cset, conf, 1);
+  }
+
+  /**
+   * @param loaderThreads - number of threads loading the containers of the
+   *                      volume in parallel
+   */
+  ContainerReader(VolumeSet volSet, HddsVolume volume, ContainerSet cset,
+                  OzoneConfiguration conf, int loaderThreads) {
     Preconditions.checkNotNull(volume);
+    Preconditions.checkArgument(loaderThreads > 0);
     this.hddsVolume = volume;
     this.hddsVolumeDir = hddsVolume.getHddsRootDir();
     this.containerSet = cset;
     this.config = conf;
     this.volumeSet = volSet;
+    this.migrateToVolumeDB = OzoneConsts.SCHEMA_V2.equals(conf.getTrimmed(
+        OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION,
+        OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION_DEFAULT)) &&
+        conf.getBoolean(
+            OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_MIGRATION_ENABLED,
+            OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_MIGRATION_ENABLED_DEFAULT);
+    this.loaderThreads = loaderThreads;
   }
 
   @Override
@@ -130,24 +152,54 @@ public boolean accept(File pathname) {
       return;
     }
 
-    for (File scmLoc : scmDir) {
-      File currentDir = new File(scmLoc, Storage.STORAGE_DIR_CURRENT);
-      File[] containerTopDirs = currentDir.listFiles();
-      if (containerTopDirs != null) {
-        for (File containerTopDir : containerTopDirs) {
-          if (containerTopDir.isDirectory()) {
-            File[] containerDirs = containerTopDir.listFiles();
-            if (containerDirs != null) {
-              for (File containerDir : containerDirs) {
-                File containerFile = ContainerUtils.getContainerFile(
-                    containerDir);
-                long containerID = ContainerUtils.getContainerID(containerDir);
-                if (containerFile.exists()) {
-                  verifyContainerFile(containerID, containerFile);
-                } else {
-                  LOG.error("Missing .container file for ContainerID: {}",
-                      containerDir.getName());
-                }
+    ExecutorService loader = Executors.newFixedThreadPool(loaderThreads,
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("ContainerReader-" + hddsVolumeRootDir.getName()
+                + "-%d")
+            .build());
+    try {
+      for (File scmLoc : scmDir) {
+        readContainers(hddsVolumeRootDir, scmLoc, loader);
+      }
+    } finally {
+      loader.shutdown();
+      try {
+        while (!loader.awaitTermination(1, TimeUnit.MINUTES)) {
+          LOG.info("Loading the containers of volume {}", hddsVolumeRootDir);
+        }
+      } catch (InterruptedException ex) {
+        LOG.warn("Interrupted while loading the containers of volume {}",
+            hddsVolumeRootDir);
+        loader.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Submits the loading of the containers found in the current directory
+   * of the volume for the given SCM.
+   */
+  private void readContainers(File hddsVolumeRootDir, File scmLoc,
+      ExecutorService loader) {
+    deleteInterruptedImports(hddsVolumeRootDir, scmLoc.getName());
+    File currentDir = new File(scmLoc, Storage.STORAGE_DIR_CURRENT);
+    File[] containerTopDirs = currentDir.listFiles();
+    if (containerTopDirs != null) {
+      for (File containerTopDir : containerTopDirs) {
+        if (containerTopDir.isDirectory()) {
+          File[] containerDirs = containerTopDir.listFiles();
+          if (containerDirs != null) {
+            for (File containerDir : containerDirs) {
+              File containerFile = ContainerUtils.getContainerFile(
+                  containerDir);
+              long containerID = ContainerUtils.getContainerID(containerDir);
+              if (containerFile.exists()) {
+                loader.execute(
+                    () -> verifyContainerFile(containerID, containerFile));
+              } else {
+                LOG.error("Missing .container file for ContainerID: {}",
+                    containerDir.getName());
               }
             }
           }
@@ -156,6 +208,25 @@ public boolean accept(File pathname) {
     }
   }
 
+  /**
+   * Removes the replicas which were being downloaded when the datanode
+   * stopped. They have never been moved to the current directory, so they
+   * are not containers of the volume.
+   */
+  private void deleteInterruptedImports(File hddsVolumeRootDir,
+      String scmId) {
+    File importDir = KeyValueContainerLocationUtil.getContainerImportDir(
+        hddsVolumeRootDir.getPath(), scmId);
+    if (importDir.exists()) {
+      try {
+        FileUtils.deleteDirectory(importDir);
+      } catch (IOException ex) {
+        LOG.warn("Failed to delete the interrupted container imports in {}",
+            importDir, ex);
+      }
+    }
+  }
+
   private void verifyContainerFile(long containerID, File containerFile) {
     try {
       ContainerData containerData = ContainerDataYaml.readContainerFile(
@@ -191,16 +262,9 @@ public void verifyAndFixupContainerData(ContainerData containerData)
         KeyValueContainerUtil.parseKVContainerData(kvContainerData, config);
         KeyValueContainer kvContainer = new KeyValueContainer(
             kvContainerData, config);
+        migrateToVolumeDB(kvContainer);
         try(ReferenceCountedDB containerDB = BlockUtils.getDB(kvContainerData,
             config)) {
-          MetadataKeyFilters.KeyPrefixFilter filter =
-              new MetadataKeyFilters.KeyPrefixFilter()
-                  .addFilter(OzoneConsts.DELETING_KEY_PREFIX);
-          int numPendingDeletionBlocks =
-              containerDB.getStore().getSequentialRangeKVs(null,
-                  Integer.MAX_VALUE, filter)
-                  .size();
-          kvContainerData.incrPendingDeletionBlocks(numPendingDeletionBlocks);
           byte[] delTxnId = containerDB.getStore().get(
               DFSUtil.string2Bytes(OzoneConsts.DELETE_TRANSACTION_KEY_PREFIX));
           if (delTxnId != null) {
@@ -214,11 +278,6 @@ public void verifyAndFixupContainerData(ContainerData containerData)
             kvContainerData
                 .updateBlockCommitSequenceId(Longs.fromByteArray(bcsId));
           }
-          if (kvContainer.getContainerState()
-              == ContainerProtos.ContainerDataProto.State.OPEN) {
-            // commitSpace for Open Containers relies on usedBytes
-            initializeUsedBytes(kvContainer);
-          }
           containerSet.addContainer(kvContainer);
         }
       } else {
@@ -235,27 +294,33 @@ public void verifyAndFixupContainerData(ContainerData containerData)
     }
   }
 
-  private void initializeUsedBytes(KeyValueContainer container)
-      throws IOException {
-    try (KeyValueBlockIterator blockIter = new KeyValueBlockIterator(
-        container.getContainerData().getContainerID(),
-        new File(container.getContainerData().getContainerPath()))) {
-      long usedBytes = 0;
-
-      while (blockIter.hasNext()) {
-        BlockData block = blockIter.nextBlock();
-        long blockLen = 0;
-
-        List<ContainerProtos.ChunkInfo> chunkInfoList = block.getChunks();
-        for (ContainerProtos.ChunkInfo chunk : chunkInfoList) {
-          ChunkInfo info = ChunkInfo.getFromProtoBuf(chunk);
-          blockLen += info.getLen();
+  /**
+   * Moves the container to the DB of the volume if it is enabled, and
+   * removes the DB of the container left by an interrupted migration.
+   */
+  private void migrateToVolumeDB(KeyValueContainer kvContainer) {
+    KeyValueContainerData kvContainerData = kvContainer.getContainerData();
+    if (kvContainerData.hasVolumeDB()) {
+      File containerDBFile = KeyValueContainerLocationUtil.getContainerDBFile(
+          new File(kvContainerData.getMetadataPath()),
+          kvContainerData.getContainerID());
+      if (containerDBFile.exists()) {
+        try {
+          FileUtils.deleteDirectory(containerDBFile);
+        } catch (IOException ex) {
+          LOG.warn("Failed to delete the stale DB {} of container {}",
+              containerDBFile, kvContainerData.getContainerID(), ex);
         }
-
-        usedBytes += blockLen;
       }
-
-      container.getContainerData().setBytesUsed(usedBytes);
+    } else if (migrateToVolumeDB && kvContainerData.getDbFile() != null) {
+      try {
+        kvContainer.migrateToVolumeDB();
+        LOG.info("Migrated container {} to the volume DB",
+            kvContainerData.getContainerID());
+      } catch (StorageContainerException ex) {
+        LOG.error("Failed to migrate container {} to the volume DB, " +
+            "it keeps using its own DB", kvContainerData.getContainerID(), ex);
+      }
     }
   }
 }
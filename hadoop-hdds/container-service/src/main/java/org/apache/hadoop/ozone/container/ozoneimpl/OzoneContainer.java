@@ -41,6 +41,7 @@
 import org.apache.hadoop.ozone.container.common.impl.HddsDispatcher;
 import org.apache.hadoop.ozone.container.common.interfaces.ContainerDispatcher;
 import org.apache.hadoop.ozone.container.common.interfaces.Handler;
+import org.apache.hadoop.ozone.container.common.statemachine.DatanodeConfiguration;
 import org.apache.hadoop.ozone.container.common.statemachine.StateContext;
 import org.apache.hadoop.ozone.container.common.transport.server.XceiverServerGrpc;
 import org.apache.hadoop.ozone.container.common.transport.server.XceiverServerSpi;
@@ -151,7 +152,7 @@ public OzoneContainer(DatanodeDetails datanodeDetails, OzoneConfiguration
 
   private GrpcReplicationService createReplicationService() {
     return new GrpcReplicationService(
-        new OnDemandContainerReplicationSource(controller));
+        new OnDemandContainerReplicationSource(controller, config));
   }
 
   /**
@@ -161,13 +162,15 @@ private void buildContainerSet() {
     Iterator<HddsVolume> volumeSetIterator = volumeSet.getVolumesList()
         .iterator();
     ArrayList<Thread> volumeThreads = new ArrayList<Thread>();
+    int loaderThreads = config.getObject(DatanodeConfiguration.class)
+        .getContainerLoaderThreadsPerVolume();
 
     //TODO: diskchecker should be run before this, to see how disks are.
     // And also handle disk failure tolerance need to be added
     while (volumeSetIterator.hasNext()) {
       HddsVolume volume = volumeSetIterator.next();
       Thread thread = new Thread(new ContainerReader(volumeSet, volume,
-          containerSet, config));
+          containerSet, config, loaderThreads));
       thread.start();
       volumeThreads.add(thread);
     }
@@ -18,23 +18,27 @@
 package org.apache.hadoop.ozone.container.replication;
 
 import java.io.Closeable;
-import java.nio.file.Path;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 
 /**
  * Service to download container data from other datanodes.
  * <p>
- * The implementation of this interface should copy the raw container data in
- * compressed form to working directory.
- * <p>
- * A smart implementation would use multiple sources to do parallel download.
+ * The implementation of this interface should stream the archive of the
+ * container from the source datanode, so it can be extracted while it is
+ * downloaded.
  */
 public interface ContainerDownloader extends Closeable {
 
-  CompletableFuture<Path> getContainerDataFromReplicas(long containerId,
-      List<DatanodeDetails> sources);
+  /**
+   * Starts to download the archive of the container from the source.
+   *
+   * @return the uncompressed stream of the archive. Closing it before its
+   * end cancels the download.
+   */
+  InputStream download(long containerId, DatanodeDetails source)
+      throws IOException;
 
 }
@@ -41,9 +41,11 @@ public interface ContainerReplicationSource {
    *
    * @param containerId Container to replicate
    * @param destination   The destination stream to copy all the container data.
+   * @param compression compression of the container archive.
    * @throws IOException
    */
-  void copyData(long containerId, OutputStream destination)
+  void copyData(long containerId, OutputStream destination,
+      CopyContainerCompression compression)
       throws IOException;
 
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.replication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerCompressProto;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Lz4Codec;
+import org.apache.hadoop.io.compress.SnappyCodec;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+
+/**
+ * Compression of the container archives copied between datanodes.
+ */
+public enum CopyContainerCompression {
+
+  NO_COMPRESSION {
+    @Override
+    public InputStream wrap(InputStream input, Configuration conf) {
+      return input;
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream output, Configuration conf) {
+      return output;
+    }
+  },
+
+  GZIP {
+    @Override
+    public InputStream wrap(InputStream input, Configuration conf)
+        throws IOException {
+      try {
+        return new CompressorStreamFactory().createCompressorInputStream(
+            CompressorStreamFactory.GZIP, input);
+      } catch (CompressorException e) {
+        throw new IOException("Can't uncompress the container archive", e);
+      }
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream output, Configuration conf)
+        throws IOException {
+      try {
+        return new CompressorStreamFactory().createCompressorOutputStream(
+            CompressorStreamFactory.GZIP, output);
+      } catch (CompressorException e) {
+        throw new IOException("Can't compress the container archive", e);
+      }
+    }
+  },
+
+  LZ4 {
+    @Override
+    public boolean isAvailable() {
+      return Lz4Codec.isNativeCodeLoaded();
+    }
+
+    @Override
+    public InputStream wrap(InputStream input, Configuration conf)
+        throws IOException {
+      CompressionCodec codec =
+          ReflectionUtils.newInstance(Lz4Codec.class, conf);
+      return codec.createInputStream(input);
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream output, Configuration conf)
+        throws IOException {
+      CompressionCodec codec =
+          ReflectionUtils.newInstance(Lz4Codec.class, conf);
+      return codec.createOutputStream(output);
+    }
+  },
+
+  SNAPPY {
+    @Override
+    public boolean isAvailable() {
+      return SnappyCodec.isNativeCodeLoaded();
+    }
+
+    @Override
+    public InputStream wrap(InputStream input, Configuration conf)
+        throws IOException {
+      CompressionCodec codec =
+          ReflectionUtils.newInstance(SnappyCodec.class, conf);
+      return codec.createInputStream(input);
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream output, Configuration conf)
+        throws IOException {
+      CompressionCodec codec =
+          ReflectionUtils.newInstance(SnappyCodec.class, conf);
+      return codec.createOutputStream(output);
+    }
+  };
+
+  /**
+   * Returns whether the archives can be compressed and uncompressed with this
+   * compression on this datanode.
+   */
+  public boolean isAvailable() {
+    return true;
+  }
+
+  public abstract InputStream wrap(InputStream input, Configuration conf)
+      throws IOException;
+
+  public abstract OutputStream wrap(OutputStream output, Configuration conf)
+      throws IOException;
+
+  public CopyContainerCompressProto toProto() {
+    return CopyContainerCompressProto.valueOf(name());
+  }
+
+  public static CopyContainerCompression fromProto(
+      CopyContainerCompressProto proto) {
+    return valueOf(proto.name());
+  }
+
+  /**
+   * Returns the compression the datanode requests for the containers
+   * replicated to it.
+   */
+  public static CopyContainerCompression getConf(Configuration conf) {
+    String name = conf.getTrimmed(
+        OzoneConfigKeys.HDDS_DATANODE_REPLICATION_COMPRESSION,
+        OzoneConfigKeys.HDDS_DATANODE_REPLICATION_COMPRESSION_DEFAULT);
+    try {
+      return valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unsupported compression " + name
+          + " in " + OzoneConfigKeys.HDDS_DATANODE_REPLICATION_COMPRESSION, e);
+    }
+  }
+}
@@ -17,29 +17,37 @@
  */
 package org.apache.hadoop.ozone.container.replication;
 
-import java.io.FileInputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
-import org.apache.hadoop.ozone.container.common.impl.ContainerData;
-import org.apache.hadoop.ozone.container.common.impl.ContainerDataYaml;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
+    .ContainerType;
 import org.apache.hadoop.ozone.container.common.impl.ContainerSet;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
 import org.apache.hadoop.ozone.container.keyvalue.TarContainerPacker;
 import org.apache.hadoop.ozone.container.ozoneimpl.ContainerController;
 import org.apache.hadoop.ozone.container.replication.ReplicationTask.Status;
 
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Default replication implementation.
  * <p>
- * This class does the real job. Executes the download and import the container
- * to the container set.
+ * This class does the real job. Downloads the container and imports it to
+ * the container set while it is downloaded.
+ * <p>
+ * The sources are tried in the order of the number of replications in
+ * progress from them, so the containers replicated at the same time are
+ * downloaded from different datanodes where possible.
  */
 public class DownloadAndImportReplicator implements ContainerReplicator {
 
@@ -54,6 +62,13 @@ public class DownloadAndImportReplicator implements ContainerReplicator {
 
   private final TarContainerPacker packer;
 
+  private final Map<DatanodeDetails, AtomicInteger> downloadsPerSource =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @param packer packer to extract the uncompressed archives returned by
+   *               the downloader.
+   */
   public DownloadAndImportReplicator(
       ContainerSet containerSet,
       ContainerController controller,
@@ -65,71 +80,55 @@ public DownloadAndImportReplicator(
     this.packer = packer;
   }
 
-  public void importContainer(long containerID, Path tarFilePath) {
-    try {
-      ContainerData originalContainerData;
-      try (FileInputStream tempContainerTarStream = new FileInputStream(
-          tarFilePath.toFile())) {
-        byte[] containerDescriptorYaml =
-            packer.unpackContainerDescriptor(tempContainerTarStream);
-        originalContainerData = ContainerDataYaml.readContainer(
-            containerDescriptorYaml);
-      }
-
-      try (FileInputStream tempContainerTarStream = new FileInputStream(
-          tarFilePath.toFile())) {
-
-        Container container = controller.importContainer(
-            originalContainerData.getContainerType(),
-            containerID,
-            originalContainerData.getMaxSize(),
-            originalContainerData.getOriginPipelineId(),
-            originalContainerData.getOriginNodeId(),
-            tempContainerTarStream,
-            packer);
-
-        containerSet.addContainer(container);
-      }
-
-    } catch (Exception e) {
-      LOG.error(
-          "Can't import the downloaded container data id=" + containerID,
-          e);
-    } finally {
-      try {
-        Files.delete(tarFilePath);
-      } catch (Exception ex) {
-        LOG.error("Got exception while deleting downloaded container file: "
-            + tarFilePath.toAbsolutePath().toString(), ex);
-      }
-    }
-  }
-
   @Override
   public void replicate(ReplicationTask task) {
     long containerID = task.getContainerId();
 
-    List<DatanodeDetails> sourceDatanodes = task.getSources();
+    List<DatanodeDetails> sourceDatanodes = orderSources(task.getSources());
 
     LOG.info("Starting replication of container {} from {}", containerID,
         sourceDatanodes);
 
-    CompletableFuture<Path> tempTarFile = downloader
-        .getContainerDataFromReplicas(containerID,
-            sourceDatanodes);
-
-    try {
-      //wait for the download. This thread pool is limiting the paralell
-      //downloads, so it's ok to block here and wait for the full download.
-      Path path = tempTarFile.get();
-      LOG.info("Container {} is downloaded, starting to import.",
-          containerID);
-      importContainer(containerID, path);
-      LOG.info("Container {} is replicated successfully", containerID);
-      task.setStatus(Status.DONE);
-    } catch (Exception e) {
-      LOG.error("Container replication was unsuccessful .", e);
-      task.setStatus(Status.FAILED);
+    for (DatanodeDetails source : sourceDatanodes) {
+      AtomicInteger downloads =
+          downloadsPerSource.computeIfAbsent(source, dn -> new AtomicInteger());
+      downloads.incrementAndGet();
+      //The thread pool of the supervisor limits the parallel downloads, so
+      //it's ok to block here while the container is downloaded and imported.
+      try (InputStream archive = downloader.download(containerID, source)) {
+        // The archives of the packer are always KeyValue containers.
+        Container container = controller.importContainer(
+            ContainerType.KeyValueContainer, containerID, archive, packer);
+        // Read the padding after the end of the archive, so the download
+        // completes instead of being cancelled.
+        IOUtils.skip(archive, Long.MAX_VALUE);
+        containerSet.addContainer(container);
+        LOG.info("Container {} is replicated successfully from {}",
+            containerID, source);
+        task.setStatus(Status.DONE);
+        return;
+      } catch (Exception e) {
+        LOG.error("Container {} replication from datanode {} was"
+            + " unsuccessful. Trying the next datanode", containerID, source,
+            e);
+      } finally {
+        downloads.decrementAndGet();
+      }
     }
+    task.setStatus(Status.FAILED);
+  }
+
+  private List<DatanodeDetails> orderSources(List<DatanodeDetails> sources) {
+    List<DatanodeDetails> ordered = new ArrayList<>(sources);
+    // The sort is stable, the sources with the same number of replications
+    // in progress are tried in a random order.
+    Collections.shuffle(ordered);
+    ordered.sort(Comparator.comparingInt(this::getDownloads));
+    return ordered;
+  }
+
+  private int getDownloads(DatanodeDetails source) {
+    AtomicInteger downloads = downloadsPerSource.get(source);
+    return downloads == null ? 0 : downloads.get();
   }
 }
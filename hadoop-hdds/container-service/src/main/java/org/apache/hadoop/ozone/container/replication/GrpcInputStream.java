@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.ozone.container.replication;
+
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerResponseProto;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.thirdparty.io.grpc.stub.ClientCallStreamObserver;
+import org.apache.ratis.thirdparty.io.grpc.stub.ClientResponseObserver;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Stream of a container archive downloaded from an other datanode. The
+ * responses of the datanode are requested as the stream is read, so only a
+ * few of them are buffered in memory whatever the size of the container.
+ */
+class GrpcInputStream extends InputStream implements
+    ClientResponseObserver<CopyContainerRequestProto,
+        CopyContainerResponseProto> {
+
+  // Number of responses requested ahead of the reader.
+  private static final int PREFETCH = 4;
+
+  // Marks the end of the responses in the queue.
+  private static final CopyContainerResponseProto END =
+      CopyContainerResponseProto.getDefaultInstance();
+
+  private final long containerId;
+
+  private final BlockingQueue<CopyContainerResponseProto> responses =
+      new LinkedBlockingQueue<>();
+
+  private volatile Throwable failure;
+
+  private ClientCallStreamObserver<CopyContainerRequestProto> requestStream;
+
+  // The fields below are only used by the reader.
+  private CopyContainerResponseProto current;
+  private int position;
+  private boolean eof;
+
+  GrpcInputStream(long containerId) {
+    this.containerId = containerId;
+  }
+
+  @Override
+  public void beforeStart(
+      ClientCallStreamObserver<CopyContainerRequestProto> stream) {
+    requestStream = stream;
+    stream.disableAutoInboundFlowControl();
+  }
+
+  /**
+   * Returns the compression of the archive, which is sent by the source
+   * datanode with the data. Datanodes which do not send it always compress
+   * the archive with gzip.
+   */
+  CopyContainerCompression getCompression() throws IOException {
+    if (hasData() && current.hasCompression()) {
+      return CopyContainerCompression.fromProto(current.getCompression());
+    }
+    return CopyContainerCompression.GZIP;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!hasData()) {
+      return -1;
+    }
+    return current.getData().byteAt(position++) & 0xFF;
+  }
+
+  @Override
+  public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!hasData()) {
+      return -1;
+    }
+    ByteString data = current.getData();
+    int length = Math.min(len, data.size() - position);
+    data.copyTo(b, position, off, length);
+    position += length;
+    return length;
+  }
+
+  /**
+   * Cancels the download if the stream has not been read to the end.
+   */
+  @Override
+  public void close() {
+    if (!eof) {
+      eof = true;
+      requestStream.cancel("The download of container " + containerId
+          + " is closed before its end", null);
+    }
+  }
+
+  private boolean hasData() throws IOException {
+    while (current == null || position >= current.getData().size()) {
+      if (eof) {
+        return false;
+      }
+      CopyContainerResponseProto response = take();
+      if (response == END) {
+        eof = true;
+        if (failure != null) {
+          throw new IOException("Failed to download container "
+              + containerId, failure);
+        }
+        return false;
+      }
+      // The first responses are requested by gRPC, the window of the
+      // prefetched responses is opened once they start to arrive.
+      requestStream.request(current == null ? PREFETCH : 1);
+      current = response;
+      position = 0;
+    }
+    return true;
+  }
+
+  private CopyContainerResponseProto take() throws IOException {
+    try {
+      return responses.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while downloading"
+          + " container " + containerId);
+    }
+  }
+
+  @Override
+  public void onNext(CopyContainerResponseProto response) {
+    responses.add(response);
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    failure = t;
+    responses.add(END);
+  }
+
+  @Override
+  public void onCompleted() {
+    responses.add(END);
+  }
+}
@@ -19,25 +19,45 @@
 
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerResponseProto;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.thirdparty.io.grpc.Context;
+import org.apache.ratis.thirdparty.io.grpc.stub.ServerCallStreamObserver;
 import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Adapter from {@code OutputStream} to gRPC {@code StreamObserver}.
  * Data is buffered in a limited buffer of the specified size.
+ *
+ * The stream has to be created in the call of the service method, which
+ * registers its on-ready handler, and written from another thread: gRPC
+ * does not call the handler while the service method runs.
  */
 class GrpcOutputStream extends OutputStream {
 
   private static final Logger LOG =
       LoggerFactory.getLogger(GrpcOutputStream.class);
 
+  // Bound of a wait for the client, after which the cancellation of the
+  // call is checked again.
+  private static final long READY_WAIT_MS = 100;
+
   private final StreamObserver<CopyContainerResponseProto> responseObserver;
 
+  // The context of the download call, which is cancelled with the call.
+  private final Context context = Context.current();
+
+  private final CopyContainerCompression compression;
+
   private final ByteString.Output buffer;
 
   private final long containerId;
@@ -46,29 +66,45 @@ class GrpcOutputStream extends OutputStream {
 
   private int writtenBytes;
 
+  private final Lock readyLock = new ReentrantLock();
+  private final Condition ready = readyLock.newCondition();
+
   GrpcOutputStream(
       StreamObserver<CopyContainerResponseProto> responseObserver,
       long containerId, int bufferSize) {
+    this(responseObserver, containerId, bufferSize, null);
+  }
+
+  /**
+   * @param compression compression of the container archive, which is sent
+   *                    to the client with the data.
+   */
+  GrpcOutputStream(
+      StreamObserver<CopyContainerResponseProto> responseObserver,
+      long containerId, int bufferSize,
+      CopyContainerCompression compression) {
     this.responseObserver = responseObserver;
     this.containerId = containerId;
     this.bufferSize = bufferSize;
+    this.compression = compression;
     buffer = ByteString.newOutput(bufferSize);
+    if (responseObserver instanceof ServerCallStreamObserver) {
+      ((ServerCallStreamObserver<CopyContainerResponseProto>) responseObserver)
+          .setOnReadyHandler(this::signalReady);
+    }
   }
 
   @Override
-  public void write(int b) {
-    try {
-      buffer.write(b);
-      if (buffer.size() >= bufferSize) {
-        flushBuffer(false);
-      }
-    } catch (Exception ex) {
-      responseObserver.onError(ex);
+  public void write(int b) throws IOException {
+    buffer.write(b);
+    if (buffer.size() >= bufferSize) {
+      flushBuffer(false);
     }
   }
 
   @Override
-  public void write(@Nonnull byte[] data, int offset, int length) {
+  public void write(@Nonnull byte[] data, int offset, int length)
+      throws IOException {
     if ((offset < 0) || (offset > data.length) || (length < 0) ||
         ((offset + length) > data.length) || ((offset + length) < 0)) {
       throw new IndexOutOfBoundsException();
@@ -76,25 +112,21 @@ public void write(@Nonnull byte[] data, int offset, int length) {
       return;
     }
 
-    try {
+    if (buffer.size() >= bufferSize) {
+      flushBuffer(false);
+    }
+
+    int remaining = length;
+    int off = offset;
+    int len = Math.min(remaining, bufferSize - buffer.size());
+    while (remaining > 0) {
+      buffer.write(data, off, len);
       if (buffer.size() >= bufferSize) {
         flushBuffer(false);
       }
-
-      int remaining = length;
-      int off = offset;
-      int len = Math.min(remaining, bufferSize - buffer.size());
-      while (remaining > 0) {
-        buffer.write(data, off, len);
-        if (buffer.size() >= bufferSize) {
-          flushBuffer(false);
-        }
-        off += len;
-        remaining -= len;
-        len = Math.min(bufferSize, remaining);
-      }
-    } catch (Exception ex) {
-      responseObserver.onError(ex);
+      off += len;
+      remaining -= len;
+      len = Math.min(bufferSize, remaining);
     }
   }
 
@@ -107,23 +139,64 @@ public void close() throws IOException {
     buffer.close();
   }
 
-  private void flushBuffer(boolean eof) {
+  private void flushBuffer(boolean eof) throws IOException {
     int length = buffer.size();
     if (length > 0) {
       ByteString data = buffer.toByteString();
       LOG.debug("Sending {} bytes (of type {}) for container {}",
           length, data.getClass().getSimpleName(), containerId);
-      CopyContainerResponseProto response =
+      CopyContainerResponseProto.Builder response =
           CopyContainerResponseProto.newBuilder()
               .setContainerID(containerId)
               .setData(data)
               .setEof(eof)
               .setReadOffset(writtenBytes)
-              .setLen(length)
-              .build();
-      responseObserver.onNext(response);
+              .setLen(length);
+      if (compression != null) {
+        response.setCompression(compression.toProto());
+      }
+      waitUntilReady();
+      responseObserver.onNext(response.build());
       writtenBytes += length;
       buffer.reset();
     }
   }
+
+  private void signalReady() {
+    readyLock.lock();
+    try {
+      ready.signalAll();
+    } finally {
+      readyLock.unlock();
+    }
+  }
+
+  /**
+   * Waits until the client can receive more data, so the container is not
+   * buffered in memory when it is read faster than the client downloads it.
+   */
+  private void waitUntilReady() throws IOException {
+    if (!(responseObserver instanceof ServerCallStreamObserver)) {
+      return;
+    }
+    ServerCallStreamObserver<CopyContainerResponseProto> observer =
+        (ServerCallStreamObserver<CopyContainerResponseProto>)
+            responseObserver;
+    readyLock.lock();
+    try {
+      while (!observer.isReady()) {
+        if (context.isCancelled()) {
+          throw new IOException("The download of container " + containerId
+              + " is cancelled", context.cancellationCause());
+        }
+        ready.await(READY_WAIT_MS, TimeUnit.MILLISECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while sending container "
+          + containerId);
+    } finally {
+      readyLock.unlock();
+    }
+  }
 }
@@ -18,28 +18,18 @@
 
 package org.apache.hadoop.ozone.container.replication;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
     .CopyContainerRequestProto;
-import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos
-    .CopyContainerResponseProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto
     .IntraDatanodeProtocolServiceGrpc;
 import org.apache.hadoop.hdds.protocol.datanode.proto
     .IntraDatanodeProtocolServiceGrpc.IntraDatanodeProtocolServiceStub;
 
-import com.google.common.base.Preconditions;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.ratis.thirdparty.io.grpc.ManagedChannel;
 import org.apache.ratis.thirdparty.io.grpc.netty.NettyChannelBuilder;
-import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,40 +45,37 @@ public class GrpcReplicationClient {
 
   private final IntraDatanodeProtocolServiceStub client;
 
-  private final Path workingDirectory;
-
-  public GrpcReplicationClient(String host,
-      int port, Path workingDir) {
+  public GrpcReplicationClient(String host, int port) {
 
     channel = NettyChannelBuilder.forAddress(host, port)
         .usePlaintext()
         .maxInboundMessageSize(OzoneConsts.OZONE_SCM_CHUNK_MAX_SIZE)
         .build();
     client = IntraDatanodeProtocolServiceGrpc.newStub(channel);
-    workingDirectory = workingDir;
   }
 
-  public CompletableFuture<Path> download(long containerId) {
+  /**
+   * Starts to download the archive of the container. The archive is
+   * downloaded as the returned stream is read.
+   *
+   * @param containerId the container to download.
+   * @param compression the compression requested from the datanode.
+   * @return the stream of the archive, in the compression returned by
+   * {@link GrpcInputStream#getCompression()}.
+   */
+  GrpcInputStream download(long containerId,
+      CopyContainerCompression compression) {
     CopyContainerRequestProto request =
         CopyContainerRequestProto.newBuilder()
             .setContainerID(containerId)
             .setLen(-1)
             .setReadOffset(0)
+            .setCompression(compression.toProto())
             .build();
 
-    CompletableFuture<Path> response = new CompletableFuture<>();
-
-    Path destinationPath =
-        getWorkingDirectory().resolve("container-" + containerId + ".tar.gz");
-
-    client.download(request,
-        new StreamDownloader(containerId, response, destinationPath));
-
-    return response;
-  }
-
-  private Path getWorkingDirectory() {
-    return workingDirectory;
+    GrpcInputStream stream = new GrpcInputStream(containerId);
+    client.download(request, stream);
+    return stream;
   }
 
   public void shutdown() {
@@ -100,77 +87,4 @@ public void shutdown() {
     }
   }
 
-  /**
-   * gRPC stream observer to CompletableFuture adapter.
-   */
-  public static class StreamDownloader
-      implements StreamObserver<CopyContainerResponseProto> {
-
-    private final CompletableFuture<Path> response;
-    private final long containerId;
-    private final OutputStream stream;
-    private final Path outputPath;
-
-    public StreamDownloader(long containerId, CompletableFuture<Path> response,
-        Path outputPath) {
-      this.response = response;
-      this.containerId = containerId;
-      this.outputPath = outputPath;
-      try {
-        Preconditions.checkNotNull(outputPath, "Output path cannot be null");
-        Path parentPath = Preconditions.checkNotNull(outputPath.getParent());
-        Files.createDirectories(parentPath);
-        stream = new FileOutputStream(outputPath.toFile());
-      } catch (IOException e) {
-        throw new RuntimeException("OutputPath can't be used: " + outputPath,
-            e);
-      }
-
-    }
-
-    @Override
-    public void onNext(CopyContainerResponseProto chunk) {
-      try {
-        chunk.getData().writeTo(stream);
-      } catch (IOException e) {
-        response.completeExceptionally(e);
-      }
-    }
-
-    @Override
-    public void onError(Throwable throwable) {
-      try {
-        LOG.error("Download of container {} was unsuccessful",
-            containerId, throwable);
-        stream.close();
-        try {
-          Files.delete(outputPath);
-        } catch (IOException ex) {
-          LOG.error("Failed to delete temporary destination {} for " +
-              "unsuccessful download of container {}",
-              outputPath, containerId, ex);
-        }
-        response.completeExceptionally(throwable);
-      } catch (IOException e) {
-        LOG.error("Failed to close {} for container {}",
-            outputPath, containerId, e);
-        response.completeExceptionally(e);
-      }
-    }
-
-    @Override
-    public void onCompleted() {
-      try {
-        stream.close();
-        LOG.info("Container {} is downloaded to {}", containerId, outputPath);
-        response.complete(outputPath);
-      } catch (IOException e) {
-        LOG.error("Downloaded container {} OK, but failed to close {}",
-            containerId, outputPath, e);
-        response.completeExceptionally(e);
-      }
-
-    }
-  }
-
 }
@@ -19,7 +19,11 @@
 package org.apache.hadoop.ozone.container.replication;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerRequestProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerResponseProto;
 import org.apache.hadoop.hdds.protocol.datanode.proto.IntraDatanodeProtocolServiceGrpc;
@@ -41,21 +45,46 @@ public class GrpcReplicationService extends
 
   private final ContainerReplicationSource source;
 
+  // Runs the downloads, so that the gRPC call can be told when the client
+  // is ready for more data while the container is sent.
+  private final Executor executor;
+
   public GrpcReplicationService(ContainerReplicationSource source) {
     this.source = source;
+    this.executor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("GrpcReplicationService-%d").build());
   }
 
   @Override
   public void download(CopyContainerRequestProto request,
       StreamObserver<CopyContainerResponseProto> responseObserver) {
     long containerID = request.getContainerID();
-    LOG.info("Streaming container data ({}) to other datanode", containerID);
+    // Clients which do not request a compression expect gzip.
+    CopyContainerCompression compression = request.hasCompression()
+        ? CopyContainerCompression.fromProto(request.getCompression())
+        : CopyContainerCompression.GZIP;
+    if (!compression.isAvailable()) {
+      LOG.warn("Compression {} is not available, sending container {}"
+          + " uncompressed", compression, containerID);
+      compression = CopyContainerCompression.NO_COMPRESSION;
+    }
+    LOG.info("Streaming container data ({}) to other datanode with {}",
+        containerID, compression);
+    GrpcOutputStream outputStream = new GrpcOutputStream(responseObserver,
+        containerID, BUFFER_SIZE, compression);
+    CopyContainerCompression containerCompression = compression;
     try {
-      GrpcOutputStream outputStream =
-          new GrpcOutputStream(responseObserver, containerID, BUFFER_SIZE);
-      source.copyData(containerID, outputStream);
-    } catch (IOException e) {
-      LOG.error("Error streaming container {}", containerID, e);
+      executor.execute(() -> {
+        try {
+          source.copyData(containerID, outputStream, containerCompression);
+        } catch (IOException e) {
+          LOG.error("Error streaming container {}", containerID, e);
+          responseObserver.onError(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      LOG.error("Unable to stream container {}", containerID, e);
       responseObserver.onError(e);
     }
   }
@@ -20,6 +20,8 @@
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.ozone.container.common.interfaces.Container;
 import org.apache.hadoop.ozone.container.keyvalue.TarContainerPacker;
 
@@ -40,11 +42,17 @@
 
   private ContainerController controller;
 
-  private TarContainerPacker packer = new TarContainerPacker();
+  private final Configuration conf;
 
   public OnDemandContainerReplicationSource(
       ContainerController controller) {
+    this(controller, new OzoneConfiguration());
+  }
+
+  public OnDemandContainerReplicationSource(
+      ContainerController controller, Configuration conf) {
     this.controller = controller;
+    this.conf = conf;
   }
 
   @Override
@@ -53,7 +61,8 @@ public void prepare(long containerId) {
   }
 
   @Override
-  public void copyData(long containerId, OutputStream destination)
+  public void copyData(long containerId, OutputStream destination,
+      CopyContainerCompression compression)
       throws IOException {
 
     Container container = controller.getContainer(containerId);
@@ -61,8 +70,8 @@ public void copyData(long containerId, OutputStream destination)
     Preconditions.checkNotNull(
         container, "Container is not found " + containerId);
 
-    controller.exportContainer(
-        container.getContainerType(), containerId, destination, packer);
+    controller.exportContainer(container.getContainerType(), containerId,
+        destination, new TarContainerPacker(conf, compression));
 
   }
 }
@@ -18,81 +18,61 @@
 
 package org.apache.hadoop.ozone.container.replication;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 import org.apache.hadoop.hdds.protocol.DatanodeDetails.Port.Name;
-import org.apache.hadoop.ozone.OzoneConfigKeys;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * Simple ContainerDownloaderImplementation to download the missing container
- * from the first available datanode.
+ * Simple ContainerDownloaderImplementation to download the container from a
+ * datanode with gRPC.
  * <p>
- * This is not the most effective implementation as it uses only one source
- * for he container download.
+ * The archive is requested with the compression configured by
+ * {@code hdds.datanode.replication.compression}.
  */
 public class SimpleContainerDownloader implements ContainerDownloader {
 
-  private static final Logger LOG =
-      LoggerFactory.getLogger(SimpleContainerDownloader.class);
+  private final Configuration conf;
 
-  private final Path workingDirectory;
+  private final CopyContainerCompression compression;
 
   public SimpleContainerDownloader(Configuration conf) {
-
-    String workDirString =
-        conf.get(OzoneConfigKeys.OZONE_CONTAINER_COPY_WORKDIR);
-
-    if (workDirString == null) {
-      workingDirectory = Paths.get(System.getProperty("java.io.tmpdir"))
-          .resolve("container-copy");
-    } else {
-      workingDirectory = Paths.get(workDirString);
-    }
+    this.conf = conf;
+    this.compression = CopyContainerCompression.getConf(conf);
   }
 
   @Override
-  public CompletableFuture<Path> getContainerDataFromReplicas(long containerId,
-      List<DatanodeDetails> sourceDatanodes) {
-
-    CompletableFuture<Path> result = null;
-    for (DatanodeDetails datanode : sourceDatanodes) {
+  public InputStream download(long containerId, DatanodeDetails source)
+      throws IOException {
+    GrpcReplicationClient client =
+        new GrpcReplicationClient(source.getIpAddress(),
+            source.getPort(Name.STANDALONE).getValue());
+    try {
+      GrpcInputStream archive = client.download(containerId, compression);
+      InputStream uncompressed;
       try {
-
-        if (result == null) {
-          GrpcReplicationClient grpcReplicationClient =
-              new GrpcReplicationClient(datanode.getIpAddress(),
-                  datanode.getPort(Name.STANDALONE).getValue(),
-                  workingDirectory);
-          result = grpcReplicationClient.download(containerId);
-        } else {
-          result = result.thenApply(CompletableFuture::completedFuture)
-              .exceptionally(t -> {
-                LOG.error("Error on replicating container: " + containerId, t);
-                GrpcReplicationClient grpcReplicationClient =
-                    new GrpcReplicationClient(datanode.getIpAddress(),
-                        datanode.getPort(Name.STANDALONE).getValue(),
-                        workingDirectory);
-                return grpcReplicationClient.download(containerId);
-              }).thenCompose(Function.identity());
-        }
-      } catch (Exception ex) {
-        LOG.error(String.format(
-            "Container %s download from datanode %s was unsuccessful. "
-                + "Trying the next datanode", containerId, datanode), ex);
+        uncompressed = archive.getCompression().wrap(archive, conf);
+      } catch (IOException | RuntimeException e) {
+        archive.close();
+        throw e;
       }
-
+      return new FilterInputStream(uncompressed) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            client.shutdown();
+          }
+        }
+      };
+    } catch (IOException | RuntimeException e) {
+      client.shutdown();
+      throw e;
     }
-    return result;
-
   }
 
   @Override
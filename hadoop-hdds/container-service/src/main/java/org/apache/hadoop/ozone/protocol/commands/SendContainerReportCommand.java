@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.ozone.protocol.commands;
+
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.hdds.protocol.proto
+    .StorageContainerDatanodeProtocolProtos.SCMCommandProto;
+import org.apache.hadoop.hdds.protocol.proto
+    .StorageContainerDatanodeProtocolProtos.SendContainerReportCommandProto;
+
+import java.util.List;
+
+/**
+ * Asks datanode to send the replicas of some buckets of containers, whose
+ * digest in the container report does not match the one SCM knows.
+ */
+public class SendContainerReportCommand
+    extends SCMCommand<SendContainerReportCommandProto> {
+
+  private final List<Integer> buckets;
+
+  public SendContainerReportCommand(final List<Integer> buckets) {
+    super();
+    this.buckets = buckets;
+  }
+
+  public SendContainerReportCommand(long cmdId, final List<Integer> buckets) {
+    super(cmdId);
+    this.buckets = buckets;
+  }
+
+  /**
+   * Returns the type of this command.
+   *
+   * @return Type
+   */
+  @Override
+  public SCMCommandProto.Type getType() {
+    return SCMCommandProto.Type.sendContainerReportCommand;
+  }
+
+  @Override
+  public SendContainerReportCommandProto getProto() {
+    return SendContainerReportCommandProto.newBuilder()
+        .setCmdId(getId())
+        .addAllBuckets(buckets)
+        .build();
+  }
+
+  public static SendContainerReportCommand getFromProtobuf(
+      SendContainerReportCommandProto sendContainerReportProto) {
+    Preconditions.checkNotNull(sendContainerReportProto);
+    return new SendContainerReportCommand(sendContainerReportProto.getCmdId(),
+        sendContainerReportProto.getBucketsList());
+  }
+
+  public List<Integer> getBuckets() {
+    return buckets;
+  }
+}
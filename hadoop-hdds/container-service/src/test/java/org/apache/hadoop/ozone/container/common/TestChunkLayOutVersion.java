@@ -31,11 +31,16 @@ public class TestChunkLayOutVersion {
   public void testChunkLayOutVersion() {
 
     // Check Latest Version and description
-    Assert.assertEquals(1, ChunkLayOutVersion.getLatestVersion().getVersion());
+    Assert.assertEquals(2, ChunkLayOutVersion.getLatestVersion().getVersion());
+    Assert.assertEquals("Data of all chunks of a block in one file.",
+        ChunkLayOutVersion.getLatestVersion().getDescription());
+
     Assert.assertEquals("Data without checksums.", ChunkLayOutVersion
-        .getLatestVersion().getDescription());
+        .getChunkLayOutVersion(1).getDescription());
+    Assert.assertSame(ChunkLayOutVersion.FILE_PER_CHUNK,
+        ChunkLayOutVersion.getChunkLayOutVersion(1));
 
-    Assert.assertEquals(1, ChunkLayOutVersion.getAllVersions().length);
+    Assert.assertEquals(2, ChunkLayOutVersion.getAllVersions().length);
 
   }
 
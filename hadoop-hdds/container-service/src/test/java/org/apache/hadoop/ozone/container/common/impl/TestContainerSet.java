@@ -35,6 +35,8 @@
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -242,6 +244,48 @@ public void testGetContainerReport() throws IOException {
     assertEquals(10, containerReportsRequestProto.getReportsList().size());
   }
 
+  @Test
+  public void testGetContainerReportWithDigests() throws IOException {
+    ContainerSet containerSet = createContainerSet();
+
+    // The first report details all the buckets.
+    ContainerReportsProto report = containerSet.getContainerReport(4);
+    assertEquals(1, report.getGeneration());
+    assertEquals(4, report.getBucketDigestsCount());
+    assertEquals(Arrays.asList(0, 1, 2, 3), report.getDetailedBucketsList());
+    assertEquals(10, report.getReportsCount());
+    for (long digest : report.getBucketDigestsList()) {
+      assertTrue(digest != 0);
+    }
+
+    // Nothing changed.
+    ContainerReportsProto next = containerSet.getContainerReport(4);
+    assertEquals(2, next.getGeneration());
+    assertEquals(report.getBucketDigestsList(), next.getBucketDigestsList());
+    assertEquals(0, next.getDetailedBucketsCount());
+    assertEquals(0, next.getReportsCount());
+
+    // Only the bucket of the changed container is detailed.
+    containerSet.getContainer(5).getContainerData().setState(
+        ContainerProtos.ContainerDataProto.State.CLOSED);
+    next = containerSet.getContainerReport(4);
+    assertEquals(Collections.singletonList(1), next.getDetailedBucketsList());
+    assertEquals(3, next.getReportsCount());
+    assertTrue(report.getBucketDigests(1) != next.getBucketDigests(1));
+
+    // SCM asks for a bucket.
+    containerSet.requestReportBuckets(Collections.singletonList(2));
+    next = containerSet.getContainerReport(4);
+    assertEquals(Collections.singletonList(2), next.getDetailedBucketsList());
+    assertEquals(2, next.getReportsCount());
+
+    // After a full report, all the buckets are detailed again.
+    containerSet.getContainerReport();
+    next = containerSet.getContainerReport(4);
+    assertEquals(4, next.getDetailedBucketsCount());
+    assertEquals(10, next.getReportsCount());
+  }
+
 
 
   @Test
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.common.transport.server;
+
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandRequestProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ContainerCommandResponseProto;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Result;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.Type;
+import org.apache.hadoop.ozone.container.common.helpers.ContainerUtils;
+import org.apache.hadoop.ozone.container.common.interfaces.ContainerDispatcher;
+import org.apache.ratis.thirdparty.io.grpc.Status;
+import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the handling of the commands of a stream by
+ * {@link GrpcXceiverService}.
+ */
+public class TestGrpcXceiverService {
+
+  private ContainerDispatcher dispatcher;
+  // Calls submitted to the executor, which are run by the test.
+  private List<Runnable> tasks;
+  private boolean rejectTasks;
+  private RecordingResponseObserver responseObserver;
+  private StreamObserver<ContainerCommandRequestProto> requestObserver;
+
+  @Before
+  public void setup() {
+    dispatcher = Mockito.mock(ContainerDispatcher.class);
+    when(dispatcher.dispatch(any(), any())).thenAnswer(invocation ->
+        ContainerUtils.getSuccessResponse(invocation.getArgument(0)));
+    tasks = new ArrayList<>();
+    rejectTasks = false;
+    GrpcXceiverService service = new GrpcXceiverService(dispatcher,
+        task -> {
+          if (rejectTasks) {
+            throw new RejectedExecutionException("Executor is shut down");
+          }
+          tasks.add(task);
+        });
+    responseObserver = new RecordingResponseObserver();
+    requestObserver = service.send(responseObserver);
+  }
+
+  @Test
+  public void testCallsAnsweredOutOfOrder() {
+    for (long callId = 0; callId < 3; callId++) {
+      requestObserver.onNext(createRequest(callId));
+    }
+    Assert.assertEquals(3, tasks.size());
+    Assert.assertTrue(responseObserver.getResponses().isEmpty());
+
+    tasks.get(2).run();
+    tasks.get(0).run();
+    tasks.get(1).run();
+    List<ContainerCommandResponseProto> responses =
+        responseObserver.getResponses();
+    Assert.assertEquals(3, responses.size());
+    Assert.assertEquals(2, responses.get(0).getCallId());
+    Assert.assertEquals(0, responses.get(1).getCallId());
+    Assert.assertEquals(1, responses.get(2).getCallId());
+    for (ContainerCommandResponseProto response : responses) {
+      Assert.assertEquals(Result.SUCCESS, response.getResult());
+    }
+  }
+
+  @Test
+  public void testCommandsWithoutCallIdAnsweredInline() {
+    requestObserver.onNext(createRequest(null));
+    Assert.assertTrue(tasks.isEmpty());
+    List<ContainerCommandResponseProto> responses =
+        responseObserver.getResponses();
+    Assert.assertEquals(1, responses.size());
+    Assert.assertFalse(responses.get(0).hasCallId());
+  }
+
+  @Test
+  public void testFailedCallDoesNotFailStream() {
+    doThrow(new IllegalStateException("Dispatch failed"))
+        .when(dispatcher).dispatch(any(), any());
+    requestObserver.onNext(createRequest(0L));
+    tasks.get(0).run();
+
+    List<ContainerCommandResponseProto> responses =
+        responseObserver.getResponses();
+    Assert.assertEquals(1, responses.size());
+    Assert.assertEquals(0, responses.get(0).getCallId());
+    Assert.assertEquals(Result.CONTAINER_INTERNAL_ERROR,
+        responses.get(0).getResult());
+    Assert.assertNull(responseObserver.getError());
+  }
+
+  @Test
+  public void testCompletedWhileCallsInProgress() {
+    requestObserver.onNext(createRequest(0L));
+    requestObserver.onNext(createRequest(1L));
+    requestObserver.onCompleted();
+    Assert.assertEquals(0, responseObserver.getCompletions());
+
+    tasks.get(1).run();
+    Assert.assertEquals(0, responseObserver.getCompletions());
+    tasks.get(0).run();
+    // The stream is completed after the responses of all the calls.
+    Assert.assertEquals(2, responseObserver.getResponses().size());
+    Assert.assertEquals(1, responseObserver.getCompletions());
+  }
+
+  @Test
+  public void testCompletedWithoutCallsInProgress() {
+    requestObserver.onNext(createRequest(0L));
+    tasks.get(0).run();
+    requestObserver.onCompleted();
+    Assert.assertEquals(1, responseObserver.getCompletions());
+  }
+
+  @Test
+  public void testCancelledByClient() {
+    requestObserver.onNext(createRequest(0L));
+    requestObserver.onNext(createRequest(1L));
+    requestObserver.onNext(createRequest(2L));
+    tasks.get(0).run();
+
+    responseObserver.cancel();
+    tasks.get(1).run();
+    requestObserver.onCompleted();
+    tasks.get(2).run();
+    // Only the response sent before the cancellation is received, and the
+    // cancelled stream is not completed.
+    Assert.assertEquals(1, responseObserver.getResponses().size());
+    Assert.assertEquals(0, responseObserver.getCompletions());
+  }
+
+  @Test
+  public void testErrorFromClient() {
+    requestObserver.onNext(createRequest(0L));
+    requestObserver.onError(Status.CANCELLED.asRuntimeException());
+    tasks.get(0).run();
+    Assert.assertTrue(responseObserver.getResponses().isEmpty());
+    Assert.assertEquals(0, responseObserver.getCompletions());
+  }
+
+  @Test
+  public void testExecutorRejection() {
+    rejectTasks = true;
+    requestObserver.onNext(createRequest(0L));
+    List<ContainerCommandResponseProto> responses =
+        responseObserver.getResponses();
+    Assert.assertEquals(1, responses.size());
+    Assert.assertEquals(0, responses.get(0).getCallId());
+    Assert.assertEquals(Result.CONTAINER_INTERNAL_ERROR,
+        responses.get(0).getResult());
+
+    // The rejected call is not in progress anymore.
+    requestObserver.onCompleted();
+    Assert.assertEquals(1, responseObserver.getCompletions());
+  }
+
+  private static ContainerCommandRequestProto createRequest(Long callId) {
+    ContainerCommandRequestProto.Builder request =
+        ContainerCommandRequestProto.newBuilder()
+            .setCmdType(Type.ReadChunk)
+            .setContainerID(1)
+            .setDatanodeUuid(UUID.randomUUID().toString());
+    if (callId != null) {
+      request.setCallId(callId);
+    }
+    return request.build();
+  }
+
+  /**
+   * Records the responses sent to the client, and fails them like gRPC once
+   * the client has cancelled the stream.
+   */
+  private static final class RecordingResponseObserver
+      implements StreamObserver<ContainerCommandResponseProto> {
+
+    private final List<ContainerCommandResponseProto> responses =
+        new ArrayList<>();
+    private int completions;
+    private Throwable error;
+    private boolean cancelled;
+
+    synchronized void cancel() {
+      cancelled = true;
+    }
+
+    synchronized List<ContainerCommandResponseProto> getResponses() {
+      return new ArrayList<>(responses);
+    }
+
+    synchronized int getCompletions() {
+      return completions;
+    }
+
+    synchronized Throwable getError() {
+      return error;
+    }
+
+    @Override
+    public synchronized void onNext(ContainerCommandResponseProto response) {
+      if (cancelled) {
+        throw Status.CANCELLED.asRuntimeException();
+      }
+      responses.add(response);
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+      error = t;
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+      completions++;
+    }
+  }
+}
@@ -26,10 +26,16 @@
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.common.helpers.BlockData;
 import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
+import org.apache.hadoop.ozone.container.common.impl.ContainerDataYaml;
+import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
 import org.apache.hadoop.ozone.container.common.volume.HddsVolume;
 import org.apache.hadoop.ozone.container.common.volume.RoundRobinVolumeChoosingPolicy;
 import org.apache.hadoop.ozone.container.common.volume.VolumeSet;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.KeyValueContainerUtil;
 import org.apache.hadoop.ozone.container.keyvalue.impl.BlockManagerImpl;
+import org.apache.hadoop.hdds.utils.MetadataStore;
+import org.apache.hadoop.hdfs.DFSUtil;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -197,4 +203,50 @@ public void testGetNoSuchBlock() throws Exception {
       assertEquals(ContainerProtos.Result.NO_SUCH_BLOCK, ex.getResult());
     }
   }
+
+  @Test
+  public void testUsageCountersPersisted() throws Exception {
+    blockManager.putBlock(keyValueContainer, blockData);
+    // the block is put again as it grows
+    List<ContainerProtos.ChunkInfo> chunkList =
+        new ArrayList<>(blockData.getChunks());
+    chunkList.add(new ChunkInfo(String.format("%d.data.%d",
+        blockID.getLocalID(), 1), 1024, 1024).getProtoBufMessage());
+    blockData.setChunks(chunkList);
+    blockManager.putBlock(keyValueContainer, blockData);
+    BlockData otherBlock = new BlockData(new BlockID(1L, 2L));
+    otherBlock.setChunks(blockData.getChunks());
+    blockManager.putBlock(keyValueContainer, otherBlock);
+    blockManager.deleteBlock(keyValueContainer, otherBlock.getBlockID());
+
+    KeyValueContainerData loadedData = loadContainerData();
+    assertEquals(1, loadedData.getKeyCount());
+    assertEquals(2048, loadedData.getBytesUsed());
+    assertEquals(0, loadedData.getNumPendingDeletionBlocks());
+
+    // a container written before the counters were kept is counted once
+    try (ReferenceCountedDB db =
+             BlockUtils.getDB(keyValueContainerData, config)) {
+      MetadataStore store = db.getStore();
+      store.delete(DFSUtil.string2Bytes(OzoneConsts.BLOCK_COUNT));
+      store.delete(DFSUtil.string2Bytes(OzoneConsts.CONTAINER_BYTES_USED));
+      store.put(DFSUtil.string2Bytes(OzoneConsts.DELETING_KEY_PREFIX + 2),
+          otherBlock.getProtoBufMessage().toByteArray());
+
+      loadedData = loadContainerData();
+      assertEquals(1, loadedData.getKeyCount());
+      assertEquals(2048, loadedData.getBytesUsed());
+      assertEquals(1, loadedData.getNumPendingDeletionBlocks());
+      assertEquals(Long.valueOf(1),
+          BlockUtils.getUsageCounter(store, OzoneConsts.BLOCK_COUNT));
+    }
+  }
+
+  private KeyValueContainerData loadContainerData() throws Exception {
+    KeyValueContainerData loadedData = (KeyValueContainerData)
+        ContainerDataYaml.readContainerFile(
+            keyValueContainer.getContainerFile());
+    KeyValueContainerUtil.parseKVContainerData(loadedData, config);
+    return loadedData;
+  }
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.container.keyvalue;
+
+import org.apache.hadoop.conf.StorageUnit;
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos;
+import org.apache.hadoop.hdds.scm.container.common.helpers.StorageContainerException;
+import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
+import org.apache.hadoop.ozone.container.common.impl.ChunkLayOutVersion;
+import org.apache.hadoop.ozone.container.common.transport.server.ratis.DispatcherContext;
+import org.apache.hadoop.ozone.container.common.volume.HddsVolume;
+import org.apache.hadoop.ozone.container.common.volume.RoundRobinVolumeChoosingPolicy;
+import org.apache.hadoop.ozone.container.common.volume.VolumeSet;
+import org.apache.hadoop.ozone.container.keyvalue.helpers.ChunkUtils;
+import org.apache.hadoop.ozone.container.keyvalue.impl.ChunkManagerDispatcher;
+import org.apache.hadoop.ozone.container.keyvalue.interfaces.ChunkManager;
+import org.apache.hadoop.test.GenericTestUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+
+/**
+ * This class is used to test ChunkManager operations on containers which
+ * store all chunks of a block in one file.
+ */
+public class TestFilePerBlockChunkManagerImpl {
+
+  private static final int CHUNK_COUNT = 10;
+
+  private OzoneConfiguration config;
+  private String scmId = UUID.randomUUID().toString();
+  private HddsVolume hddsVolume;
+  private KeyValueContainerData keyValueContainerData;
+  private KeyValueContainer keyValueContainer;
+  private BlockID blockID;
+  private ChunkManager chunkManager;
+  private byte[] bytes;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Before
+  public void setUp() throws Exception {
+    config = new OzoneConfiguration();
+    UUID datanodeId = UUID.randomUUID();
+    hddsVolume = new HddsVolume.Builder(folder.getRoot()
+        .getAbsolutePath()).conf(config).datanodeUuid(datanodeId
+        .toString()).build();
+
+    VolumeSet volumeSet = mock(VolumeSet.class);
+
+    RoundRobinVolumeChoosingPolicy volumeChoosingPolicy =
+        mock(RoundRobinVolumeChoosingPolicy.class);
+    Mockito.when(volumeChoosingPolicy.chooseVolume(anyList(), anyLong()))
+        .thenReturn(hddsVolume);
+
+    keyValueContainerData = new KeyValueContainerData(1L,
+        ChunkLayOutVersion.FILE_PER_BLOCK.getVersion(),
+        (long) StorageUnit.GB.toBytes(5), UUID.randomUUID().toString(),
+        datanodeId.toString());
+
+    keyValueContainer = new KeyValueContainer(keyValueContainerData, config);
+
+    keyValueContainer.create(volumeSet, volumeChoosingPolicy, scmId);
+
+    bytes = "testing write chunks".getBytes(UTF_8);
+    blockID = new BlockID(1L, 1L);
+    chunkManager = new ChunkManagerDispatcher(true);
+  }
+
+  @Test
+  public void testWriteAndReadChunksOfBlock() throws Exception {
+    for (int i = 0; i < CHUNK_COUNT; i++) {
+      chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(i),
+          ByteBuffer.wrap(bytes), getDispatcherContext());
+    }
+
+    // all chunks end up in a single file, which is kept open
+    checkChunkFileCount(1);
+    File blockFile = ChunkUtils.getBlockFile(keyValueContainerData, blockID);
+    assertEquals(bytes.length * CHUNK_COUNT, blockFile.length());
+    assertEquals(1, hddsVolume.getOpenFiles().size());
+    assertEquals(bytes.length * CHUNK_COUNT,
+        keyValueContainerData.getBytesUsed());
+
+    for (int i = 0; i < CHUNK_COUNT; i++) {
+      ByteBuffer read = chunkManager.readChunk(keyValueContainer, blockID,
+          getChunkInfo(i), getDispatcherContext());
+      assertEquals(ByteBuffer.wrap(bytes), read);
+    }
+    assertEquals(bytes.length * CHUNK_COUNT,
+        hddsVolume.getVolumeIOStats().getReadBytes());
+  }
+
+  @Test
+  public void testPartialRead() throws Exception {
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(1),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+
+    ChunkInfo partial = new ChunkInfo(getChunkInfo(1).getChunkName(), 8, 5);
+    partial.setBlockOffset(bytes.length);
+    ByteBuffer read = chunkManager.readChunk(keyValueContainer, blockID,
+        partial, getDispatcherContext());
+    assertEquals(ByteBuffer.wrap(bytes, 8, 5), read);
+  }
+
+  @Test
+  public void testOverwriteDoesNotIncreaseBytesUsed() throws Exception {
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+
+    assertEquals(bytes.length, keyValueContainerData.getBytesUsed());
+    assertEquals(2, keyValueContainerData.getWriteCount());
+  }
+
+  @Test
+  public void testReadAfterFileIsEvicted() throws Exception {
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+    hddsVolume.getOpenFiles().invalidateAll();
+    assertEquals(0, hddsVolume.getOpenFiles().size());
+
+    ByteBuffer read = chunkManager.readChunk(keyValueContainer, blockID,
+        getChunkInfo(0), getDispatcherContext());
+    assertEquals(ByteBuffer.wrap(bytes), read);
+  }
+
+  @Test
+  public void testReadBeyondEndOfBlock() throws Exception {
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+    try {
+      chunkManager.readChunk(keyValueContainer, blockID, getChunkInfo(1),
+          getDispatcherContext());
+      fail("testReadBeyondEndOfBlock failed");
+    } catch (StorageContainerException ex) {
+      assertEquals(ContainerProtos.Result.UNABLE_TO_FIND_CHUNK, ex.getResult());
+    }
+  }
+
+  @Test
+  public void testWriteWithoutBlockOffset() throws Exception {
+    ChunkInfo info = new ChunkInfo(getChunkInfo(0).getChunkName(), 0,
+        bytes.length);
+    try {
+      chunkManager.writeChunk(keyValueContainer, blockID, info,
+          ByteBuffer.wrap(bytes), getDispatcherContext());
+      fail("testWriteWithoutBlockOffset failed");
+    } catch (StorageContainerException ex) {
+      GenericTestUtils.assertExceptionContains("Block offset is required", ex);
+      assertEquals(ContainerProtos.Result.UNSUPPORTED_REQUEST, ex.getResult());
+    }
+  }
+
+  @Test
+  public void testDeleteChunk() throws Exception {
+    chunkManager.writeChunk(keyValueContainer, blockID, getChunkInfo(0),
+        ByteBuffer.wrap(bytes), getDispatcherContext());
+    checkChunkFileCount(1);
+
+    chunkManager.deleteChunk(keyValueContainer, blockID, getChunkInfo(0));
+
+    checkChunkFileCount(0);
+    assertEquals(0, hddsVolume.getOpenFiles().size());
+  }
+
+  private ChunkInfo getChunkInfo(int index) {
+    ChunkInfo info = new ChunkInfo(String.format("%d_chunk_%d",
+        blockID.getLocalID(), index), 0, bytes.length);
+    info.setBlockOffset((long) index * bytes.length);
+    return info;
+  }
+
+  private DispatcherContext getDispatcherContext() {
+    return new DispatcherContext.Builder().build();
+  }
+
+  private void checkChunkFileCount(int expected) {
+    File[] files = new File(keyValueContainerData.getChunksPath()).listFiles();
+    assertNotNull(files);
+    assertEquals(expected, files.length);
+  }
+}
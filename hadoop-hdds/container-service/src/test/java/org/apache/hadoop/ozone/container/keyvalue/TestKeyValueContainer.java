@@ -27,6 +27,7 @@
 import org.apache.hadoop.hdds.scm.container.common.helpers
     .StorageContainerException;
 import org.apache.hadoop.hdds.utils.MetadataStoreBuilder;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.OzoneConsts;
 import org.apache.hadoop.ozone.container.common.helpers.BlockData;
 import org.apache.hadoop.ozone.container.common.helpers.ChunkInfo;
@@ -36,6 +37,9 @@
     .RoundRobinVolumeChoosingPolicy;
 import org.apache.hadoop.ozone.container.common.volume.VolumeSet;
 import org.apache.hadoop.ozone.container.keyvalue.helpers.BlockUtils;
+import org.apache.hadoop.ozone.container.keyvalue.helpers
+    .KeyValueContainerLocationUtil;
+import org.apache.hadoop.ozone.container.replication.CopyContainerCompression;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.apache.hadoop.util.DiskChecker;
 import org.apache.hadoop.ozone.container.common.utils.ReferenceCountedDB;
@@ -49,6 +53,8 @@
 import org.mockito.Mockito;
 import org.rocksdb.Options;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 
 import java.io.FileInputStream;
@@ -261,6 +267,163 @@ public void testContainerImportExport() throws Exception {
 
   }
 
+  @Test
+  public void testVolumeDBImportExport() throws Exception {
+    conf.set(OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION,
+        OzoneConsts.SCHEMA_V2);
+    long containerId = keyValueContainerData.getContainerID();
+    keyValueContainer.create(volumeSet, volumeChoosingPolicy, scmId);
+    keyValueContainerData = keyValueContainer.getContainerData();
+    assertTrue(keyValueContainerData.hasVolumeDB());
+    assertFalse(KeyValueContainerLocationUtil.getContainerDBFile(
+        new File(keyValueContainerData.getMetadataPath()), containerId)
+        .exists());
+    assertEquals(OzoneConsts.SCHEMA_V2, ((KeyValueContainerData)
+        ContainerDataYaml.readContainerFile(
+            keyValueContainer.getContainerFile())).getSchemaVersion());
+
+    int blockCount = 5;
+    addBlocks(blockCount);
+    keyValueContainerData.setState(
+        ContainerProtos.ContainerDataProto.State.CLOSED);
+
+    File folderToExport = folder.newFile("exported.tar.gz");
+    TarContainerPacker packer = new TarContainerPacker(conf);
+    try (FileOutputStream fos = new FileOutputStream(folderToExport)) {
+      keyValueContainer.exportContainerData(fos, packer);
+    }
+
+    // Deleting the container removes its entries from the volume DB.
+    keyValueContainer.delete();
+    try (ReferenceCountedDB db = BlockUtils.getDB(keyValueContainerData,
+        conf)) {
+      assertTrue(db.getStore().isEmpty());
+    }
+
+    KeyValueContainerData containerData =
+        new KeyValueContainerData(containerId, 1,
+            keyValueContainerData.getMaxSize(), UUID.randomUUID().toString(),
+            datanodeId.toString());
+    KeyValueContainer container = new KeyValueContainer(containerData, conf);
+    HddsVolume containerVolume = volumeChoosingPolicy.chooseVolume(volumeSet
+        .getVolumesList(), 1);
+    container.populatePathFields(scmId, containerVolume,
+        containerVolume.getHddsRootDir().toString());
+    try (FileInputStream fis = new FileInputStream(folderToExport)) {
+      container.importContainerData(fis, packer);
+    }
+
+    assertTrue(containerData.hasVolumeDB());
+    assertEquals(blockCount, containerData.getKeyCount());
+    assertEquals(1, new File(containerData.getMetadataPath()).list().length);
+  }
+
+  @Test
+  public void testMigrateToVolumeDB() throws Exception {
+    keyValueContainer.create(volumeSet, volumeChoosingPolicy, scmId);
+    keyValueContainerData = keyValueContainer.getContainerData();
+    File containerDBFile = keyValueContainerData.getDbFile();
+    assertFalse(keyValueContainerData.hasVolumeDB());
+    int blockCount = 5;
+    addBlocks(blockCount);
+
+    keyValueContainer.migrateToVolumeDB();
+
+    assertTrue(keyValueContainerData.hasVolumeDB());
+    assertFalse(containerDBFile.exists());
+    assertEquals(OzoneConsts.SCHEMA_V2, ((KeyValueContainerData)
+        ContainerDataYaml.readContainerFile(
+            keyValueContainer.getContainerFile())).getSchemaVersion());
+    int blockCounter = 0;
+    try (KeyValueBlockIterator blockIterator =
+             keyValueContainer.blockIterator()) {
+      while (blockIterator.hasNext()) {
+        assertEquals(blockCounter++,
+            blockIterator.nextBlock().getBlockID().getLocalID());
+      }
+    }
+    assertEquals(blockCount, blockCounter);
+  }
+
+  @Test
+  public void testStreamingImport() throws Exception {
+    testStreamingImport(OzoneConsts.SCHEMA_V1);
+  }
+
+  @Test
+  public void testStreamingImportToVolumeDB() throws Exception {
+    testStreamingImport(OzoneConsts.SCHEMA_V2);
+  }
+
+  private void testStreamingImport(String schemaVersion) throws Exception {
+    conf.set(OzoneConfigKeys.OZONE_CONTAINER_SCHEMA_VERSION, schemaVersion);
+    long containerId = keyValueContainerData.getContainerID();
+    keyValueContainer.create(volumeSet, volumeChoosingPolicy, scmId);
+    keyValueContainerData = keyValueContainer.getContainerData();
+    int blockCount = 5;
+    addBlocks(blockCount);
+    keyValueContainerData.setState(
+        ContainerProtos.ContainerDataProto.State.CLOSED);
+    Map<String, String> metadata = new HashMap<>();
+    metadata.put("key1", "value1");
+    keyValueContainer.update(metadata, true);
+
+    TarContainerPacker packer =
+        new TarContainerPacker(conf, CopyContainerCompression.NO_COMPRESSION);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    keyValueContainer.exportContainerData(archive, packer);
+    keyValueContainer.delete();
+
+    HddsVolume containerVolume = volumeChoosingPolicy.chooseVolume(volumeSet
+        .getVolumesList(), 1);
+    String hddsVolumeDir = containerVolume.getHddsRootDir().toString();
+    File extractedDir = KeyValueContainerLocationUtil.getContainerImportPath(
+        hddsVolumeDir, scmId, containerId);
+    byte[] descriptor = packer.unpackContainerArchive(containerId,
+        new ByteArrayInputStream(archive.toByteArray()),
+        extractedDir.toPath());
+    KeyValueContainerData originalContainerData =
+        (KeyValueContainerData) ContainerDataYaml.readContainer(descriptor);
+
+    KeyValueContainerData containerData =
+        new KeyValueContainerData(containerId,
+            originalContainerData.getMaxSize(),
+            originalContainerData.getOriginPipelineId(),
+            originalContainerData.getOriginNodeId());
+    KeyValueContainer container = new KeyValueContainer(containerData, conf);
+    container.populatePathFields(scmId, containerVolume, hddsVolumeDir);
+    container.importContainerData(extractedDir.toPath(),
+        originalContainerData);
+
+    // The extracted directory is moved to the container directory.
+    assertFalse(extractedDir.exists());
+    assertTrue(container.getContainerFile().exists());
+    assertEquals("value1", containerData.getMetadata().get("key1"));
+    assertEquals(ContainerProtos.ContainerDataProto.State.CLOSED,
+        containerData.getState());
+    assertEquals(blockCount, containerData.getKeyCount());
+    assertEquals(keyValueContainerData.getMaxSize(),
+        containerData.getMaxSize());
+    assertEquals(OzoneConsts.SCHEMA_V2.equals(schemaVersion),
+        containerData.hasVolumeDB());
+    assertEquals(ContainerDataYaml.readContainerFile(
+        container.getContainerFile()).getContainerID(), containerId);
+
+    //Can't overwrite existing container
+    packer.unpackContainerArchive(containerId,
+        new ByteArrayInputStream(archive.toByteArray()),
+        extractedDir.toPath());
+    try {
+      container.importContainerData(extractedDir.toPath(),
+          originalContainerData);
+      fail("Container is imported twice. Previous files are overwritten");
+    } catch (IOException ex) {
+      //all good
+    }
+    assertEquals(blockCount, containerData.getKeyCount());
+    assertTrue(container.getContainerFile().exists());
+  }
+
   @Test
   public void testDuplicateContainer() throws Exception {
     try {
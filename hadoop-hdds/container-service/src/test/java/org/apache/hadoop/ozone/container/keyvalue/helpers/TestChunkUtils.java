@@ -30,9 +30,12 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -46,6 +49,8 @@
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link ChunkUtils}.
@@ -78,7 +83,8 @@ public void concurrentReadOfSameFile() throws Exception {
         final int threadNumber = i;
         executor.submit(() -> {
           try {
-            ByteBuffer readBuffer = ChunkUtils.readData(file, chunkInfo, stats);
+            ByteBuffer readBuffer =
+                ChunkUtils.readData(file, chunkInfo, stats, 0);
             LOG.info("Read data ({}): {}", threadNumber,
                 new String(readBuffer.array()));
             if (!Arrays.equals(array, readBuffer.array())) {
@@ -155,7 +161,7 @@ public void serialRead() throws Exception {
       File file = tempFile.toFile();
       VolumeIOStats stats = new VolumeIOStats();
       ChunkUtils.writeData(file, chunkInfo, data, stats, true);
-      ByteBuffer readBuffer = ChunkUtils.readData(file, chunkInfo, stats);
+      ByteBuffer readBuffer = ChunkUtils.readData(file, chunkInfo, stats, 0);
       assertArrayEquals(array, readBuffer.array());
       assertEquals(stats.getWriteBytes(), stats.getReadBytes());
     } catch (Exception e) {
@@ -165,6 +171,53 @@ public void serialRead() throws Exception {
     }
   }
 
+  @Test
+  public void mappedRead() throws Exception {
+    byte[] array = "Hello World".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer data = ByteBuffer.wrap(array);
+    Path tempFile = Files.createTempFile(PREFIX, "mapped");
+    try {
+      ChunkInfo chunkInfo = new ChunkInfo(tempFile.toString(),
+          0, data.capacity());
+      File file = tempFile.toFile();
+      VolumeIOStats stats = new VolumeIOStats();
+      ChunkUtils.writeData(file, chunkInfo, data, stats, true);
+
+      ByteBuffer mapped = ChunkUtils.readData(file, chunkInfo, stats,
+          array.length);
+      assertTrue(mapped instanceof MappedByteBuffer);
+      assertEquals(ByteBuffer.wrap(array), mapped);
+
+      ByteBuffer copied = ChunkUtils.readData(file, chunkInfo, stats,
+          array.length + 1);
+      assertFalse(copied instanceof MappedByteBuffer);
+      assertArrayEquals(array, copied.array());
+      assertEquals(2 * stats.getWriteBytes(), stats.getReadBytes());
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Test
+  public void mappedReadFromOpenFile() throws Exception {
+    byte[] array = "Hello World".getBytes(StandardCharsets.UTF_8);
+    Path tempFile = Files.createTempFile(PREFIX, "block");
+    try (FileChannel channel = FileChannel.open(tempFile,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      VolumeIOStats stats = new VolumeIOStats();
+      ChunkUtils.writeData(channel, 0, ByteBuffer.wrap(array), stats, false);
+
+      ByteBuffer mapped = ChunkUtils.readData(channel, 6, 5, stats, 1);
+      assertTrue(mapped instanceof MappedByteBuffer);
+      assertEquals(ByteBuffer.wrap(array, 6, 5), mapped);
+
+      // ranges beyond the end of the file are never mapped
+      assertNull(ChunkUtils.readData(channel, 6, 6, stats, 1));
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
   @Test
   public void validateChunkForOverwrite() throws IOException {
 
@@ -19,6 +19,7 @@
 
 import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.CopyContainerResponseProto;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.thirdparty.io.grpc.stub.ServerCallStreamObserver;
 import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,13 +30,18 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -152,6 +158,30 @@ public void secondWriteSpillsToNextResponse() throws IOException {
     verifyResponses(concat(bytes1, bytes2));
   }
 
+  @Test
+  public void waitsForClientWithoutPolling() throws Exception {
+    ReadyObserver readyObserver = new ReadyObserver();
+    OutputStream stream =
+        new GrpcOutputStream(readyObserver, containerId, bufferSize);
+
+    CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+      try {
+        writeBytes(stream, bufferSize);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    Thread.sleep(500);
+    assertFalse(write.isDone());
+    // the writer waits for the on-ready handler instead of checking the
+    // client every millisecond
+    assertTrue(readyObserver.getReadyChecks() < 20);
+
+    readyObserver.setReady();
+    write.get(10, TimeUnit.SECONDS);
+    assertEquals(1, readyObserver.getResponses().size());
+  }
+
   private void verifyResponses(byte[] bytes) {
     int expectedResponseCount = bytes.length / bufferSize;
     if (bytes.length % bufferSize > 0) {
@@ -210,4 +240,82 @@ private static byte[] getRandomBytes(int size) {
     return bytes;
   }
 
+  /**
+   * Observer of a call whose client is not ready till the test says so.
+   */
+  private static final class ReadyObserver
+      extends ServerCallStreamObserver<CopyContainerResponseProto> {
+
+    private final List<CopyContainerResponseProto> responses =
+        new ArrayList<>();
+    private Runnable onReadyHandler;
+    private boolean ready;
+    private int readyChecks;
+
+    void setReady() {
+      Runnable handler;
+      synchronized (this) {
+        ready = true;
+        handler = onReadyHandler;
+      }
+      handler.run();
+    }
+
+    synchronized int getReadyChecks() {
+      return readyChecks;
+    }
+
+    synchronized List<CopyContainerResponseProto> getResponses() {
+      return new ArrayList<>(responses);
+    }
+
+    @Override
+    public synchronized boolean isReady() {
+      readyChecks++;
+      return ready;
+    }
+
+    @Override
+    public synchronized void setOnReadyHandler(Runnable handler) {
+      onReadyHandler = handler;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable handler) {
+    }
+
+    @Override
+    public void setCompression(String compression) {
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+    }
+
+    @Override
+    public void request(int count) {
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+    }
+
+    @Override
+    public synchronized void onNext(CopyContainerResponseProto response) {
+      responses.add(response);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
 }
@@ -71,7 +71,9 @@ public RESPONSE processRequest(
 
       RESPONSE response = methodCall.apply(request);
 
-      if (logger.isTraceEnabled()) {
+      // A null response means that the response is deferred, and is sent
+      // after the method call returned.
+      if (logger.isTraceEnabled() && response != null) {
         logger.trace(
             "[service={}] [type={}] request is processed. Response: "
                 + "<json>{}</json>",
@@ -22,6 +22,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.management.ObjectName;
 
@@ -74,6 +75,11 @@ public class BlockManagerImpl implements BlockManager, BlockmanagerMXBean {
   private final ContainerManager containerManager;
 
   private final long containerSize;
+  private final int numContainerPerOwnerInPipeline;
+  // open containers to allocate the blocks from, for each owner and
+  // replication type and factor.
+  private final Map<SlotsKey, OpenContainerSlots> openContainers =
+      new ConcurrentHashMap<>();
 
   private final DeletedBlockLog deletedBlockLog;
   private final SCMBlockDeletingService blockDeletingService;
@@ -98,6 +104,9 @@ public BlockManagerImpl(final Configuration conf,
         ScmConfigKeys.OZONE_SCM_CONTAINER_SIZE,
         ScmConfigKeys.OZONE_SCM_CONTAINER_SIZE_DEFAULT,
         StorageUnit.BYTES);
+    this.numContainerPerOwnerInPipeline = conf.getInt(
+        ScmConfigKeys.OZONE_SCM_PIPELINE_OWNER_CONTAINER_COUNT,
+        ScmConfigKeys.OZONE_SCM_PIPELINE_OWNER_CONTAINER_COUNT_DEFAULT);
 
     mxBean = MBeans.register("BlockManager", "BlockManagerImpl", this);
 
@@ -164,6 +173,19 @@ public AllocatedBlock allocateBlock(final long size, ReplicationType type,
           INVALID_BLOCK_SIZE);
     }
 
+    // Most of the blocks are allocated from the open containers kept for
+    // the owner without locking. The containers are looked up again below
+    // only if none of them has space, e.g. there is no open pipeline.
+    OpenContainerSlots slots = openContainers.computeIfAbsent(
+        new SlotsKey(owner, type, factor),
+        key -> new OpenContainerSlots(owner, type, factor, containerSize,
+            numContainerPerOwnerInPipeline, pipelineManager,
+            containerManager));
+    OpenContainerSlots.Slot slot = slots.allocate(size, excludeList);
+    if (slot != null) {
+      return newBlock(slot.getContainer(), slot.getPipeline());
+    }
+
     /*
       Here is the high level logic.
 
@@ -250,26 +272,37 @@ public AllocatedBlock allocateBlock(final long size, ReplicationType type,
    */
   private AllocatedBlock newBlock(ContainerInfo containerInfo) {
     try {
-      final Pipeline pipeline = pipelineManager
-          .getPipeline(containerInfo.getPipelineID());
-      // TODO : Revisit this local ID allocation when HA is added.
-      long localID = UniqueId.next();
-      long containerID = containerInfo.getContainerID();
-      AllocatedBlock.Builder abb =  new AllocatedBlock.Builder()
-          .setContainerBlockID(new ContainerBlockID(containerID, localID))
-          .setPipeline(pipeline);
-      if (LOG.isTraceEnabled()) {
-        LOG.trace("New block allocated : {} Container ID: {}", localID,
-            containerID);
-      }
-      pipelineManager.incNumBlocksAllocatedMetric(pipeline.getId());
-      return abb.build();
+      return newBlock(containerInfo,
+          pipelineManager.getPipeline(containerInfo.getPipelineID()));
     } catch (PipelineNotFoundException ex) {
       LOG.error("Pipeline Machine count is zero.", ex);
       return null;
     }
   }
 
+  /**
+   * newBlock - returns a new block assigned to a container of a pipeline.
+   *
+   * @param containerInfo - Container Info.
+   * @param pipeline - Pipeline of the container.
+   * @return AllocatedBlock
+   */
+  private AllocatedBlock newBlock(ContainerInfo containerInfo,
+      Pipeline pipeline) {
+    // TODO : Revisit this local ID allocation when HA is added.
+    long localID = UniqueId.next();
+    long containerID = containerInfo.getContainerID();
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("New block allocated : {} Container ID: {}", localID,
+          containerID);
+    }
+    pipelineManager.incNumBlocksAllocatedMetric(pipeline.getId());
+    return new AllocatedBlock.Builder()
+        .setContainerBlockID(new ContainerBlockID(containerID, localID))
+        .setPipeline(pipeline)
+        .build();
+  }
+
   /**
    * Deletes a list of blocks in an atomic operation. Internally, SCM writes
    * these blocks into a
@@ -374,4 +407,39 @@ public static Logger getLogger() {
   /**
    * This class uses system current time milliseconds to generate unique id.
    */
+
+  /**
+   * Key of the open containers of an owner with a replication type and
+   * factor.
+   */
+  private static final class SlotsKey {
+    private final String owner;
+    private final ReplicationType type;
+    private final ReplicationFactor factor;
+
+    private SlotsKey(String owner, ReplicationType type,
+        ReplicationFactor factor) {
+      this.owner = owner;
+      this.type = type;
+      this.factor = factor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SlotsKey that = (SlotsKey) o;
+      return Objects.equals(owner, that.owner) && type == that.type
+          && factor == that.factor;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(owner, type, factor);
+    }
+  }
 }
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hdds.scm.block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.LifeCycleState;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.container.ContainerID;
+import org.apache.hadoop.hdds.scm.container.ContainerInfo;
+import org.apache.hadoop.hdds.scm.container.ContainerManager;
+import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineManager;
+
+/**
+ * The open containers which the blocks of an owner with a replication type
+ * and factor are allocated from.
+ *
+ * Each container has a slot with the space left in it, and a block is
+ * allocated by taking its size from the space of the next slot in turn,
+ * without locking. The slots are only refilled from the
+ * {@link ContainerManager} when a container is full or closed.
+ *
+ * The space reserved in a container is kept until the container is closed,
+ * so that a container dropped from the slots because its space is reserved
+ * does not get a new slot based on the used bytes it reported so far.
+ */
+class OpenContainerSlots {
+
+  private final String owner;
+  private final ReplicationType type;
+  private final ReplicationFactor factor;
+  private final long containerSize;
+  private final int containersPerPipeline;
+  private final PipelineManager pipelineManager;
+  private final ContainerManager containerManager;
+
+  private final AtomicInteger next = new AtomicInteger();
+  private final Lock refillLock = new ReentrantLock();
+  private volatile Slot[] slots = new Slot[0];
+  // The latest slot of each open container, guarded by refillLock.
+  private final Map<ContainerID, Slot> reservations = new HashMap<>();
+
+  OpenContainerSlots(String owner, ReplicationType type,
+      ReplicationFactor factor, long containerSize, int containersPerPipeline,
+      PipelineManager pipelineManager, ContainerManager containerManager) {
+    this.owner = owner;
+    this.type = type;
+    this.factor = factor;
+    this.containerSize = containerSize;
+    this.containersPerPipeline = containersPerPipeline;
+    this.pipelineManager = pipelineManager;
+    this.containerManager = containerManager;
+  }
+
+  /**
+   * Reserves space for a block in one of the open containers.
+   *
+   * @param size - Block Size
+   * @param excludeList datanodes, pipelines and containers to skip
+   * @return the slot of the container, or null if no container has space.
+   */
+  Slot allocate(long size, ExcludeList excludeList) {
+    Slot[] current = slots;
+    int start = next.getAndIncrement();
+    boolean stale = false;
+    for (int i = 0; i < current.length; i++) {
+      Slot slot = current[Math.floorMod(start + i, current.length)];
+      if (!slot.isOpen()) {
+        stale = true;
+      } else if (!slot.isExcluded(excludeList)) {
+        if (slot.reserve(size)) {
+          if (stale && refillLock.tryLock()) {
+            // replace the closed containers, this caller already has a slot
+            try {
+              refill(size);
+            } finally {
+              refillLock.unlock();
+            }
+          }
+          return slot;
+        }
+        stale = true;
+      }
+    }
+
+    refillLock.lock();
+    try {
+      // another caller may have refilled the slots while this one waited,
+      // and slots skipped only because of the exclude list are no reason
+      // to look for other containers
+      if (slots == current && (stale || current.length == 0)) {
+        refill(size);
+      }
+      for (Slot slot : slots) {
+        if (slot.isOpen() && !slot.isExcluded(excludeList)
+            && slot.reserve(size)) {
+          return slot;
+        }
+      }
+      return null;
+    } finally {
+      refillLock.unlock();
+    }
+  }
+
+  /**
+   * Drops the containers which are closed or have no space for the block,
+   * and adds containers of the open pipelines till each of them has the
+   * configured number of containers.
+   */
+  private void refill(long size) {
+    reservations.values().removeIf(slot -> !slot.isOpen());
+    List<Slot> live = new ArrayList<>();
+    Set<ContainerID> containerIDs = new HashSet<>();
+    List<ContainerID> fullContainerIDs = new ArrayList<>();
+    Map<PipelineID, Integer> pipelineCounts = new HashMap<>();
+    for (Slot slot : slots) {
+      if (slot.isOpen() && slot.getRemaining() >= size) {
+        live.add(slot);
+        containerIDs.add(slot.getContainer().containerID());
+        pipelineCounts.merge(slot.getPipeline().getId(), 1, Integer::sum);
+      }
+    }
+    for (Slot slot : reservations.values()) {
+      if (slot.getRemaining() < size) {
+        fullContainerIDs.add(slot.getContainer().containerID());
+      }
+    }
+    for (Pipeline pipeline : pipelineManager.getPipelines(type, factor,
+        Pipeline.PipelineState.OPEN)) {
+      int count = pipelineCounts.getOrDefault(pipeline.getId(), 0);
+      for (; count < containersPerPipeline; count++) {
+        ContainerInfo containerInfo = containerManager.getMatchingContainer(
+            size, owner, pipeline, fullContainerIDs);
+        if (containerInfo == null ||
+            !containerIDs.add(containerInfo.containerID())) {
+          break;
+        }
+        long remaining = containerSize - containerInfo.getUsedBytes();
+        Slot previous = reservations.get(containerInfo.containerID());
+        if (previous != null) {
+          // the reported used bytes may not cover the reserved space yet
+          remaining = Math.min(remaining, previous.getRemaining());
+        }
+        if (remaining < size) {
+          fullContainerIDs.add(containerInfo.containerID());
+          continue;
+        }
+        Slot slot = new Slot(containerInfo, pipeline, remaining);
+        reservations.put(containerInfo.containerID(), slot);
+        live.add(slot);
+      }
+    }
+    slots = live.toArray(new Slot[0]);
+  }
+
+  /**
+   * An open container with the space which is not reserved yet.
+   */
+  static final class Slot {
+    private final ContainerInfo container;
+    private final Pipeline pipeline;
+    private final AtomicLong remaining;
+
+    private Slot(ContainerInfo container, Pipeline pipeline, long remaining) {
+      this.container = container;
+      this.pipeline = pipeline;
+      this.remaining = new AtomicLong(remaining);
+    }
+
+    ContainerInfo getContainer() {
+      return container;
+    }
+
+    Pipeline getPipeline() {
+      return pipeline;
+    }
+
+    long getRemaining() {
+      return remaining.get();
+    }
+
+    private boolean isOpen() {
+      return container.getState() == LifeCycleState.OPEN;
+    }
+
+    private boolean reserve(long size) {
+      while (true) {
+        long current = remaining.get();
+        if (current < size) {
+          return false;
+        }
+        if (remaining.compareAndSet(current, current - size)) {
+          container.updateLastUsedTime();
+          return true;
+        }
+      }
+    }
+
+    private boolean isExcluded(ExcludeList excludeList) {
+      if (excludeList.isEmpty()) {
+        return false;
+      }
+      if (excludeList.getContainerIds().contains(container.containerID()) ||
+          excludeList.getPipelineIds().contains(pipeline.getId())) {
+        return true;
+      }
+      for (DatanodeDetails dn : pipeline.getNodes()) {
+        if (excludeList.getDatanodes().contains(dn)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
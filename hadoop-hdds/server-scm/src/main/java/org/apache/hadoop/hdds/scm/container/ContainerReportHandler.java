@@ -31,17 +31,30 @@
     .ContainerReportFromDatanode;
 import org.apache.hadoop.hdds.server.events.EventHandler;
 import org.apache.hadoop.hdds.server.events.EventPublisher;
+import org.apache.hadoop.ozone.protocol.commands.CommandForDatanode;
+import org.apache.hadoop.ozone.protocol.commands.SendContainerReportCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Handles container reports from datanode.
+ * <p>
+ * A report either carries all the replicas of the datanode, or only the
+ * replicas of some buckets of containers along with a digest of each bucket,
+ * see ContainerReportsProto. The handler remembers the digests of the buckets
+ * whose replicas it processed. When the digest of a bucket changed and its
+ * replicas are not in the report, it asks the datanode for them.
  */
 public class ContainerReportHandler extends AbstractContainerReportHandler
     implements EventHandler<ContainerReportFromDatanode> {
@@ -51,6 +64,9 @@ public class ContainerReportHandler extends AbstractContainerReportHandler
 
   private final NodeManager nodeManager;
   private final ContainerManager containerManager;
+  // The bucket digests of the datanodes which send digest reports.
+  private final Map<UUID, BucketDigests> bucketDigests =
+      new ConcurrentHashMap<>();
 
   /**
    * Constructs ContainerReportHandler instance with the
@@ -82,28 +98,12 @@ public void onMessage(final ContainerReportFromDatanode reportFromDatanode,
         reportFromDatanode.getReport();
 
     try {
-      final List<ContainerReplicaProto> replicas =
-          containerReport.getReportsList();
-      final Set<ContainerID> containersInSCM =
-          nodeManager.getContainers(datanodeDetails);
-
-      final Set<ContainerID> containersInDn = replicas.parallelStream()
-          .map(ContainerReplicaProto::getContainerID)
-          .map(ContainerID::valueof).collect(Collectors.toSet());
-
-      final Set<ContainerID> missingReplicas = new HashSet<>(containersInSCM);
-      missingReplicas.removeAll(containersInDn);
-
-      processContainerReplicas(datanodeDetails, replicas);
-      processMissingReplicas(datanodeDetails, missingReplicas);
-      updateDeleteTransaction(datanodeDetails, replicas, publisher);
-
-      /*
-       * Update the latest set of containers for this datanode in
-       * NodeManager
-       */
-      nodeManager.setContainers(datanodeDetails, containersInDn);
-
+      if (containerReport.getBucketDigestsCount() == 0) {
+        bucketDigests.remove(datanodeDetails.getUuid());
+        processFullReport(datanodeDetails, containerReport, publisher);
+      } else {
+        processDigestReport(datanodeDetails, containerReport, publisher);
+      }
       containerManager.notifyContainerReportProcessing(true, true);
     } catch (NodeNotFoundException ex) {
       containerManager.notifyContainerReportProcessing(true, false);
@@ -113,6 +113,109 @@ public void onMessage(final ContainerReportFromDatanode reportFromDatanode,
 
   }
 
+  /**
+   * Processes a report with all the replicas of the datanode.
+   */
+  private void processFullReport(final DatanodeDetails datanodeDetails,
+      final ContainerReportsProto containerReport,
+      final EventPublisher publisher) throws NodeNotFoundException {
+    final List<ContainerReplicaProto> replicas =
+        containerReport.getReportsList();
+    final Set<ContainerID> containersInSCM =
+        nodeManager.getContainers(datanodeDetails);
+
+    final Set<ContainerID> containersInDn = replicas.parallelStream()
+        .map(ContainerReplicaProto::getContainerID)
+        .map(ContainerID::valueof).collect(Collectors.toSet());
+
+    final Set<ContainerID> missingReplicas = new HashSet<>(containersInSCM);
+    missingReplicas.removeAll(containersInDn);
+
+    processContainerReplicas(datanodeDetails, replicas);
+    processMissingReplicas(datanodeDetails, missingReplicas);
+    updateDeleteTransaction(datanodeDetails, replicas, publisher);
+
+    /*
+     * Update the latest set of containers for this datanode in
+     * NodeManager
+     */
+    nodeManager.setContainers(datanodeDetails, containersInDn);
+  }
+
+  /**
+   * Processes a report with the bucket digests of the datanode, and the
+   * replicas of its detailed buckets. The containers of the other buckets
+   * are left as they are: either their digest did not change, or the
+   * datanode is asked to send their replicas.
+   */
+  private void processDigestReport(final DatanodeDetails datanodeDetails,
+      final ContainerReportsProto containerReport,
+      final EventPublisher publisher) throws NodeNotFoundException {
+    final UUID uuid = datanodeDetails.getUuid();
+    final BucketDigests previous = bucketDigests.get(uuid);
+    if (previous != null
+        && containerReport.getGeneration() <= previous.generation) {
+      LOG.debug("Ignoring container report {} from datanode {}, report {}"
+              + " was already processed.", containerReport.getGeneration(),
+          datanodeDetails, previous.generation);
+      return;
+    }
+
+    final int buckets = containerReport.getBucketDigestsCount();
+    final BitSet detailed = new BitSet(buckets);
+    for (int bucket : containerReport.getDetailedBucketsList()) {
+      detailed.set(bucket);
+    }
+    final List<ContainerReplicaProto> replicas =
+        containerReport.getReportsList();
+    final Set<ContainerID> containersInDn = new HashSet<>();
+    for (ContainerReplicaProto replica : replicas) {
+      containersInDn.add(ContainerID.valueof(replica.getContainerID()));
+    }
+
+    final Set<ContainerID> missingReplicas = new HashSet<>();
+    for (ContainerID id : nodeManager.getContainers(datanodeDetails)) {
+      final int bucket = (int) (id.getId() % buckets);
+      if (detailed.get(bucket)
+          || containerReport.getBucketDigests(bucket) == 0) {
+        if (!containersInDn.contains(id)) {
+          missingReplicas.add(id);
+        }
+      } else {
+        containersInDn.add(id);
+      }
+    }
+
+    final BucketDigests known = previous != null
+        && previous.digests.length == buckets ? previous : null;
+    final BucketDigests current =
+        new BucketDigests(containerReport.getGeneration(), buckets);
+    final List<Integer> requested = new ArrayList<>();
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      final long digest = containerReport.getBucketDigests(bucket);
+      if (detailed.get(bucket) || digest == 0
+          || (known != null && known.matches(bucket, digest))) {
+        current.setVerified(bucket, digest);
+      } else {
+        requested.add(bucket);
+      }
+    }
+
+    processContainerReplicas(datanodeDetails, replicas);
+    processMissingReplicas(datanodeDetails, missingReplicas);
+    updateDeleteTransaction(datanodeDetails, replicas, publisher);
+    nodeManager.setContainers(datanodeDetails, containersInDn);
+    bucketDigests.put(uuid, current);
+
+    if (!requested.isEmpty()) {
+      LOG.debug("Asking datanode {} for the replicas of {} buckets.",
+          datanodeDetails, requested.size());
+      publisher.fireEvent(SCMEvents.DATANODE_COMMAND,
+          new CommandForDatanode<>(uuid,
+              new SendContainerReportCommand(requested)));
+    }
+  }
+
   /**
    * Processes the ContainerReport.
    *
@@ -198,4 +301,29 @@ private void updateDeleteTransaction(final DatanodeDetails datanodeDetails,
           pendingDeleteStatusList);
     }
   }
+
+  /**
+   * The bucket digests of a datanode, for the buckets whose replicas are
+   * known to SCM.
+   */
+  private static final class BucketDigests {
+    private final long generation;
+    private final long[] digests;
+    private final BitSet verified;
+
+    private BucketDigests(long generation, int buckets) {
+      this.generation = generation;
+      this.digests = new long[buckets];
+      this.verified = new BitSet(buckets);
+    }
+
+    private void setVerified(int bucket, long digest) {
+      digests[bucket] = digest;
+      verified.set(bucket);
+    }
+
+    private boolean matches(int bucket, long digest) {
+      return verified.get(bucket) && digests[bucket] == digest;
+    }
+  }
 }
@@ -33,6 +33,9 @@
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.DeleteScmKeyBlocksResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SCMBlockLocationRequest;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SCMBlockLocationResponse;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.NodeNetworkNameListProto;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SortDatanodesBatchRequestProto;
+import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SortDatanodesBatchResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SortDatanodesRequestProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.SortDatanodesResponseProto;
 import org.apache.hadoop.hdds.protocol.proto.ScmBlockLocationProtocolProtos.Status;
@@ -128,6 +131,10 @@ private SCMBlockLocationResponse processMessage(
         response.setSortDatanodesResponse(
             sortDatanodes(request.getSortDatanodesRequest()));
         break;
+      case SortDatanodesBatch:
+        response.setSortDatanodesBatchResponse(
+            sortDatanodesBatch(request.getSortDatanodesBatchRequest()));
+        break;
       default:
         // Should never happen
         throw new IOException("Unknown Operation " + request.getCmdType() +
@@ -225,4 +232,22 @@ public SortDatanodesResponseProto sortDatanodes(
       throw new ServiceException(ex);
     }
   }
+
+  public SortDatanodesBatchResponseProto sortDatanodesBatch(
+      SortDatanodesBatchRequestProto request) throws IOException {
+    SortDatanodesBatchResponseProto.Builder resp =
+        SortDatanodesBatchResponseProto.newBuilder();
+    List<List<String>> nodeLists = request.getNodeListList().stream()
+        .map(NodeNetworkNameListProto::getNodeNetworkNameList)
+        .collect(Collectors.toList());
+    final List<List<DatanodeDetails>> results =
+        impl.sortDatanodesBatch(nodeLists, request.getClient());
+    for (List<DatanodeDetails> sortedNodes : results) {
+      SortDatanodesResponseProto.Builder sorted =
+          SortDatanodesResponseProto.newBuilder();
+      sortedNodes.forEach(dn -> sorted.addNode(dn.getProtoBufMessage()));
+      resp.addSortedNodes(sorted);
+    }
+    return resp.build();
+  }
 }
@@ -299,24 +299,32 @@ public List<DatanodeDetails> sortDatanodes(List<String> nodes,
       String clientMachine) throws IOException {
     boolean auditSuccess = true;
     try{
-      NodeManager nodeManager = scm.getScmNodeManager();
-      Node client = null;
-      List<DatanodeDetails> possibleClients =
-          nodeManager.getNodesByAddress(clientMachine);
-      if (possibleClients.size()>0){
-        client = possibleClients.get(0);
+      return sortDatanodes(nodes, getClientNode(clientMachine));
+    } catch (Exception ex) {
+      auditSuccess = false;
+      AUDIT.logReadFailure(
+          buildAuditMessageForFailure(SCMAction.SORT_DATANODE, null, ex)
+      );
+      throw ex;
+    } finally {
+      if(auditSuccess) {
+        AUDIT.logReadSuccess(
+            buildAuditMessageForSuccess(SCMAction.SORT_DATANODE, null)
+        );
+      }
+    }
+  }
+
+  @Override
+  public List<List<DatanodeDetails>> sortDatanodesBatch(
+      List<List<String>> nodeLists, String clientMachine) throws IOException {
+    boolean auditSuccess = true;
+    try{
+      Node client = getClientNode(clientMachine);
+      List<List<DatanodeDetails>> ret = new ArrayList<>(nodeLists.size());
+      for (List<String> nodes : nodeLists) {
+        ret.add(sortDatanodes(nodes, client));
       }
-      List<Node> nodeList = new ArrayList();
-      nodes.stream().forEach(uuid -> {
-        DatanodeDetails node = nodeManager.getNodeByUuid(uuid);
-        if (node != null) {
-          nodeList.add(node);
-        }
-      });
-      List<? extends Node> sortedNodeList = scm.getClusterMap()
-          .sortByDistanceCost(client, nodeList, nodes.size());
-      List<DatanodeDetails> ret = new ArrayList<>();
-      sortedNodeList.stream().forEach(node -> ret.add((DatanodeDetails)node));
       return ret;
     } catch (Exception ex) {
       auditSuccess = false;
@@ -333,6 +341,29 @@ public List<DatanodeDetails> sortDatanodes(List<String> nodes,
     }
   }
 
+  private Node getClientNode(String clientMachine) {
+    List<DatanodeDetails> possibleClients =
+        scm.getScmNodeManager().getNodesByAddress(clientMachine);
+    return possibleClients.size() > 0 ? possibleClients.get(0) : null;
+  }
+
+  private List<DatanodeDetails> sortDatanodes(List<String> nodes,
+      Node client) {
+    NodeManager nodeManager = scm.getScmNodeManager();
+    List<Node> nodeList = new ArrayList();
+    nodes.stream().forEach(uuid -> {
+      DatanodeDetails node = nodeManager.getNodeByUuid(uuid);
+      if (node != null) {
+        nodeList.add(node);
+      }
+    });
+    List<? extends Node> sortedNodeList = scm.getClusterMap()
+        .sortByDistanceCost(client, nodeList, nodeList.size());
+    List<DatanodeDetails> ret = new ArrayList<>();
+    sortedNodeList.stream().forEach(node -> ret.add((DatanodeDetails)node));
+    return ret;
+  }
+
   @Override
   public AuditMessage buildAuditMessageForSuccess(
       AuditAction op, Map<String, String> auditMap) {
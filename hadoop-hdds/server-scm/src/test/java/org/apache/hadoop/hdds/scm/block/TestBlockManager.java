@@ -20,7 +20,9 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -359,6 +361,35 @@ public void testMultipleBlockAllocationWithClosedContainer()
     }, 10, 1000);
   }
 
+  @Test(timeout = 10000)
+  public void testBlockAllocationSkipsClosedContainer()
+      throws IOException, TimeoutException, InterruptedException {
+    eventQueue.fireEvent(SCMEvents.SAFE_MODE_STATUS, safeModeStatus);
+    GenericTestUtils
+        .waitFor(() -> !blockManager.isScmInSafeMode(), 10, 1000 * 5);
+    pipelineManager.createPipeline(type, factor);
+    TestUtils.openAllRatisPipelines(pipelineManager);
+
+    AllocatedBlock block = blockManager
+        .allocateBlock(DEFAULT_BLOCK_SIZE, type, factor, OzoneConsts.OZONE,
+            new ExcludeList());
+    ContainerID closed = ContainerID.valueof(block.getBlockID()
+        .getContainerID());
+    mapping.updateContainerState(closed, HddsProtos.LifeCycleEvent.FINALIZE);
+
+    Set<Long> containers = new HashSet<>();
+    for (int i = 0; i < 4 * numContainerPerOwnerInPipeline; i++) {
+      block = blockManager
+          .allocateBlock(DEFAULT_BLOCK_SIZE, type, factor, OzoneConsts.OZONE,
+              new ExcludeList());
+      Assert.assertNotEquals(closed.getId(),
+          block.getBlockID().getContainerID());
+      containers.add(block.getBlockID().getContainerID());
+    }
+    // the blocks are spread over the open containers
+    Assert.assertTrue(containers.size() > 1);
+  }
+
   @Test(timeout = 10000)
   public void testBlockAllocationWithNoAvailablePipelines()
       throws IOException, TimeoutException, InterruptedException {
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership.  The ASF
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.hadoop.hdds.scm.block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.LifeCycleState;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.container.ContainerID;
+import org.apache.hadoop.hdds.scm.container.ContainerInfo;
+import org.apache.hadoop.hdds.scm.container.ContainerManager;
+import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link OpenContainerSlots}.
+ */
+public class TestOpenContainerSlots {
+
+  private static final long CONTAINER_SIZE = 1000;
+  private static final long BLOCK_SIZE = 100;
+
+  private ContainerManager containerManager;
+  // The containers of the pipeline, which never report used bytes.
+  private List<ContainerInfo> containers;
+  private OpenContainerSlots slots;
+
+  @Before
+  public void setup() {
+    Pipeline pipeline = Pipeline.newBuilder()
+        .setState(Pipeline.PipelineState.OPEN)
+        .setId(PipelineID.randomId())
+        .setType(ReplicationType.RATIS)
+        .setFactor(ReplicationFactor.THREE)
+        .setNodes(new ArrayList<>())
+        .build();
+    PipelineManager pipelineManager = Mockito.mock(PipelineManager.class);
+    when(pipelineManager.getPipelines(ReplicationType.RATIS,
+        ReplicationFactor.THREE, Pipeline.PipelineState.OPEN))
+        .thenReturn(Collections.singletonList(pipeline));
+
+    containers = new ArrayList<>();
+    containerManager = Mockito.mock(ContainerManager.class);
+    // Like SCMContainerManager, returns an open container which is not
+    // excluded, or allocates a new one.
+    when(containerManager.getMatchingContainer(anyLong(), anyString(),
+        any(Pipeline.class), anyList())).thenAnswer(invocation -> {
+          List<ContainerID> excluded = invocation.getArgument(3);
+          for (ContainerInfo container : containers) {
+            if (container.getState() == LifeCycleState.OPEN
+                && !excluded.contains(container.containerID())) {
+              return container;
+            }
+          }
+          ContainerInfo container = new ContainerInfo.Builder()
+              .setContainerID(containers.size() + 1)
+              .setState(LifeCycleState.OPEN)
+              .setPipelineID(pipeline.getId())
+              .setReplicationType(ReplicationType.RATIS)
+              .setReplicationFactor(ReplicationFactor.THREE)
+              .setOwner("owner")
+              .setUsedBytes(0)
+              .build();
+          containers.add(container);
+          return container;
+        });
+
+    slots = new OpenContainerSlots("owner", ReplicationType.RATIS,
+        ReplicationFactor.THREE, CONTAINER_SIZE, 1, pipelineManager,
+        containerManager);
+  }
+
+  @Test
+  public void testReservedSpaceKeptAcrossRefills() {
+    for (int i = 0; i < CONTAINER_SIZE / BLOCK_SIZE; i++) {
+      OpenContainerSlots.Slot slot =
+          slots.allocate(BLOCK_SIZE, new ExcludeList());
+      Assert.assertEquals(1, slot.getContainer().getContainerID());
+    }
+
+    // The container has not reported any used bytes, but all its space is
+    // reserved, so the block goes to a new container.
+    OpenContainerSlots.Slot slot =
+        slots.allocate(BLOCK_SIZE, new ExcludeList());
+    Assert.assertEquals(2, slot.getContainer().getContainerID());
+    Assert.assertEquals(CONTAINER_SIZE - BLOCK_SIZE, slot.getRemaining());
+  }
+
+  @Test
+  public void testClosedContainerReplaced() {
+    OpenContainerSlots.Slot slot =
+        slots.allocate(BLOCK_SIZE, new ExcludeList());
+    Assert.assertEquals(1, slot.getContainer().getContainerID());
+
+    slot.getContainer().setState(LifeCycleState.CLOSED);
+    slot = slots.allocate(BLOCK_SIZE, new ExcludeList());
+    Assert.assertEquals(2, slot.getContainer().getContainerID());
+  }
+
+  @Test
+  public void testNoRefillForExcludedContainers() {
+    OpenContainerSlots.Slot slot =
+        slots.allocate(BLOCK_SIZE, new ExcludeList());
+    verify(containerManager, times(1)).getMatchingContainer(anyLong(),
+        anyString(), any(Pipeline.class), anyList());
+
+    ExcludeList excludeList = new ExcludeList();
+    excludeList.addConatinerId(slot.getContainer().containerID());
+    Assert.assertNull(slots.allocate(BLOCK_SIZE, excludeList));
+    verify(containerManager, times(1)).getMatchingContainer(anyLong(),
+        anyString(), any(Pipeline.class), anyList());
+
+    // The container still has space for the blocks of other callers.
+    slot = slots.allocate(BLOCK_SIZE, new ExcludeList());
+    Assert.assertEquals(1, slot.getContainer().getContainerID());
+    Assert.assertEquals(CONTAINER_SIZE - 2 * BLOCK_SIZE, slot.getRemaining());
+  }
+}
@@ -26,19 +26,24 @@
     .StorageContainerDatanodeProtocolProtos.ContainerReportsProto;
 import org.apache.hadoop.hdds.protocol.proto
     .StorageContainerDatanodeProtocolProtos.ContainerReplicaProto;
+import org.apache.hadoop.hdds.scm.events.SCMEvents;
 import org.apache.hadoop.hdds.scm.exceptions.SCMException;
 import org.apache.hadoop.hdds.scm.node.NodeManager;
 import org.apache.hadoop.hdds.scm.node.states.NodeNotFoundException;
 import org.apache.hadoop.hdds.scm.server
     .SCMDatanodeHeartbeatDispatcher.ContainerReportFromDatanode;
 import org.apache.hadoop.hdds.server.events.EventPublisher;
+import org.apache.hadoop.ozone.protocol.commands.CommandForDatanode;
+import org.apache.hadoop.ozone.protocol.commands.SendContainerReportCommand;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -483,6 +488,106 @@ public void testQuasiClosedToClosed()
     Assert.assertEquals(LifeCycleState.CLOSED, containerOne.getState());
   }
 
+  @Test
+  public void testDigestReport() throws NodeNotFoundException, SCMException,
+      ContainerNotFoundException {
+
+    final ContainerReportHandler reportHandler = new ContainerReportHandler(
+        nodeManager, containerManager);
+    final Iterator<DatanodeDetails> nodeIterator = nodeManager.getNodes(
+        NodeState.HEALTHY).iterator();
+    final DatanodeDetails datanodeOne = nodeIterator.next();
+    final DatanodeDetails datanodeTwo = nodeIterator.next();
+    final DatanodeDetails datanodeThree = nodeIterator.next();
+
+    final int buckets = 3;
+    final ContainerInfo containerOne = getContainer(LifeCycleState.CLOSED);
+    ContainerInfo container = getContainer(LifeCycleState.CLOSED);
+    while (container.getContainerID() % buckets
+        == containerOne.getContainerID() % buckets) {
+      container = getContainer(LifeCycleState.CLOSED);
+    }
+    final ContainerInfo containerTwo = container;
+    final int bucketOne = (int) (containerOne.getContainerID() % buckets);
+    final int bucketTwo = (int) (containerTwo.getContainerID() % buckets);
+    final Set<ContainerID> containerIDSet = Stream.of(
+        containerOne.containerID(), containerTwo.containerID())
+        .collect(Collectors.toSet());
+
+    for (DatanodeDetails dn : new DatanodeDetails[] {
+        datanodeOne, datanodeTwo, datanodeThree}) {
+      nodeManager.setContainers(dn, containerIDSet);
+    }
+    containerStateManager.loadContainer(containerOne);
+    containerStateManager.loadContainer(containerTwo);
+    for (ContainerInfo info : new ContainerInfo[] {
+        containerOne, containerTwo}) {
+      for (ContainerReplica r : getReplicas(info.containerID(),
+          ContainerReplicaProto.State.CLOSED,
+          datanodeOne, datanodeTwo, datanodeThree)) {
+        containerStateManager.updateContainerReplica(info.containerID(), r);
+      }
+    }
+
+    // The datanode details the bucket of containerTwo. SCM does not know
+    // the digest of the bucket of containerOne, so it asks for it and keeps
+    // the replica of containerOne.
+    final long[] digests = new long[buckets];
+    digests[bucketOne] = 7;
+    digests[bucketTwo] = 9;
+    ContainerReportsProto.Builder report = getContainerReportsProto(
+        containerTwo.containerID(), ContainerReplicaProto.State.CLOSED,
+        datanodeOne.getUuidString()).toBuilder()
+        .setGeneration(1)
+        .addDetailedBuckets(bucketTwo);
+    for (long digest : digests) {
+      report.addBucketDigests(digest);
+    }
+    reportHandler.onMessage(
+        new ContainerReportFromDatanode(datanodeOne, report.build()),
+        publisher);
+
+    Assert.assertEquals(3, containerManager.getContainerReplicas(
+        containerOne.containerID()).size());
+    final ArgumentCaptor<CommandForDatanode> command =
+        ArgumentCaptor.forClass(CommandForDatanode.class);
+    Mockito.verify(publisher).fireEvent(
+        Mockito.eq(SCMEvents.DATANODE_COMMAND), command.capture());
+    Assert.assertEquals(datanodeOne.getUuid(),
+        command.getValue().getDatanodeId());
+    Assert.assertEquals(Collections.singletonList(bucketOne),
+        ((SendContainerReportCommand) command.getValue().getCommand())
+            .getBuckets());
+
+    // The bucket of containerOne is empty now, and the one of containerTwo
+    // did not change.
+    digests[bucketOne] = 0;
+    report = ContainerReportsProto.newBuilder().setGeneration(2);
+    for (long digest : digests) {
+      report.addBucketDigests(digest);
+    }
+    reportHandler.onMessage(
+        new ContainerReportFromDatanode(datanodeOne, report.build()),
+        publisher);
+
+    Assert.assertEquals(2, containerManager.getContainerReplicas(
+        containerOne.containerID()).size());
+    Assert.assertEquals(3, containerManager.getContainerReplicas(
+        containerTwo.containerID()).size());
+    Assert.assertEquals(Collections.singleton(containerTwo.containerID()),
+        nodeManager.getContainers(datanodeOne));
+    Mockito.verify(publisher, Mockito.times(1)).fireEvent(
+        Mockito.eq(SCMEvents.DATANODE_COMMAND), Mockito.any());
+
+    // A report older than the last one processed is ignored.
+    report.setGeneration(1).setBucketDigests(bucketTwo, 0);
+    reportHandler.onMessage(
+        new ContainerReportFromDatanode(datanodeOne, report.build()),
+        publisher);
+    Assert.assertEquals(3, containerManager.getContainerReplicas(
+        containerTwo.containerID()).size());
+  }
+
   private static ContainerReportsProto getContainerReportsProto(
       final ContainerID containerId, final ContainerReplicaProto.State state,
       final String originNodeId) {
@@ -140,4 +140,46 @@ public void testSortDatanodes() throws Exception {
     resp.getNodeList().stream().forEach(
         node -> System.out.println(node.getNetworkName()));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testSortDatanodesBatch() throws Exception {
+    List<String> nodes = new ArrayList<>();
+    nodeManager.getAllNodes().stream().forEach(
+        node -> nodes.add(node.getNetworkName()));
+    String client = nodeManager.getNodeByUuid(nodes.get(0)).getIpAddress();
+
+    List<List<String>> nodeLists = new ArrayList<>();
+    nodeLists.add(nodes.subList(0, 3));
+    nodeLists.add(nodes.subList(3, nodeCount));
+    List<String> unknownNodes = new ArrayList<>(nodes.subList(0, 2));
+    unknownNodes.add(UUID.randomUUID().toString());
+    nodeLists.add(unknownNodes);
+
+    List<List<DatanodeDetails>> sorted =
+        server.sortDatanodesBatch(nodeLists, client);
+    Assert.assertEquals(3, sorted.size());
+    Assert.assertEquals(3, sorted.get(0).size());
+    Assert.assertEquals(nodeCount - 3, sorted.get(1).size());
+    // unknown nodes are left out
+    Assert.assertEquals(2, sorted.get(2).size());
+    // the client itself is closest
+    Assert.assertEquals(nodes.get(0), sorted.get(0).get(0).getNetworkName());
+
+    ScmBlockLocationProtocolProtos.SortDatanodesBatchRequestProto.Builder
+        request = ScmBlockLocationProtocolProtos
+        .SortDatanodesBatchRequestProto.newBuilder()
+        .setClient(client);
+    for (List<String> nodeList : nodeLists) {
+      request.addNodeList(ScmBlockLocationProtocolProtos
+          .NodeNetworkNameListProto.newBuilder()
+          .addAllNodeNetworkName(nodeList));
+    }
+    ScmBlockLocationProtocolProtos.SortDatanodesBatchResponseProto resp =
+        service.sortDatanodesBatch(request.build());
+    Assert.assertEquals(3, resp.getSortedNodesCount());
+    for (int i = 0; i < sorted.size(); i++) {
+      Assert.assertEquals(sorted.get(i).size(),
+          resp.getSortedNodes(i).getNodeCount());
+    }
+  }
+}
@@ -35,6 +35,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteInfo;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.WithMetadata;
 import org.apache.hadoop.ozone.security.acl.OzoneObj;
 import org.apache.hadoop.ozone.security.acl.OzoneObjInfo;
@@ -45,6 +46,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A class that encapsulates OzoneBucket.
@@ -369,7 +372,26 @@ public Iterator<? extends OzoneKey> listKeys(String keyPrefix) {
    */
   public Iterator<? extends OzoneKey> listKeys(String keyPrefix,
       String prevKey) {
-    return new KeyIterator(keyPrefix, prevKey);
+    return new KeyIterator(keyPrefix, prevKey, null);
+  }
+
+  /**
+   * Returns Iterator to iterate over the keys and common prefixes after
+   * prevKey in the bucket. The keys which contain the delimiter after the
+   * key prefix are not returned, the part of their name up to and including
+   * the delimiter is returned once as an {@link OzoneKeyPrefix} instead.
+   * The common prefixes are computed by the Ozone Manager, which skips the
+   * other keys starting with them.
+   *
+   * @param keyPrefix Bucket prefix to match
+   * @param prevKey Keys and common prefixes will be listed after this name
+   * @param delimiter Delimiter of the common prefixes, all the keys are
+   *                  listed if null
+   * @return {@code Iterator<OzoneKey>}
+   */
+  public Iterator<? extends OzoneKey> listKeys(String keyPrefix,
+      String prevKey, String delimiter) {
+    return new KeyIterator(keyPrefix, prevKey, delimiter);
   }
 
   /**
@@ -386,6 +408,41 @@ public void renameKey(String fromKeyName, String toKeyName)
     proxy.renameKey(volumeName, name, fromKeyName, toKeyName);
   }
 
+  /**
+   * Renames all the keys with the given prefix atomically.
+   * @param fromKeyPrefix Prefix of the keys to be renamed.
+   * @param toKeyPrefix New prefix of the keys.
+   * @throws IOException
+   */
+  public void renameKeyPrefix(String fromKeyPrefix, String toKeyPrefix)
+      throws IOException {
+    proxy.renameKeyPrefix(volumeName, name, fromKeyPrefix, toKeyPrefix);
+  }
+
+  /**
+   * Deletes all the keys with the given prefix atomically.
+   * @param keyPrefix Prefix of the keys to be deleted.
+   * @throws IOException
+   */
+  public void deleteKeyPrefix(String keyPrefix) throws IOException {
+    proxy.deleteKeyPrefix(volumeName, name, keyPrefix);
+  }
+
+  /**
+   * Copies a key of this bucket on the server, without reading and writing
+   * its data. The new key shares the blocks of the source key.
+   * @param keyName Name of the key to be copied.
+   * @param toVolumeName Volume of the new key.
+   * @param toBucketName Bucket of the new key.
+   * @param toKeyName Name of the new key.
+   * @throws IOException
+   */
+  public void copyKey(String keyName, String toVolumeName,
+      String toBucketName, String toKeyName) throws IOException {
+    proxy.copyKey(volumeName, name, keyName, toVolumeName, toBucketName,
+        toKeyName);
+  }
+
   /**
    * Initiate multipart upload for a specified key.
    * @param keyName
@@ -555,6 +612,22 @@ public List<OzoneFileStatus> listStatus(String keyName, boolean recursive,
         .listStatus(volumeName, name, keyName, recursive, startKey, numEntries);
   }
 
+  /**
+   * Returns an iterator over the status for a file or a directory and its
+   * contents. The entries are listed in pages, and the next page is fetched
+   * in the background while the current one is consumed.
+   *
+   * @param keyName    Absolute path of the entry to be listed
+   * @param recursive  For a directory if true all the descendants of a
+   *                   particular directory are listed
+   * @return iterator over the file status
+   * @throws IOException if the first page can not be listed
+   */
+  public Iterator<OzoneFileStatus> listStatusIterator(String keyName,
+      boolean recursive) throws IOException {
+    return new FileStatusIterator(keyName, recursive);
+  }
+
   /**
    * Return with the list of the in-flight multipart uploads.
    *
@@ -571,6 +644,7 @@ public OzoneMultipartUploadList listMultipartUploads(String prefix)
   private class KeyIterator implements Iterator<OzoneKey> {
 
     private String keyPrefix = null;
+    private final String delimiter;
 
     private Iterator<OzoneKey> currentIterator;
     private OzoneKey currentValue;
@@ -581,9 +655,11 @@ private class KeyIterator implements Iterator<OzoneKey> {
      * If prevKey is null it iterates from the first key in the bucket.
      * The returned keys match key prefix.
      * @param keyPrefix
+     * @param delimiter delimiter of the common prefixes, may be null
      */
-    KeyIterator(String keyPrefix, String prevKey) {
+    KeyIterator(String keyPrefix, String prevKey, String delimiter) {
       this.keyPrefix = keyPrefix;
+      this.delimiter = delimiter;
       this.currentValue = null;
       this.currentIterator = getNextListOfKeys(prevKey).iterator();
     }
@@ -614,6 +690,10 @@ public OzoneKey next() {
      */
     private List<OzoneKey> getNextListOfKeys(String prevKey) {
       try {
+        if (delimiter != null) {
+          return proxy.listKeys(volumeName, name, keyPrefix, prevKey,
+              delimiter, listCacheSize);
+        }
         return proxy.listKeys(volumeName, name, keyPrefix, prevKey,
             listCacheSize);
       } catch (IOException e) {
@@ -621,4 +701,102 @@ private List<OzoneKey> getNextListOfKeys(String prevKey) {
       }
     }
   }
+
+  /**
+   * An Iterator to iterate over {@link OzoneFileStatus} list, which prefetches
+   * the next page of the listing.
+   */
+  private class FileStatusIterator implements Iterator<OzoneFileStatus> {
+
+    private final String keyName;
+    private final boolean recursive;
+
+    private Iterator<OzoneFileStatus> currentIterator;
+    // Next page of the listing, null if there are no more pages.
+    private CompletableFuture<OzoneFileStatusList> nextPage;
+
+    FileStatusIterator(String keyName, boolean recursive) throws IOException {
+      this.keyName = keyName;
+      this.recursive = recursive;
+      OzoneFileStatusList page = getPage(null);
+      if (!page.isPaged()) {
+        // An OM without paged listing ignores the continuation token and
+        // lists the first entries only, the others are listed by start key.
+        page = getStartKeyPage(page.getStatuses());
+      }
+      setCurrentPage(page);
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!currentIterator.hasNext() && nextPage != null) {
+        try {
+          setCurrentPage(nextPage.join());
+        } catch (CompletionException e) {
+          nextPage = null;
+          throw new RuntimeException(e.getCause());
+        }
+      }
+      return currentIterator.hasNext();
+    }
+
+    @Override
+    public OzoneFileStatus next() {
+      if (hasNext()) {
+        return currentIterator.next();
+      }
+      throw new NoSuchElementException();
+    }
+
+    private void setCurrentPage(OzoneFileStatusList page) {
+      currentIterator = page.getStatuses().iterator();
+      if (page.isTruncated()) {
+        String continuationToken = page.getContinuationToken();
+        boolean paged = page.isPaged();
+        nextPage = CompletableFuture.supplyAsync(() -> {
+          try {
+            return paged ? getPage(continuationToken) :
+                getPageFromStartKey(continuationToken);
+          } catch (IOException e) {
+            throw new CompletionException(e);
+          }
+        }, proxy.getListingExecutor());
+      } else {
+        nextPage = null;
+      }
+    }
+
+    private OzoneFileStatusList getPage(String continuationToken)
+        throws IOException {
+      return proxy.listStatusPage(volumeName, name, keyName, recursive,
+          continuationToken, listCacheSize);
+    }
+
+    private OzoneFileStatusList getPageFromStartKey(String startKey)
+        throws IOException {
+      OzoneFileStatusList page = getStartKeyPage(proxy.listStatus(volumeName,
+          name, keyName, recursive, startKey, listCacheSize));
+      // The entries start with startKey, which is the last entry of the
+      // previous page.
+      List<OzoneFileStatus> statuses = page.getStatuses();
+      return new OzoneFileStatusList(
+          statuses.isEmpty() ? statuses : statuses.subList(1, statuses.size()),
+          page.getContinuationToken(), false);
+    }
+
+    /**
+     * Returns the entries listed by start key as a page, which is continued
+     * from its last entry if the listing returned as many entries as asked.
+     */
+    private OzoneFileStatusList getStartKeyPage(
+        List<OzoneFileStatus> statuses) {
+      String nextStartKey = null;
+      if (statuses.size() == listCacheSize) {
+        // Remove the leading '/' of the path to get the key.
+        nextStartKey = statuses.get(statuses.size() - 1).getPath().toUri()
+            .getPath().substring(1);
+      }
+      return new OzoneFileStatusList(statuses, nextStartKey, false);
+    }
+  }
 }
@@ -102,7 +102,8 @@ public BlockOutputStreamEntryPool(OzoneManagerProtocol omClient,
     Preconditions.checkState(blockSize % streamBufferMaxSize == 0);
     this.bufferPool =
         new BufferPool(chunkSize, (int) streamBufferMaxSize / chunkSize,
-            xceiverClientManager.byteBufferToByteStringConversion());
+            xceiverClientManager.byteBufferToByteStringConversion(),
+            xceiverClientManager.getSharedBufferPool());
   }
 
   /**
@@ -323,13 +324,22 @@ long computeBufferData() {
     return bufferPool.computeBufferData();
   }
 
-  void cleanup() {
+  /**
+   * Releases the resources of the key.
+   * @param succeeded false if the write of the key failed, so its buffers are
+   * not reused as writes in flight may still read them.
+   */
+  void cleanup(boolean succeeded) {
     if (excludeList != null) {
       excludeList.clear();
       excludeList = null;
     }
     if (bufferPool != null) {
-      bufferPool.clearBufferPool();
+      if (succeeded) {
+        bufferPool.clearBufferPool();
+      } else {
+        bufferPool.discardBufferPool();
+      }
     }
 
     if (streamEntries != null) {
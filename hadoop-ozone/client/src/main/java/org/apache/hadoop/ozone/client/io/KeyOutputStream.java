@@ -328,7 +328,7 @@ private void handleException(BlockOutputStreamEntry streamEntry,
   }
 
   private void markStreamClosed() {
-    blockOutputStreamEntryPool.cleanup();
+    blockOutputStreamEntryPool.cleanup(false);
     closed = true;
   }
 
@@ -469,13 +469,13 @@ public void close() throws IOException {
       return;
     }
     closed = true;
+    boolean succeeded = false;
     try {
       handleFlushOrClose(StreamAction.CLOSE);
       blockOutputStreamEntryPool.commitKey(offset);
-    } catch (IOException ioe) {
-      throw ioe;
+      succeeded = true;
     } finally {
-      blockOutputStreamEntryPool.cleanup();
+      blockOutputStreamEntryPool.cleanup(succeeded);
     }
   }
 
@@ -39,8 +39,10 @@
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRoleInfo;
@@ -299,6 +301,43 @@ void deleteKey(String volumeName, String bucketName, String keyName)
   void renameKey(String volumeName, String bucketName, String fromKeyName,
       String toKeyName) throws IOException;
 
+  /**
+   * Renames all the keys with the given prefix atomically, by replacing the
+   * prefix with a new one.
+   * @param volumeName Name of the Volume
+   * @param bucketName Name of the Bucket
+   * @param fromKeyPrefix Prefix of the Keys to be renamed
+   * @param toKeyPrefix New prefix to be used for the Keys
+   * @throws IOException
+   */
+  void renameKeyPrefix(String volumeName, String bucketName,
+      String fromKeyPrefix, String toKeyPrefix) throws IOException;
+
+  /**
+   * Deletes all the keys with the given prefix atomically.
+   * @param volumeName Name of the Volume
+   * @param bucketName Name of the Bucket
+   * @param keyPrefix Prefix of the Keys to be deleted
+   * @throws IOException
+   */
+  void deleteKeyPrefix(String volumeName, String bucketName, String keyPrefix)
+      throws IOException;
+
+  /**
+   * Copies an existing key without copying its data, the new key refers to
+   * the blocks of the source key.
+   * @param volumeName Name of the Volume of the source Key
+   * @param bucketName Name of the Bucket of the source Key
+   * @param keyName Name of the source Key
+   * @param toVolumeName Name of the Volume of the new Key
+   * @param toBucketName Name of the Bucket of the new Key
+   * @param toKeyName Name of the new Key
+   * @throws IOException
+   */
+  void copyKey(String volumeName, String bucketName, String keyName,
+      String toVolumeName, String toBucketName, String toKeyName)
+      throws IOException;
+
   /**
    * Returns list of Keys in {Volume/Bucket} that matches the keyPrefix,
    * size of the returned list depends on maxListResult. The caller has
@@ -315,6 +354,25 @@ List<OzoneKey> listKeys(String volumeName, String bucketName,
                           String keyPrefix, String prevKey, int maxListResult)
       throws IOException;
 
+  /**
+   * Returns list of Keys and common prefixes in {Volume/Bucket} that match
+   * the keyPrefix. The keys which contain the delimiter after the keyPrefix
+   * are returned once as an {@link OzoneKeyPrefix} up to and including the
+   * delimiter. Size of the returned list depends on maxListResult.
+   * @param volumeName Name of the Volume
+   * @param bucketName Name of the Bucket
+   * @param keyPrefix Bucket prefix to match
+   * @param prevKey Starting point of the list, this key or common prefix is
+   *                excluded
+   * @param delimiter Delimiter of the common prefixes
+   * @param maxListResult Max number of keys and common prefixes to return.
+   * @return {@code List<OzoneKey>} sorted by name
+   * @throws IOException
+   */
+  List<OzoneKey> listKeys(String volumeName, String bucketName,
+      String keyPrefix, String prevKey, String delimiter, int maxListResult)
+      throws IOException;
+
   /**
    * List trash allows the user to list the keys that were marked as deleted,
    * but not actually deleted by Ozone Manager. This allows a user to recover
@@ -634,6 +692,29 @@ List<OzoneFileStatus> listStatus(String volumeName, String bucketName,
       String keyName, boolean recursive, String startKey, long numEntries)
       throws IOException;
 
+  /**
+   * List one page of the status for a file or a directory and its contents.
+   *
+   * @param volumeName Volume name
+   * @param bucketName Bucket name
+   * @param keyName    Absolute path of the entry to be listed
+   * @param recursive  For a directory if true all the descendants of a
+   *                   particular directory are listed
+   * @param continuationToken Token returned with the previous page, null or
+   *                   empty to list the first page
+   * @param numEntries Maximum number of entries in the page
+   * @return page of file status with the token to list the next page
+   */
+  OzoneFileStatusList listStatusPage(String volumeName, String bucketName,
+      String keyName, boolean recursive, String continuationToken,
+      long numEntries) throws IOException;
+
+  /**
+   * Returns the executor which lists the next page of a paged listing while
+   * the current page is consumed. It is shut down when the client is closed.
+   */
+  Executor getListingExecutor();
+
 
   /**
    * Add acl for Ozone object. Return true if acl is added successfully else
@@ -20,6 +20,7 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.StorageUnit;
 import org.apache.hadoop.crypto.CryptoInputStream;
@@ -53,6 +54,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadCompleteList;
@@ -63,11 +65,12 @@
 import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
 import org.apache.hadoop.ozone.om.helpers.OzoneAclUtil;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfo;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfoEx;
-import org.apache.hadoop.ozone.om.protocol.OzoneManagerProtocol;
+import org.apache.hadoop.ozone.om.protocol.OzoneManagerClientProtocol;
 import org.apache.hadoop.ozone.om.protocolPB
     .OzoneManagerProtocolClientSideTranslatorPB;
 import org.apache.hadoop.ozone.OzoneAcl;
@@ -98,6 +101,10 @@
 import java.security.InvalidKeyException;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -113,8 +120,11 @@ public class RpcClient implements ClientProtocol {
   private static final Logger LOG =
       LoggerFactory.getLogger(RpcClient.class);
 
+  // Number of threads listing the next pages of paged listStatus calls.
+  private static final int LISTING_THREADS = 4;
+
   private final OzoneConfiguration conf;
-  private final OzoneManagerProtocol ozoneManagerClient;
+  private final OzoneManagerClientProtocol ozoneManagerClient;
   private final XceiverClientManager xceiverClientManager;
   private final int chunkSize;
   private final ChecksumType checksumType;
@@ -132,6 +142,7 @@ public class RpcClient implements ClientProtocol {
   private final long retryInterval;
   private Text dtService;
   private final boolean topologyAwareReadEnabled;
+  private final ExecutorService listingExecutor;
 
   /**
     * Creates RpcClient instance with the given configuration.
@@ -151,7 +162,7 @@ public RpcClient(Configuration conf, String omServiceId) throws IOException {
     this.ozoneManagerClient = TracingUtil.createProxy(
         new OzoneManagerProtocolClientSideTranslatorPB(
             this.conf, clientId.toString(), omServiceId, ugi),
-        OzoneManagerProtocol.class, conf
+        OzoneManagerClientProtocol.class, conf
     );
 
     ServiceInfoEx serviceInfoEx = ozoneManagerClient.getServiceInfo();
@@ -224,6 +235,12 @@ public RpcClient(Configuration conf, String omServiceId) throws IOException {
     topologyAwareReadEnabled = conf.getBoolean(
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_KEY,
         OzoneConfigKeys.OZONE_NETWORK_TOPOLOGY_AWARE_READ_DEFAULT);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(LISTING_THREADS,
+        LISTING_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("OzoneClient Listing Thread - %d").build());
+    executor.allowCoreThreadTimeOut(true);
+    listingExecutor = executor;
   }
 
   @Override
@@ -688,6 +705,53 @@ public void renameKey(String volumeName, String bucketName,
     ozoneManagerClient.renameKey(keyArgs, toKeyName);
   }
 
+  @Override
+  public void renameKeyPrefix(String volumeName, String bucketName,
+      String fromKeyPrefix, String toKeyPrefix) throws IOException {
+    HddsClientUtils.verifyResourceName(volumeName, bucketName);
+    HddsClientUtils.checkNotNull(fromKeyPrefix, toKeyPrefix);
+    OmKeyArgs keyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(fromKeyPrefix)
+        .build();
+    ozoneManagerClient.renameKeyPrefix(keyArgs, toKeyPrefix);
+  }
+
+  @Override
+  public void deleteKeyPrefix(String volumeName, String bucketName,
+      String keyPrefix) throws IOException {
+    HddsClientUtils.verifyResourceName(volumeName, bucketName);
+    Preconditions.checkNotNull(keyPrefix);
+    OmKeyArgs keyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(keyPrefix)
+        .build();
+    ozoneManagerClient.deleteKeyPrefix(keyArgs);
+  }
+
+  @Override
+  public void copyKey(String volumeName, String bucketName, String keyName,
+      String toVolumeName, String toBucketName, String toKeyName)
+      throws IOException {
+    HddsClientUtils.verifyResourceName(volumeName, bucketName);
+    HddsClientUtils.verifyResourceName(toVolumeName, toBucketName);
+    HddsClientUtils.checkNotNull(keyName, toKeyName);
+    OmKeyArgs keyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(keyName)
+        .build();
+    OmKeyArgs toKeyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(toVolumeName)
+        .setBucketName(toBucketName)
+        .setKeyName(toKeyName)
+        .setAcls(getAclList())
+        .build();
+    ozoneManagerClient.copyKey(keyArgs, toKeyArgs);
+  }
+
   @Override
   public List<OzoneKey> listKeys(String volumeName, String bucketName,
                                  String keyPrefix, String prevKey,
@@ -696,7 +760,37 @@ public List<OzoneKey> listKeys(String volumeName, String bucketName,
     List<OmKeyInfo> keys = ozoneManagerClient.listKeys(
         volumeName, bucketName, prevKey, keyPrefix, maxListResult);
 
-    return keys.stream().map(key -> new OzoneKey(
+    return keys.stream().map(RpcClient::toOzoneKey)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<OzoneKey> listKeys(String volumeName, String bucketName,
+      String keyPrefix, String prevKey, String delimiter, int maxListResult)
+      throws IOException {
+    OmKeyList keyList = ozoneManagerClient.listKeys(volumeName, bucketName,
+        prevKey, keyPrefix, delimiter, maxListResult);
+
+    // Merge the keys and the common prefixes, both are sorted by name.
+    List<OmKeyInfo> keys = keyList.getKeys();
+    List<String> prefixes = keyList.getCommonPrefixes();
+    List<OzoneKey> result = new ArrayList<>(keyList.size());
+    int k = 0;
+    int p = 0;
+    while (k < keys.size() || p < prefixes.size()) {
+      if (p == prefixes.size() || (k < keys.size()
+          && keys.get(k).getKeyName().compareTo(prefixes.get(p)) < 0)) {
+        result.add(toOzoneKey(keys.get(k++)));
+      } else {
+        result.add(
+            new OzoneKeyPrefix(volumeName, bucketName, prefixes.get(p++)));
+      }
+    }
+    return result;
+  }
+
+  private static OzoneKey toOzoneKey(OmKeyInfo key) {
+    return new OzoneKey(
         key.getVolumeName(),
         key.getBucketName(),
         key.getKeyName(),
@@ -704,8 +798,7 @@ public List<OzoneKey> listKeys(String volumeName, String bucketName,
         key.getCreationTime(),
         key.getModificationTime(),
         ReplicationType.valueOf(key.getType().toString()),
-        key.getFactor().getNumber()))
-        .collect(Collectors.toList());
+        key.getFactor().getNumber());
   }
 
   @Override
@@ -810,6 +903,7 @@ public List<OzoneBucket> listS3Buckets(String userName, String bucketPrefix,
 
   @Override
   public void close() throws IOException {
+    listingExecutor.shutdownNow();
     IOUtils.cleanupWithLogger(LOG, ozoneManagerClient);
     IOUtils.cleanupWithLogger(LOG, xceiverClientManager);
   }
@@ -1051,6 +1145,24 @@ public List<OzoneFileStatus> listStatus(String volumeName, String bucketName,
         .listStatus(keyArgs, recursive, startKey, numEntries);
   }
 
+  @Override
+  public OzoneFileStatusList listStatusPage(String volumeName,
+      String bucketName, String keyName, boolean recursive,
+      String continuationToken, long numEntries) throws IOException {
+    OmKeyArgs keyArgs = new OmKeyArgs.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(keyName)
+        .build();
+    return ozoneManagerClient
+        .listStatusPage(keyArgs, recursive, continuationToken, numEntries);
+  }
+
+  @Override
+  public Executor getListingExecutor() {
+    return listingExecutor;
+  }
+
   /**
    * Add acl for Ozone object. Return true if acl is added successfully else
    * false.
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.client;
+
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.StorageType;
+import org.apache.hadoop.ozone.OzoneConfigKeys;
+import org.apache.hadoop.ozone.client.protocol.ClientProtocol;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the paged listing of {@link OzoneBucket}.
+ */
+public class TestOzoneBucket {
+
+  @Rule
+  public Timeout timeout = new Timeout(300000);
+
+  private static final String VOLUME = "vol";
+  private static final String BUCKET = "bucket";
+  private static final String DIR = "dir";
+
+  private ClientProtocol proxy;
+  private OzoneBucket bucket;
+
+  @Before
+  public void setup() {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.setInt(OzoneConfigKeys.OZONE_CLIENT_LIST_CACHE_SIZE, 2);
+    proxy = mock(ClientProtocol.class);
+    when(proxy.getListingExecutor()).thenReturn(Runnable::run);
+    bucket = new OzoneBucket(conf, proxy, VOLUME, BUCKET, StorageType.DISK,
+        false, 0, new HashMap<>());
+  }
+
+  @Test
+  public void testListStatusIterator() throws IOException {
+    when(proxy.listStatusPage(eq(VOLUME), eq(BUCKET), eq(DIR), eq(false),
+        isNull(), eq(2L)))
+        .thenReturn(new OzoneFileStatusList(statuses("a", "b"), "token1"));
+    when(proxy.listStatusPage(VOLUME, BUCKET, DIR, false, "token1", 2L))
+        .thenReturn(new OzoneFileStatusList(statuses("c"), "token2"));
+    when(proxy.listStatusPage(VOLUME, BUCKET, DIR, false, "token2", 2L))
+        .thenReturn(new OzoneFileStatusList(statuses(), null));
+
+    assertEquals(Arrays.asList("a", "b", "c"),
+        list(bucket.listStatusIterator(DIR, false)));
+    verify(proxy, never()).listStatus(anyString(), anyString(), anyString(),
+        anyBoolean(), anyString(), anyLong());
+  }
+
+  /**
+   * An OM without paged listing ignores the continuation token, the iterator
+   * lists the remaining entries by start key instead.
+   */
+  @Test
+  public void testListStatusIteratorWithoutPagedListing()
+      throws IOException {
+    when(proxy.listStatusPage(eq(VOLUME), eq(BUCKET), eq(DIR), eq(false),
+        isNull(), eq(2L)))
+        .thenReturn(new OzoneFileStatusList(statuses("a", "b"), null, false));
+    when(proxy.listStatus(VOLUME, BUCKET, DIR, false, "b", 2L))
+        .thenReturn(statuses("b", "c"));
+    when(proxy.listStatus(VOLUME, BUCKET, DIR, false, "c", 2L))
+        .thenReturn(statuses("c"));
+
+    assertEquals(Arrays.asList("a", "b", "c"),
+        list(bucket.listStatusIterator(DIR, false)));
+  }
+
+  @Test
+  public void testListStatusIteratorWithoutPagedListingSinglePage()
+      throws IOException {
+    when(proxy.listStatusPage(eq(VOLUME), eq(BUCKET), eq(DIR), eq(false),
+        isNull(), eq(2L)))
+        .thenReturn(new OzoneFileStatusList(statuses("a"), null, false));
+
+    assertEquals(Arrays.asList("a"),
+        list(bucket.listStatusIterator(DIR, false)));
+    verify(proxy, never()).listStatus(anyString(), anyString(), anyString(),
+        anyBoolean(), anyString(), anyLong());
+  }
+
+  private static List<OzoneFileStatus> statuses(String... keyNames) {
+    List<OzoneFileStatus> statuses = new ArrayList<>();
+    for (String keyName : keyNames) {
+      statuses.add(new OzoneFileStatus(keyName));
+    }
+    return statuses;
+  }
+
+  private static List<String> list(Iterator<OzoneFileStatus> iterator) {
+    List<String> keyNames = new ArrayList<>();
+    while (iterator.hasNext()) {
+      keyNames.add(iterator.next().getPath().getName());
+    }
+    return keyNames;
+  }
+}
@@ -53,6 +53,7 @@
 import org.apache.hadoop.net.NetUtils;
 import org.apache.hadoop.ozone.om.OMConfigKeys;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 
@@ -246,6 +247,9 @@ public static boolean isReadOnly(
     case CreateKey:
     case RenameKey:
     case DeleteKey:
+    case RenameKeyPrefix:
+    case DeleteKeyPrefix:
+    case CopyKey:
     case CommitKey:
     case AllocateBlock:
     case CreateS3Bucket:
@@ -264,6 +268,7 @@ public static boolean isReadOnly(
     case SetAcl:
     case AddAcl:
     case PurgeKeys:
+    case DeleteOpenKeys:
       return false;
     default:
       LOG.error("CmdType {} is not categorized as readOnly or not.", cmdType);
@@ -528,4 +533,33 @@ public static RepeatedOmKeyInfo prepareKeyForDelete(OmKeyInfo keyInfo,
 
     return repeatedOmKeyInfo;
   }
+
+  /**
+   * Prepares the key info of an expired open key to be moved to deletedTable.
+   * An open key which overwrites an existing key starts from the blocks of
+   * that key, so only the blocks allocated for the open version are kept,
+   * the others still belong to the committed key.
+   * @param openKeyInfo key info from openKeyTable
+   * @return key info with the blocks of the open version only.
+   */
+  public static OmKeyInfo prepareOpenKeyForDelete(OmKeyInfo openKeyInfo) {
+    OmKeyLocationInfoGroup openVersion =
+        openKeyInfo.getLatestVersionLocations();
+    return new OmKeyInfo.Builder()
+        .setVolumeName(openKeyInfo.getVolumeName())
+        .setBucketName(openKeyInfo.getBucketName())
+        .setKeyName(openKeyInfo.getKeyName())
+        .setCreationTime(openKeyInfo.getCreationTime())
+        .setModificationTime(openKeyInfo.getModificationTime())
+        .setDataSize(openKeyInfo.getDataSize())
+        .setReplicationType(openKeyInfo.getType())
+        .setReplicationFactor(openKeyInfo.getFactor())
+        .setFileEncryptionInfo(openKeyInfo.getFileEncryptionInfo())
+        .setAcls(openKeyInfo.getAcls())
+        .addAllMetadata(openKeyInfo.getMetadata())
+        .setOmKeyLocationInfos(Collections.singletonList(
+            new OmKeyLocationInfoGroup(0,
+                openVersion.getBlocksLatestVersionOnly())))
+        .build();
+  }
 }
@@ -32,6 +32,9 @@ public enum OMAction implements AuditAction {
   DELETE_BUCKET,
   DELETE_KEY,
   RENAME_KEY,
+  DELETE_KEY_PREFIX,
+  RENAME_KEY_PREFIX,
+  COPY_KEY,
   SET_OWNER,
   SET_QUOTA,
   UPDATE_VOLUME,
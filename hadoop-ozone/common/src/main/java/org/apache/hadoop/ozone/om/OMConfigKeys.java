@@ -39,6 +39,13 @@ private OMConfigKeys() {
       "ozone.om.handler.count.key";
   public static final int OZONE_OM_HANDLER_COUNT_DEFAULT = 20;
 
+  // When enabled, the RPC handler returns as soon as a write request is
+  // submitted, and the response is sent once the request is applied.
+  public static final String OZONE_OM_DEFERRED_RESPONSE_ENABLED_KEY =
+      "ozone.om.deferred.response.enabled";
+  public static final boolean OZONE_OM_DEFERRED_RESPONSE_ENABLED_DEFAULT =
+      true;
+
   public static final String OZONE_OM_SERVICE_IDS_KEY =
       "ozone.om.service.ids";
   public static final String OZONE_OM_NODES_KEY =
@@ -81,10 +88,48 @@ private OMConfigKeys() {
       "ozone.key.deleting.limit.per.task";
   public static final int OZONE_KEY_DELETING_LIMIT_PER_TASK_DEFAULT = 1000;
 
+  public static final String OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK =
+      "ozone.open.key.cleanup.limit.per.task";
+  public static final int OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK_DEFAULT =
+      1000;
+
+  // Number of blocks OM allocates from SCM ahead of the requests, for each
+  // owner, block size and replication. Zero disables the prefetch.
+  public static final String OZONE_OM_BLOCK_PREFETCH_COUNT =
+      "ozone.om.block.prefetch.count";
+  public static final int OZONE_OM_BLOCK_PREFETCH_COUNT_DEFAULT = 0;
+  // Prefetched blocks not handed out within this time are dropped.
+  public static final String OZONE_OM_BLOCK_PREFETCH_EXPIRY =
+      "ozone.om.block.prefetch.expiry";
+  public static final long OZONE_OM_BLOCK_PREFETCH_EXPIRY_DEFAULT =
+      TimeUnit.MINUTES.toMillis(1);
+
   public static final String OZONE_OM_METRICS_SAVE_INTERVAL =
       "ozone.om.save.metrics.interval";
   public static final String OZONE_OM_METRICS_SAVE_INTERVAL_DEFAULT = "5m";
 
+  // Datanodes of a pipeline sorted by distance to a client are cached, so
+  // that reading many blocks on the same pipelines needs no call to SCM.
+  public static final String OZONE_OM_SORT_DATANODES_CACHE_SIZE =
+      "ozone.om.sort.datanodes.cache.size";
+  public static final int OZONE_OM_SORT_DATANODES_CACHE_SIZE_DEFAULT = 10000;
+  public static final String OZONE_OM_SORT_DATANODES_CACHE_EXPIRY =
+      "ozone.om.sort.datanodes.cache.expiry";
+  public static final String OZONE_OM_SORT_DATANODES_CACHE_EXPIRY_DEFAULT =
+      "10m";
+
+  // Maximum number of entries returned in one page of a paged listStatus.
+  public static final String OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX =
+      "ozone.om.fs.list.status.page.size.max";
+  public static final int OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX_DEFAULT = 1000;
+
+  // Maximum number of keys renamed or deleted by a single request on a key
+  // prefix. All the keys are changed in one transaction.
+  public static final String OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX =
+      "ozone.om.key.prefix.operation.keys.max";
+  public static final long OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX_DEFAULT =
+      500000;
+
   /**
    * OM Ratis related configurations.
    */
@@ -187,6 +232,12 @@ private OMConfigKeys() {
       OZONE_OM_RATIS_SERVER_ROLE_CHECK_INTERVAL_DEFAULT
       = TimeDuration.valueOf(15, TimeUnit.SECONDS);
 
+  // Number of executors applying OM Ratis transactions. Key transactions
+  // are partitioned across them by bucket.
+  public static final String OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_KEY
+      = "ozone.om.ratis.num.apply.executors";
+  public static final int OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_DEFAULT = 1;
+
   // OM SnapshotProvider configurations
   public static final String OZONE_OM_RATIS_SNAPSHOT_DIR =
       "ozone.om.ratis.snapshot.dir";
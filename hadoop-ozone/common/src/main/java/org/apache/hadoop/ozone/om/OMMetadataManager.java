@@ -23,12 +23,15 @@
 import org.apache.hadoop.ozone.common.BlockGroup;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmPrefixInfo;
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.om.lock.OzoneManagerLock;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OpenKey;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
     .UserVolumeInfo;
 import org.apache.hadoop.ozone.security.OzoneTokenIdentifier;
@@ -183,6 +186,29 @@ List<OmKeyInfo> listKeys(String volumeName,
       String bucketName, String startKey, String keyPrefix, int maxKeys)
       throws IOException;
 
+  /**
+   * Returns a list of keys and common prefixes of a bucket. A key which
+   * contains the delimiter after the key prefix is not listed, the part of
+   * its name up to and including the delimiter is listed as a common prefix
+   * instead, once for all such keys. The other keys are not read from the
+   * DB.
+   *
+   * @param volumeName the name of the volume.
+   * @param bucketName the name of the bucket.
+   * @param startKey the start key name or common prefix, only the keys and
+   * common prefixes after this value will be included in the result. This
+   * value is excluded from the result.
+   * @param keyPrefix key name prefix, only the keys whose name has this prefix
+   * will be included in the result.
+   * @param delimiter the delimiter of the common prefixes, all keys are
+   * listed if null or empty.
+   * @param maxKeys the maximum number of keys and common prefixes to return.
+   * @return a list of keys and common prefixes.
+   * @throws IOException
+   */
+  OmKeyList listKeys(String volumeName, String bucketName, String startKey,
+      String keyPrefix, String delimiter, int maxKeys) throws IOException;
+
   /**
    * List trash allows the user to list the keys that were marked as deleted,
    * but not actually deleted by Ozone Manager. This allows a user to recover
@@ -229,14 +255,25 @@ List<OmVolumeArgs> listVolumes(String userName, String prefix,
   List<BlockGroup> getPendingDeletionKeys(int count) throws IOException;
 
   /**
-   * Returns a list of all still open key info. Which contains the info about
-   * the key name and all its associated block IDs. A pending open key has
-   * prefix #open# in OM DB.
+   * Returns the oldest open keys which have been open for longer than the
+   * open key expire threshold, up to the given count. The keys are found in
+   * the open key expiry table, which orders them by the time they were
+   * opened, so only the expired keys are read.
+   *
+   * @param count max number of keys to return.
+   * @return a list of {@link OpenKey} of the expired open keys.
+   * @throws IOException
+   */
+  List<OpenKey> getExpiredOpenKeys(int count) throws IOException;
+
+  /**
+   * Returns the number of open keys which have been open for longer than
+   * the open key expire threshold.
    *
-   * @return a list of {@link BlockGroup} representing keys and blocks.
+   * @return number of expired open keys.
    * @throws IOException
    */
-  List<BlockGroup> getExpiredOpenKeys() throws IOException;
+  long getExpiredOpenKeyCount() throws IOException;
 
   /**
    * Returns the user Table.
@@ -280,6 +317,14 @@ List<OmVolumeArgs> listVolumes(String userName, String prefix,
    */
   Table<String, OmKeyInfo> getOpenKeyTable();
 
+  /**
+   * Gets the table which indexes the open keys by the id of the open, which
+   * starts with the time the key was opened.
+   *
+   * @return Table.
+   */
+  Table<Long, String> getOpenKeyExpiryTable();
+
   /**
    * Gets the DelegationTokenTable.
    *
@@ -321,6 +366,23 @@ String getMultipartKey(String volume, String bucket, String key, String
    */
   Table<String, OmMultipartKeyInfo> getMultipartInfoTable();
 
+  /**
+   * Gets the table of blocks shared by more than one key, which holds for
+   * each block the number of keys referring to it besides the first one.
+   * Blocks which are not shared have no entry.
+   * @return Table
+   */
+  Table<String, Long> getSharedBlockTable();
+
+  /**
+   * Returns the DB key of a block in the shared block table.
+   *
+   * @param containerID - container ID of the block
+   * @param localID - local ID of the block
+   * @return DB key as String.
+   */
+  String getSharedBlockKey(long containerID, long localID);
+
   /**
    * Gets the S3 Secrets table.
    * @return Table
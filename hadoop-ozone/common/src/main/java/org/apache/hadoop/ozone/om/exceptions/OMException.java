@@ -216,7 +216,10 @@ public enum ResultCodes {
     INVALID_PART, // When part name is not found or not matching with partname 
     // in OM MPU partInfo.
 
-    INVALID_PART_ORDER // When list of parts mentioned to complete MPU are not 
+    INVALID_PART_ORDER, // When list of parts mentioned to complete MPU are not 
     // given in ascending order.  
+
+    TOO_MANY_KEYS // When a request on a key prefix would change more keys
+    // than allowed in a single request.
   }
 }
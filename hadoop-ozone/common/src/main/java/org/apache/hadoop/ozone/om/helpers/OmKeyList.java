@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.helpers;
+
+import java.util.List;
+
+/**
+ * A page of keys and common prefixes returned by a listKeys call with a
+ * delimiter.
+ */
+public class OmKeyList {
+
+  private final List<OmKeyInfo> keys;
+
+  // Sorted common prefixes of the keys which contain the delimiter after the
+  // listed prefix, each ends with the delimiter.
+  private final List<String> commonPrefixes;
+
+  public OmKeyList(List<OmKeyInfo> keys, List<String> commonPrefixes) {
+    this.keys = keys;
+    this.commonPrefixes = commonPrefixes;
+  }
+
+  public List<OmKeyInfo> getKeys() {
+    return keys;
+  }
+
+  public List<String> getCommonPrefixes() {
+    return commonPrefixes;
+  }
+
+  /**
+   * Returns the number of keys and common prefixes.
+   */
+  public int size() {
+    return keys.size() + commonPrefixes.size();
+  }
+}
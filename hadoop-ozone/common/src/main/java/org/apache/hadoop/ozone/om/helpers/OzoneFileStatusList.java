@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.helpers;
+
+import java.util.List;
+
+/**
+ * A page of file statuses returned by a paged listStatus call.
+ */
+public class OzoneFileStatusList {
+
+  private final List<OzoneFileStatus> statuses;
+
+  // Opaque token to pass to the next call to continue the listing, null if
+  // there are no more entries.
+  private final String continuationToken;
+
+  // False if the listing was not paged by the OM, as an OM without paged
+  // listing ignores the continuation token of the request.
+  private final boolean paged;
+
+  public OzoneFileStatusList(List<OzoneFileStatus> statuses,
+      String continuationToken) {
+    this(statuses, continuationToken, true);
+  }
+
+  public OzoneFileStatusList(List<OzoneFileStatus> statuses,
+      String continuationToken, boolean paged) {
+    this.statuses = statuses;
+    this.continuationToken = continuationToken;
+    this.paged = paged;
+  }
+
+  public List<OzoneFileStatus> getStatuses() {
+    return statuses;
+  }
+
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  public boolean isPaged() {
+    return paged;
+  }
+
+  public boolean isTruncated() {
+    return continuationToken != null;
+  }
+}
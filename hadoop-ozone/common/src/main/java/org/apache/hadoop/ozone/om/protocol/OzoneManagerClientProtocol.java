@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.protocol;
+
+import java.io.IOException;
+
+import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
+
+/**
+ * This will be used by the OM clients, as few of the write requests are only
+ * handled by the OzoneManager Server as OMClientRequest, and are not part of
+ * OzoneManagerProtocol. This interface extends OzoneManagerProtocol.
+ */
+public interface OzoneManagerClientProtocol extends OzoneManagerProtocol {
+
+  /**
+   * Renames all the keys starting with the key name of args, by replacing
+   * the prefix with toKeyPrefix. All the keys are renamed atomically.
+   * @param args the args of the key, key name is the prefix to be renamed.
+   * @param toKeyPrefix New prefix to be used for the keys.
+   * @throws IOException
+   */
+  void renameKeyPrefix(OmKeyArgs args, String toKeyPrefix) throws IOException;
+
+  /**
+   * Deletes all the keys starting with the key name of args. All the keys
+   * are deleted atomically.
+   * @param args the args of the key, key name is the prefix to be deleted.
+   * @throws IOException
+   */
+  void deleteKeyPrefix(OmKeyArgs args) throws IOException;
+
+  /**
+   * Copies a key to the key of toArgs. The new key refers to the blocks of
+   * the source key, no data is copied.
+   * @param args the args of the source key.
+   * @param toArgs the args of the new key.
+   * @throws IOException
+   */
+  void copyKey(OmKeyArgs args, OmKeyArgs toArgs) throws IOException;
+}
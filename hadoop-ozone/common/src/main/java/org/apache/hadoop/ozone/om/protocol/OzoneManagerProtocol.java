@@ -28,6 +28,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
@@ -38,6 +39,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
 import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfo;
@@ -282,6 +284,24 @@ List<OmKeyInfo> listKeys(String volumeName,
       String bucketName, String startKeyName, String keyPrefix, int maxKeys)
       throws IOException;
 
+  /**
+   * Returns a list of keys and common prefixes of a bucket. The keys which
+   * contain the delimiter after the key prefix are listed once as the common
+   * prefix up to and including the delimiter.
+   *
+   * @param volumeName the name of the volume.
+   * @param bucketName the name of the bucket.
+   * @param startKeyName the key or common prefix to list after, excluded.
+   * @param keyPrefix key name prefix to match.
+   * @param delimiter the delimiter of the common prefixes.
+   * @param maxKeys the maximum number of keys and common prefixes to return.
+   * @return a list of keys and common prefixes.
+   * @throws IOException
+   */
+  OmKeyList listKeys(String volumeName, String bucketName,
+      String startKeyName, String keyPrefix, String delimiter, int maxKeys)
+      throws IOException;
+
   /**
    * Returns list of Ozone services with its configuration details.
    *
@@ -480,6 +500,21 @@ OpenKeySession createFile(OmKeyArgs keyArgs, boolean overWrite,
   List<OzoneFileStatus> listStatus(OmKeyArgs keyArgs, boolean recursive,
       String startKey, long numEntries) throws IOException;
 
+  /**
+   * List one page of the status for a file or a directory and its contents.
+   *
+   * @param keyArgs    Key args
+   * @param recursive  For a directory if true all the descendants of a
+   *                   particular directory are listed
+   * @param continuationToken Token returned with the previous page, null or
+   *                   empty to list the first page
+   * @param numEntries Maximum number of entries in the page, the OM may
+   *                   return less entries even if there are more to list
+   * @return page of file status with the token to list the next page
+   */
+  OzoneFileStatusList listStatusPage(OmKeyArgs keyArgs, boolean recursive,
+      String continuationToken, long numEntries) throws IOException;
+
   /**
    * Add acl for Ozone object. Return true if acl is added successfully else
    * false.
@@ -45,6 +45,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
@@ -56,11 +57,12 @@
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
 import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfo;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfoEx;
-import org.apache.hadoop.ozone.om.protocol.OzoneManagerProtocol;
+import org.apache.hadoop.ozone.om.protocol.OzoneManagerClientProtocol;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.AddAclResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.GetAclRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.GetAclResponse;
@@ -88,10 +90,12 @@
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CheckVolumeAccessRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CommitKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CreateBucketRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CopyKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CreateKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CreateKeyResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.CreateVolumeRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteBucketRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteKeyPrefixRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteVolumeRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.GetDelegationTokenResponseProto;
@@ -126,6 +130,7 @@
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OzoneAclInfo;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.RemoveAclRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.RemoveAclResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.RenameKeyPrefixRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.RenameKeyRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.RenewDelegationTokenResponseProto;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.S3BucketInfoRequest;
@@ -173,7 +178,7 @@
 
 @InterfaceAudience.Private
 public final class OzoneManagerProtocolClientSideTranslatorPB
-    implements OzoneManagerProtocol, ProtocolTranslator {
+    implements OzoneManagerClientProtocol, ProtocolTranslator {
 
   /**
    * RpcController is not used and hence is set to null.
@@ -884,6 +889,68 @@ public void deleteKey(OmKeyArgs args) throws IOException {
 
   }
 
+  @Override
+  public void renameKeyPrefix(OmKeyArgs args, String toKeyPrefix)
+      throws IOException {
+    RenameKeyPrefixRequest.Builder req = RenameKeyPrefixRequest.newBuilder();
+    KeyArgs keyArgs = KeyArgs.newBuilder()
+        .setVolumeName(args.getVolumeName())
+        .setBucketName(args.getBucketName())
+        .setKeyName(args.getKeyName()).build();
+    req.setKeyArgs(keyArgs);
+    req.setToKeyPrefix(toKeyPrefix);
+
+    OMRequest omRequest = createOMRequest(Type.RenameKeyPrefix)
+        .setRenameKeyPrefixRequest(req)
+        .build();
+
+    handleError(submitRequest(omRequest));
+  }
+
+  @Override
+  public void deleteKeyPrefix(OmKeyArgs args) throws IOException {
+    DeleteKeyPrefixRequest.Builder req = DeleteKeyPrefixRequest.newBuilder();
+    KeyArgs keyArgs = KeyArgs.newBuilder()
+        .setVolumeName(args.getVolumeName())
+        .setBucketName(args.getBucketName())
+        .setKeyName(args.getKeyName()).build();
+    req.setKeyArgs(keyArgs);
+
+    OMRequest omRequest = createOMRequest(Type.DeleteKeyPrefix)
+        .setDeleteKeyPrefixRequest(req)
+        .build();
+
+    handleError(submitRequest(omRequest));
+  }
+
+  @Override
+  public void copyKey(OmKeyArgs args, OmKeyArgs toArgs) throws IOException {
+    CopyKeyRequest.Builder req = CopyKeyRequest.newBuilder();
+    KeyArgs keyArgs = KeyArgs.newBuilder()
+        .setVolumeName(args.getVolumeName())
+        .setBucketName(args.getBucketName())
+        .setKeyName(args.getKeyName()).build();
+    KeyArgs.Builder toKeyArgs = KeyArgs.newBuilder()
+        .setVolumeName(toArgs.getVolumeName())
+        .setBucketName(toArgs.getBucketName())
+        .setKeyName(toArgs.getKeyName());
+    if (toArgs.getAcls() != null) {
+      toKeyArgs.addAllAcls(toArgs.getAcls().stream().distinct().map(a ->
+          OzoneAcl.toProtobuf(a)).collect(Collectors.toList()));
+    }
+    if (toArgs.getMetadata() != null && toArgs.getMetadata().size() > 0) {
+      toKeyArgs.addAllMetadata(KeyValueUtil.toProtobuf(toArgs.getMetadata()));
+    }
+    req.setKeyArgs(keyArgs);
+    req.setToKeyArgs(toKeyArgs);
+
+    OMRequest omRequest = createOMRequest(Type.CopyKey)
+        .setCopyKeyRequest(req)
+        .build();
+
+    handleError(submitRequest(omRequest));
+  }
+
   /**
    * Deletes an existing empty bucket from volume.
    * @param volume - Name of the volume.
@@ -939,6 +1006,39 @@ public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
 
   }
 
+  /**
+   * List keys and common prefixes in a bucket.
+   */
+  @Override
+  public OmKeyList listKeys(String volumeName, String bucketName,
+      String startKey, String prefix, String delimiter, int maxKeys)
+      throws IOException {
+    ListKeysRequest.Builder reqBuilder = ListKeysRequest.newBuilder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setCount(maxKeys);
+    if (startKey != null) {
+      reqBuilder.setStartKey(startKey);
+    }
+    if (prefix != null) {
+      reqBuilder.setPrefix(prefix);
+    }
+    if (delimiter != null) {
+      reqBuilder.setDelimiter(delimiter);
+    }
+
+    OMRequest omRequest = createOMRequest(Type.ListKeys)
+        .setListKeysRequest(reqBuilder.build())
+        .build();
+
+    ListKeysResponse resp =
+        handleError(submitRequest(omRequest)).getListKeysResponse();
+    List<OmKeyInfo> keys = resp.getKeyInfoList().stream()
+        .map(OmKeyInfo::getFromProtobuf)
+        .collect(Collectors.toList());
+    return new OmKeyList(keys, new ArrayList<>(resp.getCommonPrefixesList()));
+  }
+
   @Override
   public void createS3Bucket(String userName, String s3BucketName)
       throws IOException {
@@ -1570,23 +1670,58 @@ public OpenKeySession createFile(OmKeyArgs args,
   @Override
   public List<OzoneFileStatus> listStatus(OmKeyArgs args, boolean recursive,
       String startKey, long numEntries) throws IOException {
-    KeyArgs keyArgs = KeyArgs.newBuilder()
-        .setVolumeName(args.getVolumeName())
-        .setBucketName(args.getBucketName())
-        .setKeyName(args.getKeyName())
-        .build();
     ListStatusRequest listStatusRequest =
         ListStatusRequest.newBuilder()
-            .setKeyArgs(keyArgs)
+            .setKeyArgs(getListStatusKeyArgs(args))
             .setRecursive(recursive)
             .setStartKey(startKey)
             .setNumEntries(numEntries)
             .build();
+    return getFileStatusList(submitListStatusRequest(listStatusRequest));
+  }
+
+  @Override
+  public OzoneFileStatusList listStatusPage(OmKeyArgs args,
+      boolean recursive, String continuationToken, long numEntries)
+      throws IOException {
+    ListStatusRequest listStatusRequest =
+        ListStatusRequest.newBuilder()
+            .setKeyArgs(getListStatusKeyArgs(args))
+            .setRecursive(recursive)
+            .setStartKey("")
+            .setNumEntries(numEntries)
+            .setContinuationToken(
+                continuationToken == null ? "" : continuationToken)
+            .build();
+    ListStatusResponse listStatusResponse =
+        submitListStatusRequest(listStatusRequest);
+    List<OzoneFileStatus> statuses = getFileStatusList(listStatusResponse);
+    if (!listStatusResponse.hasContinuationToken()) {
+      return new OzoneFileStatusList(statuses, null, false);
+    }
+    String nextToken = listStatusResponse.getContinuationToken();
+    return new OzoneFileStatusList(statuses,
+        nextToken.isEmpty() ? null : nextToken);
+  }
+
+  private static KeyArgs getListStatusKeyArgs(OmKeyArgs args) {
+    return KeyArgs.newBuilder()
+        .setVolumeName(args.getVolumeName())
+        .setBucketName(args.getBucketName())
+        .setKeyName(args.getKeyName())
+        .build();
+  }
+
+  private ListStatusResponse submitListStatusRequest(
+      ListStatusRequest listStatusRequest) throws IOException {
     OMRequest omRequest = createOMRequest(Type.ListStatus)
         .setListStatusRequest(listStatusRequest)
         .build();
-    ListStatusResponse listStatusResponse =
-        handleError(submitRequest(omRequest)).getListStatusResponse();
+    return handleError(submitRequest(omRequest)).getListStatusResponse();
+  }
+
+  private static List<OzoneFileStatus> getFileStatusList(
+      ListStatusResponse listStatusResponse) throws IOException {
     List<OzoneFileStatus> statusList =
         new ArrayList<>(listStatusResponse.getStatusesCount());
     for (OzoneFileStatusProto fileStatus : listStatusResponse
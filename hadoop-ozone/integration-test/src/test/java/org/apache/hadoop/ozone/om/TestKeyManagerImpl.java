@@ -71,6 +71,7 @@
 import org.apache.hadoop.ozone.om.helpers.OzoneAclUtil;
 import org.apache.hadoop.ozone.om.helpers.OzoneFSUtils;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
 import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer;
 import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer.ACLIdentityType;
@@ -97,6 +98,7 @@
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_KEY_PREALLOCATION_BLOCKS_MAX;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_SCM_BLOCK_SIZE;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_SCM_BLOCK_SIZE_DEFAULT;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX;
 
 import static org.apache.hadoop.hdds.scm.net.NetConstants.LEAF_SCHEMA;
 import static org.apache.hadoop.hdds.scm.net.NetConstants.RACK_SCHEMA;
@@ -121,6 +123,7 @@ public class TestKeyManagerImpl {
   private static final String KEY_NAME = "key1";
   private static final String BUCKET_NAME = "bucket1";
   private static final String VOLUME_NAME = "vol1";
+  private static final int LIST_STATUS_PAGE_SIZE = 3;
 
   @Rule
   public ExpectedException exception = ExpectedException.none();
@@ -154,6 +157,7 @@ public static void setUp() throws Exception {
         .getStorageSize(OZONE_SCM_BLOCK_SIZE, OZONE_SCM_BLOCK_SIZE_DEFAULT,
             StorageUnit.BYTES);
     conf.setLong(OZONE_KEY_PREALLOCATION_BLOCKS_MAX, 10);
+    conf.setInt(OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX, LIST_STATUS_PAGE_SIZE);
 
     keyManager =
         new KeyManagerImpl(scm.getBlockProtocolServer(), metadataManager, conf,
@@ -851,6 +855,46 @@ public void testListStatus() throws IOException {
     }
   }
 
+  @Test
+  public void testListStatusPage() throws IOException {
+    String superDir = RandomStringUtils.randomAlphabetic(5);
+
+    // set of directory descendants of root
+    Set<String> directorySet = new TreeSet<>();
+    // set of file descendants of root
+    Set<String> fileSet = new TreeSet<>();
+    createDepthTwoDirectory(superDir, 5, 5, directorySet, fileSet);
+
+    // a file is listed in a single page
+    OzoneFileStatusList page = keyManager.listStatusPage(
+        createKeyArgs(fileSet.iterator().next()), false, null, 100);
+    Assert.assertEquals(1, page.getStatuses().size());
+    Assert.assertFalse(page.isTruncated());
+
+    for (String directory : directorySet) {
+      OmKeyArgs dirArgs = createKeyArgs(directory);
+      for (boolean recursive : new boolean[] {false, true}) {
+        // list using the continuation token until no more pages are left.
+        // The page size is limited by the key manager.
+        List<OzoneFileStatus> fileStatuses = new ArrayList<>();
+        String continuationToken = null;
+        do {
+          page = keyManager.listStatusPage(dirArgs, recursive,
+              continuationToken, 100);
+          Assert.assertTrue(
+              page.getStatuses().size() <= LIST_STATUS_PAGE_SIZE);
+          fileStatuses.addAll(page.getStatuses());
+          continuationToken = page.getContinuationToken();
+        } while (continuationToken != null);
+        // verify every entry is listed once
+        Assert.assertEquals(fileStatuses.size(),
+            new HashSet<>(fileStatuses).size());
+        verifyFileStatus(directory, fileStatuses, directorySet, fileSet,
+            recursive);
+      }
+    }
+  }
+
   /**
    * Creates a depth two directory.
    *
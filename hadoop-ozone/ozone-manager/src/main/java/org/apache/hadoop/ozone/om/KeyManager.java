@@ -22,6 +22,7 @@
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
@@ -33,6 +34,7 @@
 import org.apache.hadoop.ozone.om.fs.OzoneManagerFS;
 import org.apache.hadoop.hdds.utils.BackgroundService;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OpenKey;
 
 import java.io.IOException;
 import java.util.List;
@@ -151,6 +153,23 @@ List<OmKeyInfo> listKeys(String volumeName,
       String bucketName, String startKey, String keyPrefix, int maxKeys)
       throws IOException;
 
+  /**
+   * Returns a list of keys and common prefixes of a bucket. The keys which
+   * contain the delimiter after the key prefix are listed once as the common
+   * prefix up to and including the delimiter.
+   *
+   * @param volumeName the name of the volume.
+   * @param bucketName the name of the bucket.
+   * @param startKey the key or common prefix to list after, excluded.
+   * @param keyPrefix key name prefix to match.
+   * @param delimiter the delimiter of the common prefixes.
+   * @param maxKeys the maximum number of keys and common prefixes to return.
+   * @return a list of keys and common prefixes.
+   * @throws IOException
+   */
+  OmKeyList listKeys(String volumeName, String bucketName, String startKey,
+      String keyPrefix, String delimiter, int maxKeys) throws IOException;
+
   /**
    * List trash allows the user to list the keys that were marked as deleted,
    * but not actually deleted by Ozone Manager. This allows a user to recover
@@ -182,24 +201,26 @@ List<RepeatedOmKeyInfo> listTrash(String volumeName, String bucketName,
   List<BlockGroup> getPendingDeletionKeys(int count) throws IOException;
 
   /**
-   * Returns a list of all still open key info. Which contains the info about
-   * the key name and all its associated block IDs. A pending open key has
-   * prefix #open# in OM DB.
+   * Returns the oldest open keys which have been open for longer than the
+   * open key expire threshold, up to the given count.
    *
-   * @return a list of {@link BlockGroup} representing keys and blocks.
+   * @param count max number of keys to return.
+   * @return a list of {@link OpenKey} of the expired open keys.
    * @throws IOException
    */
-  List<BlockGroup> getExpiredOpenKeys() throws IOException;
+  List<OpenKey> getExpiredOpenKeys(int count) throws IOException;
 
   /**
-   * Deletes a expired open key by its name. Called when a hanging key has been
-   * lingering for too long. Once called, the open key entries gets removed
-   * from OM mdata data.
+   * Deletes expired open keys. Called when hanging keys have been lingering
+   * for too long. The open key entries are removed from OM metadata, and the
+   * blocks allocated for them are moved to the deleted table, to be deleted
+   * by the key deleting service. Keys which are no longer open are skipped.
    *
-   * @param objectKeyName object key name with #open# prefix.
-   * @throws IOException if specified key doesn't exist or other I/O errors.
+   * @param openKeys the expired open keys.
+   * @return the number of deleted open keys.
+   * @throws IOException on I/O errors.
    */
-  void deleteExpiredOpenKey(String objectKeyName) throws IOException;
+  int deleteExpiredOpenKeys(List<OpenKey> openKeys) throws IOException;
 
   /**
    * Returns the metadataManager.
@@ -27,6 +27,7 @@
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +51,7 @@
 import org.apache.hadoop.hdds.scm.container.common.helpers.ContainerWithPipeline;
 import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
 import org.apache.hadoop.hdds.scm.exceptions.SCMException;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
 import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
 import org.apache.hadoop.hdds.utils.BackgroundService;
 import org.apache.hadoop.hdds.utils.UniqueId;
@@ -70,6 +72,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
@@ -86,7 +89,9 @@
 import org.apache.hadoop.ozone.om.helpers.OzoneAclUtil;
 import org.apache.hadoop.ozone.om.helpers.OzoneFSUtils;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OpenKey;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.PartKeyInfo;
 import org.apache.hadoop.ozone.security.OzoneBlockTokenSecretManager;
 import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer;
@@ -99,6 +104,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.codec.digest.DigestUtils;
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.HADOOP_SECURITY_KEY_PROVIDER_PATH;
 import static org.apache.hadoop.hdds.HddsConfigKeys.HDDS_BLOCK_TOKEN_ENABLED;
@@ -113,9 +120,17 @@
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_CLIENT_LIST_TRASH_KEYS_MAX_DEFAULT;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_KEY_PREALLOCATION_BLOCKS_MAX;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_KEY_PREALLOCATION_BLOCKS_MAX_DEFAULT;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_OPEN_KEY_CLEANUP_SERVICE_INTERVAL_SECONDS;
+import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_OPEN_KEY_CLEANUP_SERVICE_INTERVAL_SECONDS_DEFAULT;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_SCM_BLOCK_SIZE;
 import static org.apache.hadoop.ozone.OzoneConfigKeys.OZONE_SCM_BLOCK_SIZE_DEFAULT;
 import static org.apache.hadoop.ozone.OzoneConsts.OZONE_URI_DELIMITER;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX_DEFAULT;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_SORT_DATANODES_CACHE_EXPIRY;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_SORT_DATANODES_CACHE_EXPIRY_DEFAULT;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_SORT_DATANODES_CACHE_SIZE;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_SORT_DATANODES_CACHE_SIZE_DEFAULT;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.BUCKET_NOT_FOUND;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.DIRECTORY_NOT_FOUND;
 import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.FILE_NOT_FOUND;
@@ -147,14 +162,18 @@ public class KeyManagerImpl implements KeyManager {
 
   private final int preallocateBlocksMax;
   private final int listTrashKeysMax;
+  private final int listStatusPageSizeMax;
   private final String omId;
   private final OzoneBlockTokenSecretManager secretManager;
   private final boolean grpcBlockTokenEnabled;
 
   private BackgroundService keyDeletingService;
+  private BackgroundService openKeyCleanupService;
 
   private final KeyProviderCryptoExtension kmsProvider;
   private final PrefixManager prefixManager;
+  // UUIDs of the nodes of a pipeline sorted by distance to a client.
+  private final Cache<String, List<String>> sortedNodesCache;
 
 
   @VisibleForTesting
@@ -190,6 +209,17 @@ private KeyManagerImpl(OzoneManager om, ScmClient scmClient,
     this.listTrashKeysMax = conf.getInt(
       OZONE_CLIENT_LIST_TRASH_KEYS_MAX,
       OZONE_CLIENT_LIST_TRASH_KEYS_MAX_DEFAULT);
+    this.listStatusPageSizeMax = conf.getInt(
+        OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX,
+        OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX_DEFAULT);
+    this.sortedNodesCache = CacheBuilder.newBuilder()
+        .maximumSize(conf.getInt(OZONE_OM_SORT_DATANODES_CACHE_SIZE,
+            OZONE_OM_SORT_DATANODES_CACHE_SIZE_DEFAULT))
+        .expireAfterWrite(conf.getTimeDuration(
+            OZONE_OM_SORT_DATANODES_CACHE_EXPIRY,
+            OZONE_OM_SORT_DATANODES_CACHE_EXPIRY_DEFAULT,
+            TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)
+        .build();
 
     this.ozoneManager = om;
     this.omId = omId;
@@ -217,6 +247,19 @@ public void start(OzoneConfiguration configuration) {
           serviceTimeout, configuration);
       keyDeletingService.start();
     }
+    if (openKeyCleanupService == null) {
+      long openKeyCleanupInterval = configuration.getTimeDuration(
+          OZONE_OPEN_KEY_CLEANUP_SERVICE_INTERVAL_SECONDS,
+          OZONE_OPEN_KEY_CLEANUP_SERVICE_INTERVAL_SECONDS_DEFAULT,
+          TimeUnit.SECONDS);
+      long serviceTimeout = configuration.getTimeDuration(
+          OZONE_BLOCK_DELETING_SERVICE_TIMEOUT,
+          OZONE_BLOCK_DELETING_SERVICE_TIMEOUT_DEFAULT,
+          TimeUnit.MILLISECONDS);
+      openKeyCleanupService = new OpenKeyCleanupService(ozoneManager, this,
+          openKeyCleanupInterval, serviceTimeout, configuration);
+      openKeyCleanupService.start();
+    }
   }
 
   KeyProviderCryptoExtension getKMSProvider() {
@@ -229,6 +272,10 @@ public void stop() throws IOException {
       keyDeletingService.shutdown();
       keyDeletingService = null;
     }
+    if (openKeyCleanupService != null) {
+      openKeyCleanupService.shutdown();
+      openKeyCleanupService = null;
+    }
   }
 
   private OmBucketInfo getBucketInfo(String volumeName, String bucketName)
@@ -481,7 +528,7 @@ private void allocateBlockInKey(OmKeyInfo keyInfo, long size, long sessionId)
     }
 
     metadataManager.getOpenKeyTable().put(openKey, keyInfo);
-
+    metadataManager.getOpenKeyExpiryTable().put(sessionId, openKey);
   }
 
   private OmKeyInfo prepareKeyInfo(
@@ -608,6 +655,7 @@ public void commitKey(OmKeyArgs args, long clientID) throws IOException {
           keyInfo,
           metadataManager.getOpenKeyTable(),
           metadataManager.getKeyTable());
+      metadataManager.getOpenKeyExpiryTable().delete(clientID);
     } catch (OMException e) {
       throw e;
     } catch (IOException ex) {
@@ -833,6 +881,18 @@ public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
         startKey, keyPrefix, maxKeys);
   }
 
+  @Override
+  public OmKeyList listKeys(String volumeName, String bucketName,
+      String startKey, String keyPrefix, String delimiter, int maxKeys)
+      throws IOException {
+    Preconditions.checkNotNull(volumeName);
+    Preconditions.checkNotNull(bucketName);
+
+    // No lock is taken, the iterator walks a snapshot of the key table.
+    return metadataManager.listKeys(volumeName, bucketName,
+        startKey, keyPrefix, delimiter, maxKeys);
+  }
+
   @Override
   public List<RepeatedOmKeyInfo> listTrash(String volumeName,
       String bucketName, String startKeyName, String keyPrefix,
@@ -855,15 +915,50 @@ public List<BlockGroup> getPendingDeletionKeys(final int count)
   }
 
   @Override
-  public List<BlockGroup> getExpiredOpenKeys() throws IOException {
-    return metadataManager.getExpiredOpenKeys();
-
+  public List<OpenKey> getExpiredOpenKeys(int count) throws IOException {
+    return metadataManager.getExpiredOpenKeys(count);
   }
 
   @Override
-  public void deleteExpiredOpenKey(String objectKeyName) throws IOException {
-    Preconditions.checkNotNull(objectKeyName);
-    // TODO: Fix this in later patches.
+  public int deleteExpiredOpenKeys(List<OpenKey> openKeys)
+      throws IOException {
+    Preconditions.checkNotNull(openKeys);
+    DBStore store = metadataManager.getStore();
+    int deletedCount = 0;
+    for (OpenKey openKey : openKeys) {
+      String volumeName = openKey.getVolumeName();
+      String bucketName = openKey.getBucketName();
+      String dbOpenKey = metadataManager.getOpenKey(volumeName, bucketName,
+          openKey.getKeyName(), openKey.getClientID());
+      // the key must not be committed between reading and deleting it
+      metadataManager.getLock().acquireLock(BUCKET_LOCK, volumeName,
+          bucketName);
+      try (BatchOperation batch = store.initBatchOperation()) {
+        OmKeyInfo keyInfo = metadataManager.getOpenKeyTable().get(dbOpenKey);
+        metadataManager.getOpenKeyExpiryTable().deleteWithBatch(batch,
+            openKey.getClientID());
+        if (keyInfo != null) {
+          metadataManager.getOpenKeyTable().deleteWithBatch(batch, dbOpenKey);
+          OmKeyInfo deletedKeyInfo = OmUtils.prepareOpenKeyForDelete(keyInfo);
+          if (!deletedKeyInfo.getLatestVersionLocations().getLocationList()
+              .isEmpty()) {
+            String ozoneKey = metadataManager.getOzoneKey(volumeName,
+                bucketName, openKey.getKeyName());
+            RepeatedOmKeyInfo repeatedOmKeyInfo = OmUtils.prepareKeyForDelete(
+                deletedKeyInfo,
+                metadataManager.getDeletedTable().get(ozoneKey));
+            metadataManager.getDeletedTable().putWithBatch(batch, ozoneKey,
+                repeatedOmKeyInfo);
+          }
+          deletedCount++;
+        }
+        store.commitBatchOperation(batch);
+      } finally {
+        metadataManager.getLock().releaseLock(BUCKET_LOCK, volumeName,
+            bucketName);
+      }
+    }
+    return deletedCount;
   }
 
   @Override
@@ -1867,19 +1962,48 @@ public OmKeyInfo lookupFile(OmKeyArgs args, String clientAddress)
    */
   public List<OzoneFileStatus> listStatus(OmKeyArgs args, boolean recursive,
       String startKey, long numEntries) throws IOException {
+    return listStatus(args, recursive, startKey, numEntries, false)
+        .getStatuses();
+  }
+
+  /**
+   * List one page of the status for a file or a directory and its contents.
+   * The number of entries is limited by
+   * {@link OMConfigKeys#OZONE_OM_FS_LIST_STATUS_PAGE_SIZE_MAX}, and the
+   * bucket lock is only held while a page is listed.
+   *
+   * @param args       Key args
+   * @param recursive  For a directory if true all the descendants of a
+   *                   particular directory are listed
+   * @param continuationToken Token returned with the previous page, null or
+   *                   empty to list the first page
+   * @param numEntries Maximum number of entries in the page
+   * @return page of file status with the token to list the next page, if
+   * there are more entries
+   */
+  public OzoneFileStatusList listStatusPage(OmKeyArgs args, boolean recursive,
+      String continuationToken, long numEntries) throws IOException {
+    return listStatus(args, recursive, continuationToken,
+        Math.min(numEntries, listStatusPageSizeMax), true);
+  }
+
+  private OzoneFileStatusList listStatus(OmKeyArgs args, boolean recursive,
+      String startKey, long numEntries, boolean paged) throws IOException {
     Preconditions.checkNotNull(args, "Key args can not be null");
     String volumeName = args.getVolumeName();
     String bucketName = args.getBucketName();
     String keyName = args.getKeyName();
 
     List<OzoneFileStatus> fileStatusList = new ArrayList<>();
+    String continuationToken = null;
     metadataManager.getLock().acquireReadLock(BUCKET_LOCK, volumeName,
         bucketName);
     try {
       if (Strings.isNullOrEmpty(startKey)) {
         OzoneFileStatus fileStatus = getFileStatus(args);
         if (fileStatus.isFile()) {
-          return Collections.singletonList(fileStatus);
+          return new OzoneFileStatusList(
+              Collections.singletonList(fileStatus), null);
         }
         startKey = OzoneFSUtils.addTrailingSlashIfNeeded(keyName);
       }
@@ -1888,58 +2012,70 @@ public List<OzoneFileStatus> listStatus(OmKeyArgs args, boolean recursive,
           metadataManager.getOzoneKey(volumeName, bucketName, startKey);
       String keyInDb = OzoneFSUtils.addTrailingSlashIfNeeded(
           metadataManager.getOzoneKey(volumeName, bucketName, keyName));
-      TableIterator<String, ? extends Table.KeyValue<String, OmKeyInfo>>
-          iterator = metadataManager.getKeyTable().iterator();
-      iterator.seek(seekKeyInDb);
+      try (TableIterator<String, ? extends Table.KeyValue<String, OmKeyInfo>>
+          iterator = metadataManager.getKeyTable().iterator()) {
+        iterator.seek(seekKeyInDb);
 
-      if (!iterator.hasNext()) {
-        return Collections.emptyList();
-      }
+        if (!iterator.hasNext()) {
+          return new OzoneFileStatusList(Collections.emptyList(), null);
+        }
 
-      if (iterator.key().equals(keyInDb)) {
-        // skip the key which needs to be listed
-        iterator.next();
-      }
+        if (iterator.key().equals(keyInDb)) {
+          // skip the key which needs to be listed
+          iterator.next();
+        }
 
-      while (iterator.hasNext() && numEntries - fileStatusList.size() > 0) {
-        String entryInDb = iterator.key();
-        OmKeyInfo value = iterator.value().getValue();
-        if (entryInDb.startsWith(keyInDb)) {
-          String entryKeyName = value.getKeyName();
-          if (recursive) {
-            // for recursive list all the entries
-            fileStatusList.add(new OzoneFileStatus(value, scmBlockSize,
-                !OzoneFSUtils.isFile(entryKeyName)));
-            iterator.next();
-          } else {
-            // get the child of the directory to list from the entry. For
-            // example if directory to list is /a and entry is /a/b/c where
-            // c is a file. The immediate child is b which is a directory. c
-            // should not be listed as child of a.
-            String immediateChild = OzoneFSUtils
-                .getImmediateChild(entryKeyName, keyName);
-            boolean isFile = OzoneFSUtils.isFile(immediateChild);
-            if (isFile) {
-              fileStatusList
-                  .add(new OzoneFileStatus(value, scmBlockSize, !isFile));
+        while (iterator.hasNext() && numEntries - fileStatusList.size() > 0) {
+          String entryInDb = iterator.key();
+          OmKeyInfo value = iterator.value().getValue();
+          if (entryInDb.startsWith(keyInDb)) {
+            String entryKeyName = value.getKeyName();
+            if (recursive) {
+              // for recursive list all the entries
+              fileStatusList.add(new OzoneFileStatus(value, scmBlockSize,
+                  !OzoneFSUtils.isFile(entryKeyName)));
               iterator.next();
             } else {
-              // if entry is a directory
-              fileStatusList.add(new OzoneFileStatus(immediateChild));
-              // skip the other descendants of this child directory.
-              iterator.seek(
-                  getNextGreaterString(volumeName, bucketName, immediateChild));
+              // get the child of the directory to list from the entry. For
+              // example if directory to list is /a and entry is /a/b/c where
+              // c is a file. The immediate child is b which is a directory. c
+              // should not be listed as child of a.
+              String immediateChild = OzoneFSUtils
+                  .getImmediateChild(entryKeyName, keyName);
+              boolean isFile = OzoneFSUtils.isFile(immediateChild);
+              if (isFile) {
+                fileStatusList
+                    .add(new OzoneFileStatus(value, scmBlockSize, !isFile));
+                iterator.next();
+              } else {
+                // if entry is a directory
+                fileStatusList.add(new OzoneFileStatus(immediateChild));
+                // skip the other descendants of this child directory.
+                iterator.seek(getNextGreaterString(volumeName, bucketName,
+                    immediateChild));
+              }
             }
+          } else {
+            break;
+          }
+        }
+
+        // The iterator is at the first entry which is not listed yet, the
+        // next page starts from there.
+        if (paged && iterator.hasNext()) {
+          String nextEntryInDb = iterator.key();
+          if (nextEntryInDb.startsWith(keyInDb)) {
+            continuationToken = nextEntryInDb.substring(
+                metadataManager.getBucketKey(volumeName, bucketName).length()
+                    + OZONE_URI_DELIMITER.length());
           }
-        } else {
-          break;
         }
       }
     } finally {
       metadataManager.getLock().releaseReadLock(BUCKET_LOCK, volumeName,
           bucketName);
     }
-    return fileStatusList;
+    return new OzoneFileStatusList(fileStatusList, continuationToken);
   }
 
   private String getNextGreaterString(String volumeName, String bucketName,
@@ -2032,6 +2168,10 @@ private FileEncryptionInfo getFileEncryptionInfo(OmBucketInfo bucketInfo)
 
   private void sortDatanodeInPipeline(OmKeyInfo keyInfo, String clientMachine) {
     if (keyInfo != null && clientMachine != null && !clientMachine.isEmpty()) {
+      // Pipelines which are not in the cache are sorted by SCM in one call,
+      // grouped by their nodes.
+      Map<List<String>, List<Pipeline>> unsortedPipelines =
+          new LinkedHashMap<>();
       for (OmKeyLocationInfoGroup key : keyInfo.getKeyLocationVersions()) {
         key.getLocationList().forEach(k -> {
           List<DatanodeDetails> nodes = k.getPipeline().getNodes();
@@ -2043,25 +2183,105 @@ private void sortDatanodeInPipeline(OmKeyInfo keyInfo, String clientMachine) {
           List<String> nodeList = new ArrayList<>();
           nodes.stream().forEach(node ->
               nodeList.add(node.getUuidString()));
-          try {
-            List<DatanodeDetails> sortedNodes = scmClient.getBlockClient()
-                .sortDatanodes(nodeList, clientMachine);
-            k.getPipeline().setNodesInOrder(sortedNodes);
-            if (LOG.isDebugEnabled()) {
-              LOG.debug("Sort datanodes {} for client {}, return {}", nodes,
-                  clientMachine, sortedNodes);
-            }
-          } catch (IOException e) {
-            LOG.warn("Unable to sort datanodes based on distance to " +
-                "client, volume=" + keyInfo.getVolumeName() +
-                ", bucket=" + keyInfo.getBucketName() +
-                ", key=" + keyInfo.getKeyName() +
-                ", client=" + clientMachine +
-                ", datanodes=" + nodes.toString() +
-                ", exception=" + e.getMessage());
+          List<String> sortedNodes = sortedNodesCache.getIfPresent(
+              getSortedNodesCacheKey(nodeList, clientMachine));
+          if (sortedNodes != null) {
+            setNodesInOrder(k.getPipeline(), sortedNodes);
+          } else {
+            unsortedPipelines.computeIfAbsent(nodeList,
+                n -> new ArrayList<>()).add(k.getPipeline());
           }
         });
       }
+      if (unsortedPipelines.isEmpty()) {
+        return;
+      }
+
+      List<List<String>> nodeLists =
+          new ArrayList<>(unsortedPipelines.keySet());
+      List<List<DatanodeDetails>> sortedNodeLists;
+      try {
+        sortedNodeLists = scmClient.getBlockClient()
+            .sortDatanodesBatch(nodeLists, clientMachine);
+      } catch (IOException e) {
+        // An SCM without sortDatanodesBatch fails the call, sort the nodes
+        // of each pipeline in its own call then.
+        LOG.debug("Unable to sort datanodes in one call for client {}, " +
+            "sorting them per pipeline", clientMachine, e);
+        sortedNodeLists = sortDatanodes(keyInfo, nodeLists, clientMachine);
+      }
+      if (sortedNodeLists == null) {
+        return;
+      }
+      for (int i = 0; i < sortedNodeLists.size(); i++) {
+        if (sortedNodeLists.get(i) == null) {
+          continue;
+        }
+        List<String> sortedNodes = new ArrayList<>();
+        sortedNodeLists.get(i).forEach(node ->
+            sortedNodes.add(node.getUuidString()));
+        sortedNodesCache.put(
+            getSortedNodesCacheKey(nodeLists.get(i), clientMachine),
+            sortedNodes);
+        for (Pipeline pipeline : unsortedPipelines.get(nodeLists.get(i))) {
+          setNodesInOrder(pipeline, sortedNodes);
+        }
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Sort datanodes {} for client {}, return {}",
+              nodeLists.get(i), clientMachine, sortedNodeLists.get(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Sorts each list of datanodes with its own call to SCM.
+   * @return the sorted lists, in the order of the given lists, with null
+   * for the lists which could not be sorted.
+   */
+  private List<List<DatanodeDetails>> sortDatanodes(OmKeyInfo keyInfo,
+      List<List<String>> nodeLists, String clientMachine) {
+    List<List<DatanodeDetails>> sortedNodeLists =
+        new ArrayList<>(nodeLists.size());
+    for (List<String> nodeList : nodeLists) {
+      List<DatanodeDetails> sortedNodes = null;
+      try {
+        sortedNodes = scmClient.getBlockClient()
+            .sortDatanodes(nodeList, clientMachine);
+      } catch (IOException e) {
+        LOG.warn("Unable to sort datanodes based on distance to " +
+            "client, volume=" + keyInfo.getVolumeName() +
+            ", bucket=" + keyInfo.getBucketName() +
+            ", key=" + keyInfo.getKeyName() +
+            ", client=" + clientMachine +
+            ", datanodes=" + nodeList.toString() +
+            ", exception=" + e.getMessage());
+      }
+      sortedNodeLists.add(sortedNodes);
+    }
+    return sortedNodeLists;
+  }
+
+  private static String getSortedNodesCacheKey(List<String> nodes,
+      String clientMachine) {
+    return clientMachine + OZONE_URI_DELIMITER + String.join(",", nodes);
+  }
+
+  /**
+   * Sets the nodes of the pipeline in the given order of their UUIDs. Nodes
+   * which are not in the list, as they are unknown to SCM, are left out.
+   */
+  private static void setNodesInOrder(Pipeline pipeline,
+      List<String> sortedNodes) {
+    Map<String, DatanodeDetails> nodes = new HashMap<>();
+    pipeline.getNodes().forEach(node -> nodes.put(node.getUuidString(), node));
+    List<DatanodeDetails> nodesInOrder = new ArrayList<>(sortedNodes.size());
+    for (String uuid : sortedNodes) {
+      DatanodeDetails node = nodes.get(uuid);
+      if (node != null) {
+        nodesInOrder.add(node);
+      }
     }
+    pipeline.setNodesInOrder(nodesInOrder);
   }
 }
@@ -55,6 +55,7 @@ public class OMMetrics {
   private @Metric MutableCounterLong numKeyAllocate;
   private @Metric MutableCounterLong numKeyLookup;
   private @Metric MutableCounterLong numKeyRenames;
+  private @Metric MutableCounterLong numKeyCopies;
   private @Metric MutableCounterLong numKeyDeletes;
   private @Metric MutableCounterLong numBucketLists;
   private @Metric MutableCounterLong numKeyLists;
@@ -85,6 +86,7 @@ public class OMMetrics {
   private @Metric MutableCounterLong numKeyAllocateFails;
   private @Metric MutableCounterLong numKeyLookupFails;
   private @Metric MutableCounterLong numKeyRenameFails;
+  private @Metric MutableCounterLong numKeyCopyFails;
   private @Metric MutableCounterLong numKeyDeleteFails;
   private @Metric MutableCounterLong numBucketListFails;
   private @Metric MutableCounterLong numKeyListFails;
@@ -125,6 +127,11 @@ public class OMMetrics {
   private @Metric MutableGaugeLong lastCheckpointCreationTimeTaken;
   private @Metric MutableGaugeLong lastCheckpointStreamingTimeTaken;
 
+  // Metrics of the open key cleanup service. The expired open keys are the
+  // ones found by its last run, which are not deleted yet.
+  private @Metric MutableGaugeLong numExpiredOpenKeys;
+  private @Metric MutableCounterLong numOpenKeysCleanedUp;
+
   private @Metric MutableCounterLong numBucketS3Creates;
   private @Metric MutableCounterLong numBucketS3CreateFails;
   private @Metric MutableCounterLong numBucketS3Deletes;
@@ -195,6 +202,10 @@ public void decNumKeys() {
     numKeys.incr(-1);
   }
 
+  public void decNumKeys(long val) {
+    numKeys.incr(-val);
+  }
+
   public void setNumVolumes(long val) {
     long oldVal = this.numVolumes.value();
     this.numVolumes.incr(val - oldVal);
@@ -464,6 +475,16 @@ public void incNumKeyRenameFails() {
     numKeyRenameFails.incr();
   }
 
+  public void incNumKeyCopies() {
+    numKeyOps.incr();
+    numKeyCopies.incr();
+  }
+
+  public void incNumKeyCopyFails() {
+    numKeyOps.incr();
+    numKeyCopyFails.incr();
+  }
+
   public void incNumKeyDeleteFails() {
     numKeyDeleteFails.incr();
   }
@@ -514,6 +535,14 @@ public void setLastCheckpointStreamingTimeTaken(long val) {
     this.lastCheckpointStreamingTimeTaken.set(val);
   }
 
+  public void setNumExpiredOpenKeys(long val) {
+    this.numExpiredOpenKeys.set(val);
+  }
+
+  public void incNumOpenKeysCleanedUp(long val) {
+    numOpenKeysCleanedUp.incr(val);
+  }
+
   @VisibleForTesting
   public long getNumVolumeCreates() {
     return numVolumeCreates.value();
@@ -654,6 +683,16 @@ public long getNumKeyRenameFails() {
     return numKeyRenameFails.value();
   }
 
+  @VisibleForTesting
+  public long getNumKeyCopies() {
+    return numKeyCopies.value();
+  }
+
+  @VisibleForTesting
+  public long getNumKeyCopyFails() {
+    return numKeyCopyFails.value();
+  }
+
   @VisibleForTesting
   public long getNumKeyDeletes() {
     return numKeyDeletes.value();
@@ -756,6 +795,16 @@ public long getLastCheckpointStreamingTimeTaken() {
     return lastCheckpointStreamingTimeTaken.value();
   }
 
+  @VisibleForTesting
+  public long getNumExpiredOpenKeys() {
+    return numExpiredOpenKeys.value();
+  }
+
+  @VisibleForTesting
+  public long getNumOpenKeysCleanedUp() {
+    return numOpenKeysCleanedUp.value();
+  }
+
   public void unRegister() {
     MetricsSystem ms = DefaultMetricsSystem.instance();
     ms.unregisterSource(SOURCE_NAME);
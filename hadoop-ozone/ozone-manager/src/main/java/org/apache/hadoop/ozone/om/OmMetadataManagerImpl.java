@@ -56,6 +56,7 @@
 import org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUpload;
@@ -65,9 +66,12 @@
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.S3SecretValue;
 import org.apache.hadoop.ozone.om.lock.OzoneManagerLock;
+import org.apache.hadoop.ozone.protocol.proto
+    .OzoneManagerProtocolProtos.OpenKey;
 import org.apache.hadoop.ozone.protocol.proto
     .OzoneManagerProtocolProtos.UserVolumeInfo;
 import org.apache.hadoop.ozone.security.OzoneTokenIdentifier;
+import org.apache.hadoop.util.Time;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
@@ -109,6 +113,8 @@ public class OmMetadataManagerImpl implements OMMetadataManager {
    * |----------------------------------------------------------------------|
    * | openKey            | /volumeName/bucketName/keyName/id->KeyInfo      |
    * |----------------------------------------------------------------------|
+   * | openKeyExpiryTable | id -> /volumeName/bucketName/keyName/id         |
+   * |----------------------------------------------------------------------|
    * | s3Table            | s3BucketName -> /volumeName/bucketName          |
    * |----------------------------------------------------------------------|
    * | s3SecretTable      | s3g_access_key_id -> s3Secret                   |
@@ -119,6 +125,8 @@ public class OmMetadataManagerImpl implements OMMetadataManager {
    * |----------------------------------------------------------------------|
    * |  multipartInfoTable| /volumeName/bucketName/keyName/uploadId ->...   |
    * |----------------------------------------------------------------------|
+   * | sharedBlockTable   | /containerID/localID -> number of extra refs    |
+   * |----------------------------------------------------------------------|
    */
 
   public static final String USER_TABLE = "userTable";
@@ -127,11 +135,13 @@ public class OmMetadataManagerImpl implements OMMetadataManager {
   public static final String KEY_TABLE = "keyTable";
   public static final String DELETED_TABLE = "deletedTable";
   public static final String OPEN_KEY_TABLE = "openKeyTable";
+  public static final String OPEN_KEY_EXPIRY_TABLE = "openKeyExpiryTable";
   public static final String S3_TABLE = "s3Table";
   public static final String MULTIPARTINFO_TABLE = "multipartInfoTable";
   public static final String S3_SECRET_TABLE = "s3SecretTable";
   public static final String DELEGATION_TOKEN_TABLE = "dTokenTable";
   public static final String PREFIX_TABLE = "prefixTable";
+  public static final String SHARED_BLOCK_TABLE = "sharedBlockTable";
 
   private DBStore store;
 
@@ -144,11 +154,13 @@ public class OmMetadataManagerImpl implements OMMetadataManager {
   private Table keyTable;
   private Table deletedTable;
   private Table openKeyTable;
+  private Table<Long, String> openKeyExpiryTable;
   private Table s3Table;
   private Table<String, OmMultipartKeyInfo> multipartInfoTable;
   private Table s3SecretTable;
   private Table dTokenTable;
   private Table prefixTable;
+  private Table<String, Long> sharedBlockTable;
   private boolean isRatisEnabled;
 
   public OmMetadataManagerImpl(OzoneConfiguration conf) throws IOException {
@@ -171,7 +183,7 @@ public OmMetadataManagerImpl(OzoneConfiguration conf) throws IOException {
   protected OmMetadataManagerImpl() {
     this.lock = new OzoneManagerLock(new OzoneConfiguration());
     this.openKeyExpireThresholdMS =
-        OZONE_OPEN_KEY_EXPIRE_THRESHOLD_SECONDS_DEFAULT;
+        1000L * OZONE_OPEN_KEY_EXPIRE_THRESHOLD_SECONDS_DEFAULT;
   }
 
   @Override
@@ -208,6 +220,11 @@ public Table<String, OmKeyInfo> getOpenKeyTable() {
     return openKeyTable;
   }
 
+  @Override
+  public Table<Long, String> getOpenKeyExpiryTable() {
+    return openKeyExpiryTable;
+  }
+
   @Override
   public Table<String, String> getS3Table() {
     return s3Table;
@@ -223,6 +240,11 @@ public Table<String, OmMultipartKeyInfo> getMultipartInfoTable() {
     return multipartInfoTable;
   }
 
+  @Override
+  public Table<String, Long> getSharedBlockTable() {
+    return sharedBlockTable;
+  }
+
 
   private void checkTableStatus(Table table, String name) throws IOException {
     String logMessage = "Unable to get a reference to %s table. Cannot " +
@@ -278,11 +300,13 @@ protected DBStoreBuilder addOMTablesAndCodecs(DBStoreBuilder builder) {
         .addTable(KEY_TABLE)
         .addTable(DELETED_TABLE)
         .addTable(OPEN_KEY_TABLE)
+        .addTable(OPEN_KEY_EXPIRY_TABLE)
         .addTable(S3_TABLE)
         .addTable(MULTIPARTINFO_TABLE)
         .addTable(DELEGATION_TOKEN_TABLE)
         .addTable(S3_SECRET_TABLE)
         .addTable(PREFIX_TABLE)
+        .addTable(SHARED_BLOCK_TABLE)
         .addCodec(OzoneTokenIdentifier.class, new TokenIdentifierCodec())
         .addCodec(OmKeyInfo.class, new OmKeyInfoCodec())
         .addCodec(RepeatedOmKeyInfo.class, new RepeatedOmKeyInfoCodec())
@@ -318,7 +342,10 @@ protected void initializeOmTables() throws IOException {
 
     checkTableStatus(bucketTable, BUCKET_TABLE);
 
-    keyTable = this.store.getTable(KEY_TABLE, String.class, OmKeyInfo.class);
+    // The key table cache is sorted per bucket for listKeys.
+    keyTable = this.store.getTable(KEY_TABLE, String.class, OmKeyInfo.class,
+        TableCacheImpl.CacheCleanupPolicy.MANUAL,
+        OmMetadataManagerImpl::getBucketOfOzoneKey);
     checkTableStatus(keyTable, KEY_TABLE);
 
     deletedTable = this.store.getTable(DELETED_TABLE, String.class,
@@ -329,6 +356,10 @@ protected void initializeOmTables() throws IOException {
         this.store.getTable(OPEN_KEY_TABLE, String.class, OmKeyInfo.class);
     checkTableStatus(openKeyTable, OPEN_KEY_TABLE);
 
+    openKeyExpiryTable = this.store.getTable(OPEN_KEY_EXPIRY_TABLE,
+        Long.class, String.class);
+    checkTableStatus(openKeyExpiryTable, OPEN_KEY_EXPIRY_TABLE);
+
     s3Table = this.store.getTable(S3_TABLE, String.class, String.class);
     checkTableStatus(s3Table, S3_TABLE);
 
@@ -347,6 +378,10 @@ protected void initializeOmTables() throws IOException {
     prefixTable = this.store.getTable(PREFIX_TABLE, String.class,
         OmPrefixInfo.class);
     checkTableStatus(prefixTable, PREFIX_TABLE);
+
+    sharedBlockTable = this.store.getTable(SHARED_BLOCK_TABLE, String.class,
+        Long.class);
+    checkTableStatus(sharedBlockTable, SHARED_BLOCK_TABLE);
   }
 
   /**
@@ -429,6 +464,18 @@ public String getOzoneDirKey(String volume, String bucket, String key) {
     return getOzoneKey(volume, bucket, key);
   }
 
+  /**
+   * Returns the /volume/bucket part of a key of the key table.
+   */
+  private static String getBucketOfOzoneKey(String ozoneKey) {
+    int volumeEnd = ozoneKey.indexOf(OM_KEY_PREFIX, OM_KEY_PREFIX.length());
+    if (volumeEnd < 0) {
+      return ozoneKey;
+    }
+    int bucketEnd = ozoneKey.indexOf(OM_KEY_PREFIX, volumeEnd + 1);
+    return bucketEnd < 0 ? ozoneKey : ozoneKey.substring(0, bucketEnd);
+  }
+
   @Override
   public String getOpenKey(String volume, String bucket,
                            String key, long id) {
@@ -437,6 +484,11 @@ public String getOpenKey(String volume, String bucket,
     return openKey;
   }
 
+  @Override
+  public String getSharedBlockKey(long containerID, long localID) {
+    return OM_KEY_PREFIX + containerID + OM_KEY_PREFIX + localID;
+  }
+
   @Override
   public String getMultipartKey(String volume, String bucket, String key,
                                 String
@@ -559,14 +611,17 @@ public boolean isBucketEmpty(String volume, String bucket)
 
     // First check in key table cache.
     Iterator<Map.Entry<CacheKey<String>, CacheValue<OmKeyInfo>>> iterator =
-        ((TypedTable< String, OmKeyInfo>) keyTable).cacheIterator();
+        keyTable.cacheIterator(keyPrefix);
     while (iterator.hasNext()) {
       Map.Entry< CacheKey<String>, CacheValue<OmKeyInfo>> entry =
           iterator.next();
       String key = entry.getKey().getCacheKey();
+      if (!key.startsWith(keyPrefix)) {
+        break;
+      }
       OmKeyInfo omKeyInfo = entry.getValue().getCacheValue();
       // Making sure that entry is not for delete key request.
-      if (key.startsWith(keyPrefix) && omKeyInfo != null) {
+      if (omKeyInfo != null) {
         return false;
       }
     }
@@ -674,10 +729,19 @@ public List<OmBucketInfo> listBuckets(final String volumeName,
   @Override
   public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
       String startKey, String keyPrefix, int maxKeys) throws IOException {
+    return listKeys(volumeName, bucketName, startKey, keyPrefix, null,
+        maxKeys).getKeys();
+  }
+
+  @Override
+  public OmKeyList listKeys(String volumeName, String bucketName,
+      String startKey, String keyPrefix, String delimiter, int maxKeys)
+      throws IOException {
 
     List<OmKeyInfo> result = new ArrayList<>();
+    List<String> commonPrefixes = new ArrayList<>();
     if (maxKeys <= 0) {
-      return result;
+      return new OmKeyList(result, commonPrefixes);
     }
 
     if (Strings.isNullOrEmpty(volumeName)) {
@@ -716,76 +780,87 @@ public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
     int currentCount = 0;
 
 
+    // A start key before the prefix does not match any key, seek to the
+    // first key with the prefix instead.
+    String firstKey = seekKey.compareTo(seekPrefix) < 0 ? seekPrefix : seekKey;
+
+    // The cache entries of the bucket from the seek key are copied before
+    // the DB iterator is created, as an entry may be evicted from the cache
+    // once it is flushed to the DB.
     TreeMap<String, OmKeyInfo> cacheKeyMap = new TreeMap<>();
     Set<String> deletedKeySet = new TreeSet<>();
     Iterator<Map.Entry<CacheKey<String>, CacheValue<OmKeyInfo>>> iterator =
-        keyTable.cacheIterator();
-
-    //TODO: We can avoid this iteration if table cache has stored entries in
-    // treemap. Currently HashMap is used in Cache. HashMap get operation is an
-    // constant time operation, where as for treeMap get is log(n).
-    // So if we move to treemap, the get operation will be affected. As get
-    // is frequent operation on table. So, for now in list we iterate cache map
-    // and construct treeMap which match with keyPrefix and are greater than or
-    // equal to startKey. Later we can revisit this, if list operation
-    // is becoming slow.
+        keyTable.cacheIterator(firstKey);
     while (iterator.hasNext()) {
       Map.Entry< CacheKey<String>, CacheValue<OmKeyInfo>> entry =
           iterator.next();
 
       String key = entry.getKey().getCacheKey();
+      if (!key.startsWith(seekPrefix)) {
+        break;
+      }
       OmKeyInfo omKeyInfo = entry.getValue().getCacheValue();
       // Making sure that entry in cache is not for delete key request.
-
       if (omKeyInfo != null) {
-        if (key.startsWith(seekPrefix) && key.compareTo(seekKey) >= 0) {
-          cacheKeyMap.put(key, omKeyInfo);
-        }
+        cacheKeyMap.put(key, omKeyInfo);
       } else {
         deletedKeySet.add(key);
       }
     }
 
-    // Get maxKeys from DB if it has.
-
+    // The DB entries and the cache entries are merged in key order, the
+    // cache entries take precedence over the DB entries of the same key.
+    int keyNameOffset =
+        getBucketKey(volumeName, bucketName).length() + OM_KEY_PREFIX.length();
+    boolean hasDelimiter = !Strings.isNullOrEmpty(delimiter);
     try (TableIterator<String, ? extends KeyValue<String, OmKeyInfo>>
              keyIter = getKeyTable().iterator()) {
-      KeyValue< String, OmKeyInfo > kv;
-      keyIter.seek(seekKey);
-      // we need to iterate maxKeys + 1 here because if skipStartKey is true,
-      // we should skip that entry and return the result.
-      while (currentCount < maxKeys + 1 && keyIter.hasNext()) {
-        kv = keyIter.next();
-        if (kv != null && kv.getKey().startsWith(seekPrefix)) {
-
-          // Entry should not be marked for delete, consider only those
-          // entries.
-          if(!deletedKeySet.contains(kv.getKey())) {
-            cacheKeyMap.put(kv.getKey(), kv.getValue());
-            currentCount++;
-          }
-        } else {
-          // The SeekPrefix does not match any more, we can break out of the
-          // loop.
+      keyIter.seek(firstKey);
+      KeyValue<String, OmKeyInfo> dbEntry =
+          nextKey(keyIter, seekPrefix, deletedKeySet);
+      while (result.size() + commonPrefixes.size() < maxKeys) {
+        Map.Entry<String, OmKeyInfo> cacheEntry = cacheKeyMap.firstEntry();
+        String key;
+        OmKeyInfo omKeyInfo;
+        if (cacheEntry == null && dbEntry == null) {
           break;
+        } else if (cacheEntry == null || (dbEntry != null
+            && dbEntry.getKey().compareTo(cacheEntry.getKey()) < 0)) {
+          key = dbEntry.getKey();
+          omKeyInfo = dbEntry.getValue();
+          dbEntry = nextKey(keyIter, seekPrefix, deletedKeySet);
+        } else {
+          key = cacheEntry.getKey();
+          omKeyInfo = cacheEntry.getValue();
+          cacheKeyMap.pollFirstEntry();
+          if (dbEntry != null && dbEntry.getKey().equals(key)) {
+            dbEntry = nextKey(keyIter, seekPrefix, deletedKeySet);
+          }
         }
-      }
-    }
-
-    // Finally DB entries and cache entries are merged, then return the count
-    // of maxKeys from the sorted map.
-    currentCount = 0;
-
-    for (Map.Entry<String, OmKeyInfo>  cacheKey : cacheKeyMap.entrySet()) {
-      if (cacheKey.getKey().equals(seekKey) && skipStartKey) {
-        continue;
-      }
 
-      result.add(cacheKey.getValue());
-      currentCount++;
+        if (skipStartKey && key.equals(seekKey)) {
+          continue;
+        }
+        int index = hasDelimiter ?
+            key.indexOf(delimiter, seekPrefix.length()) : -1;
+        if (index < 0) {
+          result.add(omKeyInfo);
+          continue;
+        }
 
-      if (currentCount == maxKeys) {
-        break;
+        // The key is listed as the common prefix up to the delimiter, which
+        // was listed already if it is the start key.
+        String commonPrefix = key.substring(0, index + delimiter.length());
+        if (!(skipStartKey && commonPrefix.equals(seekKey))) {
+          commonPrefixes.add(commonPrefix.substring(keyNameOffset));
+        }
+        // Skip the other keys with the common prefix.
+        String nextPrefix = getNextGreaterString(commonPrefix);
+        cacheKeyMap.headMap(nextPrefix).clear();
+        if (dbEntry != null && dbEntry.getKey().compareTo(nextPrefix) < 0) {
+          keyIter.seek(nextPrefix);
+          dbEntry = nextKey(keyIter, seekPrefix, deletedKeySet);
+        }
       }
     }
 
@@ -793,7 +868,37 @@ public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
     cacheKeyMap.clear();
     deletedKeySet.clear();
 
-    return result;
+    return new OmKeyList(result, commonPrefixes);
+  }
+
+  /**
+   * Returns the next entry of the key table iterator which is not deleted,
+   * or null if there are no more keys with the prefix.
+   */
+  private static KeyValue<String, OmKeyInfo> nextKey(
+      TableIterator<String, ? extends KeyValue<String, OmKeyInfo>> keyIter,
+      String seekPrefix, Set<String> deletedKeySet) throws IOException {
+    while (keyIter.hasNext()) {
+      KeyValue<String, OmKeyInfo> kv = keyIter.next();
+      if (kv == null || !kv.getKey().startsWith(seekPrefix)) {
+        // The SeekPrefix does not match any more.
+        return null;
+      }
+      // Entry should not be marked for delete, consider only those entries.
+      if (!deletedKeySet.contains(kv.getKey())) {
+        return kv;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the least string which is greater than all the strings starting
+   * with the given prefix.
+   */
+  private static String getNextGreaterString(String prefix) {
+    int last = prefix.length() - 1;
+    return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
   }
 
   // TODO: HDDS-2419 - Complete stub below for core logic
@@ -898,10 +1003,57 @@ public List<BlockGroup> getPendingDeletionKeys(final int keyCount)
   }
 
   @Override
-  public List<BlockGroup> getExpiredOpenKeys() throws IOException {
-    List<BlockGroup> keyBlocksList = Lists.newArrayList();
-    // TODO: Fix the getExpiredOpenKeys, Not part of this patch.
-    return keyBlocksList;
+  public List<OpenKey> getExpiredOpenKeys(int count) throws IOException {
+    List<OpenKey> expiredKeys = new ArrayList<>();
+    long expiredID = getExpiredOpenKeyID();
+    try (TableIterator<Long, ? extends KeyValue<Long, String>> keyIter =
+             getOpenKeyExpiryTable().iterator()) {
+      while (keyIter.hasNext() && expiredKeys.size() < count) {
+        KeyValue<Long, String> kv = keyIter.next();
+        if (kv.getKey() >= expiredID) {
+          break;
+        }
+        expiredKeys.add(toOpenKey(kv.getValue(), kv.getKey()));
+      }
+    }
+    return expiredKeys;
+  }
+
+  @Override
+  public long getExpiredOpenKeyCount() throws IOException {
+    long count = 0;
+    long expiredID = getExpiredOpenKeyID();
+    try (TableIterator<Long, ? extends KeyValue<Long, String>> keyIter =
+             getOpenKeyExpiryTable().iterator()) {
+      while (keyIter.hasNext() && keyIter.next().getKey() < expiredID) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the first open id which is not expired. The open ids are
+   * generated by {@link org.apache.hadoop.hdds.utils.UniqueId}, which puts
+   * the time of the open in the upper bits, so they are ordered by time.
+   */
+  private long getExpiredOpenKeyID() {
+    return (Time.now() - openKeyExpireThresholdMS) << Short.SIZE;
+  }
+
+  /**
+   * Splits the DB key of an open key, /volume/bucket/key/id, into its names.
+   */
+  private static OpenKey toOpenKey(String dbOpenKey, long id) {
+    int volumeEnd = dbOpenKey.indexOf(OM_KEY_PREFIX, 1);
+    int bucketEnd = dbOpenKey.indexOf(OM_KEY_PREFIX, volumeEnd + 1);
+    int keyEnd = dbOpenKey.lastIndexOf(OM_KEY_PREFIX);
+    return OpenKey.newBuilder()
+        .setVolumeName(dbOpenKey.substring(1, volumeEnd))
+        .setBucketName(dbOpenKey.substring(volumeEnd + 1, bucketEnd))
+        .setKeyName(dbOpenKey.substring(bucketEnd + 1, keyEnd))
+        .setClientID(id)
+        .build();
   }
 
   @Override
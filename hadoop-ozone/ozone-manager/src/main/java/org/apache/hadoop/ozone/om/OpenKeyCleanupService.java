@@ -15,30 +15,38 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.hadoop.ozone.om;
 
-import org.apache.hadoop.ozone.common.BlockGroup;
-import org.apache.hadoop.ozone.common.DeleteBlockGroupResult;
-import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
-import org.apache.hadoop.util.StringUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.ServiceException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteOpenKeysRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OpenKey;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Type;
 import org.apache.hadoop.hdds.utils.BackgroundService;
 import org.apache.hadoop.hdds.utils.BackgroundTask;
 import org.apache.hadoop.hdds.utils.BackgroundTaskQueue;
 import org.apache.hadoop.hdds.utils.BackgroundTaskResult;
+import org.apache.hadoop.hdds.utils.BackgroundTaskResult.EmptyTaskResult;
+import org.apache.ratis.protocol.ClientId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK_DEFAULT;
 
 /**
  * This is the background service to delete hanging open keys.
- * Scan the metadata of om periodically to get
- * the keys with prefix "#open#" and ask scm to
- * delete metadata accordingly, if scm returns
- * success for keys, then clean up those keys.
+ * Scan the open key expiry table of om periodically to get the keys which
+ * have been open for longer than the expire threshold, and remove them from
+ * the open key table. Their blocks are moved to the deleted table, so the
+ * {@link KeyDeletingService} hands them to SCM in bulk.
  */
 public class OpenKeyCleanupService extends BackgroundService {
 
@@ -47,16 +55,32 @@ public class OpenKeyCleanupService extends BackgroundService {
 
   private final static int OPEN_KEY_DELETING_CORE_POOL_SIZE = 2;
 
+  private final OzoneManager ozoneManager;
   private final KeyManager keyManager;
-  private final ScmBlockLocationProtocol scmClient;
+  private final ClientId clientId = ClientId.randomId();
+  private final int keyLimitPerTask;
+  private final AtomicLong deletedKeyCount;
 
-  public OpenKeyCleanupService(ScmBlockLocationProtocol scmClient,
-      KeyManager keyManager, int serviceInterval,
-      long serviceTimeout) {
+  public OpenKeyCleanupService(OzoneManager ozoneManager,
+      KeyManager keyManager, long serviceInterval, long serviceTimeout,
+      Configuration conf) {
     super("OpenKeyCleanupService", serviceInterval, TimeUnit.SECONDS,
         OPEN_KEY_DELETING_CORE_POOL_SIZE, serviceTimeout);
+    this.ozoneManager = ozoneManager;
     this.keyManager = keyManager;
-    this.scmClient = scmClient;
+    this.keyLimitPerTask = conf.getInt(OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK,
+        OZONE_OPEN_KEY_CLEANUP_LIMIT_PER_TASK_DEFAULT);
+    this.deletedKeyCount = new AtomicLong(0);
+  }
+
+  /**
+   * Returns the number of open keys deleted by the background service.
+   *
+   * @return Long count.
+   */
+  @VisibleForTesting
+  public AtomicLong getDeletedKeyCount() {
+    return deletedKeyCount;
   }
 
   @Override
@@ -66,6 +90,26 @@ public BackgroundTaskQueue getTasks() {
     return queue;
   }
 
+  private boolean shouldRun() {
+    if (ozoneManager == null) {
+      // OzoneManager can be null for testing
+      return true;
+    }
+    return ozoneManager.isLeader();
+  }
+
+  private boolean isRatisEnabled() {
+    if (ozoneManager == null) {
+      return false;
+    }
+    return ozoneManager.isRatisEnabled();
+  }
+
+  /**
+   * An open key deleting task reads a certain number of expired open keys
+   * from the open key expiry table, and deletes them. With Ratis, all of
+   * them are deleted by a single DeleteOpenKeys request.
+   */
   private class OpenKeyDeletingTask
       implements BackgroundTask<BackgroundTaskResult> {
 
@@ -76,44 +120,76 @@ public int getPriority() {
 
     @Override
     public BackgroundTaskResult call() throws Exception {
+      // Check if this is the Leader OM. If not leader, no need to execute this
+      // task.
+      if (!shouldRun()) {
+        return EmptyTaskResult.newResult();
+      }
       try {
-        List<BlockGroup> keyBlocksList = keyManager.getExpiredOpenKeys();
-        if (keyBlocksList.size() > 0) {
-          int toDeleteSize = keyBlocksList.size();
-          LOG.debug("Found {} to-delete open keys in OM", toDeleteSize);
-          List<DeleteBlockGroupResult> results =
-              scmClient.deleteKeyBlocks(keyBlocksList);
-          int deletedSize = 0;
-          for (DeleteBlockGroupResult result : results) {
-            if (result.isSuccess()) {
-              try {
-                keyManager.deleteExpiredOpenKey(result.getObjectKey());
-                if (LOG.isDebugEnabled()) {
-                  LOG.debug("Key {} deleted from OM DB", result.getObjectKey());
-                }
-                deletedSize += 1;
-              } catch (IOException e) {
-                LOG.warn("Failed to delete hanging-open key {}",
-                    result.getObjectKey(), e);
-              }
-            } else {
-              LOG.warn("Deleting open Key {} failed because some of the blocks"
-                      + " were failed to delete, failed blocks: {}",
-                  result.getObjectKey(),
-                  StringUtils.join(",", result.getFailedBlocks()));
-            }
-          }
-          LOG.info("Found {} expired open key entries, successfully " +
-              "cleaned up {} entries", toDeleteSize, deletedSize);
-          return results::size;
-        } else {
+        List<OpenKey> openKeys = keyManager.getExpiredOpenKeys(keyLimitPerTask);
+        updateBacklog(openKeys.size());
+        if (openKeys.isEmpty()) {
           LOG.debug("No hanging open key found in OM");
+          return EmptyTaskResult.newResult();
+        }
+        int deletedCount;
+        if (isRatisEnabled()) {
+          deletedCount = submitDeleteOpenKeysRequest(openKeys);
+        } else {
+          deletedCount = keyManager.deleteExpiredOpenKeys(openKeys);
+        }
+        LOG.info("Found {} expired open key entries, successfully " +
+            "cleaned up {} entries", openKeys.size(), deletedCount);
+        deletedKeyCount.addAndGet(deletedCount);
+        if (ozoneManager != null) {
+          ozoneManager.getMetrics().incNumOpenKeysCleanedUp(deletedCount);
         }
       } catch (IOException e) {
         LOG.error("Unable to get hanging open keys, retry in"
             + " next interval", e);
       }
-      return BackgroundTaskResult.EmptyTaskResult.newResult();
+      return EmptyTaskResult.newResult();
+    }
+
+    /**
+     * Reports the number of expired open keys. They are counted only when
+     * there are more than this task deletes.
+     */
+    private void updateBacklog(int found) throws IOException {
+      if (ozoneManager == null) {
+        return;
+      }
+      long expired = found < keyLimitPerTask ? found :
+          keyManager.getMetadataManager().getExpiredOpenKeyCount();
+      ozoneManager.getMetrics().setNumExpiredOpenKeys(expired);
+    }
+
+    /**
+     * Submits DeleteOpenKeys request for the expired open keys.
+     *
+     * @param openKeys the expired open keys.
+     * @return the number of open keys submitted for delete.
+     */
+    private int submitDeleteOpenKeysRequest(List<OpenKey> openKeys) {
+      DeleteOpenKeysRequest deleteOpenKeysRequest =
+          DeleteOpenKeysRequest.newBuilder()
+              .addAllOpenKeys(openKeys)
+              .build();
+
+      OMRequest omRequest = OMRequest.newBuilder()
+          .setCmdType(Type.DeleteOpenKeys)
+          .setDeleteOpenKeysRequest(deleteOpenKeysRequest)
+          .setClientId(clientId.toString())
+          .build();
+
+      // Submit DeleteOpenKeys request to OM
+      try {
+        ozoneManager.getOmServerProtocol().submitRequest(null, omRequest);
+      } catch (ServiceException e) {
+        LOG.error("DeleteOpenKeys request failed. Will retry at next run.");
+        return 0;
+      }
+      return openKeys.size();
     }
   }
 }
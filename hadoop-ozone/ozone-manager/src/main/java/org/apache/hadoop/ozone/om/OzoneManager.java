@@ -110,6 +110,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
@@ -121,6 +122,7 @@
 import org.apache.hadoop.ozone.om.helpers.ServiceInfo;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfoEx;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.protocolPB.OzoneManagerProtocolPB;
 import org.apache.hadoop.ozone.om.ratis.OzoneManagerRatisClient;
 import org.apache.hadoop.ozone.om.ratis.OzoneManagerRatisServer;
@@ -370,7 +372,18 @@ private OzoneManager(OzoneConfiguration conf) throws IOException,
     scmContainerClient = getScmContainerClient(configuration);
     // verifies that the SCM info in the OM Version file is correct.
     scmBlockClient = getScmBlockClient(configuration);
-    this.scmClient = new ScmClient(scmBlockClient, scmContainerClient);
+    int blockPrefetchCount = configuration.getInt(
+        OMConfigKeys.OZONE_OM_BLOCK_PREFETCH_COUNT,
+        OMConfigKeys.OZONE_OM_BLOCK_PREFETCH_COUNT_DEFAULT);
+    if (blockPrefetchCount > 0) {
+      this.scmClient = new ScmClient(new PrefetchingScmBlockClient(
+          scmBlockClient, blockPrefetchCount, configuration.getTimeDuration(
+              OMConfigKeys.OZONE_OM_BLOCK_PREFETCH_EXPIRY,
+              OMConfigKeys.OZONE_OM_BLOCK_PREFETCH_EXPIRY_DEFAULT,
+              TimeUnit.MILLISECONDS)), scmContainerClient);
+    } else {
+      this.scmClient = new ScmClient(scmBlockClient, scmContainerClient);
+    }
 
     // For testing purpose only, not hit scm from om as Hadoop UGI can't login
     // two principals in the same JVM.
@@ -1276,10 +1289,9 @@ public void stop() {
       }
       omRpcServer.stop();
       // When ratis is not enabled, we need to call stop() to stop
-      // OzoneManageDoubleBuffer in OM server protocol.
-      if (!isRatisEnabled) {
-        omServerProtocol.stop();
-      }
+      // OzoneManageDoubleBuffer in OM server protocol. It also unregisters
+      // the write request metrics.
+      omServerProtocol.stop();
       if (omRatisServer != null) {
         omRatisServer.stop();
         omRatisServer = null;
@@ -2240,6 +2252,39 @@ public List<OmKeyInfo> listKeys(String volumeName, String bucketName,
     }
   }
 
+  @Override
+  public OmKeyList listKeys(String volumeName, String bucketName,
+      String startKey, String keyPrefix, String delimiter, int maxKeys)
+      throws IOException {
+    if(isAclEnabled) {
+      checkAcls(ResourceType.BUCKET,
+          StoreType.OZONE, ACLType.LIST, volumeName, bucketName, keyPrefix);
+    }
+    boolean auditSuccess = true;
+    Map<String, String> auditMap = buildAuditMap(volumeName);
+    auditMap.put(OzoneConsts.BUCKET, bucketName);
+    auditMap.put(OzoneConsts.START_KEY, startKey);
+    auditMap.put(OzoneConsts.MAX_KEYS, String.valueOf(maxKeys));
+    auditMap.put(OzoneConsts.KEY_PREFIX, keyPrefix);
+    auditMap.put(OzoneConsts.DELIMITER, delimiter);
+    try {
+      metrics.incNumKeyLists();
+      return keyManager.listKeys(volumeName, bucketName,
+          startKey, keyPrefix, delimiter, maxKeys);
+    } catch (IOException ex) {
+      metrics.incNumKeyListFails();
+      auditSuccess = false;
+      AUDIT.logReadFailure(buildAuditMessageForFailure(OMAction.LIST_KEYS,
+          auditMap, ex));
+      throw ex;
+    } finally {
+      if(auditSuccess){
+        AUDIT.logReadSuccess(buildAuditMessageForSuccess(OMAction.LIST_KEYS,
+            auditMap));
+      }
+    }
+  }
+
   @Override
   public List<RepeatedOmKeyInfo> listTrash(String volumeName,
       String bucketName, String startKeyName, String keyPrefix, int maxKeys)
@@ -2922,6 +2967,32 @@ public List<OzoneFileStatus> listStatus(OmKeyArgs args, boolean recursive,
     }
   }
 
+  @Override
+  public OzoneFileStatusList listStatusPage(OmKeyArgs args, boolean recursive,
+      String continuationToken, long numEntries) throws IOException {
+    if(isAclEnabled) {
+      checkAcls(getResourceType(args), StoreType.OZONE, ACLType.READ,
+          args.getVolumeName(), args.getBucketName(), args.getKeyName());
+    }
+    boolean auditSuccess = true;
+    try {
+      metrics.incNumListStatus();
+      return keyManager.listStatusPage(args, recursive, continuationToken,
+          numEntries);
+    } catch (Exception ex) {
+      metrics.incNumListStatusFails();
+      auditSuccess = false;
+      AUDIT.logWriteFailure(buildAuditMessageForFailure(OMAction.LIST_STATUS,
+          (args == null) ? null : args.toAuditMap(), ex));
+      throw ex;
+    } finally {
+      if(auditSuccess){
+        AUDIT.logWriteSuccess(buildAuditMessageForSuccess(
+            OMAction.LIST_STATUS, (args == null) ? null : args.toAuditMap()));
+      }
+    }
+  }
+
   private void auditAcl(OzoneObj ozoneObj, List<OzoneAcl> ozoneAcl,
       OMAction omAction, Exception ex) {
     Map<String, String> auditMap = ozoneObj.toAuditMap();
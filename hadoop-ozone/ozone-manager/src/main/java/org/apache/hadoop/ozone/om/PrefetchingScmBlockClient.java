@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.ScmInfo;
+import org.apache.hadoop.hdds.scm.container.ContainerID;
+import org.apache.hadoop.hdds.scm.container.common.helpers.AllocatedBlock;
+import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
+import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
+import org.apache.hadoop.ozone.common.BlockGroup;
+import org.apache.hadoop.ozone.common.DeleteBlockGroupResult;
+import org.apache.hadoop.util.Time;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ScmBlockLocationProtocol} which allocates more blocks from SCM
+ * than requested, and keeps the extra ones to serve the next requests of
+ * the same owner, block size and replication without a call to SCM.
+ *
+ * Each prefetched block is handed out only once. The blocks which are not
+ * handed out before they expire are dropped: nothing has been written to
+ * them, so there is nothing to reclaim on the datanodes, and their pipeline
+ * may have been closed meanwhile. Requests with an exclude list always go
+ * to SCM, and drop the prefetched blocks on the excluded datanodes,
+ * pipelines and containers.
+ */
+public class PrefetchingScmBlockClient implements ScmBlockLocationProtocol {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(PrefetchingScmBlockClient.class);
+
+  private final ScmBlockLocationProtocol scmBlockClient;
+  private final int prefetchCount;
+  private final long expiryMillis;
+  private final ConcurrentHashMap<PoolKey, Pool> pools =
+      new ConcurrentHashMap<>();
+
+  public PrefetchingScmBlockClient(ScmBlockLocationProtocol scmBlockClient,
+      int prefetchCount, long expiryMillis) {
+    this.scmBlockClient = scmBlockClient;
+    this.prefetchCount = prefetchCount;
+    this.expiryMillis = expiryMillis;
+  }
+
+  @Override
+  public List<AllocatedBlock> allocateBlock(long size, int numBlocks,
+      ReplicationType type, ReplicationFactor factor, String owner,
+      ExcludeList excludeList) throws IOException {
+    Pool pool = pools.computeIfAbsent(
+        new PoolKey(size, type, factor, owner), key -> new Pool());
+    if (!excludeList.isEmpty()) {
+      pool.drop(excludeList);
+      return scmBlockClient.allocateBlock(size, numBlocks, type, factor,
+          owner, excludeList);
+    }
+
+    List<AllocatedBlock> blocks = new ArrayList<>(numBlocks);
+    long now = Time.monotonicNow();
+    pool.take(numBlocks, now, blocks);
+    int missing = numBlocks - blocks.size();
+    if (missing == 0) {
+      return blocks;
+    }
+
+    // allocate the blocks of the pool together with the missing ones
+    int prefetch = Math.max(prefetchCount - pool.size(), 0);
+    List<AllocatedBlock> allocated = scmBlockClient.allocateBlock(size,
+        missing + prefetch, type, factor, owner, excludeList);
+    int i = 0;
+    for (; i < allocated.size() && blocks.size() < numBlocks; i++) {
+      blocks.add(allocated.get(i));
+    }
+    long expiry = Time.monotonicNow() + expiryMillis;
+    for (; i < allocated.size(); i++) {
+      pool.add(allocated.get(i), expiry);
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Allocated {} blocks from SCM for {} requested blocks of "
+          + "owner {}, {} blocks are prefetched", allocated.size(), numBlocks,
+          owner, pool.size());
+    }
+    return blocks;
+  }
+
+  @Override
+  public List<DeleteBlockGroupResult> deleteKeyBlocks(
+      List<BlockGroup> keyBlocksInfoList) throws IOException {
+    return scmBlockClient.deleteKeyBlocks(keyBlocksInfoList);
+  }
+
+  @Override
+  public ScmInfo getScmInfo() throws IOException {
+    return scmBlockClient.getScmInfo();
+  }
+
+  @Override
+  public List<DatanodeDetails> sortDatanodes(List<String> nodes,
+      String clientMachine) throws IOException {
+    return scmBlockClient.sortDatanodes(nodes, clientMachine);
+  }
+
+  @Override
+  public List<List<DatanodeDetails>> sortDatanodesBatch(
+      List<List<String>> nodeLists, String clientMachine) throws IOException {
+    return scmBlockClient.sortDatanodesBatch(nodeLists, clientMachine);
+  }
+
+  @Override
+  public void close() throws IOException {
+    pools.clear();
+    scmBlockClient.close();
+  }
+
+  /**
+   * Returns the number of prefetched blocks of all owners, including the
+   * expired ones which are not dropped yet.
+   */
+  @VisibleForTesting
+  int getNumPrefetchedBlocks() {
+    return pools.values().stream().mapToInt(Pool::size).sum();
+  }
+
+  /**
+   * A block allocated by SCM and the time it is handed out until.
+   */
+  private static final class PrefetchedBlock {
+    private final AllocatedBlock block;
+    private final long expiry;
+
+    private PrefetchedBlock(AllocatedBlock block, long expiry) {
+      this.block = block;
+      this.expiry = expiry;
+    }
+
+    private boolean isExcluded(ExcludeList excludeList) {
+      if (excludeList.getPipelineIds().contains(block.getPipeline().getId())
+          || excludeList.getContainerIds().contains(
+              ContainerID.valueof(block.getBlockID().getContainerID()))) {
+        return true;
+      }
+      for (DatanodeDetails dn : block.getPipeline().getNodes()) {
+        if (excludeList.getDatanodes().contains(dn)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The prefetched blocks of an owner, block size and replication.
+   */
+  private static final class Pool {
+    private final Queue<PrefetchedBlock> blocks =
+        new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private int size() {
+      return size.get();
+    }
+
+    private void add(AllocatedBlock block, long expiry) {
+      blocks.add(new PrefetchedBlock(block, expiry));
+      size.incrementAndGet();
+    }
+
+    private void take(int numBlocks, long now, List<AllocatedBlock> result) {
+      while (result.size() < numBlocks) {
+        PrefetchedBlock prefetched = blocks.poll();
+        if (prefetched == null) {
+          return;
+        }
+        size.decrementAndGet();
+        if (prefetched.expiry > now) {
+          result.add(prefetched.block);
+        }
+      }
+    }
+
+    private void drop(ExcludeList excludeList) {
+      for (PrefetchedBlock prefetched : blocks) {
+        // the block may be taken by another request meanwhile
+        if (prefetched.isExcluded(excludeList) && blocks.remove(prefetched)) {
+          size.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Key of the prefetched blocks.
+   */
+  private static final class PoolKey {
+    private final long size;
+    private final ReplicationType type;
+    private final ReplicationFactor factor;
+    private final String owner;
+
+    private PoolKey(long size, ReplicationType type,
+        ReplicationFactor factor, String owner) {
+      this.size = size;
+      this.type = type;
+      this.factor = factor;
+      this.owner = owner;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PoolKey that = (PoolKey) o;
+      return size == that.size && type == that.type && factor == that.factor
+          && Objects.equals(owner, that.owner);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(size, type, factor, owner);
+    }
+  }
+}
@@ -23,6 +23,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 
 import java.io.IOException;
 import java.util.List;
@@ -51,4 +52,7 @@ OpenKeySession createFile(OmKeyArgs args, boolean isOverWrite,
 
   List<OzoneFileStatus> listStatus(OmKeyArgs keyArgs, boolean recursive,
       String startKey, long numEntries) throws IOException;
+
+  OzoneFileStatusList listStatusPage(OmKeyArgs keyArgs, boolean recursive,
+      String continuationToken, long numEntries) throws IOException;
 }
@@ -19,9 +19,13 @@
 package org.apache.hadoop.ozone.om.ratis;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -32,11 +36,26 @@
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.ratis.helpers.DoubleBufferEntry;
 import org.apache.hadoop.ozone.om.ratis.metrics.OzoneManagerDoubleBufferMetrics;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.util.Daemon;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.Table;
 import org.apache.ratis.util.ExitUtils;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.BUCKET_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELEGATION_TOKEN_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELETED_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.MULTIPARTINFO_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.OPEN_KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.PREFIX_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.S3_SECRET_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.S3_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.SHARED_BLOCK_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.USER_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.VOLUME_TABLE;
+
 /**
  * This class implements DoubleBuffer implementation of OMClientResponse's. In
  * DoubleBuffer it has 2 buffers one is currentBuffer and other is
@@ -46,12 +65,21 @@
  * Adding OM request to doubleBuffer and swap of buffer are synchronized
  * methods.
  *
+ * Transactions can be applied out of log order when they are applied in
+ * parallel, so the index reported as last applied after a flush is the low
+ * watermark below which all transactions have been flushed, not the largest
+ * flushed index.
  */
 public class OzoneManagerDoubleBuffer {
 
   private static final Logger LOG =
       LoggerFactory.getLogger(OzoneManagerDoubleBuffer.class);
 
+  private static final String[] ALL_TABLES = {USER_TABLE, VOLUME_TABLE,
+      BUCKET_TABLE, KEY_TABLE, DELETED_TABLE, OPEN_KEY_TABLE, S3_TABLE,
+      MULTIPARTINFO_TABLE, S3_SECRET_TABLE, DELEGATION_TOKEN_TABLE,
+      PREFIX_TABLE, SHARED_BLOCK_TABLE};
+
   // Taken unbounded queue, if sync thread is taking too long time, we
   // might end up taking huge memory to add entries to the buffer.
   // TODO: We can avoid this using unbounded queue and use queue with
@@ -81,6 +109,20 @@ public class OzoneManagerDoubleBuffer {
 
   private final OzoneManagerRatisSnapshot ozoneManagerRatisSnapShot;
 
+  // Transactions which are being applied and may still add responses to
+  // currentBuffer.
+  private final ConcurrentSkipListSet<Long> inFlightTransactions =
+      new ConcurrentSkipListSet<>();
+  private volatile long lastInFlightTransactionIndex;
+  // Only accessed by the flush thread.
+  private long lastFlushedTransactionIndex;
+  private long lastAppliedIndex;
+  // Largest flushed transaction index of each table whose cache has not
+  // been cleaned up to it yet.
+  private final Map<String, Long> cleanupEpochs = new HashMap<>();
+  private final Map<Class<? extends OMClientResponse>, String[]>
+      cleanupTablesByResponse = new HashMap<>();
+
   private final boolean isRatisEnabled;
 
   public OzoneManagerDoubleBuffer(OMMetadataManager omMetadataManager,
@@ -136,6 +178,7 @@ private void flushTransactions() {
               try {
                 entry.getResponse().addToDBBatch(omMetadataManager,
                     batchOperation);
+                addCleanupEpochs(entry);
               } catch (IOException ex) {
                 // During Adding to RocksDB batch entry got an exception.
                 // We should terminate the OM.
@@ -173,15 +216,18 @@ private void flushTransactions() {
 
           readyBuffer.clear();
 
-          // cleanup cache.
-          cleanupCache(lastRatisTransactionIndex);
+          lastFlushedTransactionIndex = Math.max(lastFlushedTransactionIndex,
+              lastRatisTransactionIndex);
+          lastAppliedIndex = Math.max(lastAppliedIndex,
+              getFlushedLowWatermark());
+
+          // cleanup cache of the tables touched by the flushed transactions.
+          // Cache entries of transactions above the low watermark may not
+          // be in the DB yet, so they are kept.
+          cleanupCache(lastAppliedIndex);
 
-          // TODO: Need to revisit this logic, once we have multiple
-          //  executors for volume/bucket request handling. As for now
-          //  transactions are serialized this should be fine.
           // update the last updated index in OzoneManagerStateMachine.
-          ozoneManagerRatisSnapShot.updateLastAppliedIndex(
-              lastRatisTransactionIndex);
+          ozoneManagerRatisSnapShot.updateLastAppliedIndex(lastAppliedIndex);
 
           // set metrics.
           updateMetrics(flushedTransactionsSize);
@@ -210,30 +256,74 @@ private void flushTransactions() {
     }
   }
 
-  private void cleanupCache(long lastRatisTransactionIndex) {
-    // As now only volume and bucket transactions are handled only called
-    // cleanupCache on bucketTable.
-    // TODO: After supporting all write operations we need to call
-    //  cleanupCache on the tables only when buffer has entries for that table.
-    omMetadataManager.getBucketTable().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getVolumeTable().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getUserTable().cleanupCache(lastRatisTransactionIndex);
-
-    //TODO: Optimization we can do here is for key transactions we can only
-    // cleanup cache when it is key commit transaction. In this way all
-    // intermediate transactions for a key will be read from in-memory cache.
-    omMetadataManager.getOpenKeyTable().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getKeyTable().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getDeletedTable().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getS3Table().cleanupCache(lastRatisTransactionIndex);
-    omMetadataManager.getMultipartInfoTable().cleanupCache(
-        lastRatisTransactionIndex);
-    omMetadataManager.getS3SecretTable().cleanupCache(
-        lastRatisTransactionIndex);
-    omMetadataManager.getDelegationTokenTable().cleanupCache(
-        lastRatisTransactionIndex);
-    omMetadataManager.getPrefixTable().cleanupCache(lastRatisTransactionIndex);
+  /**
+   * Records the tables whose cache has entries of the given flushed
+   * response, with the largest transaction index seen for each table.
+   */
+  private void addCleanupEpochs(DoubleBufferEntry<OMClientResponse> entry) {
+    for (String table : getCleanupTables(entry.getResponse())) {
+      cleanupEpochs.merge(table, entry.getTrxLogIndex(), Math::max);
+    }
+  }
+
+  private String[] getCleanupTables(OMClientResponse response) {
+    return cleanupTablesByResponse.computeIfAbsent(response.getClass(),
+        responseClass -> {
+          CleanupTableInfo cleanupTableInfo =
+              responseClass.getAnnotation(CleanupTableInfo.class);
+          return cleanupTableInfo != null ?
+              cleanupTableInfo.cleanupTables() : ALL_TABLES;
+        });
+  }
+
+  /**
+   * Cleans up the cache of the tables touched by flushed transactions, each
+   * up to the largest index flushed for that table. Tables which have
+   * entries above the last applied index are cleaned up to that index
+   * only, and again after later flushes.
+   */
+  private void cleanupCache(long lastAppliedTransactionIndex) {
+    Iterator<Map.Entry<String, Long>> iterator =
+        cleanupEpochs.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Long> entry = iterator.next();
+      long epoch = Math.min(entry.getValue(), lastAppliedTransactionIndex);
+      getTable(entry.getKey()).cleanupCache(epoch);
+      if (epoch == entry.getValue()) {
+        iterator.remove();
+      }
+    }
+  }
 
+  private Table<?, ?> getTable(String tableName) {
+    switch (tableName) {
+    case USER_TABLE:
+      return omMetadataManager.getUserTable();
+    case VOLUME_TABLE:
+      return omMetadataManager.getVolumeTable();
+    case BUCKET_TABLE:
+      return omMetadataManager.getBucketTable();
+    case KEY_TABLE:
+      return omMetadataManager.getKeyTable();
+    case DELETED_TABLE:
+      return omMetadataManager.getDeletedTable();
+    case OPEN_KEY_TABLE:
+      return omMetadataManager.getOpenKeyTable();
+    case S3_TABLE:
+      return omMetadataManager.getS3Table();
+    case MULTIPARTINFO_TABLE:
+      return omMetadataManager.getMultipartInfoTable();
+    case S3_SECRET_TABLE:
+      return omMetadataManager.getS3SecretTable();
+    case DELEGATION_TOKEN_TABLE:
+      return omMetadataManager.getDelegationTokenTable();
+    case PREFIX_TABLE:
+      return omMetadataManager.getPrefixTable();
+    case SHARED_BLOCK_TABLE:
+      return omMetadataManager.getSharedBlockTable();
+    default:
+      throw new IllegalArgumentException("Unknown OM table " + tableName);
+    }
   }
 
   /**
@@ -318,6 +408,49 @@ public synchronized CompletableFuture<Void> add(OMClientResponse response,
     }
   }
 
+  /**
+   * Registers a transaction which is about to be applied. Transactions must
+   * be registered in log order, before their responses are added to the
+   * buffer, so that the last applied index does not move past them until
+   * they are applied and flushed.
+   * @param transactionIndex
+   */
+  public void addInFlightTransaction(long transactionIndex) {
+    inFlightTransactions.add(transactionIndex);
+    lastInFlightTransactionIndex = transactionIndex;
+  }
+
+  /**
+   * Marks a transaction registered with
+   * {@link #addInFlightTransaction(long)} as applied. Its responses, if
+   * any, must have been added to the buffer already.
+   * @param transactionIndex
+   */
+  public void removeInFlightTransaction(long transactionIndex) {
+    inFlightTransactions.remove(transactionIndex);
+  }
+
+  /**
+   * Returns the largest index up to which all transactions have been
+   * flushed. A transaction which is not flushed yet is either in flight or
+   * has its response in currentBuffer, and it moves from the former to the
+   * latter only, so reading them in this order does not miss one.
+   *
+   * @return low watermark of flushed transactions
+   */
+  private synchronized long getFlushedLowWatermark() {
+    long watermark = Math.max(lastInFlightTransactionIndex,
+        lastFlushedTransactionIndex);
+    Long inFlight = inFlightTransactions.ceiling(Long.MIN_VALUE);
+    if (inFlight != null) {
+      watermark = Math.min(watermark, inFlight - 1);
+    }
+    for (DoubleBufferEntry<OMClientResponse> entry : currentBuffer) {
+      watermark = Math.min(watermark, entry.getTrxLogIndex() - 1);
+    }
+    return watermark;
+  }
+
   /**
    * Check can we flush transactions or not. This method wait's until
    * currentBuffer size is greater than zero, once currentBuffer size is
@@ -28,6 +28,8 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -131,6 +133,37 @@ public OMResponse submitRequest(OMRequest omRequest) throws ServiceException {
     return processReply(omRequest, raftClientReply);
   }
 
+  /**
+   * Submit request to Ratis server without waiting for it to be applied.
+   * @param omRequest
+   * @return future which is completed with the OMResponse returned to the
+   * client once the request is applied, or completed exceptionally with a
+   * ServiceException.
+   */
+  public CompletableFuture<OMResponse> submitRequestAsync(
+      OMRequest omRequest) {
+    RaftClientRequest raftClientRequest =
+        createWriteRaftClientRequest(omRequest);
+    CompletableFuture<RaftClientReply> replyFuture;
+    try {
+      replyFuture = server.submitClientRequestAsync(raftClientRequest);
+    } catch (IOException ex) {
+      CompletableFuture<OMResponse> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new ServiceException(ex.getMessage(), ex));
+      return failed;
+    }
+    return replyFuture.handle((raftClientReply, ex) -> {
+      try {
+        if (ex != null) {
+          throw new ServiceException(ex.getMessage(), ex);
+        }
+        return processReply(omRequest, raftClientReply);
+      } catch (ServiceException serviceException) {
+        throw new CompletionException(serviceException);
+      }
+    });
+  }
+
   /**
    * Create Write RaftClient request from OMRequest.
    * @param omRequest
@@ -243,7 +276,7 @@ private OzoneManagerRatisServer(Configuration conf,
     LOG.info("Instantiating OM Ratis server with GroupID: {} and " +
         "Raft Peers: {}", raftGroupIdStr, raftPeersStr.toString().substring(2));
 
-    this.omStateMachine = getStateMachine();
+    this.omStateMachine = getStateMachine(conf);
 
     this.server = RaftServer.newBuilder()
         .setServerId(this.raftPeerId)
@@ -312,8 +345,8 @@ public RaftGroup getRaftGroup() {
   /**
    * Initializes and returns OzoneManager StateMachine.
    */
-  private OzoneManagerStateMachine getStateMachine() {
-    return new OzoneManagerStateMachine(this);
+  private OzoneManagerStateMachine getStateMachine(Configuration conf) {
+    return new OzoneManagerStateMachine(this, conf);
   }
 
   @VisibleForTesting
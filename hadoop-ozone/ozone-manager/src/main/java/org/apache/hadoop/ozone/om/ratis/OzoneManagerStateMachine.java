@@ -22,15 +22,19 @@
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ServiceException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.ozone.om.OzoneManager;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.helpers.OMRatisHelper;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
     .OMRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
@@ -55,6 +59,10 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.apache.hadoop.ozone.OzoneConsts.OM_KEY_PREFIX;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_DEFAULT;
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_KEY;
+
 /**
  * The OM StateMachine is the state machine for OM Ratis server. It is
  * responsible for applying ratis committed transactions to
@@ -73,10 +81,14 @@ public class OzoneManagerStateMachine extends BaseStateMachine {
   private long lastAppliedIndex;
   private OzoneManagerDoubleBuffer ozoneManagerDoubleBuffer;
   private final OMRatisSnapshotInfo snapshotInfo;
-  private final ExecutorService executorService;
+  private final ExecutorService[] executors;
+  // Future of the last transaction submitted to each executor.
+  private final CompletableFuture<Void>[] applyTails;
   private final ExecutorService installSnapshotExecutor;
 
-  public OzoneManagerStateMachine(OzoneManagerRatisServer ratisServer) {
+  @SuppressWarnings("unchecked")
+  public OzoneManagerStateMachine(OzoneManagerRatisServer ratisServer,
+      Configuration conf) {
     this.omRatisServer = ratisServer;
     this.ozoneManager = omRatisServer.getOzoneManager();
 
@@ -90,9 +102,18 @@ public OzoneManagerStateMachine(OzoneManagerRatisServer ratisServer) {
     this.handler = new OzoneManagerHARequestHandlerImpl(ozoneManager,
         ozoneManagerDoubleBuffer);
 
+    int numExecutors = conf.getInt(OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_KEY,
+        OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_DEFAULT);
+    Preconditions.checkArgument(numExecutors > 0, "%s should be positive",
+        OZONE_OM_RATIS_NUM_APPLY_EXECUTORS_KEY);
     ThreadFactory build = new ThreadFactoryBuilder().setDaemon(true)
         .setNameFormat("OM StateMachine ApplyTransaction Thread - %d").build();
-    this.executorService = HadoopExecutors.newSingleThreadExecutor(build);
+    this.executors = new ExecutorService[numExecutors];
+    this.applyTails = new CompletableFuture[numExecutors];
+    for (int i = 0; i < numExecutors; i++) {
+      executors[i] = HadoopExecutors.newSingleThreadExecutor(build);
+      applyTails[i] = CompletableFuture.completedFuture(null);
+    }
     this.installSnapshotExecutor = HadoopExecutors.newSingleThreadExecutor();
   }
 
@@ -170,36 +191,32 @@ public CompletableFuture<Message> applyTransaction(TransactionContext trx) {
       OMRequest request = OMRatisHelper.convertByteStringToOMRequest(
           trx.getStateMachineLogEntry().getLogData());
       long trxLogIndex = trx.getLogEntry().getIndex();
-      // In the current approach we have one single global thread executor.
-      // with single thread. Right now this is being done for correctness, as
-      // applyTransaction will be run on multiple OM's we want to execute the
-      // transactions in the same order on all OM's, otherwise there is a
-      // chance that OM replica's can be out of sync.
-      // TODO: In this way we are making all applyTransactions in
-      // OM serial order. Revisit this in future to use multiple executors for
-      // volume/bucket.
-
-      // Reason for not immediately implementing executor per volume is, if
-      // one executor operations are slow, we cannot update the
-      // lastAppliedIndex in OzoneManager StateMachine, even if other
-      // executor has completed the transactions with id more.
-
-      // We have 300 transactions, And for each volume we have transactions
-      // of 150. Volume1 transactions 0 - 149 and Volume2 transactions 150 -
-      // 299.
-      // Example: Executor1 - Volume1 - 100 (current completed transaction)
-      // Example: Executor2 - Volume2 - 299 (current completed transaction)
-
-      // Now we have applied transactions of 0 - 100 and 149 - 299. We
-      // cannot update lastAppliedIndex to 299. We need to update it to 100,
-      // since 101 - 149 are not applied. When OM restarts it will
-      // applyTransactions from lastAppliedIndex.
-      // We can update the lastAppliedIndex to 100, and update it to 299,
-      // only after completing 101 - 149. In initial stage, we are starting
-      // with single global executor. Will revisit this when needed.
-
-      CompletableFuture<Message> future = CompletableFuture.supplyAsync(
-          () -> runCommand(request, trxLogIndex), executorService);
+      // Transactions on keys are applied in log order per bucket, on the
+      // executor their bucket is hashed to, so that a slow bucket does not
+      // hold back the others. All other transactions are barriers: they
+      // wait for every executor and every executor waits for them.
+      // applyTransaction is called in log order from a single thread, which
+      // is the only one updating the tails.
+
+      // As transactions complete out of log order, the double buffer
+      // reports the index below which all transactions have been applied
+      // and flushed as the lastAppliedIndex. If Executor1 has applied up to
+      // 100 and Executor2 up to 299, while 101 - 149 are pending on
+      // Executor1, lastAppliedIndex stays 100 until they are done, so that
+      // OM re-applies them after a restart.
+      ozoneManagerDoubleBuffer.addInFlightTransaction(trxLogIndex);
+      String bucketKey = getBucketKey(request);
+      CompletableFuture<Message> future;
+      if (bucketKey == null) {
+        future = CompletableFuture.allOf(applyTails).thenApplyAsync(
+            v -> runCommand(request, trxLogIndex), executors[0]);
+        Arrays.fill(applyTails, ignoreResult(future));
+      } else {
+        int partition = Math.floorMod(bucketKey.hashCode(), executors.length);
+        future = applyTails[partition].thenApplyAsync(
+            v -> runCommand(request, trxLogIndex), executors[partition]);
+        applyTails[partition] = ignoreResult(future);
+      }
       return future;
     } catch (IOException e) {
       return completeExceptionally(e);
@@ -324,9 +341,77 @@ private TransactionContext handleStartTransactionRequests(
    * @throws ServiceException
    */
   private Message runCommand(OMRequest request, long trxLogIndex) {
-    OMResponse response = handler.handleApplyTransaction(request, trxLogIndex);
-    lastAppliedIndex = trxLogIndex;
-    return OMRatisHelper.convertResponseToMessage(response);
+    try {
+      OMResponse response =
+          handler.handleApplyTransaction(request, trxLogIndex);
+      return OMRatisHelper.convertResponseToMessage(response);
+    } finally {
+      // lastAppliedIndex is updated by the double buffer once this and all
+      // earlier transactions have been flushed.
+      ozoneManagerDoubleBuffer.removeInFlightTransaction(trxLogIndex);
+    }
+  }
+
+  /**
+   * Returns the bucket a write request is confined to, or null if the
+   * request may touch state outside a single bucket and has to be applied
+   * as a barrier.
+   * @param request OMRequest
+   * @return volume/bucket of the request, or null
+   */
+  @VisibleForTesting
+  static String getBucketKey(OMRequest request) {
+    KeyArgs keyArgs;
+    switch (request.getCmdType()) {
+    case CreateKey:
+      keyArgs = request.getCreateKeyRequest().getKeyArgs();
+      break;
+    case CommitKey:
+      keyArgs = request.getCommitKeyRequest().getKeyArgs();
+      break;
+    case AllocateBlock:
+      keyArgs = request.getAllocateBlockRequest().getKeyArgs();
+      break;
+    case DeleteKey:
+      keyArgs = request.getDeleteKeyRequest().getKeyArgs();
+      break;
+    case RenameKey:
+      keyArgs = request.getRenameKeyRequest().getKeyArgs();
+      break;
+    case DeleteKeyPrefix:
+      keyArgs = request.getDeleteKeyPrefixRequest().getKeyArgs();
+      break;
+    case RenameKeyPrefix:
+      keyArgs = request.getRenameKeyPrefixRequest().getKeyArgs();
+      break;
+    case CreateDirectory:
+      keyArgs = request.getCreateDirectoryRequest().getKeyArgs();
+      break;
+    case CreateFile:
+      keyArgs = request.getCreateFileRequest().getKeyArgs();
+      break;
+    case InitiateMultiPartUpload:
+      keyArgs = request.getInitiateMultiPartUploadRequest().getKeyArgs();
+      break;
+    case CommitMultiPartUpload:
+      keyArgs = request.getCommitMultiPartUploadRequest().getKeyArgs();
+      break;
+    case AbortMultiPartUpload:
+      keyArgs = request.getAbortMultiPartUploadRequest().getKeyArgs();
+      break;
+    case CompleteMultiPartUpload:
+      keyArgs = request.getCompleteMultiPartUploadRequest().getKeyArgs();
+      break;
+    default:
+      return null;
+    }
+    return keyArgs.getVolumeName() + OM_KEY_PREFIX + keyArgs.getBucketName();
+  }
+
+  private static CompletableFuture<Void> ignoreResult(
+      CompletableFuture<?> future) {
+    // A failed transaction must not stop the ones queued behind it.
+    return future.handle((result, throwable) -> null);
   }
 
   @SuppressWarnings("HiddenField")
@@ -371,7 +456,9 @@ public void setRaftGroupId(RaftGroupId raftGroupId) {
 
   public void stop() {
     ozoneManagerDoubleBuffer.stop();
-    HadoopExecutors.shutdown(executorService, LOG, 5, TimeUnit.SECONDS);
+    for (ExecutorService executor : executors) {
+      HadoopExecutors.shutdown(executor, LOG, 5, TimeUnit.SECONDS);
+    }
     HadoopExecutors.shutdown(installSnapshotExecutor, LOG, 5, TimeUnit.SECONDS);
   }
 }
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.ratis.metrics;
+
+import org.apache.hadoop.metrics2.MetricsSystem;
+import org.apache.hadoop.metrics2.annotation.Metric;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
+import org.apache.hadoop.metrics2.lib.MutableGaugeLong;
+import org.apache.hadoop.metrics2.lib.MutableRate;
+
+/**
+ * Class which maintains metrics related to OzoneManager write requests whose
+ * responses are deferred until they are applied.
+ */
+public class OzoneManagerWriteRequestMetrics {
+
+  private static final String SOURCE_NAME =
+      OzoneManagerWriteRequestMetrics.class.getSimpleName();
+
+  @Metric(about = "Number of write requests which are submitted and are " +
+      "waiting to be applied before the response is sent.")
+  private MutableGaugeLong numWriteRequestsInFlight;
+
+  @Metric(about = "Total Number of write requests whose response is sent " +
+      "after the RPC handler returned.")
+  private MutableCounterLong totalNumOfDeferredResponses;
+
+  @Metric(about = "Time in milliseconds a write request waited from being " +
+      "submitted till it is applied and its response is sent.")
+  private MutableRate writeRequestQueueTime;
+
+  public static OzoneManagerWriteRequestMetrics create() {
+    MetricsSystem ms = DefaultMetricsSystem.instance();
+    return ms.register(SOURCE_NAME,
+        "OzoneManager Write Request Metrics",
+        new OzoneManagerWriteRequestMetrics());
+  }
+
+  /**
+   * Called when a write request is submitted.
+   * @param deferred true if the response is sent after the RPC handler
+   * returned.
+   */
+  public void incrNumWriteRequestsInFlight(boolean deferred) {
+    numWriteRequestsInFlight.incr();
+    if (deferred) {
+      totalNumOfDeferredResponses.incr();
+    }
+  }
+
+  /**
+   * Called when a submitted write request is completed.
+   * @param queueTime time in milliseconds the request waited to be completed.
+   */
+  public void decrNumWriteRequestsInFlight(long queueTime) {
+    numWriteRequestsInFlight.decr();
+    writeRequestQueueTime.add(queueTime);
+  }
+
+  public long getNumWriteRequestsInFlight() {
+    return numWriteRequestsInFlight.value();
+  }
+
+  public long getTotalNumOfDeferredResponses() {
+    return totalNumOfDeferredResponses.value();
+  }
+
+  public void unRegister() {
+    MetricsSystem ms = DefaultMetricsSystem.instance();
+    ms.unregisterSource(SOURCE_NAME);
+  }
+}
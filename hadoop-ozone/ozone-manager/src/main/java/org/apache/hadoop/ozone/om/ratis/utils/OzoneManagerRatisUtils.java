@@ -30,9 +30,13 @@
 import org.apache.hadoop.ozone.om.request.file.OMFileCreateRequest;
 import org.apache.hadoop.ozone.om.request.key.OMAllocateBlockRequest;
 import org.apache.hadoop.ozone.om.request.key.OMKeyCommitRequest;
+import org.apache.hadoop.ozone.om.request.key.OMKeyCopyRequest;
 import org.apache.hadoop.ozone.om.request.key.OMKeyCreateRequest;
 import org.apache.hadoop.ozone.om.request.key.OMKeyDeleteRequest;
+import org.apache.hadoop.ozone.om.request.key.OMKeyPrefixDeleteRequest;
+import org.apache.hadoop.ozone.om.request.key.OMKeyPrefixRenameRequest;
 import org.apache.hadoop.ozone.om.request.key.OMKeyPurgeRequest;
+import org.apache.hadoop.ozone.om.request.key.OMOpenKeysDeleteRequest;
 import org.apache.hadoop.ozone.om.request.key.OMKeyRenameRequest;
 import org.apache.hadoop.ozone.om.request.key.acl.OMKeyAddAclRequest;
 import org.apache.hadoop.ozone.om.request.key.acl.OMKeyRemoveAclRequest;
@@ -115,12 +119,20 @@ public static OMClientRequest createClientRequest(OMRequest omRequest) {
       return new OMKeyDeleteRequest(omRequest);
     case RenameKey:
       return new OMKeyRenameRequest(omRequest);
+    case DeleteKeyPrefix:
+      return new OMKeyPrefixDeleteRequest(omRequest);
+    case RenameKeyPrefix:
+      return new OMKeyPrefixRenameRequest(omRequest);
+    case CopyKey:
+      return new OMKeyCopyRequest(omRequest);
     case CreateDirectory:
       return new OMDirectoryCreateRequest(omRequest);
     case CreateFile:
       return new OMFileCreateRequest(omRequest);
     case PurgeKeys:
       return new OMKeyPurgeRequest(omRequest);
+    case DeleteOpenKeys:
+      return new OMOpenKeysDeleteRequest(omRequest);
     case CreateS3Bucket:
       return new S3BucketCreateRequest(omRequest);
     case DeleteS3Bucket:
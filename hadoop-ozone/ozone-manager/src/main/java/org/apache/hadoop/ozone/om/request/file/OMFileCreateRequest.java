@@ -310,15 +310,18 @@ private boolean checkKeysUnderPath(OMMetadataManager omMetadataManager,
 
       // First check in key table cache.
       Iterator< Map.Entry<CacheKey<String>, CacheValue<OmKeyInfo>>> iterator =
-          omMetadataManager.getKeyTable().cacheIterator();
+          omMetadataManager.getKeyTable().cacheIterator(dbKeyPath);
 
       while (iterator.hasNext()) {
         Map.Entry< CacheKey< String >, CacheValue< OmKeyInfo > > entry =
             iterator.next();
         String key = entry.getKey().getCacheKey();
+        if (!key.startsWith(dbKeyPath)) {
+          break;
+        }
         OmKeyInfo omKeyInfo = entry.getValue().getCacheValue();
         // Making sure that entry is not for delete key request.
-        if (key.startsWith(dbKeyPath) && omKeyInfo != null) {
+        if (omKeyInfo != null) {
           return true;
         }
       }
@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerDoubleBufferHelper;
+import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer;
+import org.apache.hadoop.ozone.security.acl.OzoneObj;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.hadoop.ozone.audit.AuditLogger;
+import org.apache.hadoop.ozone.audit.OMAction;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.OMMetrics;
+import org.apache.hadoop.ozone.om.OzoneManager;
+import org.apache.hadoop.ozone.om.exceptions.OMException;
+import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.om.response.key.OMKeyCopyResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .CopyKeyRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .CopyKeyResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMRequest;
+import org.apache.hadoop.util.Time;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.KEY_NOT_FOUND;
+import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.Resource.BUCKET_LOCK;
+
+/**
+ * Handles copy key request. The new key refers to the blocks of the source
+ * key instead of a copy of its data, and the blocks are reference counted in
+ * the shared block table so that they are only reclaimed once the last key
+ * referring to them is deleted.
+ */
+public class OMKeyCopyRequest extends OMKeyRequest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(OMKeyCopyRequest.class);
+
+  public OMKeyCopyRequest(OMRequest omRequest) {
+    super(omRequest);
+  }
+
+  @Override
+  public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
+    CopyKeyRequest copyKeyRequest = getOmRequest().getCopyKeyRequest();
+    Preconditions.checkNotNull(copyKeyRequest);
+
+    // Set modification time.
+    KeyArgs.Builder newToKeyArgs = copyKeyRequest.getToKeyArgs().toBuilder()
+        .setModificationTime(Time.now());
+
+    return getOmRequest().toBuilder()
+        .setCopyKeyRequest(copyKeyRequest.toBuilder()
+            .setToKeyArgs(newToKeyArgs)).setUserInfo(getUserInfo()).build();
+  }
+
+  @Override
+  @SuppressWarnings("methodlength")
+  public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
+      long transactionLogIndex,
+      OzoneManagerDoubleBufferHelper ozoneManagerDoubleBufferHelper) {
+    CopyKeyRequest copyKeyRequest = getOmRequest().getCopyKeyRequest();
+
+    KeyArgs fromKeyArgs = copyKeyRequest.getKeyArgs();
+    KeyArgs toKeyArgs = copyKeyRequest.getToKeyArgs();
+
+    String volumeName = fromKeyArgs.getVolumeName();
+    String bucketName = fromKeyArgs.getBucketName();
+    String keyName = fromKeyArgs.getKeyName();
+    String toVolumeName = toKeyArgs.getVolumeName();
+    String toBucketName = toKeyArgs.getBucketName();
+    String toKeyName = toKeyArgs.getKeyName();
+
+    OMMetrics omMetrics = ozoneManager.getMetrics();
+    omMetrics.incNumKeyCopies();
+
+    AuditLogger auditLogger = ozoneManager.getAuditLogger();
+
+    Map<String, String> auditMap = buildKeyArgsAuditMap(fromKeyArgs);
+    auditMap.put("toVolume", toVolumeName);
+    auditMap.put("toBucket", toBucketName);
+    auditMap.put("toKey", toKeyName);
+
+    OzoneManagerProtocolProtos.OMResponse.Builder omResponse =
+        OzoneManagerProtocolProtos.OMResponse.newBuilder().setCmdType(
+            OzoneManagerProtocolProtos.Type.CopyKey).setStatus(
+            OzoneManagerProtocolProtos.Status.OK).setSuccess(true);
+
+    OMMetadataManager omMetadataManager = ozoneManager.getMetadataManager();
+    String bucketLock = omMetadataManager.getBucketKey(volumeName, bucketName);
+    String toBucketLock =
+        omMetadataManager.getBucketKey(toVolumeName, toBucketName);
+    boolean sameBucket = bucketLock.equals(toBucketLock);
+    // Acquire the bucket locks in lexical order to avoid deadlock with
+    // copies in the other direction.
+    boolean fromLockedFirst = bucketLock.compareTo(toBucketLock) <= 0;
+    boolean acquiredLock = false;
+    boolean acquiredToLock = false;
+    OMClientResponse omClientResponse = null;
+    IOException exception = null;
+    boolean newKey = false;
+    boolean addedToDoubleBuffer = false;
+    try {
+      if (keyName.length() == 0 || toKeyName.length() == 0) {
+        throw new OMException("Key name is empty",
+            OMException.ResultCodes.INVALID_KEY_NAME);
+      }
+      // check Acls to see if user has access to read the source key and to
+      // create the new key
+      checkKeyAcls(ozoneManager, volumeName, bucketName, keyName,
+          IAccessAuthorizer.ACLType.READ, OzoneObj.ResourceType.KEY);
+      checkKeyAcls(ozoneManager, toVolumeName, toBucketName, toKeyName,
+          IAccessAuthorizer.ACLType.CREATE, OzoneObj.ResourceType.KEY);
+
+      if (fromLockedFirst) {
+        acquiredLock = omMetadataManager.getLock().acquireWriteLock(
+            BUCKET_LOCK, volumeName, bucketName);
+      }
+      if (!sameBucket) {
+        acquiredToLock = omMetadataManager.getLock().acquireWriteLock(
+            BUCKET_LOCK, toVolumeName, toBucketName);
+      }
+      if (!fromLockedFirst) {
+        acquiredLock = omMetadataManager.getLock().acquireWriteLock(
+            BUCKET_LOCK, volumeName, bucketName);
+      }
+
+      // Validate bucket and volume exists or not.
+      validateBucketAndVolume(omMetadataManager, volumeName, bucketName);
+      validateBucketAndVolume(omMetadataManager, toVolumeName, toBucketName);
+
+      String fromKey = omMetadataManager.getOzoneKey(
+          volumeName, bucketName, keyName);
+      String toKey = omMetadataManager.getOzoneKey(
+          toVolumeName, toBucketName, toKeyName);
+      if (fromKey.equals(toKey)) {
+        throw new OMException("Key can not be copied to itself " + fromKey,
+            OMException.ResultCodes.INVALID_REQUEST);
+      }
+
+      OmKeyInfo fromKeyInfo = omMetadataManager.getKeyTable().get(fromKey);
+      if (fromKeyInfo == null) {
+        throw new OMException("Key not found " + fromKey, KEY_NOT_FOUND);
+      }
+      OmKeyInfo replacedKeyInfo = omMetadataManager.getKeyTable().get(toKey);
+      newKey = replacedKeyInfo == null;
+
+      List<OmKeyLocationInfo> locations = new ArrayList<>();
+      for (OmKeyLocationInfo location :
+          fromKeyInfo.getLatestVersionLocations().getBlocksLatestVersionOnly()) {
+        locations.add(new OmKeyLocationInfo.Builder()
+            .setBlockID(location.getBlockID())
+            .setLength(location.getLength())
+            .setOffset(location.getOffset())
+            .setPipeline(location.getPipeline())
+            .build());
+      }
+
+      OmBucketInfo toBucketInfo = omMetadataManager.getBucketTable().get(
+          toBucketLock);
+      OmKeyInfo toKeyInfo = createKeyInfo(toKeyArgs, locations,
+          fromKeyInfo.getFactor(), fromKeyInfo.getType(),
+          fromKeyInfo.getDataSize(), fromKeyInfo.getFileEncryptionInfo(),
+          ozoneManager.getPrefixManager(), toBucketInfo);
+      if (toKeyArgs.getMetadataCount() == 0) {
+        toKeyInfo.getMetadata().putAll(fromKeyInfo.getMetadata());
+      }
+
+      Map<String, Long> sharedBlockUpdates = new HashMap<>();
+      // The response has to reach the double buffer before any other
+      // request updates the same reference counts.
+      synchronized (omMetadataManager.getSharedBlockTable()) {
+        addSharedBlockReferences(omMetadataManager, locations,
+            sharedBlockUpdates, transactionLogIndex);
+        // The key replaced by the copy is deleted, except for the blocks
+        // still referred by other keys, which may include the copy itself.
+        if (replacedKeyInfo != null) {
+          replacedKeyInfo = releaseSharedBlocks(omMetadataManager,
+              replacedKeyInfo, sharedBlockUpdates, transactionLogIndex);
+        }
+
+        omMetadataManager.getKeyTable().addCacheEntry(new CacheKey<>(toKey),
+            new CacheValue<>(Optional.of(toKeyInfo), transactionLogIndex));
+
+        omClientResponse = new OMKeyCopyResponse(toKeyInfo, replacedKeyInfo,
+            sharedBlockUpdates, omResponse.setCopyKeyResponse(
+                CopyKeyResponse.newBuilder()).build());
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+        addedToDoubleBuffer = true;
+      }
+    } catch (IOException ex) {
+      exception = ex;
+      omClientResponse = new OMKeyCopyResponse(null, null, null,
+          createErrorOMResponse(omResponse, exception));
+    } finally {
+      if (omClientResponse != null && !addedToDoubleBuffer) {
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+      }
+      if (acquiredToLock) {
+        omMetadataManager.getLock().releaseWriteLock(BUCKET_LOCK,
+            toVolumeName, toBucketName);
+      }
+      if (acquiredLock) {
+        omMetadataManager.getLock().releaseWriteLock(BUCKET_LOCK, volumeName,
+            bucketName);
+      }
+    }
+
+    auditLog(auditLogger, buildAuditMessage(OMAction.COPY_KEY, auditMap,
+        exception, getOmRequest().getUserInfo()));
+
+    if (exception == null) {
+      LOG.debug("Copied key {} in volume:{} bucket:{} to key {} in volume:{}" +
+          " bucket:{}", keyName, volumeName, bucketName, toKeyName,
+          toVolumeName, toBucketName);
+      if (newKey) {
+        omMetrics.incNumKeys();
+      }
+      return omClientResponse;
+    } else {
+      omMetrics.incNumKeyCopyFails();
+      LOG.error("Copy key failed for volume:{} bucket:{} key:{} to volume:{}" +
+          " bucket:{} key:{}.", volumeName, bucketName, keyName, toVolumeName,
+          toBucketName, toKeyName, exception);
+      return omClientResponse;
+    }
+  }
+}
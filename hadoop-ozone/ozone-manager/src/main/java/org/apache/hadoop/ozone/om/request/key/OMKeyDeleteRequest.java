@@ -19,6 +19,7 @@
 package org.apache.hadoop.ozone.om.request.key;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 import com.google.common.base.Optional;
@@ -108,6 +109,7 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
     IOException exception = null;
     boolean acquiredLock = false;
     OMClientResponse omClientResponse = null;
+    boolean addedToDoubleBuffer = false;
     try {
       // check Acl
       checkKeyAcls(ozoneManager, volumeName, bucketName, keyName,
@@ -138,16 +140,28 @@ public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
       // validation, so we don't need to add to cache.
       // TODO: Revisit if we need it later.
 
-      omClientResponse = new OMKeyDeleteResponse(omKeyInfo,
-          omResponse.setDeleteKeyResponse(
-              DeleteKeyResponse.newBuilder()).build());
+      Map<String, Long> sharedBlockUpdates = new HashMap<>();
+      // The response has to reach the double buffer before any other
+      // request updates the same reference counts.
+      synchronized (omMetadataManager.getSharedBlockTable()) {
+        omKeyInfo = releaseSharedBlocks(omMetadataManager, omKeyInfo,
+            sharedBlockUpdates, transactionLogIndex);
+
+        omClientResponse = new OMKeyDeleteResponse(omKeyInfo,
+            sharedBlockUpdates, omResponse.setDeleteKeyResponse(
+                DeleteKeyResponse.newBuilder()).build());
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+        addedToDoubleBuffer = true;
+      }
 
     } catch (IOException ex) {
       exception = ex;
       omClientResponse = new OMKeyDeleteResponse(null,
           createErrorOMResponse(omResponse, exception));
     } finally {
-      if (omClientResponse != null) {
+      if (omClientResponse != null && !addedToDoubleBuffer) {
         omClientResponse.setFlushFuture(
             ozoneManagerDoubleBufferHelper.add(omClientResponse,
                 transactionLogIndex));
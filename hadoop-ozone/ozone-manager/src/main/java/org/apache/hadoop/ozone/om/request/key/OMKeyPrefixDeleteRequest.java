@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.base.Optional;
+import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerDoubleBufferHelper;
+import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer;
+import org.apache.hadoop.ozone.security.acl.OzoneObj;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.ozone.audit.AuditLogger;
+import org.apache.hadoop.ozone.audit.OMAction;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.OMMetrics;
+import org.apache.hadoop.ozone.om.OzoneManager;
+import org.apache.hadoop.ozone.om.exceptions.OMException;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.om.response.key.OMKeyPrefixDeleteResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .DeleteKeyPrefixRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .DeleteKeyPrefixResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMRequest;
+import org.apache.hadoop.util.Time;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.KEY_NOT_FOUND;
+import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.Resource.BUCKET_LOCK;
+
+/**
+ * Handles delete key prefix request. All the keys starting with the prefix
+ * are deleted in a single transaction, which is used to delete directories
+ * recursively.
+ */
+public class OMKeyPrefixDeleteRequest extends OMKeyRequest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(OMKeyPrefixDeleteRequest.class);
+
+  public OMKeyPrefixDeleteRequest(OMRequest omRequest) {
+    super(omRequest);
+  }
+
+  @Override
+  public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
+    DeleteKeyPrefixRequest deleteKeyPrefixRequest =
+        getOmRequest().getDeleteKeyPrefixRequest();
+    Preconditions.checkNotNull(deleteKeyPrefixRequest);
+
+    OzoneManagerProtocolProtos.KeyArgs keyArgs =
+        deleteKeyPrefixRequest.getKeyArgs();
+
+    OzoneManagerProtocolProtos.KeyArgs.Builder newKeyArgs =
+        keyArgs.toBuilder().setModificationTime(Time.now());
+
+    return getOmRequest().toBuilder()
+        .setDeleteKeyPrefixRequest(deleteKeyPrefixRequest.toBuilder()
+            .setKeyArgs(newKeyArgs)).setUserInfo(getUserInfo()).build();
+  }
+
+  @Override
+  public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
+      long transactionLogIndex,
+      OzoneManagerDoubleBufferHelper ozoneManagerDoubleBufferHelper) {
+    DeleteKeyPrefixRequest deleteKeyPrefixRequest =
+        getOmRequest().getDeleteKeyPrefixRequest();
+
+    OzoneManagerProtocolProtos.KeyArgs deleteKeyArgs =
+        deleteKeyPrefixRequest.getKeyArgs();
+
+    String volumeName = deleteKeyArgs.getVolumeName();
+    String bucketName = deleteKeyArgs.getBucketName();
+    String keyPrefix = deleteKeyArgs.getKeyName();
+
+    OMMetrics omMetrics = ozoneManager.getMetrics();
+    omMetrics.incNumKeyDeletes();
+
+    AuditLogger auditLogger = ozoneManager.getAuditLogger();
+    OzoneManagerProtocolProtos.UserInfo userInfo = getOmRequest().getUserInfo();
+
+    Map<String, String> auditMap = buildKeyArgsAuditMap(deleteKeyArgs);
+
+    OzoneManagerProtocolProtos.OMResponse.Builder omResponse =
+        OzoneManagerProtocolProtos.OMResponse.newBuilder().setCmdType(
+            OzoneManagerProtocolProtos.Type.DeleteKeyPrefix).setStatus(
+            OzoneManagerProtocolProtos.Status.OK).setSuccess(true);
+    OMMetadataManager omMetadataManager = ozoneManager.getMetadataManager();
+    IOException exception = null;
+    boolean acquiredLock = false;
+    OMClientResponse omClientResponse = null;
+    boolean addedToDoubleBuffer = false;
+    TreeMap<String, OmKeyInfo> deletedKeys = null;
+    try {
+      if (keyPrefix.length() == 0) {
+        throw new OMException("Key prefix is empty",
+            OMException.ResultCodes.INVALID_KEY_NAME);
+      }
+      // check Acl
+      checkKeyAcls(ozoneManager, volumeName, bucketName, keyPrefix,
+          IAccessAuthorizer.ACLType.DELETE, OzoneObj.ResourceType.KEY);
+
+      acquiredLock = omMetadataManager.getLock().acquireWriteLock(BUCKET_LOCK,
+          volumeName, bucketName);
+
+      // Validate bucket and volume exists or not.
+      validateBucketAndVolume(omMetadataManager, volumeName, bucketName);
+
+      deletedKeys = getKeysWithPrefix(omMetadataManager, volumeName,
+          bucketName, keyPrefix, ozoneManager.getConfiguration().getLong(
+              OMConfigKeys.OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX,
+              OMConfigKeys.OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX_DEFAULT));
+      if (deletedKeys.isEmpty()) {
+        throw new OMException("No keys found with prefix " + keyPrefix,
+            KEY_NOT_FOUND);
+      }
+
+      // Update table cache.
+      for (String objectKey : deletedKeys.keySet()) {
+        omMetadataManager.getKeyTable().addCacheEntry(
+            new CacheKey<>(objectKey),
+            new CacheValue<>(Optional.absent(), transactionLogIndex));
+      }
+
+      // No need to add cache entries to delete table. As delete table will
+      // be used by DeleteKeyService only, not used for any client response
+      // validation, so we don't need to add to cache.
+
+      Map<String, Long> sharedBlockUpdates = new HashMap<>();
+      List<OmKeyInfo> keyInfos = new ArrayList<>(deletedKeys.size());
+      // The response has to reach the double buffer before any other
+      // request updates the same reference counts.
+      synchronized (omMetadataManager.getSharedBlockTable()) {
+        for (OmKeyInfo omKeyInfo : deletedKeys.values()) {
+          keyInfos.add(releaseSharedBlocks(omMetadataManager, omKeyInfo,
+              sharedBlockUpdates, transactionLogIndex));
+        }
+
+        omClientResponse = new OMKeyPrefixDeleteResponse(keyInfos,
+            sharedBlockUpdates, omResponse.setDeleteKeyPrefixResponse(
+                DeleteKeyPrefixResponse.newBuilder()
+                    .setNumKeys(deletedKeys.size())).build());
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+        addedToDoubleBuffer = true;
+      }
+
+    } catch (IOException ex) {
+      exception = ex;
+      omClientResponse = new OMKeyPrefixDeleteResponse(null,
+          createErrorOMResponse(omResponse, exception));
+    } finally {
+      if (omClientResponse != null && !addedToDoubleBuffer) {
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+      }
+      if (acquiredLock) {
+        omMetadataManager.getLock().releaseWriteLock(BUCKET_LOCK, volumeName,
+            bucketName);
+      }
+    }
+
+    // Performing audit logging outside of the lock.
+    auditLog(auditLogger, buildAuditMessage(OMAction.DELETE_KEY_PREFIX,
+        auditMap, exception, userInfo));
+
+    // return response.
+    if (exception == null) {
+      LOG.debug("Deleted {} keys with prefix {} in volume:{} bucket:{}",
+          deletedKeys.size(), keyPrefix, volumeName, bucketName);
+      omMetrics.decNumKeys(deletedKeys.size());
+      return omClientResponse;
+    } else {
+      omMetrics.incNumKeyDeleteFails();
+      return omClientResponse;
+    }
+
+  }
+}
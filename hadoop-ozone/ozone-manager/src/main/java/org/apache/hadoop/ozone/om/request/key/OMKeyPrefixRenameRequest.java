@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.ozone.OzoneConsts;
+import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerDoubleBufferHelper;
+import org.apache.hadoop.ozone.security.acl.IAccessAuthorizer;
+import org.apache.hadoop.ozone.security.acl.OzoneObj;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.hadoop.ozone.audit.AuditLogger;
+import org.apache.hadoop.ozone.audit.OMAction;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.OMMetrics;
+import org.apache.hadoop.ozone.om.OzoneManager;
+import org.apache.hadoop.ozone.om.exceptions.OMException;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.om.response.key.OMKeyPrefixRenameResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .RenameKeyPrefixRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .RenameKeyPrefixResponse;
+import org.apache.hadoop.util.Time;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+
+import static org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes.KEY_NOT_FOUND;
+import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.Resource.BUCKET_LOCK;
+
+/**
+ * Handles rename key prefix request. All the keys starting with the prefix
+ * are renamed in a single transaction, which is used to rename directories
+ * atomically.
+ */
+public class OMKeyPrefixRenameRequest extends OMKeyRequest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(OMKeyPrefixRenameRequest.class);
+
+  public OMKeyPrefixRenameRequest(OMRequest omRequest) {
+    super(omRequest);
+  }
+
+  @Override
+  public OMRequest preExecute(OzoneManager ozoneManager) throws IOException {
+
+    RenameKeyPrefixRequest renameKeyPrefixRequest =
+        getOmRequest().getRenameKeyPrefixRequest();
+    Preconditions.checkNotNull(renameKeyPrefixRequest);
+
+    // Set modification time.
+    KeyArgs.Builder newKeyArgs = renameKeyPrefixRequest.getKeyArgs()
+        .toBuilder().setModificationTime(Time.now());
+
+    return getOmRequest().toBuilder()
+        .setRenameKeyPrefixRequest(renameKeyPrefixRequest.toBuilder()
+            .setKeyArgs(newKeyArgs)).setUserInfo(getUserInfo()).build();
+
+  }
+
+  @Override
+  public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
+      long transactionLogIndex,
+      OzoneManagerDoubleBufferHelper ozoneManagerDoubleBufferHelper) {
+
+    RenameKeyPrefixRequest renameKeyPrefixRequest =
+        getOmRequest().getRenameKeyPrefixRequest();
+
+    OzoneManagerProtocolProtos.KeyArgs renameKeyArgs =
+        renameKeyPrefixRequest.getKeyArgs();
+
+    String volumeName = renameKeyArgs.getVolumeName();
+    String bucketName = renameKeyArgs.getBucketName();
+    String fromKeyPrefix = renameKeyArgs.getKeyName();
+    String toKeyPrefix = renameKeyPrefixRequest.getToKeyPrefix();
+
+    OMMetrics omMetrics = ozoneManager.getMetrics();
+    omMetrics.incNumKeyRenames();
+
+    AuditLogger auditLogger = ozoneManager.getAuditLogger();
+
+    Map<String, String> auditMap = buildKeyArgsAuditMap(renameKeyArgs);
+    auditMap.put(OzoneConsts.TO_KEY_PREFIX, toKeyPrefix);
+
+    OzoneManagerProtocolProtos.OMResponse.Builder omResponse =
+        OzoneManagerProtocolProtos.OMResponse.newBuilder().setCmdType(
+            OzoneManagerProtocolProtos.Type.RenameKeyPrefix).setStatus(
+            OzoneManagerProtocolProtos.Status.OK).setSuccess(true);
+
+    OMMetadataManager omMetadataManager = ozoneManager.getMetadataManager();
+    boolean acquiredLock = false;
+    OMClientResponse omClientResponse = null;
+    IOException exception = null;
+    try {
+      if (toKeyPrefix.length() == 0 || fromKeyPrefix.length() == 0) {
+        throw new OMException("Key prefix is empty",
+            OMException.ResultCodes.INVALID_KEY_NAME);
+      }
+      if (toKeyPrefix.startsWith(fromKeyPrefix)) {
+        throw new OMException("Cannot rename key prefix " + fromKeyPrefix +
+            " to " + toKeyPrefix, OMException.ResultCodes.INVALID_KEY_NAME);
+      }
+      // check Acls to see if user has access to perform delete operation on
+      // old keys and create operation on new keys
+      checkKeyAcls(ozoneManager, volumeName, bucketName, fromKeyPrefix,
+          IAccessAuthorizer.ACLType.DELETE, OzoneObj.ResourceType.KEY);
+      checkKeyAcls(ozoneManager, volumeName, bucketName, toKeyPrefix,
+          IAccessAuthorizer.ACLType.CREATE, OzoneObj.ResourceType.KEY);
+
+      acquiredLock = omMetadataManager.getLock().acquireWriteLock(BUCKET_LOCK,
+          volumeName, bucketName);
+
+      // Validate bucket and volume exists or not.
+      validateBucketAndVolume(omMetadataManager, volumeName, bucketName);
+
+      TreeMap<String, OmKeyInfo> fromKeys = getKeysWithPrefix(
+          omMetadataManager, volumeName, bucketName, fromKeyPrefix,
+          ozoneManager.getConfiguration().getLong(
+              OMConfigKeys.OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX,
+              OMConfigKeys.OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX_DEFAULT));
+      if (fromKeys.isEmpty()) {
+        throw new OMException("No keys found with prefix " + fromKeyPrefix,
+            KEY_NOT_FOUND);
+      }
+
+      Table<String, OmKeyInfo> keyTable = omMetadataManager.getKeyTable();
+      // Old key name to the renamed key info.
+      Map<String, OmKeyInfo> renamedKeys = new LinkedHashMap<>();
+      for (Map.Entry<String, OmKeyInfo> entry : fromKeys.entrySet()) {
+        OmKeyInfo fromKeyValue = entry.getValue();
+        String fromKeyName = fromKeyValue.getKeyName();
+        String toKeyName = toKeyPrefix +
+            fromKeyName.substring(fromKeyPrefix.length());
+
+        // toKeyName should not exist, unless it is renamed by this request.
+        String toKey =
+            omMetadataManager.getOzoneKey(volumeName, bucketName, toKeyName);
+        if (!fromKeys.containsKey(toKey) && keyTable.get(toKey) != null) {
+          throw new OMException("Key already exists " + toKeyName,
+              OMException.ResultCodes.KEY_ALREADY_EXISTS);
+        }
+
+        OmKeyInfo toKeyValue = fromKeyValue.copyObject();
+        toKeyValue.setKeyName(toKeyName);
+        //Set modification time
+        toKeyValue.setModificationTime(renameKeyArgs.getModificationTime());
+        renamedKeys.put(fromKeyName, toKeyValue);
+      }
+
+      // Add to cache.
+      // Old keys should be deleted before the new keys are added, as a new
+      // key can have the name of an old key.
+      for (String fromKey : fromKeys.keySet()) {
+        keyTable.addCacheEntry(new CacheKey<>(fromKey),
+            new CacheValue<>(Optional.absent(), transactionLogIndex));
+      }
+      for (OmKeyInfo toKeyValue : renamedKeys.values()) {
+        keyTable.addCacheEntry(new CacheKey<>(omMetadataManager.getOzoneKey(
+            volumeName, bucketName, toKeyValue.getKeyName())),
+            new CacheValue<>(Optional.of(toKeyValue), transactionLogIndex));
+      }
+
+      omClientResponse = new OMKeyPrefixRenameResponse(renamedKeys,
+          omResponse.setRenameKeyPrefixResponse(
+              RenameKeyPrefixResponse.newBuilder()
+                  .setNumKeys(renamedKeys.size())).build());
+    } catch (IOException ex) {
+      exception = ex;
+      omClientResponse = new OMKeyPrefixRenameResponse(null,
+          createErrorOMResponse(omResponse, exception));
+    } finally {
+      if (omClientResponse != null) {
+        omClientResponse.setFlushFuture(
+            ozoneManagerDoubleBufferHelper.add(omClientResponse,
+                transactionLogIndex));
+      }
+      if (acquiredLock) {
+        omMetadataManager.getLock().releaseWriteLock(BUCKET_LOCK, volumeName,
+            bucketName);
+      }
+    }
+
+
+    auditLog(auditLogger, buildAuditMessage(OMAction.RENAME_KEY_PREFIX,
+        auditMap, exception, getOmRequest().getUserInfo()));
+
+    if (exception == null) {
+      LOG.debug("Rename key prefix is successfully completed for volume:{} " +
+          "bucket:{} fromKeyPrefix:{} toKeyPrefix:{}. ", volumeName,
+          bucketName, fromKeyPrefix, toKeyPrefix);
+      return omClientResponse;
+    } else {
+      ozoneManager.getMetrics().incNumKeyRenameFails();
+      LOG.error("Rename key prefix failed for volume:{} bucket:{} " +
+          "fromKeyPrefix:{} toKeyPrefix:{}.", volumeName, bucketName,
+          fromKeyPrefix, toKeyPrefix, exception);
+      return omClientResponse;
+    }
+  }
+}
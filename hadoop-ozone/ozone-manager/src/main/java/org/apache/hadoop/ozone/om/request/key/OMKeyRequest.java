@@ -26,8 +26,11 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Optional;
@@ -81,6 +84,8 @@
 import org.apache.hadoop.ozone.security.OzoneBlockTokenSecretManager;
 import org.apache.hadoop.security.SecurityUtil;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.hdds.utils.db.TableIterator;
 import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
 import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
 
@@ -498,6 +503,165 @@ private OMClientResponse createKeyErrorResponse(@Nonnull OMMetrics omMetrics,
     }
   }
 
+  /**
+   * Returns the keys whose name starts with the given prefix, sorted by their
+   * DB key. Entries of the key table cache, which may not be flushed to the
+   * DB yet, take precedence over the DB entries.
+   * @param omMetadataManager
+   * @param volumeName
+   * @param bucketName
+   * @param keyPrefix non empty key name prefix
+   * @param maxKeys maximum number of keys to return
+   * @return map from DB key to key info
+   * @throws OMException if there are more than maxKeys keys with the prefix
+   * @throws IOException if there is error in the db
+   */
+  protected TreeMap<String, OmKeyInfo> getKeysWithPrefix(
+      OMMetadataManager omMetadataManager, String volumeName,
+      String bucketName, String keyPrefix, long maxKeys) throws IOException {
+    Preconditions.checkArgument(!keyPrefix.isEmpty(),
+        "Key prefix is empty");
+    String dbKeyPrefix = omMetadataManager.getOzoneKey(volumeName, bucketName,
+        keyPrefix);
+    Table<String, OmKeyInfo> keyTable = omMetadataManager.getKeyTable();
+
+    // Cache entries with a null value are keys deleted by a transaction
+    // which is not flushed yet.
+    Map<String, OmKeyInfo> cachedKeys = new HashMap<>();
+    Iterator<Map.Entry<CacheKey<String>, CacheValue<OmKeyInfo>>>
+        cacheIterator = keyTable.cacheIterator(dbKeyPrefix);
+    while (cacheIterator.hasNext()) {
+      Map.Entry<CacheKey<String>, CacheValue<OmKeyInfo>> entry =
+          cacheIterator.next();
+      String key = entry.getKey().getCacheKey();
+      if (!key.startsWith(dbKeyPrefix)) {
+        break;
+      }
+      cachedKeys.put(key, entry.getValue().getCacheValue());
+    }
+
+    TreeMap<String, OmKeyInfo> keys = new TreeMap<>();
+    cachedKeys.forEach((key, value) -> {
+      if (value != null) {
+        keys.put(key, value);
+      }
+    });
+    checkKeyCount(keys, keyPrefix, maxKeys);
+    try (TableIterator<String, ? extends Table.KeyValue<String, OmKeyInfo>>
+        keyIter = keyTable.iterator()) {
+      keyIter.seek(dbKeyPrefix);
+      while (keyIter.hasNext()) {
+        Table.KeyValue<String, OmKeyInfo> kv = keyIter.next();
+        if (!kv.getKey().startsWith(dbKeyPrefix)) {
+          break;
+        }
+        if (!cachedKeys.containsKey(kv.getKey())) {
+          keys.put(kv.getKey(), kv.getValue());
+          checkKeyCount(keys, keyPrefix, maxKeys);
+        }
+      }
+    }
+    return keys;
+  }
+
+  private static void checkKeyCount(Map<String, OmKeyInfo> keys,
+      String keyPrefix, long maxKeys) throws OMException {
+    if (keys.size() > maxKeys) {
+      throw new OMException("More than " + maxKeys + " keys with prefix "
+          + keyPrefix, OMException.ResultCodes.TOO_MANY_KEYS);
+    }
+  }
+
+  /**
+   * Adds a reference to each of the given blocks in the shared block table,
+   * for a new key referring to the blocks of an existing key.
+   *
+   * Keys in different buckets may share blocks, and requests on different
+   * buckets are applied in parallel. The caller must hold the monitor of the
+   * shared block table until the response carrying the updates has been
+   * added to the double buffer, so that the updates reach the DB in the
+   * order they were made.
+   * @param omMetadataManager
+   * @param locations blocks referred by the new key
+   * @param sharedBlockUpdates updated reference counts, to be written to the
+   *                           DB by the response
+   * @param transactionLogIndex
+   * @throws IOException if there is error in the db
+   */
+  protected void addSharedBlockReferences(OMMetadataManager omMetadataManager,
+      List<OmKeyLocationInfo> locations, Map<String, Long> sharedBlockUpdates,
+      long transactionLogIndex) throws IOException {
+    Table<String, Long> sharedBlockTable =
+        omMetadataManager.getSharedBlockTable();
+    Preconditions.checkState(Thread.holdsLock(sharedBlockTable));
+    for (OmKeyLocationInfo location : locations) {
+      String blockKey = omMetadataManager.getSharedBlockKey(
+          location.getContainerID(), location.getLocalID());
+      Long references = sharedBlockTable.get(blockKey);
+      long newReferences = references == null ? 1 : references + 1;
+      sharedBlockUpdates.put(blockKey, newReferences);
+      sharedBlockTable.addCacheEntry(new CacheKey<>(blockKey),
+          new CacheValue<>(Optional.of(newReferences), transactionLogIndex));
+    }
+  }
+
+  /**
+   * Releases the references of a key being deleted to its blocks which are
+   * shared with other keys. Blocks still referred by other keys must not be
+   * reclaimed with the key, so they are left out of the returned key info.
+   * The caller must hold the monitor of the shared block table, as for
+   * {@link #addSharedBlockReferences}.
+   * @param omMetadataManager
+   * @param omKeyInfo key being deleted
+   * @param sharedBlockUpdates updated reference counts, to be written to the
+   *                           DB by the response, zero if the entry is to be
+   *                           removed
+   * @param transactionLogIndex
+   * @return the key info with the blocks to be deleted with the key
+   * @throws IOException if there is error in the db
+   */
+  protected OmKeyInfo releaseSharedBlocks(OMMetadataManager omMetadataManager,
+      OmKeyInfo omKeyInfo, Map<String, Long> sharedBlockUpdates,
+      long transactionLogIndex) throws IOException {
+    Table<String, Long> sharedBlockTable =
+        omMetadataManager.getSharedBlockTable();
+    Preconditions.checkState(Thread.holdsLock(sharedBlockTable));
+    // Later versions of a key also list the blocks of earlier versions, so a
+    // block is released once per key.
+    Map<String, Boolean> released = new HashMap<>();
+    for (OmKeyLocationInfoGroup version : omKeyInfo.getKeyLocationVersions()) {
+      for (OmKeyLocationInfo location : version.getLocationList()) {
+        String blockKey = omMetadataManager.getSharedBlockKey(
+            location.getContainerID(), location.getLocalID());
+        if (released.containsKey(blockKey)) {
+          continue;
+        }
+        Long references = sharedBlockTable.get(blockKey);
+        if (references == null || references == 0) {
+          released.put(blockKey, false);
+          continue;
+        }
+        long newReferences = references - 1;
+        released.put(blockKey, true);
+        sharedBlockUpdates.put(blockKey, newReferences);
+        sharedBlockTable.addCacheEntry(new CacheKey<>(blockKey),
+            new CacheValue<>(newReferences == 0 ? Optional.absent() :
+                Optional.of(newReferences), transactionLogIndex));
+      }
+    }
+    if (!released.containsValue(true)) {
+      return omKeyInfo;
+    }
+
+    OmKeyInfo keyInfo = omKeyInfo.copyObject();
+    for (OmKeyLocationInfoGroup version : keyInfo.getKeyLocationVersions()) {
+      version.getLocationList().removeIf(location -> released.get(
+          omMetadataManager.getSharedBlockKey(location.getContainerID(),
+              location.getLocalID())));
+    }
+    return keyInfo;
+  }
+
   /**
    * Check Acls for the ozone bucket.
    * @param ozoneManager
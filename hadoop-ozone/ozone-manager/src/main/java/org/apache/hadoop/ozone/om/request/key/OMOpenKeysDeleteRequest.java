@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import com.google.common.base.Optional;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.OzoneManager;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerDoubleBufferHelper;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.om.response.key.OMOpenKeysDeleteResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteOpenKeysRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteOpenKeysResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OpenKey;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Status;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.hadoop.ozone.om.lock.OzoneManagerLock.Resource.BUCKET_LOCK;
+
+/**
+ * Handles deleting of expired open keys from OM DB. The keys which are no
+ * longer open, because they were committed meanwhile, are skipped.
+ */
+public class OMOpenKeysDeleteRequest extends OMKeyRequest {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(OMOpenKeysDeleteRequest.class);
+
+  public OMOpenKeysDeleteRequest(OMRequest omRequest) {
+    super(omRequest);
+  }
+
+  @Override
+  public OMClientResponse validateAndUpdateCache(OzoneManager ozoneManager,
+      long transactionLogIndex,
+      OzoneManagerDoubleBufferHelper ozoneManagerDoubleBufferHelper) {
+    DeleteOpenKeysRequest deleteOpenKeysRequest =
+        getOmRequest().getDeleteOpenKeysRequest();
+    List<OpenKey> openKeys = deleteOpenKeysRequest.getOpenKeysList();
+
+    LOG.debug("Processing Delete Open Keys for {} number of keys.",
+        openKeys.size());
+
+    OMResponse omResponse = OMResponse.newBuilder()
+        .setCmdType(Type.DeleteOpenKeys)
+        .setDeleteOpenKeysResponse(DeleteOpenKeysResponse.newBuilder())
+        .setStatus(Status.OK)
+        .setSuccess(true)
+        .build();
+    OMMetadataManager omMetadataManager = ozoneManager.getMetadataManager();
+    // ids of the keys which are deleted, or were no longer open
+    List<Long> clientIDs = new ArrayList<>();
+    Map<String, OmKeyInfo> deletedOpenKeys = new LinkedHashMap<>();
+    for (OpenKey openKey : openKeys) {
+      String dbOpenKey = omMetadataManager.getOpenKey(openKey.getVolumeName(),
+          openKey.getBucketName(), openKey.getKeyName(),
+          openKey.getClientID());
+      try {
+        OmKeyInfo omKeyInfo = getOpenKeyInfo(omMetadataManager, openKey,
+            dbOpenKey, transactionLogIndex);
+        if (omKeyInfo != null) {
+          deletedOpenKeys.put(dbOpenKey, omKeyInfo);
+        }
+        clientIDs.add(openKey.getClientID());
+      } catch (IOException ex) {
+        // the other keys are still deleted, this one is retried next time
+        LOG.warn("Failed to delete expired open key {}", dbOpenKey, ex);
+      }
+    }
+
+    OMClientResponse omClientResponse = new OMOpenKeysDeleteResponse(
+        clientIDs, deletedOpenKeys, omResponse);
+    omClientResponse.setFlushFuture(
+        ozoneManagerDoubleBufferHelper.add(omClientResponse,
+            transactionLogIndex));
+    return omClientResponse;
+  }
+
+  /**
+   * Returns the key info of an open key and removes it from the open key
+   * table cache, or null if the key is no longer open.
+   */
+  private OmKeyInfo getOpenKeyInfo(OMMetadataManager omMetadataManager,
+      OpenKey openKey, String dbOpenKey, long transactionLogIndex)
+      throws IOException {
+    String volumeName = openKey.getVolumeName();
+    String bucketName = openKey.getBucketName();
+    boolean acquiredLock = omMetadataManager.getLock().acquireWriteLock(
+        BUCKET_LOCK, volumeName, bucketName);
+    try {
+      OmKeyInfo omKeyInfo = omMetadataManager.getOpenKeyTable().get(dbOpenKey);
+      if (omKeyInfo != null) {
+        omMetadataManager.getOpenKeyTable().addCacheEntry(
+            new CacheKey<>(dbOpenKey),
+            new CacheValue<>(Optional.absent(), transactionLogIndex));
+      }
+      return omKeyInfo;
+    } finally {
+      if (acquiredLock) {
+        omMetadataManager.getLock().releaseWriteLock(BUCKET_LOCK, volumeName,
+            bucketName);
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@
 
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
@@ -28,9 +29,13 @@
 import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.OPEN_KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+
 /**
  * Response for CommitKey request.
  */
+@CleanupTableInfo(cleanupTables = {OPEN_KEY_TABLE, KEY_TABLE})
 public class OMKeyCommitResponse extends OMClientResponse {
 
   private OmKeyInfo omKeyInfo;
@@ -62,6 +67,8 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
       // Delete from open key table and add entry to key table.
       omMetadataManager.getOpenKeyTable().deleteWithBatch(batchOperation,
           openKey);
+      omMetadataManager.getOpenKeyExpiryTable().deleteWithBatch(
+          batchOperation, openKeySessionID);
       omMetadataManager.getKeyTable().putWithBatch(batchOperation, ozoneKey,
           omKeyInfo);
     }
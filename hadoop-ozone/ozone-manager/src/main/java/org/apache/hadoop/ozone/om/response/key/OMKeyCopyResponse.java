@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.response.key;
+
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMResponse;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.Nonnull;
+
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELETED_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.SHARED_BLOCK_TABLE;
+
+/**
+ * Response for CopyKey request.
+ */
+@CleanupTableInfo(cleanupTables = {KEY_TABLE, DELETED_TABLE,
+    SHARED_BLOCK_TABLE})
+public class OMKeyCopyResponse extends OMClientResponse {
+
+  private final OmKeyInfo toKeyInfo;
+  private final OmKeyInfo replacedKeyInfo;
+  private final Map<String, Long> sharedBlockUpdates;
+
+  /**
+   * @param toKeyInfo the new key
+   * @param replacedKeyInfo the key which had the name of the new key, without
+   *                        its blocks still shared with other keys, or null
+   * @param sharedBlockUpdates updated reference counts of shared blocks
+   * @param omResponse
+   */
+  public OMKeyCopyResponse(@Nullable OmKeyInfo toKeyInfo,
+      @Nullable OmKeyInfo replacedKeyInfo,
+      @Nullable Map<String, Long> sharedBlockUpdates,
+      @Nonnull OMResponse omResponse) {
+    super(omResponse);
+    this.toKeyInfo = toKeyInfo;
+    this.replacedKeyInfo = replacedKeyInfo;
+    this.sharedBlockUpdates = sharedBlockUpdates;
+  }
+
+  @Override
+  public void addToDBBatch(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation) throws IOException {
+    // For OmResponse with failure, this should do nothing. This method is
+    // not called in failure scenario in OM code.
+    if (getOMResponse().getStatus() == OzoneManagerProtocolProtos.Status.OK) {
+      omMetadataManager.getKeyTable().putWithBatch(batchOperation,
+          omMetadataManager.getOzoneKey(toKeyInfo.getVolumeName(),
+              toKeyInfo.getBucketName(), toKeyInfo.getKeyName()),
+          toKeyInfo);
+      if (replacedKeyInfo != null) {
+        OMKeyDeleteResponse.addToDeletedTable(omMetadataManager,
+            batchOperation, replacedKeyInfo);
+      }
+      OMKeyDeleteResponse.updateSharedBlocks(omMetadataManager,
+          batchOperation, sharedBlockUpdates);
+    }
+  }
+}
@@ -24,15 +24,19 @@
 
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
     .OMResponse;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.OPEN_KEY_TABLE;
+
 /**
  * Response for CreateKey request.
  */
+@CleanupTableInfo(cleanupTables = {OPEN_KEY_TABLE})
 public class OMKeyCreateResponse extends OMClientResponse {
 
   private OmKeyInfo omKeyInfo;
@@ -57,6 +61,8 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
           openKeySessionID);
       omMetadataManager.getOpenKeyTable().putWithBatch(batchOperation,
           openKey, omKeyInfo);
+      omMetadataManager.getOpenKeyExpiryTable().putWithBatch(batchOperation,
+          openKeySessionID, openKey);
     }
   }
 }
@@ -23,6 +23,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
@@ -30,19 +31,35 @@
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELETED_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.SHARED_BLOCK_TABLE;
+
 /**
  * Response for DeleteKey request.
  */
+@CleanupTableInfo(cleanupTables = {KEY_TABLE, DELETED_TABLE,
+    SHARED_BLOCK_TABLE})
 public class OMKeyDeleteResponse extends OMClientResponse {
   private OmKeyInfo omKeyInfo;
+  private Map<String, Long> sharedBlockUpdates;
+
+  public OMKeyDeleteResponse(@Nullable OmKeyInfo omKeyInfo,
+      @Nonnull OMResponse omResponse) {
+    this(omKeyInfo, Collections.emptyMap(), omResponse);
+  }
 
   public OMKeyDeleteResponse(@Nullable OmKeyInfo omKeyInfo,
+      @Nonnull Map<String, Long> sharedBlockUpdates,
       @Nonnull OMResponse omResponse) {
     super(omResponse);
     this.omKeyInfo = omKeyInfo;
+    this.sharedBlockUpdates = sharedBlockUpdates;
   }
 
   @Override
@@ -52,32 +69,84 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
     // For OmResponse with failure, this should do nothing. This method is
     // not called in failure scenario in OM code.
     if (getOMResponse().getStatus() == OzoneManagerProtocolProtos.Status.OK) {
-      String ozoneKey = omMetadataManager.getOzoneKey(omKeyInfo.getVolumeName(),
-          omKeyInfo.getBucketName(), omKeyInfo.getKeyName());
-      omMetadataManager.getKeyTable().deleteWithBatch(batchOperation,
-          ozoneKey);
+      deleteKey(omMetadataManager, batchOperation, omKeyInfo);
+      updateSharedBlocks(omMetadataManager, batchOperation,
+          sharedBlockUpdates);
+    }
+  }
 
-      // If Key is not empty add this to delete table.
-      if (!isKeyEmpty(omKeyInfo)) {
-        // If a deleted key is put in the table where a key with the same
-        // name already exists, then the old deleted key information would be
-        // lost. To avoid this, first check if a key with same name exists.
-        // deletedTable in OM Metadata stores <KeyName, RepeatedOMKeyInfo>.
-        // The RepeatedOmKeyInfo is the structure that allows us to store a
-        // list of OmKeyInfo that can be tied to same key name. For a keyName
-        // if RepeatedOMKeyInfo structure is null, we create a new instance,
-        // if it is not null, then we simply add to the list and store this
-        // instance in deletedTable.
-        RepeatedOmKeyInfo repeatedOmKeyInfo =
-            omMetadataManager.getDeletedTable().get(ozoneKey);
-        repeatedOmKeyInfo = OmUtils.prepareKeyForDelete(
-            omKeyInfo, repeatedOmKeyInfo);
-        omMetadataManager.getDeletedTable().putWithBatch(batchOperation,
-            ozoneKey, repeatedOmKeyInfo);
+  /**
+   * Writes the updated reference counts of shared blocks. Entries whose
+   * count dropped to zero are removed, as the block is no longer shared.
+   * @param omMetadataManager
+   * @param batchOperation
+   * @param sharedBlockUpdates map from shared block key to reference count
+   * @throws IOException
+   */
+  static void updateSharedBlocks(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation, Map<String, Long> sharedBlockUpdates)
+      throws IOException {
+    for (Map.Entry<String, Long> entry : sharedBlockUpdates.entrySet()) {
+      if (entry.getValue() == 0) {
+        omMetadataManager.getSharedBlockTable().deleteWithBatch(
+            batchOperation, entry.getKey());
+      } else {
+        omMetadataManager.getSharedBlockTable().putWithBatch(batchOperation,
+            entry.getKey(), entry.getValue());
       }
     }
   }
 
+  /**
+   * Deletes the key from the key table and, if it has blocks, moves it to
+   * the deleted table so that its blocks are reclaimed by KeyDeletingService.
+   * @param omMetadataManager
+   * @param batchOperation
+   * @param omKeyInfo key to be deleted
+   * @throws IOException
+   */
+  static void deleteKey(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation, OmKeyInfo omKeyInfo) throws IOException {
+    String ozoneKey = omMetadataManager.getOzoneKey(omKeyInfo.getVolumeName(),
+        omKeyInfo.getBucketName(), omKeyInfo.getKeyName());
+    omMetadataManager.getKeyTable().deleteWithBatch(batchOperation, ozoneKey);
+    addToDeletedTable(omMetadataManager, batchOperation, omKeyInfo);
+  }
+
+  /**
+   * Moves a key which is deleted or replaced by another key to the deleted
+   * table, if it has blocks, so that they are reclaimed by
+   * KeyDeletingService.
+   * @param omMetadataManager
+   * @param batchOperation
+   * @param omKeyInfo key which is no longer in the key table
+   * @throws IOException
+   */
+  static void addToDeletedTable(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation, OmKeyInfo omKeyInfo) throws IOException {
+    // If Key is not empty add this to delete table.
+    if (!isKeyEmpty(omKeyInfo)) {
+      String ozoneKey = omMetadataManager.getOzoneKey(
+          omKeyInfo.getVolumeName(), omKeyInfo.getBucketName(),
+          omKeyInfo.getKeyName());
+      // If a deleted key is put in the table where a key with the same
+      // name already exists, then the old deleted key information would be
+      // lost. To avoid this, first check if a key with same name exists.
+      // deletedTable in OM Metadata stores <KeyName, RepeatedOMKeyInfo>.
+      // The RepeatedOmKeyInfo is the structure that allows us to store a
+      // list of OmKeyInfo that can be tied to same key name. For a keyName
+      // if RepeatedOMKeyInfo structure is null, we create a new instance,
+      // if it is not null, then we simply add to the list and store this
+      // instance in deletedTable.
+      RepeatedOmKeyInfo repeatedOmKeyInfo =
+          omMetadataManager.getDeletedTable().get(ozoneKey);
+      repeatedOmKeyInfo = OmUtils.prepareKeyForDelete(
+          omKeyInfo, repeatedOmKeyInfo);
+      omMetadataManager.getDeletedTable().putWithBatch(batchOperation,
+          ozoneKey, repeatedOmKeyInfo);
+    }
+  }
+
   /**
    * Check if the key is empty or not. Key will be empty if it does not have
    * blocks.
@@ -85,7 +154,7 @@ public void addToDBBatch(OMMetadataManager omMetadataManager,
    * @param keyInfo
    * @return if empty true, else false.
    */
-  private boolean isKeyEmpty(@Nullable OmKeyInfo keyInfo) {
+  private static boolean isKeyEmpty(@Nullable OmKeyInfo keyInfo) {
     if (keyInfo == null) {
       return true;
     }
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.response.key;
+
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMResponse;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.Nonnull;
+
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELETED_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.SHARED_BLOCK_TABLE;
+
+/**
+ * Response for DeleteKeyPrefix request.
+ */
+@CleanupTableInfo(cleanupTables = {KEY_TABLE, DELETED_TABLE,
+    SHARED_BLOCK_TABLE})
+public class OMKeyPrefixDeleteResponse extends OMClientResponse {
+  private final Collection<OmKeyInfo> omKeyInfos;
+  private final Map<String, Long> sharedBlockUpdates;
+
+  public OMKeyPrefixDeleteResponse(@Nullable Collection<OmKeyInfo> omKeyInfos,
+      @Nonnull OMResponse omResponse) {
+    this(omKeyInfos, Collections.emptyMap(), omResponse);
+  }
+
+  public OMKeyPrefixDeleteResponse(@Nullable Collection<OmKeyInfo> omKeyInfos,
+      @Nonnull Map<String, Long> sharedBlockUpdates,
+      @Nonnull OMResponse omResponse) {
+    super(omResponse);
+    this.omKeyInfos = omKeyInfos;
+    this.sharedBlockUpdates = sharedBlockUpdates;
+  }
+
+  @Override
+  public void addToDBBatch(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation) throws IOException {
+
+    // For OmResponse with failure, this should do nothing. This method is
+    // not called in failure scenario in OM code.
+    if (getOMResponse().getStatus() == OzoneManagerProtocolProtos.Status.OK) {
+      for (OmKeyInfo omKeyInfo : omKeyInfos) {
+        OMKeyDeleteResponse.deleteKey(omMetadataManager, batchOperation,
+            omKeyInfo);
+      }
+      OMKeyDeleteResponse.updateSharedBlocks(omMetadataManager,
+          batchOperation, sharedBlockUpdates);
+    }
+  }
+}
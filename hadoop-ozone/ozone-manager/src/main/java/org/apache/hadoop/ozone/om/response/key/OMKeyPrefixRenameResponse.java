@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.response.key;
+
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMResponse;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.Nonnull;
+
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
+
+/**
+ * Response for RenameKeyPrefix request.
+ */
+@CleanupTableInfo(cleanupTables = {KEY_TABLE})
+public class OMKeyPrefixRenameResponse extends OMClientResponse {
+
+  private final Map<String, OmKeyInfo> renamedKeys;
+
+  /**
+   * @param renamedKeys map from the old key name to the renamed key info.
+   * @param omResponse
+   */
+  public OMKeyPrefixRenameResponse(
+      @Nullable Map<String, OmKeyInfo> renamedKeys,
+      @Nonnull OMResponse omResponse) {
+    super(omResponse);
+    this.renamedKeys = renamedKeys;
+  }
+
+  @Override
+  public void addToDBBatch(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation) throws IOException {
+    // For OmResponse with failure, this should do nothing. This method is
+    // not called in failure scenario in OM code.
+    if (getOMResponse().getStatus() == OzoneManagerProtocolProtos.Status.OK) {
+      // Delete all the old keys before adding the new ones, as a new key
+      // name can be the old name of another renamed key.
+      for (Map.Entry<String, OmKeyInfo> entry : renamedKeys.entrySet()) {
+        OmKeyInfo keyInfo = entry.getValue();
+        omMetadataManager.getKeyTable().deleteWithBatch(batchOperation,
+            omMetadataManager.getOzoneKey(keyInfo.getVolumeName(),
+                keyInfo.getBucketName(), entry.getKey()));
+      }
+      for (OmKeyInfo keyInfo : renamedKeys.values()) {
+        omMetadataManager.getKeyTable().putWithBatch(batchOperation,
+            omMetadataManager.getOzoneKey(keyInfo.getVolumeName(),
+                keyInfo.getBucketName(), keyInfo.getKeyName()), keyInfo);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.response.key;
+
+import org.apache.hadoop.ozone.OmUtils;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.om.request.key.OMOpenKeysDeleteRequest;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.DELETED_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.OPEN_KEY_TABLE;
+
+/**
+ * Response for {@link OMOpenKeysDeleteRequest} request.
+ */
+@CleanupTableInfo(cleanupTables = {OPEN_KEY_TABLE, DELETED_TABLE})
+public class OMOpenKeysDeleteResponse extends OMClientResponse {
+
+  private List<Long> clientIDs;
+  private Map<String, OmKeyInfo> deletedOpenKeys;
+
+  public OMOpenKeysDeleteResponse(List<Long> clientIDs,
+      Map<String, OmKeyInfo> deletedOpenKeys,
+      @Nonnull OMResponse omResponse) {
+    super(omResponse);
+    this.clientIDs = clientIDs;
+    this.deletedOpenKeys = deletedOpenKeys;
+  }
+
+  @Override
+  public void addToDBBatch(OMMetadataManager omMetadataManager,
+      BatchOperation batchOperation) throws IOException {
+
+    if (getOMResponse().getStatus() == OzoneManagerProtocolProtos.Status.OK) {
+      for (long clientID : clientIDs) {
+        omMetadataManager.getOpenKeyExpiryTable().deleteWithBatch(
+            batchOperation, clientID);
+      }
+
+      // Several expired open keys may have the same name, so their blocks
+      // are collected before they are added to the deleted table.
+      Map<String, RepeatedOmKeyInfo> deletedKeys = new HashMap<>();
+      for (Map.Entry<String, OmKeyInfo> entry : deletedOpenKeys.entrySet()) {
+        omMetadataManager.getOpenKeyTable().deleteWithBatch(batchOperation,
+            entry.getKey());
+
+        OmKeyInfo omKeyInfo = OmUtils.prepareOpenKeyForDelete(
+            entry.getValue());
+        if (omKeyInfo.getLatestVersionLocations().getLocationList()
+            .isEmpty()) {
+          continue;
+        }
+        String ozoneKey = omMetadataManager.getOzoneKey(
+            omKeyInfo.getVolumeName(), omKeyInfo.getBucketName(),
+            omKeyInfo.getKeyName());
+        RepeatedOmKeyInfo repeatedOmKeyInfo = deletedKeys.containsKey(ozoneKey)
+            ? deletedKeys.get(ozoneKey)
+            : omMetadataManager.getDeletedTable().get(ozoneKey);
+        deletedKeys.put(ozoneKey,
+            OmUtils.prepareKeyForDelete(omKeyInfo, repeatedOmKeyInfo));
+      }
+      for (Map.Entry<String, RepeatedOmKeyInfo> entry
+          : deletedKeys.entrySet()) {
+        omMetadataManager.getDeletedTable().putWithBatch(batchOperation,
+            entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@
 
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.helpers.OmPrefixInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
@@ -28,9 +29,12 @@
 import javax.annotation.Nullable;
 import java.io.IOException;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.PREFIX_TABLE;
+
 /**
  * Response for Prefix Acl request.
  */
+@CleanupTableInfo(cleanupTables = {PREFIX_TABLE})
 public class OMPrefixAclResponse extends OMClientResponse {
   private final OmPrefixInfo prefixInfo;
 
@@ -25,6 +25,7 @@
 import com.google.common.annotations.VisibleForTesting;
 
 import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.om.response.bucket.OMBucketCreateResponse;
 import org.apache.hadoop.ozone.om.response.volume.OMVolumeCreateResponse;
@@ -33,9 +34,16 @@
     .OMResponse;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.USER_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.VOLUME_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.BUCKET_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.S3_TABLE;
+
 /**
  * Response for S3Bucket create request.
  */
+@CleanupTableInfo(cleanupTables = {
+    USER_TABLE, VOLUME_TABLE, BUCKET_TABLE, S3_TABLE})
 public class S3BucketCreateResponse extends OMClientResponse {
 
   private OMVolumeCreateResponse omVolumeCreateResponse;
@@ -18,6 +18,7 @@
 package org.apache.hadoop.ozone.om.response.s3.bucket;
 
 import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
@@ -27,9 +28,13 @@
 import javax.annotation.Nullable;
 import java.io.IOException;
 
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.BUCKET_TABLE;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.S3_TABLE;
+
 /**
  * Response for S3Bucket Delete request.
  */
+@CleanupTableInfo(cleanupTables = {BUCKET_TABLE, S3_TABLE})
 public class S3BucketDeleteResponse extends OMClientResponse {
 
   private String s3BucketName;
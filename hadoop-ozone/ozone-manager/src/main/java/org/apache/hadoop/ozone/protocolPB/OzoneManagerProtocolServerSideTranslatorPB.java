@@ -16,21 +16,28 @@
  */
 package org.apache.hadoop.ozone.protocolPB;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
 import org.apache.hadoop.hdds.server.OzoneProtocolMessageDispatcher;
+import org.apache.hadoop.ipc.ProtobufRpcEngine;
+import org.apache.hadoop.ipc.ProtobufRpcEngineCallback;
+import org.apache.hadoop.ipc.Server;
 import org.apache.hadoop.ozone.OmUtils;
+import org.apache.hadoop.ozone.om.OMConfigKeys;
 import org.apache.hadoop.ozone.om.OzoneManager;
 import org.apache.hadoop.ozone.om.exceptions.NotLeaderException;
 import org.apache.hadoop.ozone.om.protocolPB.OzoneManagerProtocolPB;
 import org.apache.hadoop.ozone.om.ratis.OzoneManagerDoubleBuffer;
 import org.apache.hadoop.ozone.om.ratis.OzoneManagerRatisServer;
+import org.apache.hadoop.ozone.om.ratis.metrics.OzoneManagerWriteRequestMetrics;
 import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerRatisUtils;
 import org.apache.hadoop.ozone.om.request.OMClientRequest;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
 import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
+import org.apache.hadoop.util.Time;
 
 import com.google.protobuf.RpcController;
 import com.google.protobuf.ServiceException;
@@ -41,6 +48,8 @@
 
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -61,6 +70,8 @@ public class OzoneManagerProtocolServerSideTranslatorPB implements
   private final AtomicLong transactionIndex = new AtomicLong(0L);
   private final OzoneProtocolMessageDispatcher<OMRequest, OMResponse>
       dispatcher;
+  private final boolean isDeferredResponseEnabled;
+  private final OzoneManagerWriteRequestMetrics writeRequestMetrics;
 
   /**
    * Constructs an instance of the server handler.
@@ -86,6 +97,10 @@ public OzoneManagerProtocolServerSideTranslatorPB(
     dispatcher = new OzoneProtocolMessageDispatcher<>("OzoneProtocol",
         metrics, LOG);
 
+    this.isDeferredResponseEnabled = impl.getConfiguration().getBoolean(
+        OMConfigKeys.OZONE_OM_DEFERRED_RESPONSE_ENABLED_KEY,
+        OMConfigKeys.OZONE_OM_DEFERRED_RESPONSE_ENABLED_DEFAULT);
+    this.writeRequestMetrics = OzoneManagerWriteRequestMetrics.create();
   }
 
   /**
@@ -158,13 +173,77 @@ private OMResponse createErrorResponse(
   }
 
   /**
-   * Submits request to OM's Ratis server.
+   * Submits request to OM's Ratis server. When the response can be deferred,
+   * this returns null without waiting for the request to be applied, and the
+   * response is sent to the client once Ratis completes the request.
    */
   private OMResponse submitRequestToRatis(OMRequest request)
       throws ServiceException {
     //TODO: Need to remove OzoneManagerRatisClient, as now we are using
     // RatisServer Api's.
-    return omRatisServer.submitRequest(request);
+    if (canDeferResponse()) {
+      return deferResponse(omRatisServer.submitRequestAsync(request));
+    }
+    long startTime = Time.monotonicNow();
+    writeRequestMetrics.incrNumWriteRequestsInFlight(false);
+    try {
+      return omRatisServer.submitRequest(request);
+    } finally {
+      writeRequestMetrics.decrNumWriteRequestsInFlight(
+          Time.monotonicNow() - startTime);
+    }
+  }
+
+  /**
+   * Returns true if the current call is an RPC call whose response can be
+   * sent after the handler returns.
+   */
+  @VisibleForTesting
+  boolean canDeferResponse() {
+    return isDeferredResponseEnabled && Server.getCurCall().get() != null;
+  }
+
+  /**
+   * Registers the current RPC call for a deferred response, which is sent
+   * when the given future completes.
+   * @param responseFuture
+   * @return null, as the response is sent by the callback.
+   */
+  private OMResponse deferResponse(
+      CompletableFuture<OMResponse> responseFuture) {
+    ProtobufRpcEngineCallback callback = registerForDeferredResponse();
+    long startTime = Time.monotonicNow();
+    writeRequestMetrics.incrNumWriteRequestsInFlight(true);
+    responseFuture.whenComplete((response, ex) -> {
+      writeRequestMetrics.decrNumWriteRequestsInFlight(
+          Time.monotonicNow() - startTime);
+      if (ex == null) {
+        callback.setResponse(response);
+      } else {
+        callback.error(unwrapException(ex));
+      }
+    });
+    return null;
+  }
+
+  @VisibleForTesting
+  ProtobufRpcEngineCallback registerForDeferredResponse() {
+    return ProtobufRpcEngine.Server.registerForDeferredResponse();
+  }
+
+  /**
+   * Returns the exception which is sent to the client for a failed deferred
+   * request. Same as when the handler throws a ServiceException, the client
+   * gets its cause.
+   */
+  private static Throwable unwrapException(Throwable ex) {
+    Throwable cause = ex;
+    while ((cause instanceof CompletionException
+        || cause instanceof ExecutionException
+        || cause instanceof ServiceException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
   }
 
   private OMResponse submitReadRequestToOM(OMRequest request)
@@ -221,24 +300,54 @@ private OMResponse submitRequestDirectlyToOM(OMRequest request) {
       // As some of the preExecute returns error. So handle here.
       return createErrorResponse(request, ex);
     }
+    return getResponseAfterFlush(request, omClientResponse);
+  }
+
+  /**
+   * Returns the response of a write request applied directly to OM once the
+   * double buffer flushed it, or null if the response is deferred till then.
+   */
+  @VisibleForTesting
+  OMResponse getResponseAfterFlush(OMRequest request,
+      OMClientResponse omClientResponse) {
+    if (canDeferResponse()) {
+      return deferResponse(omClientResponse.getFlushFuture().handle(
+          (v, ex) -> {
+            if (ex != null) {
+              terminateOnFlushFailure(request, ex);
+            }
+            return omClientResponse.getOMResponse();
+          }));
+    }
+    long startTime = Time.monotonicNow();
+    writeRequestMetrics.incrNumWriteRequestsInFlight(false);
     try {
       omClientResponse.getFlushFuture().get();
       if (LOG.isTraceEnabled()) {
         LOG.trace("Future for {} is completed", request);
       }
     } catch (ExecutionException | InterruptedException ex) {
-      // terminate OM. As if we are in this stage means, while getting
-      // response from flush future, we got an exception.
-      String errorMessage = "Got error during waiting for flush to be " +
-          "completed for " + "request" + request.toString();
-      ExitUtils.terminate(1, errorMessage, ex, LOG);
+      terminateOnFlushFailure(request, ex);
+    } finally {
+      writeRequestMetrics.decrNumWriteRequestsInFlight(
+          Time.monotonicNow() - startTime);
     }
     return omClientResponse.getOMResponse();
   }
 
+  @VisibleForTesting
+  void terminateOnFlushFailure(OMRequest request, Throwable ex) {
+    // terminate OM. As if we are in this stage means, while getting
+    // response from flush future, we got an exception.
+    String errorMessage = "Got error during waiting for flush to be " +
+        "completed for " + "request" + request.toString();
+    ExitUtils.terminate(1, errorMessage, ex, LOG);
+  }
+
   public void stop() {
     if (!isRatisEnabled) {
       ozoneManagerDoubleBuffer.stop();
     }
+    writeRequestMetrics.unRegister();
   }
 }
@@ -34,6 +34,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartCommitUploadPartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
@@ -45,6 +46,7 @@
 import org.apache.hadoop.ozone.om.helpers.OmVolumeArgs;
 import org.apache.hadoop.ozone.om.helpers.OpenKeySession;
 import org.apache.hadoop.ozone.om.helpers.OzoneFileStatus;
+import org.apache.hadoop.ozone.om.helpers.OzoneFileStatusList;
 import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfo;
 import org.apache.hadoop.ozone.om.helpers.ServiceInfoEx;
@@ -708,6 +710,21 @@ private ListKeysResponse listKeys(ListKeysRequest request)
     ListKeysResponse.Builder resp =
         ListKeysResponse.newBuilder();
 
+    if (request.hasDelimiter()) {
+      OmKeyList keyList = impl.listKeys(
+          request.getVolumeName(),
+          request.getBucketName(),
+          request.getStartKey(),
+          request.getPrefix(),
+          request.getDelimiter(),
+          request.getCount());
+      for (OmKeyInfo key : keyList.getKeys()) {
+        resp.addKeyInfo(key.getProtobuf());
+      }
+      resp.addAllCommonPrefixes(keyList.getCommonPrefixes());
+      return resp.build();
+    }
+
     List<OmKeyInfo> keys = impl.listKeys(
         request.getVolumeName(),
         request.getBucketName(),
@@ -1144,12 +1161,23 @@ private ListStatusResponse listStatus(
         .setBucketName(keyArgs.getBucketName())
         .setKeyName(keyArgs.getKeyName())
         .build();
-    List<OzoneFileStatus> statuses =
-        impl.listStatus(omKeyArgs, request.getRecursive(),
-            request.getStartKey(), request.getNumEntries());
     ListStatusResponse.Builder
         listStatusResponseBuilder =
         ListStatusResponse.newBuilder();
+    List<OzoneFileStatus> statuses;
+    if (request.hasContinuationToken()) {
+      OzoneFileStatusList page = impl.listStatusPage(omKeyArgs,
+          request.getRecursive(), request.getContinuationToken(),
+          request.getNumEntries());
+      statuses = page.getStatuses();
+      // The token is set for the last page too, so clients can tell a paged
+      // listing from the listing of an OM which ignores the token.
+      listStatusResponseBuilder.setContinuationToken(
+          page.isTruncated() ? page.getContinuationToken() : "");
+    } else {
+      statuses = impl.listStatus(omKeyArgs, request.getRecursive(),
+          request.getStartKey(), request.getNumEntries());
+    }
     for (OzoneFileStatus status : statuses) {
       listStatusResponseBuilder.addStatuses(status.getProtobuf());
     }
@@ -188,6 +188,12 @@ public List<DatanodeDetails> sortDatanodes(List<String> nodes,
     return null;
   }
 
+  @Override
+  public List<List<DatanodeDetails>> sortDatanodesBatch(
+      List<List<String>> nodeLists, String clientMachine) throws IOException {
+    return null;
+  }
+
   @Override
   public void close() throws IOException {
 
@@ -22,17 +22,30 @@
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.hadoop.hdds.HddsConfigKeys;
+import org.apache.hadoop.hdds.client.BlockID;
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.DatanodeDetails;
 import org.apache.hadoop.hdds.protocol.StorageType;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
 import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.TestUtils;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
 import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs;
 import org.apache.hadoop.ozone.om.helpers.OmKeyArgs.Builder;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartInfo;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUpload;
 import org.apache.hadoop.ozone.om.helpers.OmMultipartUploadList;
@@ -46,24 +59,37 @@
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import static org.apache.hadoop.ozone.om.OMConfigKeys.OZONE_OM_SORT_DATANODES_CACHE_EXPIRY;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 /**
  * Unit test key manager.
  */
 public class TestKeyManagerUnit {
 
+  private OzoneConfiguration configuration;
   private OmMetadataManagerImpl metadataManager;
+  private ScmBlockLocationProtocol scmBlockLocationProtocol;
   private KeyManagerImpl keyManager;
 
   private Instant startDate;
 
   @Before
   public void setup() throws IOException {
-    OzoneConfiguration configuration = new OzoneConfiguration();
+    configuration = new OzoneConfiguration();
     configuration.set(HddsConfigKeys.OZONE_METADATA_DIRS,
         GenericTestUtils.getRandomizedTestDir().toString());
     metadataManager = new OmMetadataManagerImpl(configuration);
+    scmBlockLocationProtocol = Mockito.mock(ScmBlockLocationProtocol.class);
     keyManager = new KeyManagerImpl(
-        Mockito.mock(ScmBlockLocationProtocol.class),
+        scmBlockLocationProtocol,
         metadataManager,
         configuration,
         "omtest",
@@ -151,6 +177,118 @@ public void listMultipartUploadsWithPrefix() throws IOException {
     Assert.assertEquals("dir/key2", uploads.get(1).getKeyName());
   }
 
+  @Test
+  public void sortedDatanodesAreCached() throws IOException {
+    //GIVEN
+    List<DatanodeDetails> nodes = createNodes();
+    mockSortDatanodesBatch(nodes);
+    // Both blocks of the key are on the same nodes.
+    createKey("vol1", "bucket1", "key1", nodes, nodes);
+
+    //WHEN
+    OmKeyInfo first = lookupKey("vol1", "bucket1", "key1", "client1");
+    OmKeyInfo second = lookupKey("vol1", "bucket1", "key1", "client1");
+
+    //THEN
+    verify(scmBlockLocationProtocol, times(1))
+        .sortDatanodesBatch(anyList(), anyString());
+    assertNodesInOrder(reverse(nodes), first);
+    assertNodesInOrder(reverse(nodes), second);
+
+    // The nodes are sorted again for another client.
+    lookupKey("vol1", "bucket1", "key1", "client2");
+    verify(scmBlockLocationProtocol, times(1))
+        .sortDatanodesBatch(anyList(), eq("client2"));
+  }
+
+  @Test
+  public void sortedDatanodesExpireFromCache() throws Exception {
+    //GIVEN
+    configuration.set(OZONE_OM_SORT_DATANODES_CACHE_EXPIRY, "100ms");
+    keyManager = new KeyManagerImpl(scmBlockLocationProtocol,
+        metadataManager, configuration, "omtest",
+        Mockito.mock(OzoneBlockTokenSecretManager.class));
+    List<DatanodeDetails> nodes = createNodes();
+    mockSortDatanodesBatch(nodes);
+    createKey("vol1", "bucket1", "key1", nodes);
+
+    //WHEN
+    lookupKey("vol1", "bucket1", "key1", "client1");
+    Thread.sleep(200);
+    OmKeyInfo keyInfo = lookupKey("vol1", "bucket1", "key1", "client1");
+
+    //THEN
+    verify(scmBlockLocationProtocol, times(2))
+        .sortDatanodesBatch(anyList(), anyString());
+    assertNodesInOrder(reverse(nodes), keyInfo);
+  }
+
+  @Test
+  public void sortDatanodesPerPipelineWithoutBatchSort() throws IOException {
+    //GIVEN
+    List<DatanodeDetails> nodes = createNodes();
+    List<DatanodeDetails> otherNodes = createNodes();
+    // An older SCM does not know the batch call.
+    when(scmBlockLocationProtocol.sortDatanodesBatch(anyList(), anyString()))
+        .thenThrow(new IOException("Unknown method sortDatanodesBatch"));
+    Map<String, DatanodeDetails> nodesByUuid = getNodesByUuid(nodes);
+    nodesByUuid.putAll(getNodesByUuid(otherNodes));
+    when(scmBlockLocationProtocol.sortDatanodes(anyList(), anyString()))
+        .thenAnswer(invocation -> {
+          List<String> uuids = invocation.getArgument(0);
+          return reverse(uuids.stream().map(nodesByUuid::get)
+              .collect(Collectors.toList()));
+        });
+    createKey("vol1", "bucket1", "key1", nodes, otherNodes);
+
+    //WHEN
+    OmKeyInfo first = lookupKey("vol1", "bucket1", "key1", "client1");
+    OmKeyInfo second = lookupKey("vol1", "bucket1", "key1", "client1");
+
+    //THEN
+    verify(scmBlockLocationProtocol, times(2))
+        .sortDatanodes(anyList(), anyString());
+    verify(scmBlockLocationProtocol, times(1))
+        .sortDatanodesBatch(anyList(), anyString());
+    assertNodesInOrder(reverse(nodes), first, 0);
+    assertNodesInOrder(reverse(otherNodes), first, 1);
+    assertNodesInOrder(reverse(nodes), second, 0);
+    assertNodesInOrder(reverse(otherNodes), second, 1);
+  }
+
+  @Test
+  public void unsortedDatanodesAreNotCached() throws IOException {
+    //GIVEN
+    List<DatanodeDetails> nodes = createNodes();
+    when(scmBlockLocationProtocol.sortDatanodesBatch(anyList(), anyString()))
+        .thenThrow(new IOException("Unknown method sortDatanodesBatch"));
+    when(scmBlockLocationProtocol.sortDatanodes(anyList(), anyString()))
+        .thenThrow(new IOException("SCM is not available"));
+    createKey("vol1", "bucket1", "key1", nodes);
+
+    //WHEN
+    OmKeyInfo keyInfo = lookupKey("vol1", "bucket1", "key1", "client1");
+    lookupKey("vol1", "bucket1", "key1", "client1");
+
+    //THEN
+    // The nodes are left in the order of the pipeline, and sorted again.
+    assertNodesInOrder(nodes, keyInfo);
+    verify(scmBlockLocationProtocol, times(2))
+        .sortDatanodes(anyList(), anyString());
+  }
+
+  @Test
+  public void datanodesNotSortedWithoutClient() throws IOException {
+    List<DatanodeDetails> nodes = createNodes();
+    createKey("vol1", "bucket1", "key1", nodes);
+
+    OmKeyInfo keyInfo = lookupKey("vol1", "bucket1", "key1", "");
+
+    assertNodesInOrder(nodes, keyInfo);
+    verify(scmBlockLocationProtocol, never())
+        .sortDatanodesBatch(anyList(), any());
+  }
+
   private void createBucket(OmMetadataManagerImpl omMetadataManager,
       String volume, String bucket)
       throws IOException {
@@ -177,4 +315,102 @@ private OmMultipartInfo initMultipartUpload(KeyManagerImpl omtest,
         .build();
     return omtest.initiateMultipartUpload(key1);
   }
+
+  private static List<DatanodeDetails> createNodes() {
+    return Arrays.asList(TestUtils.randomDatanodeDetails(),
+        TestUtils.randomDatanodeDetails(),
+        TestUtils.randomDatanodeDetails());
+  }
+
+  private static Map<String, DatanodeDetails> getNodesByUuid(
+      List<DatanodeDetails> nodes) {
+    Map<String, DatanodeDetails> nodesByUuid = new HashMap<>();
+    nodes.forEach(node -> nodesByUuid.put(node.getUuidString(), node));
+    return nodesByUuid;
+  }
+
+  private static <T> List<T> reverse(List<T> list) {
+    List<T> reversed = new ArrayList<>(list);
+    Collections.reverse(reversed);
+    return reversed;
+  }
+
+  /**
+   * Makes SCM sort each list of nodes in reverse order.
+   */
+  private void mockSortDatanodesBatch(List<DatanodeDetails> nodes)
+      throws IOException {
+    Map<String, DatanodeDetails> nodesByUuid = getNodesByUuid(nodes);
+    when(scmBlockLocationProtocol.sortDatanodesBatch(anyList(), anyString()))
+        .thenAnswer(invocation -> {
+          List<List<String>> nodeLists = invocation.getArgument(0);
+          return nodeLists.stream()
+              .map(uuids -> reverse(uuids.stream().map(nodesByUuid::get)
+                  .collect(Collectors.toList())))
+              .collect(Collectors.toList());
+        });
+  }
+
+  /**
+   * Adds a key with a block on each of the given lists of nodes.
+   */
+  @SafeVarargs
+  private final void createKey(String volume, String bucket, String key,
+      List<DatanodeDetails>... pipelineNodes) throws IOException {
+    List<OmKeyLocationInfo> locations = new ArrayList<>();
+    for (int i = 0; i < pipelineNodes.length; i++) {
+      Pipeline pipeline = Pipeline.newBuilder()
+          .setState(Pipeline.PipelineState.OPEN)
+          .setId(PipelineID.randomId())
+          .setType(ReplicationType.RATIS)
+          .setFactor(ReplicationFactor.THREE)
+          .setNodes(pipelineNodes[i])
+          .build();
+      locations.add(new OmKeyLocationInfo.Builder()
+          .setBlockID(new BlockID(1L, i))
+          .setPipeline(pipeline)
+          .setLength(100L)
+          .build());
+    }
+    OmKeyInfo keyInfo = new OmKeyInfo.Builder()
+        .setVolumeName(volume)
+        .setBucketName(bucket)
+        .setKeyName(key)
+        .setOmKeyLocationInfos(Collections.singletonList(
+            new OmKeyLocationInfoGroup(0, locations)))
+        .setCreationTime(Instant.now().toEpochMilli())
+        .setModificationTime(Instant.now().toEpochMilli())
+        .setDataSize(100L * locations.size())
+        .setReplicationType(ReplicationType.RATIS)
+        .setReplicationFactor(ReplicationFactor.THREE)
+        .build();
+    metadataManager.getKeyTable().put(
+        metadataManager.getOzoneKey(volume, bucket, key), keyInfo);
+  }
+
+  private OmKeyInfo lookupKey(String volume, String bucket, String key,
+      String client) throws IOException {
+    OmKeyArgs keyArgs = new Builder()
+        .setVolumeName(volume)
+        .setBucketName(bucket)
+        .setKeyName(key)
+        .setSortDatanodesInPipeline(true)
+        .build();
+    return keyManager.lookupKey(keyArgs, client);
+  }
+
+  private static void assertNodesInOrder(List<DatanodeDetails> expected,
+      OmKeyInfo keyInfo) {
+    int blocks = keyInfo.getLatestVersionLocations().getLocationList().size();
+    for (int i = 0; i < blocks; i++) {
+      assertNodesInOrder(expected, keyInfo, i);
+    }
+  }
+
+  private static void assertNodesInOrder(List<DatanodeDetails> expected,
+      OmKeyInfo keyInfo, int block) {
+    Pipeline pipeline = keyInfo.getLatestVersionLocations()
+        .getLocationList().get(block).getPipeline();
+    Assert.assertEquals(expected, pipeline.getNodesInOrder());
+  }
 }
@@ -24,6 +24,7 @@
 import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
 import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyList;
 import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,6 +32,9 @@
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.TreeSet;
 
@@ -400,6 +404,75 @@ public void testListKeysWithFewDeleteEntriesInCache() throws Exception {
 
   }
 
+  @Test
+  public void testListKeysWithDelimiter() throws Exception {
+    String volumeNameA = "volumeA";
+    String ozoneBucket = "ozoneBucket";
+    TestOMRequestUtils.addVolumeToDB(volumeNameA, omMetadataManager);
+    addBucketsToCache(volumeNameA, ozoneBucket);
+
+    // Keys in the DB (even i) and in the cache (odd i).
+    for (int day = 1; day <= 5; day++) {
+      for (int i = 1; i <= 10; i++) {
+        addKeysToOM(volumeNameA, ozoneBucket,
+            "logs/day" + day + "/file" + i, i);
+      }
+    }
+    addKeysToOM(volumeNameA, ozoneBucket, "logs/readme", 2);
+    addKeysToOM(volumeNameA, ozoneBucket, "logs/day7/file", 1);
+    addKeysToOM(volumeNameA, ozoneBucket, "other/file", 2);
+    // The only key of a common prefix is deleted.
+    addKeysToOM(volumeNameA, ozoneBucket, "logs/day6/file", 2);
+    omMetadataManager.getKeyTable().addCacheEntry(
+        new CacheKey<>(omMetadataManager.getOzoneKey(volumeNameA,
+            ozoneBucket, "logs/day6/file")),
+        new CacheValue<>(Optional.absent(), 100L));
+
+    List<String> expectedPrefixes = Arrays.asList("logs/day1/",
+        "logs/day2/", "logs/day3/", "logs/day4/", "logs/day5/", "logs/day7/");
+    OmKeyList keyList = omMetadataManager.listKeys(volumeNameA, ozoneBucket,
+        null, "logs/", "/", 100);
+    Assert.assertEquals(expectedPrefixes, keyList.getCommonPrefixes());
+    Assert.assertEquals(1, keyList.getKeys().size());
+    Assert.assertEquals("logs/readme", keyList.getKeys().get(0).getKeyName());
+
+    // Page through the listing, each page starts after the last entry.
+    List<String> prefixes = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    String startKey = null;
+    do {
+      keyList = omMetadataManager.listKeys(volumeNameA, ozoneBucket,
+          startKey, "logs/", "/", 2);
+      Assert.assertTrue(keyList.size() <= 2);
+      for (String prefix : keyList.getCommonPrefixes()) {
+        prefixes.add(prefix);
+        startKey = prefix;
+      }
+      for (OmKeyInfo omKeyInfo : keyList.getKeys()) {
+        keys.add(omKeyInfo.getKeyName());
+        if (startKey == null
+            || omKeyInfo.getKeyName().compareTo(startKey) > 0) {
+          startKey = omKeyInfo.getKeyName();
+        }
+      }
+    } while (keyList.size() > 0);
+    Assert.assertEquals(expectedPrefixes, prefixes);
+    Assert.assertEquals(Collections.singletonList("logs/readme"), keys);
+
+    // Without a prefix the top level is listed.
+    keyList = omMetadataManager.listKeys(volumeNameA, ozoneBucket,
+        null, null, "/", 100);
+    Assert.assertEquals(Arrays.asList("logs/", "other/"),
+        keyList.getCommonPrefixes());
+    Assert.assertTrue(keyList.getKeys().isEmpty());
+
+    // Without a delimiter all the keys are listed.
+    keyList = omMetadataManager.listKeys(volumeNameA, ozoneBucket,
+        null, "logs/", null, 100);
+    Assert.assertEquals(52, keyList.getKeys().size());
+    Assert.assertTrue(keyList.getCommonPrefixes().isEmpty());
+  }
+
   private void addKeysToOM(String volumeName, String bucketName,
       String keyName, int i) throws Exception {
 
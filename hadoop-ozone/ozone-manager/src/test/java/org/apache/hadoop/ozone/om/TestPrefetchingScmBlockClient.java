@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hdds.client.ContainerBlockID;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationFactor;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos.ReplicationType;
+import org.apache.hadoop.hdds.scm.TestUtils;
+import org.apache.hadoop.hdds.scm.container.common.helpers.AllocatedBlock;
+import org.apache.hadoop.hdds.scm.container.common.helpers.ExcludeList;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.hdds.scm.protocol.ScmBlockLocationProtocol;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the prefetch of the blocks allocated from SCM.
+ */
+public class TestPrefetchingScmBlockClient {
+
+  private static final long BLOCK_SIZE = 1024;
+  private static final int PREFETCH_COUNT = 4;
+
+  private final AtomicLong localID = new AtomicLong();
+  private ScmBlockLocationProtocol scm;
+  private Pipeline pipeline;
+
+  @Before
+  public void setup() throws Exception {
+    pipeline = Pipeline.newBuilder()
+        .setState(Pipeline.PipelineState.OPEN)
+        .setId(PipelineID.randomId())
+        .setType(ReplicationType.STAND_ALONE)
+        .setFactor(ReplicationFactor.ONE)
+        .setNodes(Collections.singletonList(
+            TestUtils.randomDatanodeDetails()))
+        .build();
+    scm = Mockito.mock(ScmBlockLocationProtocol.class);
+    Mockito.when(scm.allocateBlock(anyLong(), anyInt(),
+        any(ReplicationType.class), any(ReplicationFactor.class),
+        anyString(), any(ExcludeList.class))).thenAnswer(invocation -> {
+          int num = invocation.getArgument(1);
+          List<AllocatedBlock> blocks = new ArrayList<>(num);
+          for (int i = 0; i < num; i++) {
+            blocks.add(new AllocatedBlock.Builder()
+                .setContainerBlockID(
+                    new ContainerBlockID(1, localID.incrementAndGet()))
+                .setPipeline(pipeline)
+                .build());
+          }
+          return blocks;
+        });
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    PrefetchingScmBlockClient client =
+        new PrefetchingScmBlockClient(scm, PREFETCH_COUNT, 60_000);
+    Set<Long> localIDs = new HashSet<>();
+    for (int i = 0; i <= PREFETCH_COUNT; i++) {
+      List<AllocatedBlock> blocks = allocate(client, 1, new ExcludeList());
+      Assert.assertEquals(1, blocks.size());
+      // each block is handed out only once
+      long id = blocks.get(0).getBlockID().getLocalID();
+      Assert.assertTrue(localIDs.add(id));
+    }
+    // the first request allocated the block and the prefetched ones
+    verify(scm, times(1)).allocateBlock(eq(BLOCK_SIZE),
+        eq(PREFETCH_COUNT + 1), any(ReplicationType.class),
+        any(ReplicationFactor.class), anyString(), any(ExcludeList.class));
+    Assert.assertEquals(0, client.getNumPrefetchedBlocks());
+
+    // a request for more blocks than prefetched gets all of them
+    allocate(client, 1, new ExcludeList());
+    Assert.assertEquals(PREFETCH_COUNT, client.getNumPrefetchedBlocks());
+    List<AllocatedBlock> blocks =
+        allocate(client, PREFETCH_COUNT + 2, new ExcludeList());
+    Assert.assertEquals(PREFETCH_COUNT + 2, blocks.size());
+    Assert.assertEquals(PREFETCH_COUNT, client.getNumPrefetchedBlocks());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    PrefetchingScmBlockClient client =
+        new PrefetchingScmBlockClient(scm, PREFETCH_COUNT, 0);
+    List<AllocatedBlock> first = allocate(client, 1, new ExcludeList());
+    Assert.assertEquals(PREFETCH_COUNT, client.getNumPrefetchedBlocks());
+    List<AllocatedBlock> second = allocate(client, 1, new ExcludeList());
+    // the prefetched blocks expired, so they are allocated again
+    Assert.assertEquals(first.get(0).getBlockID().getLocalID()
+        + PREFETCH_COUNT + 1, second.get(0).getBlockID().getLocalID());
+    verify(scm, times(2)).allocateBlock(anyLong(), anyInt(),
+        any(ReplicationType.class), any(ReplicationFactor.class),
+        anyString(), any(ExcludeList.class));
+  }
+
+  @Test
+  public void testExcludeList() throws Exception {
+    PrefetchingScmBlockClient client =
+        new PrefetchingScmBlockClient(scm, PREFETCH_COUNT, 60_000);
+    allocate(client, 1, new ExcludeList());
+    Assert.assertEquals(PREFETCH_COUNT, client.getNumPrefetchedBlocks());
+
+    ExcludeList excludeList = new ExcludeList();
+    excludeList.addPipeline(pipeline.getId());
+    List<AllocatedBlock> blocks = allocate(client, 1, excludeList);
+    Assert.assertEquals(1, blocks.size());
+    // the blocks in the excluded pipeline are dropped
+    Assert.assertEquals(0, client.getNumPrefetchedBlocks());
+    verify(scm, times(1)).allocateBlock(eq(BLOCK_SIZE), eq(1),
+        any(ReplicationType.class), any(ReplicationFactor.class),
+        anyString(), eq(excludeList));
+  }
+
+  private List<AllocatedBlock> allocate(PrefetchingScmBlockClient client,
+      int num, ExcludeList excludeList) throws Exception {
+    return client.allocateBlock(BLOCK_SIZE, num, ReplicationType.RATIS,
+        ReplicationFactor.THREE, "om", excludeList);
+  }
+}
@@ -22,6 +22,7 @@
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.google.common.base.Optional;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -38,13 +39,18 @@
 import org.apache.hadoop.ozone.om.OMMetadataManager;
 import org.apache.hadoop.ozone.om.OmMetadataManagerImpl;
 import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
+import org.apache.hadoop.ozone.om.response.CleanupTableInfo;
 import org.apache.hadoop.ozone.om.response.OMClientResponse;
 import org.apache.hadoop.util.Time;
 import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
 
 import static org.apache.hadoop.hdds.HddsConfigKeys.OZONE_METADATA_DIRS;
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.KEY_TABLE;
 import static org.apache.hadoop.test.GenericTestUtils.waitFor;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -56,7 +62,7 @@ public class TestOzoneManagerDoubleBufferWithDummyResponse {
   private OMMetadataManager omMetadataManager;
   private OzoneManagerDoubleBuffer doubleBuffer;
   private final AtomicLong trxId = new AtomicLong(0);
-  private long lastAppliedIndex;
+  private volatile long lastAppliedIndex;
 
   @Rule
   public TemporaryFolder folder = new TemporaryFolder();
@@ -116,6 +122,61 @@ public void testDoubleBufferWithDummyResponse() throws Exception {
     assertEquals(bucketCount, lastAppliedIndex);
   }
 
+  /**
+   * This tests that the last applied index does not move past transactions
+   * which are in flight, when transactions are applied out of order.
+   */
+  @Test(timeout = 300_000)
+  public void testLastAppliedIndexWithOutOfOrderTransactions()
+      throws Exception {
+    String volumeName = UUID.randomUUID().toString();
+    OzoneManagerDoubleBufferMetrics metrics =
+        doubleBuffer.getOzoneManagerDoubleBufferMetrics();
+    for (long i = 1; i <= 3; i++) {
+      doubleBuffer.addInFlightTransaction(i);
+    }
+
+    // Transactions 1 and 3 are applied before transaction 2.
+    doubleBuffer.add(createDummyBucketResponse(volumeName), 1);
+    doubleBuffer.removeInFlightTransaction(1);
+    doubleBuffer.add(createDummyBucketResponse(volumeName), 3);
+    doubleBuffer.removeInFlightTransaction(3);
+    waitFor(() -> metrics.getTotalNumOfFlushedTransactions() == 2,
+        100, 60000);
+    assertEquals(1, lastAppliedIndex);
+
+    doubleBuffer.add(createDummyBucketResponse(volumeName), 2);
+    doubleBuffer.removeInFlightTransaction(2);
+    waitFor(() -> metrics.getTotalNumOfFlushedTransactions() == 3,
+        100, 60000);
+    waitFor(() -> lastAppliedIndex == 3, 100, 60000);
+  }
+
+  /**
+   * This tests that only the cache of the tables declared by the flushed
+   * responses is cleaned up.
+   */
+  @Test(timeout = 300_000)
+  public void testCleanupCacheOfDeclaredTablesOnly() throws Exception {
+    String dbKey = omMetadataManager.getOzoneKey(UUID.randomUUID().toString(),
+        UUID.randomUUID().toString(), UUID.randomUUID().toString());
+    long index = trxId.incrementAndGet();
+    omMetadataManager.getKeyTable().addCacheEntry(new CacheKey<>(dbKey),
+        new CacheValue<>(Optional.absent(), index));
+    omMetadataManager.getOpenKeyTable().addCacheEntry(new CacheKey<>(dbKey),
+        new CacheValue<>(Optional.absent(), index));
+
+    doubleBuffer.add(new OMDummyKeyTableResponse(OMResponse.newBuilder()
+        .setCmdType(OzoneManagerProtocolProtos.Type.DeleteKey)
+        .setStatus(OzoneManagerProtocolProtos.Status.OK)
+        .build()), index);
+
+    waitFor(() -> omMetadataManager.getKeyTable().getCacheValue(
+        new CacheKey<>(dbKey)) == null, 100, 60000);
+    assertNotNull(omMetadataManager.getOpenKeyTable().getCacheValue(
+        new CacheKey<>(dbKey)));
+  }
+
   /**
    * Create DummyBucketCreate response.
    */
@@ -136,6 +197,22 @@ private OMDummyCreateBucketResponse createDummyBucketResponse(
   }
 
 
+  /**
+   * Dummy response class declaring that it mutates the key table only.
+   */
+  @CleanupTableInfo(cleanupTables = {KEY_TABLE})
+  private static class OMDummyKeyTableResponse extends OMClientResponse {
+
+    OMDummyKeyTableResponse(OMResponse omResponse) {
+      super(omResponse);
+    }
+
+    @Override
+    public void addToDBBatch(OMMetadataManager omMetadataManager,
+        BatchOperation batchOperation) {
+    }
+  }
+
   /**
    * DummyCreatedBucket Response class used in testing.
    */
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.om.ratis.utils.OzoneManagerDoubleBufferHelper;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .CopyKeyRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .DeleteKeyRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMRequest;
+
+import static org.apache.hadoop.ozone.om.OmMetadataManagerImpl.SHARED_BLOCK_TABLE;
+
+/**
+ * Tests CopyKey request, and the release of shared blocks on delete.
+ */
+public class TestOMKeyCopyRequest extends TestOMKeyRequest {
+
+  @Test
+  public void testValidateAndUpdateCache() throws Exception {
+    String toBucketName = UUID.randomUUID().toString();
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, toBucketName,
+        omMetadataManager);
+    OmKeyInfo keyInfo = addKeyWithBlocksToTable(keyName);
+
+    OMClientResponse omClientResponse = new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest(toBucketName, "copy")))
+        .validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper);
+    commit(omClientResponse);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    OmKeyInfo copyInfo = omMetadataManager.getKeyTable().get(
+        omMetadataManager.getOzoneKey(volumeName, toBucketName, "copy"));
+    Assert.assertNotNull(copyInfo);
+    Assert.assertEquals(keyInfo.getDataSize(), copyInfo.getDataSize());
+    List<OmKeyLocationInfo> blocks =
+        copyInfo.getLatestVersionLocations().getLocationList();
+    Assert.assertEquals(2, blocks.size());
+    for (OmKeyLocationInfo block : blocks) {
+      Assert.assertEquals(Long.valueOf(1), getSharedBlock(block));
+    }
+
+    // Deleting the source key keeps the blocks referred by the copy.
+    commit(deleteKey(bucketName, keyName));
+    Assert.assertNull(omMetadataManager.getKeyTable().get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, keyName)));
+    for (OmKeyLocationInfo block : blocks) {
+      Assert.assertNull(getSharedBlock(block));
+    }
+    Assert.assertFalse(omMetadataManager.getDeletedTable().isExist(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, keyName)));
+
+    // Deleting the last key referring to the blocks reclaims them.
+    commit(deleteKey(toBucketName, "copy"));
+    RepeatedOmKeyInfo deletedKeys = omMetadataManager.getDeletedTable().get(
+        omMetadataManager.getOzoneKey(volumeName, toBucketName, "copy"));
+    Assert.assertNotNull(deletedKeys);
+    Assert.assertEquals(2, deletedKeys.getOmKeyInfoList().get(0)
+        .getLatestVersionLocations().getLocationList().size());
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithExistingKey() throws Exception {
+    String toBucketName = UUID.randomUUID().toString();
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, toBucketName,
+        omMetadataManager);
+    OmKeyInfo keyInfo = addKeyWithBlocksToTable(keyName);
+    OmKeyInfo replacedInfo =
+        addKeyWithBlocksToTable(toBucketName, "copy", localID + 10);
+    String toKey = omMetadataManager.getOzoneKey(volumeName, toBucketName,
+        "copy");
+
+    OMClientResponse omClientResponse = new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest(toBucketName, "copy")))
+        .validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper);
+    commit(omClientResponse);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    Assert.assertEquals(getBlockIDs(keyInfo),
+        getBlockIDs(omMetadataManager.getKeyTable().get(toKey)));
+    for (OmKeyLocationInfo block :
+        keyInfo.getLatestVersionLocations().getLocationList()) {
+      Assert.assertEquals(Long.valueOf(1), getSharedBlock(block));
+    }
+    // The blocks of the replaced key are reclaimed.
+    RepeatedOmKeyInfo deletedKeys =
+        omMetadataManager.getDeletedTable().get(toKey);
+    Assert.assertNotNull(deletedKeys);
+    Assert.assertEquals(1, deletedKeys.getOmKeyInfoList().size());
+    Assert.assertEquals(getBlockIDs(replacedInfo),
+        getBlockIDs(deletedKeys.getOmKeyInfoList().get(0)));
+    for (OmKeyLocationInfo block :
+        replacedInfo.getLatestVersionLocations().getLocationList()) {
+      Assert.assertNull(getSharedBlock(block));
+    }
+
+    // Copying the key again onto its copy replaces a key whose blocks are
+    // all still referred, by the source key and the new copy.
+    commit(new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest(toBucketName, "copy")))
+        .validateAndUpdateCache(ozoneManager, 101L,
+            ozoneManagerDoubleBufferHelper));
+    for (OmKeyLocationInfo block :
+        keyInfo.getLatestVersionLocations().getLocationList()) {
+      Assert.assertEquals(Long.valueOf(1), getSharedBlock(block));
+    }
+    Assert.assertEquals(1, omMetadataManager.getDeletedTable().get(toKey)
+        .getOmKeyInfoList().size());
+  }
+
+  @Test(timeout = 60000)
+  public void testSharedBlockUpdatesOfParallelRequests() throws Exception {
+    String toBucketName = UUID.randomUUID().toString();
+    String otherBucketName = UUID.randomUUID().toString();
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, toBucketName,
+        omMetadataManager);
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, otherBucketName,
+        omMetadataManager);
+    addKeyWithBlocksToTable(keyName);
+    commit(new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest(toBucketName, "copy")))
+        .validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper));
+
+    // Responses in the order they are added to the double buffer, which is
+    // the order in which they are written to the DB.
+    List<OMClientResponse> responses =
+        Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch deleteAdding = new CountDownLatch(1);
+    CountDownLatch deleteAdded = new CountDownLatch(1);
+    OzoneManagerDoubleBufferHelper slowDoubleBuffer = (response, index) -> {
+      deleteAdding.countDown();
+      try {
+        deleteAdded.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      responses.add(response);
+      return null;
+    };
+    OzoneManagerDoubleBufferHelper doubleBuffer = (response, index) -> {
+      responses.add(response);
+      return null;
+    };
+    OMRequest copyRequest =
+        doPreExecute(createCopyKeyRequest(otherBucketName, "copy"));
+
+    // Requests on different buckets are applied in parallel. The copy is
+    // deleted, dropping the reference count, while the key is copied again
+    // to another bucket, raising it. The delete is slow to add its response
+    // to the double buffer.
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<OMClientResponse> delete = executor.submit(() ->
+          deleteKey(toBucketName, "copy", 101L, slowDoubleBuffer));
+      Assert.assertTrue(deleteAdding.await(10, TimeUnit.SECONDS));
+      Future<OMClientResponse> copy = executor.submit(() ->
+          new OMKeyCopyRequest(copyRequest).validateAndUpdateCache(
+              ozoneManager, 102L, doubleBuffer));
+      // Give the copy the chance to update the counts before the delete
+      // response is in the double buffer.
+      Thread.sleep(500);
+      deleteAdded.countDown();
+      Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+          delete.get().getOMResponse().getStatus());
+      Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+          copy.get().getOMResponse().getStatus());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(2, responses.size());
+    for (OMClientResponse response : responses) {
+      commit(response);
+    }
+    // Read the DB without the cache of the table.
+    Table<String, Long> sharedBlockTable = omMetadataManager.getStore()
+        .getTable(SHARED_BLOCK_TABLE, String.class, Long.class);
+    OmKeyInfo copyInfo = omMetadataManager.getKeyTable().get(
+        omMetadataManager.getOzoneKey(volumeName, otherBucketName, "copy"));
+    for (OmKeyLocationInfo block :
+        copyInfo.getLatestVersionLocations().getLocationList()) {
+      Assert.assertEquals(Long.valueOf(1), sharedBlockTable.get(
+          omMetadataManager.getSharedBlockKey(block.getContainerID(),
+              block.getLocalID())));
+    }
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithKeyNotFound() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+
+    OMClientResponse omClientResponse = new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest(bucketName, "copy")))
+        .validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.KEY_NOT_FOUND,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithBucketNotFound() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyWithBlocksToTable(keyName);
+
+    OMClientResponse omClientResponse = new OMKeyCopyRequest(
+        doPreExecute(createCopyKeyRequest("nonexistent", "copy")))
+        .validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.BUCKET_NOT_FOUND,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  private OmKeyInfo addKeyWithBlocksToTable(String key) throws Exception {
+    return addKeyWithBlocksToTable(bucketName, key, localID);
+  }
+
+  private OmKeyInfo addKeyWithBlocksToTable(String bucket, String key,
+      long firstLocalID) throws Exception {
+    OmKeyInfo keyInfo = TestOMRequestUtils.createOmKeyInfo(volumeName,
+        bucket, key, replicationType, replicationFactor);
+    Pipeline pipeline = Pipeline.newBuilder()
+        .setState(Pipeline.PipelineState.OPEN)
+        .setId(PipelineID.randomId())
+        .setType(replicationType)
+        .setFactor(replicationFactor)
+        .setNodes(new ArrayList<>())
+        .build();
+    List<OmKeyLocationInfo> blocks = new ArrayList<>();
+    for (long i = 0; i < 2; i++) {
+      blocks.add(new OmKeyLocationInfo.Builder()
+          .setBlockID(new BlockID(containerID, firstLocalID + i))
+          .setLength(100L).setPipeline(pipeline).build());
+    }
+    keyInfo.appendNewBlocks(blocks, false);
+    omMetadataManager.getKeyTable().put(
+        omMetadataManager.getOzoneKey(volumeName, bucket, key), keyInfo);
+    return keyInfo;
+  }
+
+  private List<BlockID> getBlockIDs(OmKeyInfo keyInfo) {
+    return keyInfo.getLatestVersionLocations().getLocationList().stream()
+        .map(OmKeyLocationInfo::getBlockID).collect(Collectors.toList());
+  }
+
+  private Long getSharedBlock(OmKeyLocationInfo block) throws Exception {
+    return omMetadataManager.getSharedBlockTable().get(
+        omMetadataManager.getSharedBlockKey(block.getContainerID(),
+            block.getLocalID()));
+  }
+
+  private OMClientResponse deleteKey(String bucket, String key) {
+    return deleteKey(bucket, key, 101L, ozoneManagerDoubleBufferHelper);
+  }
+
+  private OMClientResponse deleteKey(String bucket, String key,
+      long transactionLogIndex, OzoneManagerDoubleBufferHelper doubleBuffer) {
+    KeyArgs keyArgs = KeyArgs.newBuilder().setKeyName(key)
+        .setVolumeName(volumeName).setBucketName(bucket).build();
+    OMRequest omRequest = OMRequest.newBuilder()
+        .setClientId(UUID.randomUUID().toString())
+        .setDeleteKeyRequest(DeleteKeyRequest.newBuilder().setKeyArgs(keyArgs))
+        .setCmdType(OzoneManagerProtocolProtos.Type.DeleteKey).build();
+    OMClientResponse omClientResponse = new OMKeyDeleteRequest(omRequest)
+        .validateAndUpdateCache(ozoneManager, transactionLogIndex,
+            doubleBuffer);
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    return omClientResponse;
+  }
+
+  private void commit(OMClientResponse omClientResponse) throws Exception {
+    try (BatchOperation batchOperation =
+        omMetadataManager.getStore().initBatchOperation()) {
+      omClientResponse.addToDBBatch(omMetadataManager, batchOperation);
+      omMetadataManager.getStore().commitBatchOperation(batchOperation);
+    }
+  }
+
+  /**
+   * This method calls preExecute and verify the modified request.
+   * @param originalOmRequest
+   * @return OMRequest - modified request returned from preExecute.
+   * @throws Exception
+   */
+  private OMRequest doPreExecute(OMRequest originalOmRequest) throws Exception {
+    OMRequest modifiedOmRequest = new OMKeyCopyRequest(originalOmRequest)
+        .preExecute(ozoneManager);
+
+    // Will not be equal, as UserInfo will be set and modification time is
+    // set in KeyArgs.
+    Assert.assertNotEquals(originalOmRequest, modifiedOmRequest);
+
+    Assert.assertTrue(modifiedOmRequest.getCopyKeyRequest()
+        .getToKeyArgs().getModificationTime() > 0);
+
+    return modifiedOmRequest;
+  }
+
+  /**
+   * Create OMRequest which encapsulates CopyKeyRequest.
+   * @return OMRequest
+   */
+  private OMRequest createCopyKeyRequest(String toBucketName,
+      String toKeyName) {
+    KeyArgs keyArgs = KeyArgs.newBuilder().setKeyName(keyName)
+        .setVolumeName(volumeName).setBucketName(bucketName).build();
+    KeyArgs toKeyArgs = KeyArgs.newBuilder().setKeyName(toKeyName)
+        .setVolumeName(volumeName).setBucketName(toBucketName).build();
+
+    CopyKeyRequest copyKeyRequest = CopyKeyRequest.newBuilder()
+        .setKeyArgs(keyArgs).setToKeyArgs(toKeyArgs).build();
+
+    return OMRequest.newBuilder()
+        .setClientId(UUID.randomUUID().toString())
+        .setCopyKeyRequest(copyKeyRequest)
+        .setCmdType(OzoneManagerProtocolProtos.Type.CopyKey).build();
+  }
+}
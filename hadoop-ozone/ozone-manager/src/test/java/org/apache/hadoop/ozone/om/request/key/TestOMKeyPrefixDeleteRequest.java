@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.util.UUID;
+
+import com.google.common.base.Optional;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .DeleteKeyPrefixRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
+
+/**
+ * Tests DeleteKeyPrefix request.
+ */
+public class TestOMKeyPrefixDeleteRequest extends TestOMKeyRequest {
+
+  @Test
+  public void testValidateAndUpdateCache() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir1/");
+    addKeyToTable("dir1/key1");
+    addKeyToTable("dir1/dir2/key2");
+    addKeyToTable("dir10/key3");
+    TestOMRequestUtils.addKeyToTableCache(volumeName, bucketName,
+        "dir1/key4", replicationType, replicationFactor, omMetadataManager);
+    // A key which is deleted in the cache, but not yet in the DB.
+    addKeyToTable("dir1/key5");
+    omMetadataManager.getKeyTable().addCacheEntry(
+        new CacheKey<>(omMetadataManager.getOzoneKey(volumeName, bucketName,
+            "dir1/key5")), new CacheValue<>(Optional.absent(), 2L));
+
+    OMRequest modifiedOmRequest =
+        doPreExecute(createDeleteKeyPrefixRequest("dir1/"));
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixDeleteRequest(modifiedOmRequest)
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    Assert.assertEquals(4, omClientResponse.getOMResponse()
+        .getDeleteKeyPrefixResponse().getNumKeys());
+
+    for (String key : new String[] {"", "key1", "dir2/key2", "key4"}) {
+      Assert.assertNull(getKey("dir1/" + key));
+    }
+    Assert.assertNotNull(getKey("dir10/key3"));
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithKeyNotFound() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir10/key1");
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixDeleteRequest(
+            doPreExecute(createDeleteKeyPrefixRequest("dir1/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.KEY_NOT_FOUND,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithBucketNotFound() throws Exception {
+    TestOMRequestUtils.addVolumeToDB(volumeName, omMetadataManager);
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixDeleteRequest(
+            doPreExecute(createDeleteKeyPrefixRequest("dir1/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.BUCKET_NOT_FOUND,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  private void addKeyToTable(String key) throws Exception {
+    TestOMRequestUtils.addKeyToTable(false, volumeName, bucketName, key,
+        clientID, replicationType, replicationFactor, omMetadataManager);
+  }
+
+  private OmKeyInfo getKey(String key) throws Exception {
+    return omMetadataManager.getKeyTable().get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, key));
+  }
+
+  /**
+   * This method calls preExecute and verify the modified request.
+   * @param originalOmRequest
+   * @return OMRequest - modified request returned from preExecute.
+   * @throws Exception
+   */
+  private OMRequest doPreExecute(OMRequest originalOmRequest) throws Exception {
+    OMRequest modifiedOmRequest = new OMKeyPrefixDeleteRequest(
+        originalOmRequest).preExecute(ozoneManager);
+
+    // Will not be equal, as UserInfo will be set and modification time is
+    // set in KeyArgs.
+    Assert.assertNotEquals(originalOmRequest, modifiedOmRequest);
+
+    Assert.assertTrue(modifiedOmRequest.getDeleteKeyPrefixRequest()
+        .getKeyArgs().getModificationTime() > 0);
+
+    return modifiedOmRequest;
+  }
+
+  /**
+   * Create OMRequest which encapsulates DeleteKeyPrefixRequest.
+   * @return OMRequest
+   */
+  private OMRequest createDeleteKeyPrefixRequest(String keyPrefix) {
+    KeyArgs keyArgs = KeyArgs.newBuilder().setKeyName(keyPrefix)
+        .setVolumeName(volumeName).setBucketName(bucketName).build();
+
+    DeleteKeyPrefixRequest deleteKeyPrefixRequest =
+        DeleteKeyPrefixRequest.newBuilder().setKeyArgs(keyArgs).build();
+
+    return OMRequest.newBuilder()
+        .setClientId(UUID.randomUUID().toString())
+        .setDeleteKeyPrefixRequest(deleteKeyPrefixRequest)
+        .setCmdType(OzoneManagerProtocolProtos.Type.DeleteKeyPrefix).build();
+  }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.util.UUID;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .KeyArgs;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos
+    .RenameKeyPrefixRequest;
+
+/**
+ * Tests RenameKeyPrefix request.
+ */
+public class TestOMKeyPrefixRenameRequest extends TestOMKeyRequest {
+
+  @Test
+  public void testValidateAndUpdateCache() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir1/");
+    addKeyToTable("dir1/key1");
+    addKeyToTable("dir1/dir2/key2");
+    addKeyToTable("dir10/key3");
+    // Keys in the table cache are renamed as well.
+    TestOMRequestUtils.addKeyToTableCache(volumeName, bucketName,
+        "dir1/key4", replicationType, replicationFactor, omMetadataManager);
+
+    OMRequest modifiedOmRequest =
+        doPreExecute(createRenameKeyPrefixRequest("dir1/", "dst/"));
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixRenameRequest(modifiedOmRequest)
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    Assert.assertEquals(4, omClientResponse.getOMResponse()
+        .getRenameKeyPrefixResponse().getNumKeys());
+
+    long modificationTime = modifiedOmRequest.getRenameKeyPrefixRequest()
+        .getKeyArgs().getModificationTime();
+    for (String key : new String[] {"", "key1", "dir2/key2", "key4"}) {
+      Assert.assertNull(getKey("dir1/" + key));
+      OmKeyInfo omKeyInfo = getKey("dst/" + key);
+      Assert.assertNotNull(omKeyInfo);
+      Assert.assertEquals("dst/" + key, omKeyInfo.getKeyName());
+      Assert.assertEquals(modificationTime, omKeyInfo.getModificationTime());
+    }
+    // Keys which only share a part of the last path element are not renamed.
+    Assert.assertNotNull(getKey("dir10/key3"));
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithKeyAlreadyExists()
+      throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir1/key1");
+    addKeyToTable("dir1/key2");
+    addKeyToTable("dst/key2");
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixRenameRequest(
+            doPreExecute(createRenameKeyPrefixRequest("dir1/", "dst/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.KEY_ALREADY_EXISTS,
+        omClientResponse.getOMResponse().getStatus());
+    // Nothing is renamed.
+    Assert.assertNotNull(getKey("dir1/key1"));
+    Assert.assertNull(getKey("dst/key1"));
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithTooManyKeys() throws Exception {
+    ozoneManager.getConfiguration().setLong(
+        OMConfigKeys.OZONE_OM_KEY_PREFIX_OPERATION_KEYS_MAX, 2);
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir1/key1");
+    addKeyToTable("dir1/key2");
+    addKeyToTable("dir1/key3");
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixRenameRequest(
+            doPreExecute(createRenameKeyPrefixRequest("dir1/", "dst/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.TOO_MANY_KEYS,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithKeyNotFound() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixRenameRequest(
+            doPreExecute(createRenameKeyPrefixRequest("dir1/", "dst/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.KEY_NOT_FOUND,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  @Test
+  public void testValidateAndUpdateCacheWithToPrefixUnderFromPrefix()
+      throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    addKeyToTable("dir1/key1");
+
+    OMClientResponse omClientResponse =
+        new OMKeyPrefixRenameRequest(
+            doPreExecute(createRenameKeyPrefixRequest("dir1/", "dir1/dst/")))
+            .validateAndUpdateCache(ozoneManager, 100L,
+                ozoneManagerDoubleBufferHelper);
+
+    Assert.assertEquals(OzoneManagerProtocolProtos.Status.INVALID_KEY_NAME,
+        omClientResponse.getOMResponse().getStatus());
+  }
+
+  private void addKeyToTable(String key) throws Exception {
+    TestOMRequestUtils.addKeyToTable(false, volumeName, bucketName, key,
+        clientID, replicationType, replicationFactor, omMetadataManager);
+  }
+
+  private OmKeyInfo getKey(String key) throws Exception {
+    return omMetadataManager.getKeyTable().get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, key));
+  }
+
+  /**
+   * This method calls preExecute and verify the modified request.
+   * @param originalOmRequest
+   * @return OMRequest - modified request returned from preExecute.
+   * @throws Exception
+   */
+  private OMRequest doPreExecute(OMRequest originalOmRequest) throws Exception {
+    OMRequest modifiedOmRequest = new OMKeyPrefixRenameRequest(
+        originalOmRequest).preExecute(ozoneManager);
+
+    // Will not be equal, as UserInfo will be set and modification time is
+    // set in KeyArgs.
+    Assert.assertNotEquals(originalOmRequest, modifiedOmRequest);
+
+    Assert.assertTrue(modifiedOmRequest.getRenameKeyPrefixRequest()
+        .getKeyArgs().getModificationTime() > 0);
+
+    return modifiedOmRequest;
+  }
+
+  /**
+   * Create OMRequest which encapsulates RenameKeyPrefixRequest.
+   * @return OMRequest
+   */
+  private OMRequest createRenameKeyPrefixRequest(String fromKeyPrefix,
+      String toKeyPrefix) {
+    KeyArgs keyArgs = KeyArgs.newBuilder().setKeyName(fromKeyPrefix)
+        .setVolumeName(volumeName).setBucketName(bucketName).build();
+
+    RenameKeyPrefixRequest renameKeyPrefixRequest =
+        RenameKeyPrefixRequest.newBuilder()
+            .setKeyArgs(keyArgs).setToKeyPrefix(toKeyPrefix).build();
+
+    return OMRequest.newBuilder()
+        .setClientId(UUID.randomUUID().toString())
+        .setRenameKeyPrefixRequest(renameKeyPrefixRequest)
+        .setCmdType(OzoneManagerProtocolProtos.Type.RenameKeyPrefix).build();
+  }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.request.key;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hadoop.hdds.client.BlockID;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
+import org.apache.hadoop.hdds.scm.pipeline.Pipeline;
+import org.apache.hadoop.hdds.scm.pipeline.PipelineID;
+import org.apache.hadoop.hdds.utils.UniqueId;
+import org.apache.hadoop.hdds.utils.db.BatchOperation;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.ozone.om.helpers.RepeatedOmKeyInfo;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.om.response.key.OMOpenKeysDeleteResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.DeleteOpenKeysRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OpenKey;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Status;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.Type;
+import org.apache.hadoop.util.Time;
+
+/**
+ * Tests {@link OMOpenKeysDeleteRequest} and {@link OMOpenKeysDeleteResponse}.
+ */
+public class TestOMOpenKeysDeleteRequestAndResponse extends TestOMKeyRequest {
+
+  // ids of keys opened a millisecond after the epoch, long expired
+  private static final long EXPIRED_ID = 1L << Short.SIZE;
+
+  @Test
+  public void testValidateAndUpdateCache() throws Exception {
+    TestOMRequestUtils.addVolumeAndBucketToDB(volumeName, bucketName,
+        omMetadataManager);
+    String dirKeyName = "dir/" + keyName;
+
+    // a new key with a block, and an overwrite of a committed key, which
+    // holds the block of that key besides its own
+    OmKeyInfo newKey = addOpenKey(dirKeyName, EXPIRED_ID,
+        new OmKeyLocationInfoGroup(0, Collections.singletonList(
+            createBlock(1, 0))));
+    OmKeyLocationInfo committedBlock = createBlock(2, 0);
+    OmKeyInfo overwrite = addOpenKey(dirKeyName, EXPIRED_ID + 1,
+        new OmKeyLocationInfoGroup(0,
+            Collections.singletonList(committedBlock)),
+        new OmKeyLocationInfoGroup(1,
+            Arrays.asList(committedBlock, createBlock(3, 1))));
+    // a key which is no longer open, and a key which is not expired
+    omMetadataManager.getOpenKeyExpiryTable().put(EXPIRED_ID + 2,
+        getOpenKey(keyName, EXPIRED_ID + 2));
+    long openID = UniqueId.next();
+    addOpenKey(keyName, openID, new OmKeyLocationInfoGroup(0,
+        Collections.singletonList(createBlock(4, 0))));
+
+    List<OpenKey> expiredKeys = omMetadataManager.getExpiredOpenKeys(10);
+    Assert.assertEquals(3, expiredKeys.size());
+    Assert.assertEquals(3, omMetadataManager.getExpiredOpenKeyCount());
+    Assert.assertEquals(volumeName, expiredKeys.get(0).getVolumeName());
+    Assert.assertEquals(bucketName, expiredKeys.get(0).getBucketName());
+    Assert.assertEquals(dirKeyName, expiredKeys.get(0).getKeyName());
+    Assert.assertEquals(EXPIRED_ID, expiredKeys.get(0).getClientID());
+    Assert.assertEquals(2, omMetadataManager.getExpiredOpenKeys(2).size());
+
+    OMRequest omRequest = OMRequest.newBuilder()
+        .setDeleteOpenKeysRequest(DeleteOpenKeysRequest.newBuilder()
+            .addAllOpenKeys(expiredKeys))
+        .setCmdType(Type.DeleteOpenKeys)
+        .setClientId(UUID.randomUUID().toString())
+        .build();
+    OMOpenKeysDeleteRequest omOpenKeysDeleteRequest =
+        new OMOpenKeysDeleteRequest(omRequest);
+    OMClientResponse omClientResponse =
+        omOpenKeysDeleteRequest.validateAndUpdateCache(ozoneManager, 100L,
+            ozoneManagerDoubleBufferHelper);
+    Assert.assertEquals(Status.OK,
+        omClientResponse.getOMResponse().getStatus());
+    Assert.assertNull(omMetadataManager.getOpenKeyTable().get(
+        getOpenKey(dirKeyName, EXPIRED_ID)));
+
+    BatchOperation batchOperation =
+        omMetadataManager.getStore().initBatchOperation();
+    omClientResponse.addToDBBatch(omMetadataManager, batchOperation);
+    omMetadataManager.getStore().commitBatchOperation(batchOperation);
+
+    Assert.assertTrue(omMetadataManager.getExpiredOpenKeys(10).isEmpty());
+    Assert.assertEquals(getOpenKey(keyName, openID),
+        omMetadataManager.getOpenKeyExpiryTable().get(openID));
+    Assert.assertTrue(omMetadataManager.getOpenKeyTable().isExist(
+        getOpenKey(keyName, openID)));
+    Assert.assertFalse(omMetadataManager.getOpenKeyTable().isExist(
+        getOpenKey(dirKeyName, EXPIRED_ID + 1)));
+
+    // only the blocks allocated for the open keys are deleted
+    RepeatedOmKeyInfo deletedKeys = omMetadataManager.getDeletedTable().get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, dirKeyName));
+    Assert.assertEquals(2, deletedKeys.getOmKeyInfoList().size());
+    Assert.assertEquals(newKey.getLatestVersionLocations().getLocationList(),
+        getBlocks(deletedKeys.getOmKeyInfoList().get(0)));
+    Assert.assertEquals(overwrite.getLatestVersionLocations()
+            .getBlocksLatestVersionOnly(),
+        getBlocks(deletedKeys.getOmKeyInfoList().get(1)));
+    Assert.assertNull(omMetadataManager.getDeletedTable().get(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, keyName)));
+  }
+
+  private String getOpenKey(String key, long id) {
+    return omMetadataManager.getOpenKey(volumeName, bucketName, key, id);
+  }
+
+  private static List<OmKeyLocationInfo> getBlocks(OmKeyInfo omKeyInfo) {
+    return omKeyInfo.getLatestVersionLocations().getLocationList();
+  }
+
+  private OmKeyLocationInfo createBlock(long blockLocalID,
+      long createVersion) {
+    Pipeline pipeline = Pipeline.newBuilder()
+        .setState(Pipeline.PipelineState.OPEN)
+        .setId(PipelineID.randomId())
+        .setType(HddsProtos.ReplicationType.STAND_ALONE)
+        .setFactor(HddsProtos.ReplicationFactor.ONE)
+        .setNodes(new ArrayList<>())
+        .build();
+    OmKeyLocationInfo block = new OmKeyLocationInfo.Builder()
+        .setBlockID(new BlockID(containerID, blockLocalID))
+        .setPipeline(pipeline)
+        .build();
+    block.setCreateVersion(createVersion);
+    return block;
+  }
+
+  /**
+   * Adds an open key with the given versions to the open key table and to the
+   * open key expiry table.
+   */
+  private OmKeyInfo addOpenKey(String key, long id,
+      OmKeyLocationInfoGroup... versions) throws Exception {
+    OmKeyInfo omKeyInfo = new OmKeyInfo.Builder()
+        .setVolumeName(volumeName)
+        .setBucketName(bucketName)
+        .setKeyName(key)
+        .setOmKeyLocationInfos(Arrays.asList(versions))
+        .setCreationTime(Time.now())
+        .setModificationTime(Time.now())
+        .setReplicationType(replicationType)
+        .setReplicationFactor(replicationFactor)
+        .build();
+    String openKey = getOpenKey(key, id);
+    omMetadataManager.getOpenKeyTable().put(openKey, omKeyInfo);
+    omMetadataManager.getOpenKeyExpiryTable().put(id, openKey);
+    return omKeyInfo;
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.om.response.key;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+
+/**
+ * Tests OMKeyPrefixRenameResponse.
+ */
+public class TestOMKeyPrefixRenameResponse extends TestOMKeyResponse {
+
+  @Test
+  public void testAddToDBBatchWithOverlappingKeyNames() throws Exception {
+    // Renaming prefix a/b/ to a/ renames a/b/b/key to a/b/key, which is the
+    // old name of another renamed key.
+    Map<String, OmKeyInfo> renamedKeys = new LinkedHashMap<>();
+    renamedKeys.put("a/b/b/key", TestOMRequestUtils.createOmKeyInfo(
+        volumeName, bucketName, "a/b/key", replicationType,
+        replicationFactor));
+    renamedKeys.put("a/b/key", TestOMRequestUtils.createOmKeyInfo(
+        volumeName, bucketName, "a/key", replicationType, replicationFactor));
+    for (String fromKeyName : renamedKeys.keySet()) {
+      TestOMRequestUtils.addKeyToTable(false, volumeName, bucketName,
+          fromKeyName, clientID, replicationType, replicationFactor,
+          omMetadataManager);
+    }
+
+    OzoneManagerProtocolProtos.OMResponse omResponse =
+        OzoneManagerProtocolProtos.OMResponse.newBuilder()
+            .setRenameKeyPrefixResponse(OzoneManagerProtocolProtos
+                .RenameKeyPrefixResponse.getDefaultInstance())
+            .setStatus(OzoneManagerProtocolProtos.Status.OK)
+            .setCmdType(OzoneManagerProtocolProtos.Type.RenameKeyPrefix)
+            .build();
+
+    new OMKeyPrefixRenameResponse(renamedKeys, omResponse)
+        .addToDBBatch(omMetadataManager, batchOperation);
+
+    // Do manual commit and see whether addToBatch is successful or not.
+    omMetadataManager.getStore().commitBatchOperation(batchOperation);
+
+    Assert.assertFalse(omMetadataManager.getKeyTable().isExist(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, "a/b/b/key")));
+    Assert.assertTrue(omMetadataManager.getKeyTable().isExist(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, "a/b/key")));
+    Assert.assertTrue(omMetadataManager.getKeyTable().isExist(
+        omMetadataManager.getOzoneKey(volumeName, bucketName, "a/key")));
+  }
+}
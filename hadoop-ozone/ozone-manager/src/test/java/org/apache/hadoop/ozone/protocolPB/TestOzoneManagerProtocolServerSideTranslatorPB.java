@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership.  The ASF
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.hadoop.ozone.protocolPB;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.ipc.ProtobufRpcEngineCallback;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.OMMetadataManager;
+import org.apache.hadoop.ozone.om.OzoneManager;
+import org.apache.hadoop.ozone.om.exceptions.NotLeaderException;
+import org.apache.hadoop.ozone.om.exceptions.OMException;
+import org.apache.hadoop.ozone.om.ratis.OzoneManagerRatisServer;
+import org.apache.hadoop.ozone.om.request.TestOMRequestUtils;
+import org.apache.hadoop.ozone.om.response.OMClientResponse;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMRequest;
+import org.apache.hadoop.ozone.protocol.proto.OzoneManagerProtocolProtos.OMResponse;
+import org.apache.ratis.protocol.RaftPeerId;
+
+import com.google.protobuf.ServiceException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the deferred responses of
+ * {@link OzoneManagerProtocolServerSideTranslatorPB}.
+ */
+public class TestOzoneManagerProtocolServerSideTranslatorPB {
+
+  @Rule
+  public Timeout timeout = new Timeout(300000);
+
+  private OzoneManager ozoneManager;
+  private OzoneManagerRatisServer omRatisServer;
+  private ProtobufRpcEngineCallback callback;
+  private OMRequest omRequest;
+  private OMResponse omResponse;
+
+  @BeforeClass
+  public static void init() {
+    // Each translator registers its metrics.
+    DefaultMetricsSystem.setMiniClusterMode(true);
+  }
+
+  @Before
+  public void setup() {
+    OzoneConfiguration conf = new OzoneConfiguration();
+    conf.setBoolean(OMConfigKeys.OZONE_OM_DEFERRED_RESPONSE_ENABLED_KEY, true);
+    ozoneManager = mock(OzoneManager.class);
+    when(ozoneManager.getConfiguration()).thenReturn(conf);
+    when(ozoneManager.getMetadataManager())
+        .thenReturn(mock(OMMetadataManager.class));
+    omRatisServer = mock(OzoneManagerRatisServer.class);
+    when(omRatisServer.isLeader()).thenReturn(true);
+    callback = mock(ProtobufRpcEngineCallback.class);
+    omRequest = TestOMRequestUtils.createVolumeRequest("vol", "admin",
+        "owner");
+    omResponse = OMResponse.newBuilder()
+        .setCmdType(OzoneManagerProtocolProtos.Type.CreateVolume)
+        .setStatus(OzoneManagerProtocolProtos.Status.OK)
+        .setSuccess(true)
+        .build();
+  }
+
+  /**
+   * Creates a translator which sends its deferred responses to the callback.
+   * @param inRpcCall true if requests are handled as in an RPC call, whose
+   * response can be deferred.
+   */
+  private OzoneManagerProtocolServerSideTranslatorPB createTranslator(
+      boolean enableRatis, boolean inRpcCall) {
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        spy(new OzoneManagerProtocolServerSideTranslatorPB(ozoneManager,
+            omRatisServer, mock(ProtocolMessageMetrics.class), enableRatis));
+    if (inRpcCall) {
+      doReturn(true).when(translator).canDeferResponse();
+    }
+    doReturn(callback).when(translator).registerForDeferredResponse();
+    doNothing().when(translator).terminateOnFlushFailure(any(), any());
+    return translator;
+  }
+
+  @Test
+  public void testDeferredResponse() throws Exception {
+    CompletableFuture<OMResponse> future = new CompletableFuture<>();
+    when(omRatisServer.submitRequestAsync(any())).thenReturn(future);
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(true, true);
+
+    Assert.assertNull(translator.submitRequest(null, omRequest));
+    verify(omRatisServer, never()).submitRequest(any());
+    verifyZeroInteractions(callback);
+
+    future.complete(omResponse);
+    verify(callback).setResponse(omResponse);
+    verify(callback, never()).error(any());
+  }
+
+  @Test
+  public void testDeferredResponseWithOMException() throws Exception {
+    OMException omException = new OMException("Volume already exists",
+        OMException.ResultCodes.VOLUME_ALREADY_EXISTS);
+    testDeferredResponseWithException(omException);
+  }
+
+  @Test
+  public void testDeferredResponseWithNotLeaderException() throws Exception {
+    NotLeaderException notLeaderException =
+        new NotLeaderException(RaftPeerId.valueOf("om1"));
+    testDeferredResponseWithException(notLeaderException);
+  }
+
+  /**
+   * The client of a failed deferred request gets the same exception, as if
+   * the handler had thrown a ServiceException.
+   */
+  private void testDeferredResponseWithException(Exception exception)
+      throws Exception {
+    CompletableFuture<OMResponse> future = new CompletableFuture<>();
+    when(omRatisServer.submitRequestAsync(any())).thenReturn(future);
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(true, true);
+
+    Assert.assertNull(translator.submitRequest(null, omRequest));
+    future.completeExceptionally(new CompletionException(
+        new ServiceException(exception.getMessage(), exception)));
+    verify(callback).error(exception);
+    verify(callback, never()).setResponse(any());
+  }
+
+  @Test
+  public void testResponseIsNotDeferredWithoutRpcCall() throws Exception {
+    when(omRatisServer.submitRequest(any())).thenReturn(omResponse);
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(true, false);
+
+    Assert.assertEquals(omResponse,
+        translator.submitRequest(null, omRequest));
+    verify(omRatisServer, never()).submitRequestAsync(any());
+    verify(translator, never()).registerForDeferredResponse();
+  }
+
+  @Test
+  public void testDeferredResponseAfterFlush() {
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(false, true);
+    CompletableFuture<Void> flushFuture = new CompletableFuture<>();
+
+    Assert.assertNull(translator.getResponseAfterFlush(omRequest,
+        createClientResponse(flushFuture)));
+    verifyZeroInteractions(callback);
+
+    flushFuture.complete(null);
+    verify(callback).setResponse(omResponse);
+    verify(translator, never()).terminateOnFlushFailure(any(), any());
+  }
+
+  @Test
+  public void testTerminateOnFlushFailure() {
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(false, false);
+    CompletableFuture<Void> flushFuture = new CompletableFuture<>();
+    flushFuture.completeExceptionally(new RuntimeException("Flush failed"));
+
+    translator.getResponseAfterFlush(omRequest,
+        createClientResponse(flushFuture));
+    verify(translator).terminateOnFlushFailure(eq(omRequest), any());
+  }
+
+  @Test
+  public void testTerminateOnDeferredFlushFailure() {
+    OzoneManagerProtocolServerSideTranslatorPB translator =
+        createTranslator(false, true);
+    CompletableFuture<Void> flushFuture = new CompletableFuture<>();
+
+    Assert.assertNull(translator.getResponseAfterFlush(omRequest,
+        createClientResponse(flushFuture)));
+    flushFuture.completeExceptionally(new RuntimeException("Flush failed"));
+    verify(translator).terminateOnFlushFailure(eq(omRequest), any());
+  }
+
+  private OMClientResponse createClientResponse(
+      CompletableFuture<Void> flushFuture) {
+    OMClientResponse omClientResponse = mock(OMClientResponse.class);
+    when(omClientResponse.getOMResponse()).thenReturn(omResponse);
+    when(omClientResponse.getFlushFuture()).thenReturn(flushFuture);
+    return omClientResponse;
+  }
+}
@@ -231,4 +231,25 @@ public void testBlockTokenVerifier() throws Exception {
     tokenVerifier.verify(null, null,
         ContainerProtos.Type.CloseContainer, null);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testBlockTokenVerifierCacheAndAccessModes() throws Exception {
+    String tokenBlockID = "101";
+    String encodedToken = secretManager.generateToken("testUser",
+        tokenBlockID, EnumSet.of(AccessModeProto.READ), 100)
+        .encodeToUrlString();
+
+    // the signature of a token is verified once
+    tokenVerifier.verify("testUser", encodedToken,
+        ContainerProtos.Type.ReadChunk, tokenBlockID);
+    tokenVerifier.verify("testUser", encodedToken,
+        ContainerProtos.Type.GetBlock, tokenBlockID);
+    Assert.assertEquals(1, tokenVerifier.getVerifiedTokenCount());
+
+    // a cached token still permits only its access modes
+    LambdaTestUtils.intercept(BlockTokenException.class,
+        "does not permit WRITE access required by WriteChunk",
+        () -> tokenVerifier.verify("testUser", encodedToken,
+            ContainerProtos.Type.WriteChunk, tokenBlockID));
+  }
+}
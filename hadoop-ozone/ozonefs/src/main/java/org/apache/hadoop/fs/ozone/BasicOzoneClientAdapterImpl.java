@@ -36,6 +36,7 @@
 import org.apache.hadoop.hdds.conf.OzoneConfiguration;
 import org.apache.hadoop.hdds.security.x509.SecurityConfig;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.ipc.RemoteException;
 import org.apache.hadoop.ozone.OmUtils;
 import org.apache.hadoop.ozone.OzoneConfigKeys;
 import org.apache.hadoop.ozone.client.ObjectStore;
@@ -74,6 +75,7 @@ public class BasicOzoneClientAdapterImpl implements OzoneClientAdapter {
   private ReplicationType replicationType;
   private ReplicationFactor replicationFactor;
   private boolean securityEnabled;
+  private volatile boolean keyPrefixOpsSupported = true;
 
   /**
    * Create new OzoneClientAdapter implementation.
@@ -225,6 +227,32 @@ public void renameKey(String key, String newKeyName) throws IOException {
     bucket.renameKey(key, newKeyName);
   }
 
+  /**
+   * Renames all the keys with the given prefix in a single OM request.
+   *
+   * @param keyPrefix prefix of the keys to be renamed
+   * @param newKeyPrefix new prefix of the keys
+   * @return true if the keys are renamed, false if the OM could not rename
+   * them in a single request and the keys should be renamed one by one
+   * @throws IOException
+   */
+  @Override
+  public boolean renameKeyPrefix(String keyPrefix, String newKeyPrefix)
+      throws IOException {
+    if (!keyPrefixOpsSupported) {
+      return false;
+    }
+    try {
+      bucket.renameKeyPrefix(keyPrefix, newKeyPrefix);
+      incrementCounter(Statistic.OBJECTS_RENAMED);
+      return true;
+    } catch (OMException e) {
+      return handleKeyPrefixException(e);
+    } catch (RemoteException e) {
+      return handleKeyPrefixException(e);
+    }
+  }
+
   /**
    * Helper method to create an directory specified by key name in bucket.
    *
@@ -265,6 +293,49 @@ public boolean deleteObject(String keyName) {
     }
   }
 
+  /**
+   * Deletes all the keys with the given prefix in a single OM request.
+   *
+   * @param keyPrefix prefix of the keys to be deleted
+   * @return true if the keys are deleted, false if the OM could not delete
+   * them in a single request and the keys should be deleted one by one
+   * @throws IOException
+   */
+  @Override
+  public boolean deleteKeyPrefix(String keyPrefix) throws IOException {
+    if (!keyPrefixOpsSupported) {
+      return false;
+    }
+    try {
+      bucket.deleteKeyPrefix(keyPrefix);
+      incrementCounter(Statistic.OBJECTS_DELETED);
+      return true;
+    } catch (OMException e) {
+      return handleKeyPrefixException(e);
+    } catch (RemoteException e) {
+      return handleKeyPrefixException(e);
+    }
+  }
+
+  private boolean handleKeyPrefixException(OMException e) throws OMException {
+    // The prefix may have more keys than the OM handles in one request, or
+    // only implicit directories without keys of their own.
+    if (e.getResult() == OMException.ResultCodes.TOO_MANY_KEYS
+        || e.getResult() == OMException.ResultCodes.KEY_NOT_FOUND) {
+      LOG.debug("Falling back to per key operation: {}", e.getMessage());
+      return false;
+    }
+    throw e;
+  }
+
+  private boolean handleKeyPrefixException(RemoteException e) {
+    // OM versions without key prefix operations reject the request type.
+    LOG.info("Key prefix operations are not supported by the Ozone Manager, "
+        + "falling back to per key operations: {}", e.getMessage());
+    keyPrefixOpsSupported = false;
+    return false;
+  }
+
   public FileStatusAdapter getFileStatus(String key, URI uri,
       Path qualifiedPath, String userName)
       throws IOException {
@@ -322,6 +393,36 @@ public List<FileStatusAdapter> listStatus(String keyName, boolean recursive,
     }
   }
 
+  @Override
+  public Iterator<FileStatusAdapter> listStatusIterator(String keyName,
+      boolean recursive, URI uri, Path workingDir, String username)
+      throws IOException {
+    try {
+      incrementCounter(Statistic.OBJECTS_LIST);
+      Iterator<OzoneFileStatus> statuses =
+          bucket.listStatusIterator(keyName, recursive);
+      return new Iterator<FileStatusAdapter>() {
+        @Override
+        public boolean hasNext() {
+          return statuses.hasNext();
+        }
+
+        @Override
+        public FileStatusAdapter next() {
+          OzoneFileStatus status = statuses.next();
+          Path qualifiedPath = status.getPath().makeQualified(uri, workingDir);
+          makeQualified(status, uri, qualifiedPath, username);
+          return toFileStatusAdapter(status);
+        }
+      };
+    } catch (OMException e) {
+      if (e.getResult() == OMException.ResultCodes.FILE_NOT_FOUND) {
+        throw new FileNotFoundException(e.getMessage());
+      }
+      throw e;
+    }
+  }
+
   @Override
   public Token<OzoneTokenIdentifier> getDelegationToken(String renewer)
       throws IOException {
@@ -22,14 +22,13 @@
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.classification.InterfaceStability;
@@ -42,6 +41,7 @@
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathIsNotEmptyDirectoryException;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.security.UserGroupInformation;
@@ -49,7 +49,6 @@
 import org.apache.hadoop.util.Progressable;
 
 import com.google.common.base.Preconditions;
-import static org.apache.hadoop.fs.ozone.Constants.LISTING_PAGE_SIZE;
 import static org.apache.hadoop.fs.ozone.Constants.OZONE_DEFAULT_USER;
 import static org.apache.hadoop.fs.ozone.Constants.OZONE_USER_DIR;
 import static org.apache.hadoop.ozone.OzoneConsts.OZONE_URI_DELIMITER;
@@ -374,8 +373,16 @@ public boolean rename(Path src, Path dst) throws IOException {
         return false;
       }
     }
-    RenameIterator iterator = new RenameIterator(src, dst);
-    boolean result = iterator.iterate();
+    boolean result;
+    if (srcStatus.isDirectory() && adapter.renameKeyPrefix(
+        addTrailingSlashIfNeeded(pathToKey(src)),
+        addTrailingSlashIfNeeded(pathToKey(dst)))) {
+      // All the keys of the directory are renamed atomically by the OM.
+      result = true;
+    } else {
+      RenameIterator iterator = new RenameIterator(src, dst);
+      result = iterator.iterate();
+    }
     if (result) {
       createFakeParentDirectory(src);
     }
@@ -412,8 +419,9 @@ boolean processKey(String key) throws IOException {
   }
 
   /**
-   * Deletes the children of the input dir path by iterating though the
-   * DeleteIterator.
+   * Deletes the input dir path and its children with a single key prefix
+   * delete, or by iterating though the DeleteIterator if the OM cannot delete
+   * the prefix at once.
    *
    * @param f directory path to be deleted
    * @return true if successfully deletes all required keys, false otherwise
@@ -423,6 +431,11 @@ private boolean innerDelete(Path f, boolean recursive) throws IOException {
     LOG.trace("delete() path:{} recursive:{}", f, recursive);
     try {
       DeleteIterator iterator = new DeleteIterator(f, recursive);
+      if (iterator.pathIsDirectory() && !iterator.getPathKey().isEmpty()
+          && adapter.deleteKeyPrefix(iterator.getPathKey())) {
+        // All the keys of the directory are deleted atomically by the OM.
+        return true;
+      }
       return iterator.iterate();
     } catch (FileNotFoundException e) {
       if (LOG.isDebugEnabled()) {
@@ -523,34 +536,61 @@ public FileStatus[] listStatus(Path f) throws IOException {
     incrementCounter(Statistic.INVOCATION_LIST_STATUS);
     statistics.incrementReadOps(1);
     LOG.trace("listStatus() path:{}", f);
-    int numEntries = LISTING_PAGE_SIZE;
-    LinkedList<FileStatus> statuses = new LinkedList<>();
-    List<FileStatus> tmpStatusList;
-    String startKey = "";
-
-    do {
-      tmpStatusList =
-          adapter.listStatus(pathToKey(f), false, startKey, numEntries, uri,
-              workingDir, getUsername())
-              .stream()
-              .map(this::convertFileStatus)
-              .collect(Collectors.toList());
-
-      if (!tmpStatusList.isEmpty()) {
-        if (startKey.isEmpty()) {
-          statuses.addAll(tmpStatusList);
-        } else {
-          statuses.addAll(tmpStatusList.subList(1, tmpStatusList.size()));
+    List<FileStatus> statuses = new ArrayList<>();
+    RemoteIterator<FileStatus> iterator = listFileStatus(f);
+    while (iterator.hasNext()) {
+      statuses.add(iterator.next());
+    }
+    return statuses.toArray(new FileStatus[0]);
+  }
+
+  /**
+   * Returns an iterator over the status of the entries of a directory, which
+   * lists the entries in pages instead of all at once.
+   */
+  @Override
+  public RemoteIterator<FileStatus> listStatusIterator(Path f)
+      throws IOException {
+    incrementCounter(Statistic.INVOCATION_LIST_STATUS);
+    statistics.incrementReadOps(1);
+    LOG.trace("listStatusIterator() path:{}", f);
+    return listFileStatus(f);
+  }
+
+  private RemoteIterator<FileStatus> listFileStatus(Path f)
+      throws IOException {
+    Iterator<FileStatusAdapter> iterator = adapter.listStatusIterator(
+        pathToKey(f), false, uri, workingDir, getUsername());
+    return new RemoteIterator<FileStatus>() {
+      @Override
+      public boolean hasNext() throws IOException {
+        try {
+          return iterator.hasNext();
+        } catch (RuntimeException e) {
+          throw getListingException(e);
         }
-        startKey = pathToKey(statuses.getLast().getPath());
       }
-      // listStatus returns entries numEntries in size if available.
-      // Any lesser number of entries indicate that the required entries have
-      // exhausted.
-    } while (tmpStatusList.size() == numEntries);
 
+      @Override
+      public FileStatus next() throws IOException {
+        try {
+          return convertFileStatus(iterator.next());
+        } catch (RuntimeException e) {
+          throw getListingException(e);
+        }
+      }
+    };
+  }
 
-    return statuses.toArray(new FileStatus[0]);
+  /**
+   * Pages after the first one are listed by the iterator of the client,
+   * which wraps the IOException of the call.
+   */
+  private static IOException getListingException(RuntimeException e) {
+    if (e.getCause() instanceof IOException) {
+      return (IOException) e.getCause();
+    }
+    throw e;
   }
 
   @Override
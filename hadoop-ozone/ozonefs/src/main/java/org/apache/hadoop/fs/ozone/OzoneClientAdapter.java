@@ -46,16 +46,25 @@ OzoneFSOutputStream createFile(String key, boolean overWrite,
 
   void renameKey(String key, String newKeyName) throws IOException;
 
+  boolean renameKeyPrefix(String keyPrefix, String newKeyPrefix)
+      throws IOException;
+
   boolean createDirectory(String keyName) throws IOException;
 
   boolean deleteObject(String keyName);
 
+  boolean deleteKeyPrefix(String keyPrefix) throws IOException;
+
   Iterator<BasicKeyInfo> listKeys(String pathKey);
 
   List<FileStatusAdapter> listStatus(String keyName, boolean recursive,
       String startKey, long numEntries, URI uri,
       Path workingDir, String username) throws IOException;
 
+  Iterator<FileStatusAdapter> listStatusIterator(String keyName,
+      boolean recursive, URI uri, Path workingDir, String username)
+      throws IOException;
+
   Token<OzoneTokenIdentifier> getDelegationToken(String renewer)
       throws IOException;
 
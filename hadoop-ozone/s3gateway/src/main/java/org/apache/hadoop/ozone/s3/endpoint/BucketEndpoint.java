@@ -40,6 +40,7 @@
 import org.apache.hadoop.hdds.client.ReplicationType;
 import org.apache.hadoop.ozone.client.OzoneBucket;
 import org.apache.hadoop.ozone.client.OzoneKey;
+import org.apache.hadoop.ozone.client.OzoneKeyPrefix;
 import org.apache.hadoop.ozone.client.OzoneMultipartUploadList;
 import org.apache.hadoop.ozone.om.exceptions.OMException;
 import org.apache.hadoop.ozone.om.exceptions.OMException.ResultCodes;
@@ -53,7 +54,6 @@
 import org.apache.hadoop.ozone.s3.util.S3StorageType;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.apache.commons.lang3.StringUtils;
 import static org.apache.hadoop.ozone.s3.util.OzoneS3Util.getVolumeName;
 import static org.apache.hadoop.ozone.s3.util.S3Consts.ENCODING_TYPE;
 import org.apache.http.HttpStatus;
@@ -115,16 +115,20 @@ public Response list(
     ContinueToken decodedToken =
         ContinueToken.decodeFromString(continueToken);
 
+    // The common prefixes of the delimiter are computed by the Ozone Manager,
+    // which returns each of them once instead of the keys starting with it.
     if (startAfter != null && continueToken != null) {
       // If continuation token and start after both are provided, then we
       // ignore start After
-      ozoneKeyIterator = bucket.listKeys(prefix, decodedToken.getLastKey());
+      ozoneKeyIterator = bucket.listKeys(prefix, decodedToken.getLastKey(),
+          delimiter);
     } else if (startAfter != null && continueToken == null) {
-      ozoneKeyIterator = bucket.listKeys(prefix, startAfter);
+      ozoneKeyIterator = bucket.listKeys(prefix, startAfter, delimiter);
     } else if (startAfter == null && continueToken != null){
-      ozoneKeyIterator = bucket.listKeys(prefix, decodedToken.getLastKey());
+      ozoneKeyIterator = bucket.listKeys(prefix, decodedToken.getLastKey(),
+          delimiter);
     } else {
-      ozoneKeyIterator = bucket.listKeys(prefix);
+      ozoneKeyIterator = bucket.listKeys(prefix, null, delimiter);
     }
 
 
@@ -146,32 +150,21 @@ public Response list(
     int count = 0;
     while (ozoneKeyIterator.hasNext()) {
       OzoneKey next = ozoneKeyIterator.next();
-      String relativeKeyName = next.getName().substring(prefix.length());
-
-      int depth = StringUtils.countMatches(relativeKeyName, delimiter);
-      if (delimiter != null) {
-        if (depth > 0) {
-          // means key has multiple delimiters in its value.
-          // ex: dir/dir1/dir2, where delimiter is "/" and prefix is dir/
-          String dirName = relativeKeyName.substring(0, relativeKeyName
-              .indexOf(delimiter));
-          if (!dirName.equals(prevDir)) {
-            response.addPrefix(prefix + dirName + delimiter);
-            prevDir = dirName;
-            count++;
-          }
-        } else if (relativeKeyName.endsWith(delimiter)) {
-          // means or key is same as prefix with delimiter at end and ends with
-          // delimiter. ex: dir/, where prefix is dir and delimiter is /
-          response.addPrefix(relativeKeyName);
-          count++;
-        } else {
-          // means our key is matched with prefix if prefix is given and it
-          // does not have any common prefix.
-          addKey(response, next);
+      if (next instanceof OzoneKeyPrefix) {
+        // means keys have delimiters after the prefix, listed once.
+        // ex: dir/dir1/ for dir/dir1/dir2, where delimiter is "/" and prefix
+        // is dir/
+        String dirName = next.getName().substring(prefix.length(),
+            next.getName().length() - delimiter.length());
+        // the token of the previous page may point into this prefix
+        if (!dirName.equals(prevDir)) {
+          response.addPrefix(next.getName());
+          prevDir = dirName;
           count++;
         }
       } else {
+        // means our key is matched with prefix if prefix is given and it
+        // does not have any common prefix.
         addKey(response, next);
         count++;
       }
@@ -522,6 +522,10 @@ private Response createMultipartKey(String bucket, String key, long length,
             key, length, partNumber, uploadID);
         copyHeader = headers.getHeaderString(COPY_SOURCE_HEADER);
         if (copyHeader != null) {
+          // Unlike CopyObject, UploadPartCopy streams the data through the
+          // gateway. A part can not share the blocks of its source key, as
+          // multipart commit, abort and complete do not release shared
+          // blocks, and datanodes can not copy a range of a block.
           Pair<String, String> result = parseSourceHeader(copyHeader);
 
           String sourceBucket = result.getLeft();
@@ -683,17 +687,26 @@ private CopyObjectResponse copyObject(String copyHeader,
       OzoneKeyDetails sourceKeyDetails = sourceOzoneBucket.getKey(sourceKey);
       long sourceKeyLen = sourceKeyDetails.getDataSize();
 
-      sourceInputStream = sourceOzoneBucket.readKey(sourceKey);
+      if (sourceKeyDetails.getReplicationType() == replicationType &&
+          sourceKeyDetails.getReplicationFactor() ==
+              replicationFactor.getValue()) {
+        // The new key can share the blocks of the source key, copy it on the
+        // OM without reading and writing the data.
+        sourceOzoneBucket.copyKey(sourceKey, destOzoneBucket.getVolumeName(),
+            destOzoneBucket.getName(), destkey);
+      } else {
+        sourceInputStream = sourceOzoneBucket.readKey(sourceKey);
 
-      destOutputStream = destOzoneBucket.createKey(destkey, sourceKeyLen,
-          replicationType, replicationFactor, new HashMap<>());
+        destOutputStream = destOzoneBucket.createKey(destkey, sourceKeyLen,
+            replicationType, replicationFactor, new HashMap<>());
 
-      IOUtils.copy(sourceInputStream, destOutputStream);
+        IOUtils.copy(sourceInputStream, destOutputStream);
 
-      // Closing here, as if we don't call close this key will not commit in
-      // OM, and getKey fails.
-      sourceInputStream.close();
-      destOutputStream.close();
+        // Closing here, as if we don't call close this key will not commit in
+        // OM, and getKey fails.
+        sourceInputStream.close();
+        destOutputStream.close();
+      }
       closed = true;
 
       OzoneKeyDetails destKeyDetails = destOzoneBucket.getKey(destkey);
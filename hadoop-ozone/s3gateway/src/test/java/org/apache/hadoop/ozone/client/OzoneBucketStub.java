@@ -29,6 +29,7 @@
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.codec.digest.DigestUtils;
@@ -49,6 +50,10 @@
  */
 public class OzoneBucketStub extends OzoneBucket {
 
+  // All the buckets, so that keys can be copied between them.
+  private static final Map<String, OzoneBucketStub> BUCKETS =
+      new ConcurrentHashMap<>();
+
   private Map<String, OzoneKeyDetails> keyDetails = new HashMap<>();
 
   private Map<String, byte[]> keyContents = new HashMap<>();
@@ -78,6 +83,7 @@ public OzoneBucketStub(
         storageType,
         versioning,
         creationTime);
+    BUCKETS.put(volumeName + "/" + bucketName, this);
   }
 
   @Override
@@ -149,6 +155,33 @@ public Iterator<? extends OzoneKey> listKeys(String keyPrefix,
         .iterator();
   }
 
+  @Override
+  public Iterator<? extends OzoneKey> listKeys(String keyPrefix,
+      String prevKey, String delimiter) {
+    List<OzoneKey> result = new ArrayList<>();
+    String lastPrefix = prevKey;
+    for (OzoneKey key : new TreeMap<>(keyDetails).values()) {
+      String name = key.getName();
+      if (!name.startsWith(keyPrefix)
+          || (prevKey != null && name.compareTo(prevKey) <= 0)) {
+        continue;
+      }
+      int index = delimiter == null || delimiter.isEmpty() ? -1 :
+          name.indexOf(delimiter, keyPrefix.length());
+      if (index < 0) {
+        result.add(key);
+      } else {
+        String commonPrefix = name.substring(0, index + delimiter.length());
+        if (!commonPrefix.equals(lastPrefix)) {
+          result.add(
+              new OzoneKeyPrefix(getVolumeName(), getName(), commonPrefix));
+          lastPrefix = commonPrefix;
+        }
+      }
+    }
+    return result.iterator();
+  }
+
   @Override
   public void deleteKey(String key) throws IOException {
     keyDetails.remove(key);
@@ -160,6 +193,28 @@ public void renameKey(String fromKeyName, String toKeyName)
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void copyKey(String keyName, String toVolumeName,
+      String toBucketName, String toKeyName) throws IOException {
+    OzoneKeyDetails source = getKey(keyName);
+    OzoneBucketStub toBucket = BUCKETS.get(toVolumeName + "/" + toBucketName);
+    if (toBucket == null) {
+      throw new OMException(ResultCodes.BUCKET_NOT_FOUND);
+    }
+    toBucket.keyContents.put(toKeyName, keyContents.get(keyName));
+    toBucket.keyDetails.put(toKeyName, new OzoneKeyDetails(
+        toVolumeName,
+        toBucketName,
+        toKeyName,
+        source.getDataSize(),
+        System.currentTimeMillis(),
+        System.currentTimeMillis(),
+        new ArrayList<>(), source.getReplicationType(),
+        new HashMap<>(source.getMetadata()), null,
+        source.getReplicationFactor()
+    ));
+  }
+
   @Override
   public OmMultipartInfo initiateMultipartUpload(String keyName,
                                                  ReplicationType type,
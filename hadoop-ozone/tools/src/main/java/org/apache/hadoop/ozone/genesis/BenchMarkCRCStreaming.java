@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.ozone.genesis;
+
+import org.apache.hadoop.hdds.protocol.datanode.proto.ContainerProtos.ChecksumType;
+import org.apache.hadoop.ozone.common.Checksum;
+import org.apache.hadoop.ozone.common.ChecksumByteBuffer;
+import org.apache.hadoop.ozone.common.ChecksumByteBufferFactory;
+import org.apache.hadoop.ozone.common.ChecksumData;
+import org.apache.hadoop.ozone.common.OzoneChecksumException;
+import org.apache.hadoop.ozone.common.PureJavaCrc32ByteBuffer;
+import org.apache.hadoop.ozone.common.PureJavaCrc32CByteBuffer;
+import org.apache.hadoop.util.DataChecksum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmarks the CRC backends used to compute the checksums of the chunks:
+ * the pure java tables, the JDK intrinsics, and the bulk computation of
+ * {@link DataChecksum}, which uses libhadoop when it is loaded.
+ */
+@State(Scope.Thread)
+public class BenchMarkCRCStreaming {
+
+  @Param({"CRC32", "CRC32C"})
+  private String checksumType;
+
+  @Param({"4194304"})
+  private int dataSize;
+
+  @Param({"16384", "1048576"})
+  private int bytesPerChecksum;
+
+  @Param({"false", "true"})
+  private boolean useDirectBuffer;
+
+  private ByteBuffer data;
+  private ByteBuffer sums;
+  private ChecksumByteBuffer pureJava;
+  private ChecksumByteBuffer jdk;
+  private DataChecksum dataChecksum;
+  private Checksum checksum;
+
+  @Setup
+  public void createData() {
+    byte[] bytes = new byte[dataSize];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    int numSums = (dataSize + bytesPerChecksum - 1) / bytesPerChecksum;
+    if (useDirectBuffer) {
+      data = ByteBuffer.allocateDirect(dataSize);
+      data.put(bytes).flip();
+      sums = ByteBuffer.allocateDirect(numSums * Integer.BYTES);
+    } else {
+      data = ByteBuffer.wrap(bytes);
+      sums = ByteBuffer.allocate(numSums * Integer.BYTES);
+    }
+
+    boolean crc32 = ChecksumType.valueOf(checksumType) == ChecksumType.CRC32;
+    pureJava = crc32 ? new PureJavaCrc32ByteBuffer()
+        : new PureJavaCrc32CByteBuffer();
+    jdk = crc32 ? ChecksumByteBufferFactory.crc32Impl()
+        : ChecksumByteBufferFactory.crc32CImpl();
+    dataChecksum = DataChecksum.newDataChecksum(crc32
+        ? DataChecksum.Type.CRC32 : DataChecksum.Type.CRC32C,
+        bytesPerChecksum);
+    checksum = new Checksum(ChecksumType.valueOf(checksumType),
+        bytesPerChecksum);
+  }
+
+  @Benchmark
+  public void pureJava(Blackhole sink) {
+    computeSlices(pureJava, sink);
+  }
+
+  @Benchmark
+  public void jdk(Blackhole sink) {
+    computeSlices(jdk, sink);
+  }
+
+  @Benchmark
+  public void dataChecksum(Blackhole sink) {
+    dataChecksum.calculateChunkedSums(data.duplicate(), sums);
+    sink.consume(sums);
+  }
+
+  @Benchmark
+  public void checksum(Blackhole sink) throws OzoneChecksumException {
+    ChecksumData result = checksum.computeChecksum(data.duplicate());
+    sink.consume(result);
+  }
+
+  private void computeSlices(ChecksumByteBuffer crc, Blackhole sink) {
+    ByteBuffer buffer = data.duplicate();
+    while (buffer.hasRemaining()) {
+      ByteBuffer slice = buffer.duplicate();
+      slice.limit(Math.min(slice.position() + bytesPerChecksum,
+          slice.limit()));
+      crc.reset();
+      crc.update(slice);
+      sink.consume(crc.getValue());
+      buffer.position(slice.limit());
+    }
+  }
+}
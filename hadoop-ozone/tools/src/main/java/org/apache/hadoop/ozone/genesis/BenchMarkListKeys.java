@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.ozone.genesis;
+
+import com.google.common.base.Optional;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.hadoop.hdds.conf.OzoneConfiguration;
+import org.apache.hadoop.hdds.protocol.proto.HddsProtos;
+import org.apache.hadoop.hdds.utils.db.Table;
+import org.apache.hadoop.hdds.utils.db.cache.CacheKey;
+import org.apache.hadoop.hdds.utils.db.cache.CacheValue;
+import org.apache.hadoop.ozone.om.OMConfigKeys;
+import org.apache.hadoop.ozone.om.OmMetadataManagerImpl;
+import org.apache.hadoop.ozone.om.helpers.OmBucketInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyInfo;
+import org.apache.hadoop.ozone.om.helpers.OmKeyLocationInfoGroup;
+import org.apache.hadoop.util.Time;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks listKeys of a bucket in OM while other threads write keys to
+ * the key table cache of all the buckets, as the requests do before their
+ * transactions are flushed to the DB.
+ */
+@State(Scope.Group)
+public class BenchMarkListKeys {
+
+  private static final String TMP_DIR = "java.io.tmpdir";
+  private static final String VOLUME = "vol";
+  private static final int NUM_BUCKETS = 16;
+  private static final int NUM_DIRS = 100;
+
+  @Param({"100"})
+  private int keysPerDir;
+
+  // Number of epochs the cache keeps before it is cleaned up.
+  @Param({"10000", "100000"})
+  private int cacheEpochs;
+
+  private final AtomicLong epoch = new AtomicLong();
+  private String path;
+  private OmMetadataManagerImpl omMetadataManager;
+  private Table<String, OmKeyInfo> keyTable;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    path = Paths.get(System.getProperty(TMP_DIR))
+        .resolve(RandomStringUtils.randomNumeric(6)).toFile()
+        .getAbsolutePath();
+    OzoneConfiguration configuration = new OzoneConfiguration();
+    configuration.set(OMConfigKeys.OZONE_OM_DB_DIRS, path);
+    omMetadataManager = new OmMetadataManagerImpl(configuration);
+    keyTable = omMetadataManager.getKeyTable();
+
+    for (int b = 0; b < NUM_BUCKETS; b++) {
+      String bucketName = getBucketName(b);
+      OmBucketInfo bucketInfo = OmBucketInfo.newBuilder()
+          .setVolumeName(VOLUME)
+          .setBucketName(bucketName)
+          .build();
+      String bucketKey = omMetadataManager.getBucketKey(VOLUME, bucketName);
+      omMetadataManager.getBucketTable().put(bucketKey, bucketInfo);
+      omMetadataManager.getBucketTable().addCacheEntry(
+          new CacheKey<>(bucketKey), new CacheValue<>(Optional.of(bucketInfo),
+              1L));
+    }
+    // The keys of the listed bucket are in the DB.
+    for (int d = 0; d < NUM_DIRS; d++) {
+      for (int k = 0; k < keysPerDir; k++) {
+        String keyName = "dir" + d + "/key" + k;
+        keyTable.put(
+            omMetadataManager.getOzoneKey(VOLUME, getBucketName(0), keyName),
+            createKeyInfo(getBucketName(0), keyName));
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void cleanup() throws Exception {
+    omMetadataManager.stop();
+    FileUtils.deleteDirectory(new File(path));
+  }
+
+  @Benchmark
+  @Group("listKeys")
+  @GroupThreads(1)
+  public void listKeys(Blackhole bh) throws IOException {
+    bh.consume(omMetadataManager.listKeys(VOLUME, getBucketName(0), null,
+        "dir1/", 100));
+  }
+
+  @Benchmark
+  @Group("listKeys")
+  @GroupThreads(1)
+  public void listKeysWithDelimiter(Blackhole bh) throws IOException {
+    bh.consume(omMetadataManager.listKeys(VOLUME, getBucketName(0), null,
+        null, "/", 100));
+  }
+
+  @Benchmark
+  @Group("listKeys")
+  @GroupThreads(2)
+  public void writeKeys() {
+    long current = epoch.incrementAndGet();
+    String bucketName = getBucketName((int) (current % NUM_BUCKETS));
+    String keyName = "new/key" + current;
+    keyTable.addCacheEntry(
+        new CacheKey<>(omMetadataManager.getOzoneKey(VOLUME, bucketName,
+            keyName)),
+        new CacheValue<>(Optional.of(createKeyInfo(bucketName, keyName)),
+            current));
+    if (current % 1000 == 0) {
+      keyTable.cleanupCache(current - cacheEpochs);
+    }
+  }
+
+  private static String getBucketName(int index) {
+    return "bucket" + index;
+  }
+
+  private static OmKeyInfo createKeyInfo(String bucketName, String keyName) {
+    long now = Time.now();
+    return new OmKeyInfo.Builder()
+        .setVolumeName(VOLUME)
+        .setBucketName(bucketName)
+        .setKeyName(keyName)
+        .setOmKeyLocationInfos(Collections.singletonList(
+            new OmKeyLocationInfoGroup(0, new ArrayList<>())))
+        .setCreationTime(now)
+        .setModificationTime(now)
+        .setDataSize(0)
+        .setReplicationType(HddsProtos.ReplicationType.RATIS)
+        .setReplicationFactor(HddsProtos.ReplicationFactor.THREE)
+        .build();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.ozone.genesis;
+
+import org.apache.hadoop.hdds.scm.net.NetConstants;
+import org.apache.hadoop.hdds.scm.net.NetworkTopology;
+import org.apache.hadoop.hdds.scm.net.NetworkTopologyImpl;
+import org.apache.hadoop.hdds.scm.net.Node;
+import org.apache.hadoop.hdds.scm.net.NodeImpl;
+import org.apache.hadoop.hdds.scm.net.NodeSchema;
+import org.apache.hadoop.hdds.scm.net.NodeSchemaManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmarks the network topology calls made by SCM to place the replicas
+ * of the containers and to sort the datanodes for the readers. Run it with
+ * different number of threads (-t) to see how the calls scale with the
+ * cores.
+ */
+@State(Scope.Benchmark)
+public class BenchMarkNetworkTopology {
+
+  @Param({"100"})
+  private int numOfRacks;
+
+  @Param({"20"})
+  private int nodesPerRack;
+
+  private NetworkTopology topology;
+  private Node[] nodes;
+
+  @Setup
+  public void createTopology() {
+    NodeSchemaManager manager = NodeSchemaManager.getInstance();
+    manager.init(new NodeSchema[] {NetConstants.ROOT_SCHEMA,
+        NetConstants.RACK_SCHEMA, NetConstants.LEAF_SCHEMA}, true);
+    topology = new NetworkTopologyImpl(manager);
+    nodes = new Node[numOfRacks * nodesPerRack];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = new NodeImpl("node" + i, "/rack" + (i / nodesPerRack),
+          NetConstants.NODE_COST_DEFAULT);
+      topology.add(nodes[i]);
+    }
+  }
+
+  @Benchmark
+  public void getDistanceCost(Blackhole sink) {
+    sink.consume(topology.getDistanceCost(randomNode(), randomNode()));
+  }
+
+  @Benchmark
+  public void sortByDistanceCost(Blackhole sink) {
+    List<Node> replicas = Arrays.asList(randomNode(), randomNode(),
+        randomNode());
+    sink.consume(topology.sortByDistanceCost(randomNode(), replicas,
+        replicas.size()));
+  }
+
+  @Benchmark
+  public void chooseRandom(Blackhole sink) {
+    Node first = topology.chooseRandom(NetConstants.ROOT);
+    Node second = topology.chooseRandom(NetConstants.ROOT,
+        Arrays.asList(first), 1);
+    sink.consume(topology.chooseRandom(second.getNetworkLocation(),
+        Arrays.asList(first, second)));
+  }
+
+  private Node randomNode() {
+    return nodes[ThreadLocalRandom.current().nextInt(nodes.length)];
+  }
+}
@@ -52,7 +52,8 @@ public final class Genesis {
           + "BenchMarkOzoneManager, BenchMarkOMClient, "
           + "BenchMarkSCM, BenchMarkMetadataStoreReads, "
           + "BenchMarkMetadataStoreWrites, BenchMarkDatanodeDispatcher, "
-          + "BenchMarkRocksDbStore}")
+          + "BenchMarkRocksDbStore, BenchMarkCRCStreaming, "
+          + "BenchMarkNetworkTopology, BenchMarkListKeys}")
   private static String[] benchmarks;
 
   @Option(names = "-t", defaultValue = "4",